@@ -0,0 +1,19 @@
+package net.lenni0451.classtransform.benchmarks.injection;
+
+/**
+ * The methods used to benchmark the code generated for injections.<br>
+ * Every method has its own injection, only {@link #plain(int)} is not transformed.
+ */
+public interface CallbackTarget {
+
+    int plain(final int value);
+
+    int unusedCallback(final int value);
+
+    int readReturnValue(final int value);
+
+    int cancellable(final int value);
+
+    long primitiveReturnValue(final long value);
+
+}
@@ -0,0 +1,30 @@
+package net.lenni0451.classtransform.benchmarks.injection;
+
+public class CallbackTargetImpl implements CallbackTarget {
+
+    @Override
+    public int plain(final int value) {
+        return value * 31 + 7;
+    }
+
+    @Override
+    public int unusedCallback(final int value) {
+        return value * 31 + 7;
+    }
+
+    @Override
+    public int readReturnValue(final int value) {
+        return value * 31 + 7;
+    }
+
+    @Override
+    public int cancellable(final int value) {
+        return value * 31 + 7;
+    }
+
+    @Override
+    public long primitiveReturnValue(final long value) {
+        return value * 31 + 7;
+    }
+
+}
@@ -0,0 +1,30 @@
+package net.lenni0451.classtransform.benchmarks.injection;
+
+import net.lenni0451.classtransform.InjectionCallback;
+import net.lenni0451.classtransform.annotations.CTarget;
+import net.lenni0451.classtransform.annotations.CTransformer;
+import net.lenni0451.classtransform.annotations.injection.CInject;
+
+@CTransformer(CallbackTargetImpl.class)
+public class CallbackTargetTransformer {
+
+    @CInject(method = "unusedCallback", target = @CTarget("RETURN"), cancellable = true)
+    public void unusedCallback(final InjectionCallback callback) {
+    }
+
+    @CInject(method = "readReturnValue", target = @CTarget("RETURN"))
+    public void readReturnValue(final InjectionCallback callback) {
+        if (callback.getReturnValue() == null) throw new IllegalStateException();
+    }
+
+    @CInject(method = "cancellable", target = @CTarget("HEAD"), cancellable = true)
+    public void cancellable(final int value, final InjectionCallback callback) {
+        if (value < 0) callback.setReturnValue(0);
+    }
+
+    @CInject(method = "primitiveReturnValue", target = @CTarget("RETURN"), cancellable = true)
+    public void primitiveReturnValue(final InjectionCallback callback) {
+        callback.setCancelled(true);
+    }
+
+}
@@ -0,0 +1,42 @@
+package net.lenni0451.classtransform.benchmarks.injection;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of the cancel checks of cancellable injections in a method with many return points.<br>
+ * All injections with an empty stack share a single cancel exit, so only one cancel check has to be executed per injection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CancelBenchmark {
+
+    private CancelTarget target;
+    private int value;
+
+    @Setup(Level.Trial)
+    public void setup() throws ReflectiveOperationException {
+        this.target = TransformedClassLoader.newInstance(CancelTarget.class, CancelTargetImpl.class, CancelTargetTransformer.class.getName());
+    }
+
+    @Benchmark
+    public int plain() {
+        return this.target.plain(this.value++);
+    }
+
+    @Benchmark
+    public int cancellableReturn() {
+        return this.target.cancellableReturn(this.value++);
+    }
+
+    @Benchmark
+    public int cancellableHeadAndReturn() {
+        return this.target.cancellableHeadAndReturn(this.value++);
+    }
+
+}
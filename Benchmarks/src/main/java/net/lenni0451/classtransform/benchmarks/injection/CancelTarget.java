@@ -0,0 +1,15 @@
+package net.lenni0451.classtransform.benchmarks.injection;
+
+/**
+ * The methods used to benchmark the cancel checks of cancellable injections in methods with many return points.<br>
+ * Every method has its own injection, only {@link #plain(int)} is not transformed.
+ */
+public interface CancelTarget {
+
+    int plain(final int value);
+
+    int cancellableReturn(final int value);
+
+    int cancellableHeadAndReturn(final int value);
+
+}
@@ -0,0 +1,41 @@
+package net.lenni0451.classtransform.benchmarks.injection;
+
+public class CancelTargetImpl implements CancelTarget {
+
+    @Override
+    public int plain(final int value) {
+        if (value < 0) return -1;
+        if (value % 2 == 0) return value / 2;
+        if (value % 3 == 0) return value / 3;
+        if (value % 5 == 0) return value / 5;
+        if (value % 7 == 0) return value / 7;
+        if (value % 11 == 0) return value / 11;
+        if (value % 13 == 0) return value / 13;
+        return value;
+    }
+
+    @Override
+    public int cancellableReturn(final int value) {
+        if (value < 0) return -1;
+        if (value % 2 == 0) return value / 2;
+        if (value % 3 == 0) return value / 3;
+        if (value % 5 == 0) return value / 5;
+        if (value % 7 == 0) return value / 7;
+        if (value % 11 == 0) return value / 11;
+        if (value % 13 == 0) return value / 13;
+        return value;
+    }
+
+    @Override
+    public int cancellableHeadAndReturn(final int value) {
+        if (value < 0) return -1;
+        if (value % 2 == 0) return value / 2;
+        if (value % 3 == 0) return value / 3;
+        if (value % 5 == 0) return value / 5;
+        if (value % 7 == 0) return value / 7;
+        if (value % 11 == 0) return value / 11;
+        if (value % 13 == 0) return value / 13;
+        return value;
+    }
+
+}
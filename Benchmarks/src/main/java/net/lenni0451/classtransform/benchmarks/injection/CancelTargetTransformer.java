@@ -0,0 +1,21 @@
+package net.lenni0451.classtransform.benchmarks.injection;
+
+import net.lenni0451.classtransform.InjectionCallback;
+import net.lenni0451.classtransform.annotations.CTarget;
+import net.lenni0451.classtransform.annotations.CTransformer;
+import net.lenni0451.classtransform.annotations.injection.CInject;
+
+@CTransformer(CancelTargetImpl.class)
+public class CancelTargetTransformer {
+
+    @CInject(method = "cancellableReturn", target = @CTarget("RETURN"), cancellable = true)
+    public void cancellableReturn(final int value, final InjectionCallback callback) {
+        if (value == Integer.MIN_VALUE) callback.setReturnValue(0);
+    }
+
+    @CInject(method = "cancellableHeadAndReturn", target = {@CTarget("HEAD"), @CTarget("RETURN")}, cancellable = true)
+    public void cancellableHeadAndReturn(final int value, final InjectionCallback callback) {
+        if (value == Integer.MIN_VALUE) callback.setReturnValue(0);
+    }
+
+}
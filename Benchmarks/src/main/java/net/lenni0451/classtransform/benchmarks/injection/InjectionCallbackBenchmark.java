@@ -0,0 +1,53 @@
+package net.lenni0451.classtransform.benchmarks.injection;
+
+import net.lenni0451.classtransform.InjectionCallback;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of the code generated for {@link InjectionCallback} injections.<br>
+ * Run with {@code -prof gc} to compare the allocation rate of the injections with the untransformed {@code plain} method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InjectionCallbackBenchmark {
+
+    private CallbackTarget target;
+    private int value;
+
+    @Setup(Level.Trial)
+    public void setup() throws ReflectiveOperationException {
+        this.target = TransformedClassLoader.newInstance(CallbackTarget.class, CallbackTargetImpl.class, CallbackTargetTransformer.class.getName());
+    }
+
+    @Benchmark
+    public int plain() {
+        return this.target.plain(this.value++);
+    }
+
+    @Benchmark
+    public int unusedCallback() {
+        return this.target.unusedCallback(this.value++);
+    }
+
+    @Benchmark
+    public int readReturnValue() {
+        return this.target.readReturnValue(this.value++);
+    }
+
+    @Benchmark
+    public int cancellable() {
+        return this.target.cancellable(this.value++);
+    }
+
+    @Benchmark
+    public long primitiveReturnValue() {
+        return this.target.primitiveReturnValue(this.value++);
+    }
+
+}
@@ -0,0 +1,65 @@
+package net.lenni0451.classtransform.benchmarks.injection;
+
+import net.lenni0451.classtransform.annotations.CLocalVariable;
+import net.lenni0451.classtransform.annotations.CShared;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of passing {@link CLocalVariable} and {@link CShared} parameters to injections.<br>
+ * Run with {@code -prof gc} to compare the allocation rate of the injections with the untransformed {@code plain} method.<br>
+ * The {@code ObjectArray} benchmarks run the code generated by the previous {@code Object[]} holder protocol as a baseline for the typed parameters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalVariableBenchmark {
+
+    private LocalVariableTarget target;
+    private int value;
+
+    @Setup(Level.Trial)
+    public void setup() throws ReflectiveOperationException {
+        this.target = TransformedClassLoader.newInstance(LocalVariableTarget.class, LocalVariableTargetImpl.class, LocalVariableTargetTransformer.class.getName());
+    }
+
+    @Benchmark
+    public int plain() {
+        return this.target.plain(this.value++);
+    }
+
+    @Benchmark
+    public int readLocalVariable() {
+        return this.target.readLocalVariable(this.value++);
+    }
+
+    @Benchmark
+    public int modifyLocalVariable() {
+        return this.target.modifyLocalVariable(this.value++);
+    }
+
+    @Benchmark
+    public int sharedVariable() {
+        return this.target.sharedVariable(this.value++);
+    }
+
+    @Benchmark
+    public int readLocalVariableObjectArray() {
+        return this.target.readLocalVariableObjectArray(this.value++);
+    }
+
+    @Benchmark
+    public int modifyLocalVariableObjectArray() {
+        return this.target.modifyLocalVariableObjectArray(this.value++);
+    }
+
+    @Benchmark
+    public int sharedVariableObjectArray() {
+        return this.target.sharedVariableObjectArray(this.value++);
+    }
+
+}
@@ -0,0 +1,24 @@
+package net.lenni0451.classtransform.benchmarks.injection;
+
+/**
+ * The methods used to benchmark the code generated for local and shared variables.<br>
+ * Every method has its own injection, only {@link #plain(int)} and the {@code ObjectArray} methods are not transformed.<br>
+ * The {@code ObjectArray} methods contain the code previously generated for the injections, which passed all variables boxed in a new {@code Object[]}.
+ */
+public interface LocalVariableTarget {
+
+    int plain(final int value);
+
+    int readLocalVariable(final int value);
+
+    int modifyLocalVariable(final int value);
+
+    int sharedVariable(final int value);
+
+    int readLocalVariableObjectArray(final int value);
+
+    int modifyLocalVariableObjectArray(final int value);
+
+    int sharedVariableObjectArray(final int value);
+
+}
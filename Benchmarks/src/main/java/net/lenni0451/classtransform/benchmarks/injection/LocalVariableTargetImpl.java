@@ -0,0 +1,79 @@
+package net.lenni0451.classtransform.benchmarks.injection;
+
+public class LocalVariableTargetImpl implements LocalVariableTarget {
+
+    @Override
+    public int plain(final int value) {
+        int result = value * 31;
+        return result + 7;
+    }
+
+    @Override
+    public int readLocalVariable(final int value) {
+        int result = value * 31;
+        return result + 7;
+    }
+
+    @Override
+    public int modifyLocalVariable(final int value) {
+        int result = value * 31;
+        return result + 7;
+    }
+
+    @Override
+    public int sharedVariable(final int value) {
+        int result = value * 31;
+        return result + 7;
+    }
+
+    @Override
+    public int readLocalVariableObjectArray(final int value) {
+        int result = value * 31;
+        int returnValue = result + 7;
+        this.readLocalVariableHandler(new Object[]{result});
+        return returnValue;
+    }
+
+    @Override
+    public int modifyLocalVariableObjectArray(final int value) {
+        int result = value * 31;
+        int returnValue = result + 7;
+        Object[] localVariables = new Object[]{result};
+        this.modifyLocalVariableHandler(localVariables);
+        result = (Integer) localVariables[0];
+        return returnValue;
+    }
+
+    @Override
+    public int sharedVariableObjectArray(final int value) {
+        int shared = 0;
+        Object[] sharedVariables = new Object[]{shared};
+        this.storeSharedVariableHandler(value, sharedVariables);
+        shared = (Integer) sharedVariables[0];
+        int result = value * 31;
+        int returnValue = result + 7;
+        sharedVariables = new Object[]{shared};
+        this.readSharedVariableHandler(sharedVariables);
+        shared = (Integer) sharedVariables[0];
+        return returnValue;
+    }
+
+    //The injection methods as they were rewritten to access the variables in the Object[]
+
+    private void readLocalVariableHandler(final Object[] localVariables) {
+        if ((Integer) localVariables[0] == Integer.MIN_VALUE) throw new IllegalStateException();
+    }
+
+    private void modifyLocalVariableHandler(final Object[] localVariables) {
+        localVariables[0] = (Integer) localVariables[0] + 1;
+    }
+
+    private void storeSharedVariableHandler(final int value, final Object[] sharedVariables) {
+        sharedVariables[0] = value;
+    }
+
+    private void readSharedVariableHandler(final Object[] sharedVariables) {
+        if ((Integer) sharedVariables[0] == Integer.MIN_VALUE) throw new IllegalStateException();
+    }
+
+}
@@ -0,0 +1,32 @@
+package net.lenni0451.classtransform.benchmarks.injection;
+
+import net.lenni0451.classtransform.annotations.CLocalVariable;
+import net.lenni0451.classtransform.annotations.CShared;
+import net.lenni0451.classtransform.annotations.CTarget;
+import net.lenni0451.classtransform.annotations.CTransformer;
+import net.lenni0451.classtransform.annotations.injection.CInject;
+
+@CTransformer(LocalVariableTargetImpl.class)
+public class LocalVariableTargetTransformer {
+
+    @CInject(method = "readLocalVariable", target = @CTarget("RETURN"))
+    public void readLocalVariable(@CLocalVariable(index = 2) final int result) {
+        if (result == Integer.MIN_VALUE) throw new IllegalStateException();
+    }
+
+    @CInject(method = "modifyLocalVariable", target = @CTarget("RETURN"))
+    public void modifyLocalVariable(@CLocalVariable(index = 2, modifiable = true) int result) {
+        result++;
+    }
+
+    @CInject(method = "sharedVariable", target = @CTarget("HEAD"))
+    public void storeSharedVariable(final int value, @CShared("value") int shared) {
+        shared = value;
+    }
+
+    @CInject(method = "sharedVariable", target = @CTarget("RETURN"))
+    public void readSharedVariable(@CShared("value") final int shared) {
+        if (shared == Integer.MIN_VALUE) throw new IllegalStateException();
+    }
+
+}
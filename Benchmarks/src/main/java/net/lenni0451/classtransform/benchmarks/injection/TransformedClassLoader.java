@@ -0,0 +1,46 @@
+package net.lenni0451.classtransform.benchmarks.injection;
+
+import net.lenni0451.classtransform.TransformerManager;
+import net.lenni0451.classtransform.utils.tree.BasicClassProvider;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * A class loader defining a single transformed class.<br>
+ * All other classes are loaded by the parent class loader, so the transformed class can be used through an interface.
+ */
+@ParametersAreNonnullByDefault
+public class TransformedClassLoader extends ClassLoader {
+
+    /**
+     * Transform the given class and create a new instance of it.
+     *
+     * @param type           The interface implemented by the class
+     * @param implementation The class to transform
+     * @param transformers   The transformers to apply
+     * @param <T>            The type of the interface
+     * @return The instance of the transformed class
+     * @throws ReflectiveOperationException If the class could not be loaded or instantiated
+     */
+    public static <T> T newInstance(final Class<T> type, final Class<? extends T> implementation, final String... transformers) throws ReflectiveOperationException {
+        BasicClassProvider classProvider = new BasicClassProvider(TransformedClassLoader.class.getClassLoader());
+        TransformerManager transformerManager = new TransformerManager(classProvider);
+        for (String transformer : transformers) transformerManager.addTransformer(transformer);
+
+        byte[] bytecode = classProvider.getClass(implementation.getName());
+        byte[] transformed = transformerManager.transform(implementation.getName(), bytecode);
+        if (transformed != null) bytecode = transformed;
+        Class<?> clazz = new TransformedClassLoader().defineClass(implementation.getName(), bytecode);
+        return type.cast(clazz.getDeclaredConstructor().newInstance());
+    }
+
+
+    private TransformedClassLoader() {
+        super(TransformedClassLoader.class.getClassLoader());
+    }
+
+    private Class<?> defineClass(final String name, final byte[] bytecode) {
+        return this.defineClass(name, bytecode, 0, bytecode.length);
+    }
+
+}
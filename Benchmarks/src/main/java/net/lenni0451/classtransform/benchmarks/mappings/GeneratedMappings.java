@@ -0,0 +1,73 @@
+package net.lenni0451.classtransform.benchmarks.mappings;
+
+import net.lenni0451.classtransform.mappings.AMapper;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Synthetic mappings written to a temporary file in a specific format.
+ */
+@ParametersAreNonnullByDefault
+public class GeneratedMappings {
+
+    /**
+     * Generate synthetic mappings and write them in the given format.
+     *
+     * @param format  The mapping format
+     * @param entries The total amount of class, method and field mappings
+     * @return The generated mappings
+     * @throws IOException If the mappings file could not be written
+     */
+    public static GeneratedMappings generate(final MappingFormat format, final int entries) throws IOException {
+        SyntheticMappings mappings = new SyntheticMappings(entries);
+        File file = null;
+        if (format.hasFile()) {
+            file = Files.createTempFile("classtransform-" + format.name().toLowerCase() + "-", ".mappings").toFile();
+            file.deleteOnExit();
+            try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+                format.write(mappings, writer);
+            }
+        }
+        return new GeneratedMappings(format, mappings, file);
+    }
+
+
+    private final MappingFormat format;
+    private final SyntheticMappings mappings;
+    @Nullable
+    private final File file;
+
+    private GeneratedMappings(final MappingFormat format, final SyntheticMappings mappings, @Nullable final File file) {
+        this.format = format;
+        this.mappings = mappings;
+        this.file = file;
+    }
+
+    public SyntheticMappings getMappings() {
+        return this.mappings;
+    }
+
+    /**
+     * Create a new mapper for the generated mappings.<br>
+     * The mappings are not loaded yet.
+     *
+     * @return The mapper
+     */
+    public AMapper createMapper() {
+        return this.format.createMapper(this.mappings, this.file);
+    }
+
+    /**
+     * Delete the generated mappings file.
+     */
+    public void delete() {
+        if (this.file != null) this.file.delete();
+    }
+
+}
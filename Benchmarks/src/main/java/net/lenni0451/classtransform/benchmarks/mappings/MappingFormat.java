@@ -0,0 +1,165 @@
+package net.lenni0451.classtransform.benchmarks.mappings;
+
+import net.lenni0451.classtransform.mappings.AMapper;
+import net.lenni0451.classtransform.mappings.MapperConfig;
+import net.lenni0451.classtransform.mappings.impl.*;
+import org.objectweb.asm.Type;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import static net.lenni0451.classtransform.utils.ASMUtils.dot;
+
+/**
+ * All mapping formats which can be benchmarked.<br>
+ * Each format can write {@link SyntheticMappings} in its file format and create the matching mapper.
+ */
+@ParametersAreNonnullByDefault
+public enum MappingFormat {
+
+    TINY_V1 {
+        @Override
+        public void write(final SyntheticMappings mappings, final Writer writer) throws IOException {
+            writer.write("v1\tofficial\tnamed\n");
+            for (int i = 0; i < mappings.getClassCount(); i++) {
+                String owner = mappings.getObfuscatedClass(i);
+                writer.write("CLASS\t" + owner + "\t" + mappings.getNamedClass(i) + "\n");
+                for (int m = 0; m < SyntheticMappings.METHODS_PER_CLASS; m++) {
+                    String desc = mappings.getMethodDescriptor(i, m, mappings::getObfuscatedClass);
+                    writer.write("METHOD\t" + owner + "\t" + desc + "\t" + mappings.getObfuscatedMethod(m) + "\t" + mappings.getNamedMethod(i, m) + "\n");
+                }
+                for (int f = 0; f < SyntheticMappings.FIELDS_PER_CLASS; f++) {
+                    String desc = mappings.getFieldDescriptor(i, f, mappings::getObfuscatedClass);
+                    writer.write("FIELD\t" + owner + "\t" + desc + "\t" + mappings.getObfuscatedField(f) + "\t" + mappings.getNamedField(i, f) + "\n");
+                }
+            }
+        }
+
+        @Override
+        public AMapper createMapper(final SyntheticMappings mappings, @Nullable final File file) {
+            return new TinyV1Mapper(MapperConfig.create(), requireFile(file), "official", "named");
+        }
+    },
+    TINY_V2 {
+        @Override
+        public void write(final SyntheticMappings mappings, final Writer writer) throws IOException {
+            writer.write("tiny\t2\t0\tofficial\tnamed\n");
+            for (int i = 0; i < mappings.getClassCount(); i++) {
+                writer.write("c\t" + mappings.getObfuscatedClass(i) + "\t" + mappings.getNamedClass(i) + "\n");
+                for (int m = 0; m < SyntheticMappings.METHODS_PER_CLASS; m++) {
+                    String desc = mappings.getMethodDescriptor(i, m, mappings::getObfuscatedClass);
+                    writer.write("\tm\t" + desc + "\t" + mappings.getObfuscatedMethod(m) + "\t" + mappings.getNamedMethod(i, m) + "\n");
+                }
+                for (int f = 0; f < SyntheticMappings.FIELDS_PER_CLASS; f++) {
+                    String desc = mappings.getFieldDescriptor(i, f, mappings::getObfuscatedClass);
+                    writer.write("\tf\t" + desc + "\t" + mappings.getObfuscatedField(f) + "\t" + mappings.getNamedField(i, f) + "\n");
+                }
+            }
+        }
+
+        @Override
+        public AMapper createMapper(final SyntheticMappings mappings, @Nullable final File file) {
+            return new TinyV2Mapper(MapperConfig.create(), requireFile(file), "official", "named");
+        }
+    },
+    SRG {
+        @Override
+        public void write(final SyntheticMappings mappings, final Writer writer) throws IOException {
+            for (int i = 0; i < mappings.getClassCount(); i++) {
+                String owner = mappings.getObfuscatedClass(i);
+                String namedOwner = mappings.getNamedClass(i);
+                writer.write("CL: " + owner + " " + namedOwner + "\n");
+                for (int m = 0; m < SyntheticMappings.METHODS_PER_CLASS; m++) {
+                    String desc = mappings.getMethodDescriptor(i, m, mappings::getObfuscatedClass);
+                    String namedDesc = mappings.getMethodDescriptor(i, m, mappings::getNamedClass);
+                    writer.write("MD: " + owner + "/" + mappings.getObfuscatedMethod(m) + " " + desc + " " + namedOwner + "/" + mappings.getNamedMethod(i, m) + " " + namedDesc + "\n");
+                }
+                for (int f = 0; f < SyntheticMappings.FIELDS_PER_CLASS; f++) {
+                    writer.write("FD: " + owner + "/" + mappings.getObfuscatedField(f) + " " + namedOwner + "/" + mappings.getNamedField(i, f) + "\n");
+                }
+            }
+        }
+
+        @Override
+        public AMapper createMapper(final SyntheticMappings mappings, @Nullable final File file) {
+            return new SrgMapper(MapperConfig.create(), requireFile(file));
+        }
+    },
+    PROGUARD {
+        @Override
+        public void write(final SyntheticMappings mappings, final Writer writer) throws IOException {
+            writer.write("# compiler: R8\n");
+            for (int i = 0; i < mappings.getClassCount(); i++) {
+                writer.write(dot(mappings.getNamedClass(i)) + " -> " + dot(mappings.getObfuscatedClass(i)) + ":\n");
+                for (int m = 0; m < SyntheticMappings.METHODS_PER_CLASS; m++) {
+                    String desc = mappings.getMethodDescriptor(i, m, mappings::getNamedClass);
+                    String parameters = Arrays.stream(Type.getArgumentTypes(desc)).map(Type::getClassName).collect(Collectors.joining(","));
+                    String returnType = Type.getReturnType(desc).getClassName();
+                    writer.write("    1:1:" + returnType + " " + mappings.getNamedMethod(i, m) + "(" + parameters + ") -> " + mappings.getObfuscatedMethod(m) + "\n");
+                }
+                for (int f = 0; f < SyntheticMappings.FIELDS_PER_CLASS; f++) {
+                    String type = Type.getType(mappings.getFieldDescriptor(i, f, mappings::getNamedClass)).getClassName();
+                    writer.write("    " + type + " " + mappings.getNamedField(i, f) + " -> " + mappings.getObfuscatedField(f) + "\n");
+                }
+            }
+        }
+
+        @Override
+        public AMapper createMapper(final SyntheticMappings mappings, @Nullable final File file) {
+            return new ProguardMapper(MapperConfig.create(), requireFile(file));
+        }
+    },
+    RAW {
+        @Override
+        public boolean hasFile() {
+            return false;
+        }
+
+        @Override
+        public void write(final SyntheticMappings mappings, final Writer writer) {
+            throw new UnsupportedOperationException("Raw mappings are not stored in a file");
+        }
+
+        @Override
+        public AMapper createMapper(final SyntheticMappings mappings, @Nullable final File file) {
+            return new RawMapper(MapperConfig.create(), mappings.toRemapper());
+        }
+    };
+
+    private static File requireFile(@Nullable final File file) {
+        if (file == null) throw new IllegalArgumentException("The mapping format requires a mappings file");
+        return file;
+    }
+
+    /**
+     * @return If the mappings of this format are stored in a file
+     */
+    public boolean hasFile() {
+        return true;
+    }
+
+    /**
+     * Write the given mappings in this format.
+     *
+     * @param mappings The mappings to write
+     * @param writer   The writer to write to
+     * @throws IOException If the mappings could not be written
+     */
+    public abstract void write(final SyntheticMappings mappings, final Writer writer) throws IOException;
+
+    /**
+     * Create a mapper for the given mappings.<br>
+     * The mappings are not loaded yet.
+     *
+     * @param mappings The mappings
+     * @param file     The file the mappings have been written to or {@code null} if the format has no file
+     * @return The mapper
+     */
+    public abstract AMapper createMapper(final SyntheticMappings mappings, @Nullable final File file);
+
+}
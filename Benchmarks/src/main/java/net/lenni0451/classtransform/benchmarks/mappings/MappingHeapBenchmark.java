@@ -0,0 +1,83 @@
+package net.lenni0451.classtransform.benchmarks.mappings;
+
+import net.lenni0451.classtransform.mappings.AMapper;
+import net.lenni0451.classtransform.utils.mappings.MapRemapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the heap retained by the {@link MapRemapper} of a loaded mapper.<br>
+ * The retained size is reported as the secondary {@code retainedBytes} result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class MappingHeapBenchmark {
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    @Param({"10000", "100000", "1000000", "2000000"})
+    public int entries;
+    @Param({"TINY_V1", "TINY_V2", "SRG", "PROGUARD", "RAW"})
+    public MappingFormat format;
+    private GeneratedMappings mappings;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.mappings = GeneratedMappings.generate(this.format, this.entries);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.mappings.delete();
+    }
+
+    @Benchmark
+    public MapRemapper retainedHeap(final HeapCounters counters) {
+        AMapper mapper = this.mappings.createMapper();
+        long before = usedHeap();
+        mapper.load();
+        //Only keep the remapper reachable, everything else created while loading should be collected
+        MapRemapper remapper = mapper.getRemapper();
+        mapper = null;
+        counters.retainedBytes = Math.max(0, usedHeap() - before);
+        counters.mappings = remapper.getMappings().size();
+        return remapper;
+    }
+
+    private static long usedHeap() {
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            long current = MEMORY.getHeapMemoryUsage().getUsed();
+            if (current >= used) break;
+            used = current;
+        }
+        return used;
+    }
+
+
+    /**
+     * The values of the last measured invocation are reported as secondary results.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class HeapCounters {
+        public long retainedBytes;
+        public long mappings;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            this.retainedBytes = 0;
+            this.mappings = 0;
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package net.lenni0451.classtransform.benchmarks.mappings;
+
+import net.lenni0451.classtransform.mappings.AMapper;
+import net.lenni0451.classtransform.utils.mappings.MapRemapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time {@link AMapper#load()} takes for all mapping formats.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class MappingLoadBenchmark {
+
+    @Param({"10000", "100000", "1000000", "2000000"})
+    public int entries;
+    @Param({"TINY_V1", "TINY_V2", "SRG", "PROGUARD", "RAW"})
+    public MappingFormat format;
+    private GeneratedMappings mappings;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.mappings = GeneratedMappings.generate(this.format, this.entries);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.mappings.delete();
+    }
+
+    @Benchmark
+    public MapRemapper load() {
+        AMapper mapper = this.mappings.createMapper();
+        mapper.load();
+        return mapper.getRemapper();
+    }
+
+}
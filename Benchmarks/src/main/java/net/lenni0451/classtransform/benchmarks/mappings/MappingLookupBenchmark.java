@@ -0,0 +1,79 @@
+package net.lenni0451.classtransform.benchmarks.mappings;
+
+import net.lenni0451.classtransform.utils.mappings.MapRemapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the lookup throughput of a loaded {@link MapRemapper}.<br>
+ * All mapping formats produce the same remapper, so only the raw format is used.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class MappingLookupBenchmark {
+
+    private static final int LOOKUPS = 1 << 14;
+
+    @Param({"10000", "100000", "1000000", "2000000"})
+    public int entries;
+    private MapRemapper remapper;
+    private String[] owners;
+    private String[] methodNames;
+    private String[] methodDescriptors;
+    private String[] fieldNames;
+    private String[] fieldDescriptors;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SyntheticMappings mappings = new SyntheticMappings(this.entries);
+        this.remapper = mappings.toRemapper();
+        this.owners = new String[LOOKUPS];
+        this.methodNames = new String[LOOKUPS];
+        this.methodDescriptors = new String[LOOKUPS];
+        this.fieldNames = new String[LOOKUPS];
+        this.fieldDescriptors = new String[LOOKUPS];
+
+        Random random = new Random(0);
+        for (int i = 0; i < LOOKUPS; i++) {
+            //Every 8th lookup misses the mappings
+            int clazz = random.nextInt(mappings.getClassCount());
+            int method = random.nextInt(SyntheticMappings.METHODS_PER_CLASS);
+            int field = random.nextInt(SyntheticMappings.FIELDS_PER_CLASS);
+            boolean miss = i % 8 == 0;
+            this.owners[i] = miss ? "missing/Class" + i : mappings.getObfuscatedClass(clazz);
+            this.methodNames[i] = mappings.getObfuscatedMethod(method);
+            this.methodDescriptors[i] = mappings.getMethodDescriptor(clazz, method, mappings::getObfuscatedClass);
+            this.fieldNames[i] = mappings.getObfuscatedField(field);
+            this.fieldDescriptors[i] = mappings.getFieldDescriptor(clazz, field, mappings::getObfuscatedClass);
+        }
+    }
+
+    @Benchmark
+    public String mapType() {
+        return this.remapper.mapType(this.owners[this.next()]);
+    }
+
+    @Benchmark
+    public String mapMethodName() {
+        int i = this.next();
+        return this.remapper.mapMethodName(this.owners[i], this.methodNames[i], this.methodDescriptors[i]);
+    }
+
+    @Benchmark
+    public String mapFieldName() {
+        int i = this.next();
+        return this.remapper.mapFieldName(this.owners[i], this.fieldNames[i], this.fieldDescriptors[i]);
+    }
+
+    private int next() {
+        return this.index = (this.index + 1) & (LOOKUPS - 1);
+    }
+
+}
@@ -0,0 +1,118 @@
+package net.lenni0451.classtransform.benchmarks.mappings;
+
+import net.lenni0451.classtransform.utils.mappings.MapRemapper;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.function.IntFunction;
+
+/**
+ * Deterministic synthetic mappings with a fixed structure.<br>
+ * Every class has {@link #METHODS_PER_CLASS} methods and {@link #FIELDS_PER_CLASS} fields, so one class makes up {@link #ENTRIES_PER_CLASS} entries.<br>
+ * Method and field descriptors reference other classes of the mappings to make descriptor remapping part of the workload.
+ */
+@ParametersAreNonnullByDefault
+public class SyntheticMappings {
+
+    public static final int METHODS_PER_CLASS = 5;
+    public static final int FIELDS_PER_CLASS = 4;
+    public static final int ENTRIES_PER_CLASS = 1 + METHODS_PER_CLASS + FIELDS_PER_CLASS;
+
+    private final int classCount;
+
+    /**
+     * @param entries The total amount of class, method and field mappings
+     */
+    public SyntheticMappings(final int entries) {
+        this.classCount = Math.max(1, entries / ENTRIES_PER_CLASS);
+    }
+
+    /**
+     * @return The amount of classes
+     */
+    public int getClassCount() {
+        return this.classCount;
+    }
+
+    /**
+     * @return The total amount of class, method and field mappings
+     */
+    public int getEntryCount() {
+        return this.classCount * ENTRIES_PER_CLASS;
+    }
+
+    public String getObfuscatedClass(final int index) {
+        return "c" + Integer.toString(index, 36);
+    }
+
+    public String getNamedClass(final int index) {
+        return "net/lenni0451/synthetic/p" + (index % 100) + "/Class" + index;
+    }
+
+    public String getObfuscatedMethod(final int method) {
+        return "m" + method;
+    }
+
+    public String getNamedMethod(final int index, final int method) {
+        return "method" + index + "_" + method;
+    }
+
+    /**
+     * Get the descriptor of a method.
+     *
+     * @param index      The index of the owner class
+     * @param method     The index of the method in the class
+     * @param classNames The function providing the class names of the wanted namespace
+     * @return The method descriptor
+     */
+    public String getMethodDescriptor(final int index, final int method, final IntFunction<String> classNames) {
+        String referenced = "L" + classNames.apply(this.getReferencedClass(index, method)) + ";";
+        if (method % 2 == 0) return "(" + referenced + "I)V";
+        else return "(I)" + referenced;
+    }
+
+    public String getObfuscatedField(final int field) {
+        return "f" + field;
+    }
+
+    public String getNamedField(final int index, final int field) {
+        return "field" + index + "_" + field;
+    }
+
+    /**
+     * Get the descriptor of a field.
+     *
+     * @param index      The index of the owner class
+     * @param field      The index of the field in the class
+     * @param classNames The function providing the class names of the wanted namespace
+     * @return The field descriptor
+     */
+    public String getFieldDescriptor(final int index, final int field, final IntFunction<String> classNames) {
+        if (field % 2 == 0) return "I";
+        else return "L" + classNames.apply(this.getReferencedClass(index, METHODS_PER_CLASS + field)) + ";";
+    }
+
+    /**
+     * Create a remapper mapping from the obfuscated to the named namespace.
+     *
+     * @return The remapper
+     */
+    public MapRemapper toRemapper() {
+        MapRemapper remapper = new MapRemapper();
+        for (int i = 0; i < this.classCount; i++) {
+            String owner = this.getObfuscatedClass(i);
+            remapper.addClassMapping(owner, this.getNamedClass(i));
+            for (int m = 0; m < METHODS_PER_CLASS; m++) {
+                remapper.addMethodMapping(owner, this.getObfuscatedMethod(m), this.getMethodDescriptor(i, m, this::getObfuscatedClass), this.getNamedMethod(i, m));
+            }
+            for (int f = 0; f < FIELDS_PER_CLASS; f++) {
+                remapper.addFieldMapping(owner, this.getObfuscatedField(f), this.getFieldDescriptor(i, f, this::getObfuscatedClass), this.getNamedField(i, f));
+            }
+        }
+        return remapper;
+    }
+
+    private int getReferencedClass(final int index, final int member) {
+        return (int) ((index * 31L + member + 1) % this.classCount);
+    }
+
+}
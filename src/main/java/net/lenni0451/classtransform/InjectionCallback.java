@@ -14,6 +14,8 @@ public class InjectionCallback {
     private boolean cancelled;
     private Object returnValue;
     private boolean returnValueSet;
+    private char primitiveType;
+    private long primitiveValue;
 
     public InjectionCallback(final boolean cancellable) {
         this.cancellable = cancellable;
@@ -25,6 +27,21 @@ public class InjectionCallback {
         this.returnValueSet = true;
     }
 
+    /**
+     * Create a callback with an unboxed primitive return value.<br>
+     * This is used by the generated code to only box the return value if it is requested.
+     *
+     * @param cancellable    If the callback is cancellable
+     * @param primitiveType  The descriptor of the primitive type (e.g. {@code I})
+     * @param primitiveValue The raw bits of the primitive value
+     */
+    public InjectionCallback(final boolean cancellable, final char primitiveType, final long primitiveValue) {
+        this.cancellable = cancellable;
+        this.primitiveType = primitiveType;
+        this.primitiveValue = primitiveValue;
+        this.returnValueSet = true;
+    }
+
     /**
      * @return If the callback is cancellable
      */
@@ -56,9 +73,48 @@ public class InjectionCallback {
     @Nullable
     public Object getReturnValue() {
         if (!this.returnValueSet) throw new IllegalStateException("Return value not set");
+        if (this.primitiveType != 0) {
+            this.returnValue = this.box();
+            this.primitiveType = 0;
+        }
         return this.returnValue;
     }
 
+    /**
+     * Get the raw bits of the primitive return value.<br>
+     * This is used by the generated code to avoid unboxing return values which have not been changed.
+     *
+     * @param primitiveType The descriptor of the wanted primitive type (e.g. {@code I})
+     * @return The raw bits of the return value
+     * @throws ClassCastException If the return value is not of the wanted type
+     */
+    public long getPrimitiveReturnValue(final char primitiveType) {
+        if (!this.returnValueSet) throw new IllegalStateException("Return value not set");
+        if (this.primitiveType == primitiveType) return this.primitiveValue;
+
+        Object returnValue = this.getReturnValue();
+        switch (primitiveType) {
+            case 'Z':
+                return ((Boolean) returnValue) ? 1 : 0;
+            case 'B':
+                return (Byte) returnValue;
+            case 'S':
+                return (Short) returnValue;
+            case 'C':
+                return (Character) returnValue;
+            case 'I':
+                return (Integer) returnValue;
+            case 'J':
+                return (Long) returnValue;
+            case 'F':
+                return Float.floatToRawIntBits((Float) returnValue);
+            case 'D':
+                return Double.doubleToRawLongBits((Double) returnValue);
+            default:
+                throw new IllegalArgumentException("Unknown primitive type '" + primitiveType + "'");
+        }
+    }
+
     /**
      * @param <T> The wanted type
      * @return The current return value of the original method
@@ -79,6 +135,30 @@ public class InjectionCallback {
         this.setCancelled(true);
         this.returnValue = returnValue;
         this.returnValueSet = true;
+        this.primitiveType = 0;
+    }
+
+    private Object box() {
+        switch (this.primitiveType) {
+            case 'Z':
+                return this.primitiveValue != 0;
+            case 'B':
+                return (byte) this.primitiveValue;
+            case 'S':
+                return (short) this.primitiveValue;
+            case 'C':
+                return (char) this.primitiveValue;
+            case 'I':
+                return (int) this.primitiveValue;
+            case 'J':
+                return this.primitiveValue;
+            case 'F':
+                return Float.intBitsToFloat((int) this.primitiveValue);
+            case 'D':
+                return Double.longBitsToDouble(this.primitiveValue);
+            default:
+                throw new IllegalStateException("Unknown primitive type '" + this.primitiveType + "'");
+        }
     }
 
 }
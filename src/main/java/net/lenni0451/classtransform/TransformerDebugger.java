@@ -1,24 +1,52 @@
 package net.lenni0451.classtransform;
 
+import net.lenni0451.classtransform.debugger.WorstClassReports;
+import net.lenni0451.classtransform.debugger.dump.*;
+import net.lenni0451.classtransform.debugger.inlining.InliningReport;
+import net.lenni0451.classtransform.debugger.size.MethodSizeLimits;
+import net.lenni0451.classtransform.debugger.size.MethodSizeReport;
 import net.lenni0451.classtransform.debugger.timings.TimedTransformer;
+import net.lenni0451.classtransform.debugger.timings.TimingStatistics;
+import net.lenni0451.classtransform.debugger.verification.ClassVerifier;
 import net.lenni0451.classtransform.utils.log.Logger;
 
+import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 @ParametersAreNonnullByDefault
 public class TransformerDebugger {
 
     private final TransformerManager transformerManager;
-    private final Map<String, Map<TimedTransformer, Integer>> timings;
+    private final TimingStatistics timingStatistics;
+    private final WorstClassReports<InliningReport> inliningReports;
+    private final WorstClassReports<MethodSizeReport> methodSizeReports;
+    private boolean collectTimings = System.getProperty("classtransform.timings") != null;
     private boolean dumpClasses = System.getProperty("classtransform.dumpClasses") != null;
     private boolean dumpClassOnFailure = System.getProperty("classtransform.dumpClassesOnFailure") != null;
+    private volatile ClassDumpSink dumpSink;
+    private MethodSizeLimits methodSizeLimits = System.getProperty("classtransform.methodSizeReports") != null ? MethodSizeLimits.DEFAULT : null;
+    private boolean strictMethodSizes = System.getProperty("classtransform.strictMethodSizes") != null;
+    private volatile ClassVerifier classVerifier;
+    private volatile boolean recordDependencies = System.getProperty("classtransform.recordDependencies") != null;
 
     TransformerDebugger(final TransformerManager transformerManager) {
         this.transformerManager = transformerManager;
-        this.timings = new ConcurrentHashMap<>();
+        this.timingStatistics = new TimingStatistics();
+        this.inliningReports = new WorstClassReports<>(report -> report.getSizeAfter() - report.getSizeBefore());
+        this.methodSizeReports = new WorstClassReports<>(TransformerDebugger::getSizeScore);
+        String verifyClasses = System.getProperty("classtransform.verifyClasses");
+        if (verifyClasses != null) {
+            try {
+                this.classVerifier = new ClassVerifier(transformerManager, verifyClasses.isEmpty() ? 1 : Double.parseDouble(verifyClasses));
+            } catch (Throwable t) {
+                Logger.error("Invalid class verification sample rate '{}'", verifyClasses, t);
+            }
+        }
     }
 
     /**
@@ -45,10 +73,148 @@ public class TransformerDebugger {
     }
 
     /**
-     * @return The timings for all transformed classes
+     * <b>Use {@link #getTimingStatistics()}.</b><br>
+     * Timings are no longer kept per class, the map is always empty.
+     *
+     * @return An empty map
      */
+    @Deprecated
     public Map<String, Map<TimedTransformer, Integer>> getTimings() {
-        return Collections.unmodifiableMap(this.timings);
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Get the aggregated timings of all transformers and the slowest transformed classes.<br>
+     * Timings are only collected if enabled using {@link #setCollectTimings(boolean)}.
+     *
+     * @return The timing statistics
+     */
+    public TimingStatistics getTimingStatistics() {
+        return this.timingStatistics;
+    }
+
+    /**
+     * Enable or disable collecting the timings of all transformers.<br>
+     * This is enabled by default if the system property {@code classtransform.timings} is set.
+     *
+     * @param collectTimings If timings should be collected
+     */
+    public void setCollectTimings(final boolean collectTimings) {
+        this.collectTimings = collectTimings;
+    }
+
+    /**
+     * @return If timings should be collected
+     */
+    public boolean isCollectTimings() {
+        return this.collectTimings;
+    }
+
+    /**
+     * Get the size impact of automatically inlined handler methods for all transformed classes.<br>
+     * Reports are only created if an {@link net.lenni0451.classtransform.utils.InlinePolicy} is set.<br>
+     * Only the {@link WorstClassReports#DEFAULT_LIMIT} classes with the largest size increase are kept.
+     *
+     * @return The inlining reports of the transformed classes, sorted from the largest to the smallest size increase
+     */
+    public Map<String, List<InliningReport>> getInliningReports() {
+        return this.inliningReports.getReports();
+    }
+
+    /**
+     * Add an inlining report for a transformed class.
+     *
+     * @param className The name of the transformed class
+     * @param report    The inlining report
+     */
+    public void addInliningReport(final String className, final InliningReport report) {
+        this.inliningReports.add(className, report);
+    }
+
+    /**
+     * Get the sizes of all changed methods for all transformed classes.<br>
+     * Reports are only created if method size limits are set.<br>
+     * Only the {@link WorstClassReports#DEFAULT_LIMIT} classes crossing the most limits and with the largest size increase are kept.
+     *
+     * @return The method size reports of the transformed classes, sorted from the worst to the best class
+     */
+    public Map<String, List<MethodSizeReport>> getMethodSizeReports() {
+        return this.methodSizeReports.getReports();
+    }
+
+    /**
+     * Set the limits checked for the sizes of transformed methods.<br>
+     * A warning is logged for every method crossing a limit.<br>
+     * The {@link MethodSizeLimits#DEFAULT} limits are used if the system property {@code classtransform.methodSizeReports} is set, otherwise the analysis is disabled by default.
+     *
+     * @param methodSizeLimits The method size limits or {@code null} to disable the analysis
+     */
+    public void setMethodSizeLimits(@Nullable final MethodSizeLimits methodSizeLimits) {
+        this.methodSizeLimits = methodSizeLimits;
+    }
+
+    /**
+     * @return The method size limits or {@code null} if the analysis is disabled
+     */
+    @Nullable
+    public MethodSizeLimits getMethodSizeLimits() {
+        return this.methodSizeLimits;
+    }
+
+    /**
+     * Enable or disable failing the transformation if a method crosses a method size limit.<br>
+     * The failure is handled using the fail strategy of the transformer manager.<br>
+     * This is enabled by default if the system property {@code classtransform.strictMethodSizes} is set.
+     *
+     * @param strictMethodSizes If crossing a method size limit should fail the transformation
+     */
+    public void setStrictMethodSizes(final boolean strictMethodSizes) {
+        this.strictMethodSizes = strictMethodSizes;
+    }
+
+    /**
+     * @return If crossing a method size limit should fail the transformation
+     */
+    public boolean isStrictMethodSizes() {
+        return this.strictMethodSizes;
+    }
+
+    /**
+     * Set the verifier used to check the bytecode of transformed classes in the background.<br>
+     * The previous verifier is not shut down.<br>
+     * If the system property {@code classtransform.verifyClasses} is set, a verifier is created by default.
+     * The value of the property is used as the sample rate, an empty value verifies every class.
+     *
+     * @param classVerifier The class verifier or {@code null} to disable the verification
+     */
+    public void setClassVerifier(@Nullable final ClassVerifier classVerifier) {
+        this.classVerifier = classVerifier;
+    }
+
+    /**
+     * @return The class verifier or {@code null} if the verification is disabled
+     */
+    @Nullable
+    public ClassVerifier getClassVerifier() {
+        return this.classVerifier;
+    }
+
+    /**
+     * Enable or disable recording the dependencies of transformed classes in the {@link net.lenni0451.classtransform.utils.DependencyGraph}.<br>
+     * Recording keeps the transformers, super types and mapping keys of every transformed class for the lifetime of the transformer manager.<br>
+     * This is enabled automatically if transformer hotswapping is enabled or by default if the system property {@code classtransform.recordDependencies} is set.
+     *
+     * @param recordDependencies If dependencies should be recorded
+     */
+    public void setRecordDependencies(final boolean recordDependencies) {
+        this.recordDependencies = recordDependencies;
+    }
+
+    /**
+     * @return If dependencies of transformed classes are recorded
+     */
+    public boolean isRecordDependencies() {
+        return this.recordDependencies;
     }
 
     /**
@@ -85,6 +251,38 @@ public class TransformerDebugger {
         return this.dumpClassOnFailure;
     }
 
+    /**
+     * Set the sink dumped classes are written to.<br>
+     * The previous sink is not closed.
+     *
+     * @param dumpSink The dump sink
+     */
+    public synchronized void setDumpSink(final ClassDumpSink dumpSink) {
+        this.dumpSink = dumpSink;
+    }
+
+    /**
+     * Get the sink dumped classes are written to.<br>
+     * By default, every class is written synchronously into its own file in the {@code .classtransform} directory.
+     * The default sink can be changed using system properties:
+     * <ul>
+     *     <li>{@code classtransform.dumpArchive=<file>}: Write all classes into a single zip file on a background thread</li>
+     *     <li>{@code classtransform.dumpAsync}: Write the class files on a background thread</li>
+     * </ul>
+     * Background sinks created from system properties are closed when the JVM shuts down.
+     *
+     * @return The dump sink
+     */
+    public ClassDumpSink getDumpSink() {
+        //Only lock while creating the default sink since this is called for every dumped class
+        ClassDumpSink dumpSink = this.dumpSink;
+        if (dumpSink != null) return dumpSink;
+        synchronized (this) {
+            if (this.dumpSink == null) this.dumpSink = this.createDefaultDumpSink();
+            return this.dumpSink;
+        }
+    }
+
     /**
      * Clear all transformers and transformed classes.<br>
      * Transformer preprocessors will not be cleared.
@@ -96,11 +294,53 @@ public class TransformerDebugger {
         this.transformerManager.postTransformer.clear();
         this.transformerManager.registeredTransformer.clear();
         this.transformerManager.transformedClasses.clear();
+        this.transformerManager.loadedClasses.clear();
+        this.transformerManager.definedClasses.clear();
+        this.transformerManager.getDependencyGraph().clear();
     }
 
 
-    void addTimings(final String className, final Map<TimedTransformer, Integer> timings) {
-        if (!timings.isEmpty()) this.timings.put(className, timings);
+    void dumpClass(final DumpType type, final String className, final byte[] bytecode) {
+        try {
+            this.getDumpSink().dump(type, className, bytecode);
+        } catch (Throwable t) {
+            if (DumpType.INPUT.equals(type)) Logger.error("Failed to dump input class '{}'", className, t);
+            else Logger.error("Failed to dump class '{}'", className, t);
+        }
+    }
+
+    void addMethodSizeReports(final String className, final List<MethodSizeReport> reports) {
+        if (!reports.isEmpty()) this.methodSizeReports.set(className, reports);
+    }
+
+    private static long getSizeScore(final MethodSizeReport report) {
+        int sizeBefore = report.getBefore() == null ? 0 : report.getBefore().getCodeSize();
+        int sizeIncrease = Math.max(0, report.getAfter().getCodeSize() - sizeBefore);
+        //Crossed limits are weighted higher than any size increase, the code size of a method is at most 65535 bytes
+        return ((long) report.getCrossedLimits().size() << 16) + sizeIncrease;
+    }
+
+    private ClassDumpSink createDefaultDumpSink() {
+        String dumpArchive = System.getProperty("classtransform.dumpArchive");
+        try {
+            if (dumpArchive != null) return this.closeOnShutdown(new AsyncDumpSink(new ZipDumpSink(Paths.get(dumpArchive))));
+        } catch (Throwable t) {
+            Logger.error("Failed to create dump archive '{}'", dumpArchive, t);
+        }
+        ClassDumpSink directorySink = new DirectoryDumpSink(Paths.get(".", ".classtransform"));
+        if (System.getProperty("classtransform.dumpAsync") != null) return this.closeOnShutdown(new AsyncDumpSink(directorySink));
+        else return directorySink;
+    }
+
+    private ClassDumpSink closeOnShutdown(final ClassDumpSink dumpSink) {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                dumpSink.close();
+            } catch (IOException e) {
+                Logger.error("Failed to close the class dump sink", e);
+            }
+        }, "ClassTransform Dump Shutdown"));
+        return dumpSink;
     }
 
 }
@@ -6,7 +6,14 @@ import net.lenni0451.classtransform.annotations.CTarget;
 import net.lenni0451.classtransform.annotations.CTransformer;
 import net.lenni0451.classtransform.annotations.injection.CASM;
 import net.lenni0451.classtransform.debugger.TransformerTimings;
+import net.lenni0451.classtransform.debugger.dump.DumpType;
+import net.lenni0451.classtransform.debugger.jfr.TransformerEvents;
+import net.lenni0451.classtransform.debugger.metrics.TransformerMetrics;
+import net.lenni0451.classtransform.debugger.size.MethodSize;
+import net.lenni0451.classtransform.debugger.size.MethodSizeLimits;
+import net.lenni0451.classtransform.debugger.size.MethodSizeReport;
 import net.lenni0451.classtransform.debugger.timings.TimedGroup;
+import net.lenni0451.classtransform.debugger.verification.ClassVerifier;
 import net.lenni0451.classtransform.exceptions.TransformerLoadException;
 import net.lenni0451.classtransform.mappings.AMapper;
 import net.lenni0451.classtransform.mappings.impl.VoidMapper;
@@ -17,21 +24,32 @@ import net.lenni0451.classtransform.transformer.coprocessor.AnnotationCoprocesso
 import net.lenni0451.classtransform.transformer.coprocessor.impl.CLocalVariableCoprocessor;
 import net.lenni0451.classtransform.transformer.coprocessor.impl.CSharedCoprocessor;
 import net.lenni0451.classtransform.transformer.impl.*;
+import net.lenni0451.classtransform.transformer.impl.general.AutoInlineGeneralHandler;
 import net.lenni0451.classtransform.transformer.impl.general.InnerClassGeneralHandler;
 import net.lenni0451.classtransform.transformer.impl.general.MemberCopyGeneralHandler;
 import net.lenni0451.classtransform.transformer.impl.general.SyntheticMethodGeneralHandler;
 import net.lenni0451.classtransform.utils.ASMUtils;
+import net.lenni0451.classtransform.utils.ClassMemberIndex;
+import net.lenni0451.classtransform.utils.DefinedClassRegistry;
+import net.lenni0451.classtransform.utils.DependencyGraph;
 import net.lenni0451.classtransform.utils.FailStrategy;
 import net.lenni0451.classtransform.utils.HotswapClassLoader;
+import net.lenni0451.classtransform.utils.HotswapScheduler;
+import net.lenni0451.classtransform.utils.InlinePolicy;
+import net.lenni0451.classtransform.utils.LoadedClassRegistry;
 import net.lenni0451.classtransform.utils.Sneaky;
+import net.lenni0451.classtransform.utils.TransformerDiff;
 import net.lenni0451.classtransform.utils.annotations.AnnotationUtils;
 import net.lenni0451.classtransform.utils.log.Logger;
 import net.lenni0451.classtransform.utils.tree.ClassTree;
 import net.lenni0451.classtransform.utils.tree.IClassProvider;
+import net.lenni0451.classtransform.utils.tree.TreeClassWriter;
+import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.AnnotationNode;
 import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
 
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
@@ -39,12 +57,9 @@ import java.lang.instrument.ClassDefinition;
 import java.lang.instrument.ClassFileTransformer;
 import java.lang.instrument.Instrumentation;
 import java.lang.instrument.UnmodifiableClassException;
-import java.nio.file.FileSystems;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.security.ProtectionDomain;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -68,18 +83,30 @@ public class TransformerManager implements ClassFileTransformer {
     private final AnnotationCoprocessorList coprocessors = new AnnotationCoprocessorList();
     private final Map<String, IInjectionTarget> injectionTargets = new HashMap<>();
     private final TransformerDebugger debugger = new TransformerDebugger(this);
+    private final DependencyGraph dependencyGraph = new DependencyGraph();
     private FailStrategy failStrategy = FailStrategy.EXIT;
+    private InlinePolicy inlinePolicy;
+    private TransformerMetrics metrics;
     private Instrumentation instrumentation;
     private HotswapClassLoader hotswapClassLoader;
+    private HotswapScheduler hotswapScheduler;
+    private long hotswapWindow = HotswapScheduler.DEFAULT_WINDOW;
+    //The classes to retransform when the batch of the current thread has finished, null if the thread is not in a batch
+    private final ThreadLocal<Set<String>> pendingRetransforms = new ThreadLocal<>();
 
     private final List<IAnnotationHandlerPreprocessor> annotationHandlerPreprocessor = new ArrayList<>();
     final List<IBytecodeTransformer> bytecodeTransformer = new ArrayList<>();
-    final Map<String, List<IRawTransformer>> rawTransformer = new HashMap<>();
-    final Map<String, List<ClassNode>> transformer = new HashMap<>();
+    //Transformer lists are replaced instead of modified, so hotswapped transformers can be registered while classes are being redefined
+    final Map<String, List<IRawTransformer>> rawTransformer = new ConcurrentHashMap<>();
+    final Map<String, List<ClassNode>> transformer = new ConcurrentHashMap<>();
     final List<IPostTransformer> postTransformer = new ArrayList<>();
 
-    final Set<String> registeredTransformer = new HashSet<>();
-    final Set<String> transformedClasses = new HashSet<>();
+    final Set<String> registeredTransformer = ConcurrentHashMap.newKeySet();
+    final Set<String> transformedClasses = ConcurrentHashMap.newKeySet();
+    final LoadedClassRegistry loadedClasses = new LoadedClassRegistry();
+    final DefinedClassRegistry definedClasses = new DefinedClassRegistry();
+    //The classes redefined by the current thread, their bytecode is already transformed
+    private final ThreadLocal<Set<Class<?>>> redefiningClasses = new ThreadLocal<>();
 
     /**
      * @param classProvider The class provider used to get the class bytecode
@@ -118,6 +145,7 @@ public class TransformerManager implements ClassFileTransformer {
         this.annotationHandler.add(new MemberCopyGeneralHandler(false)); //Copy all leftover methods to the transformed class
         this.annotationHandler.add(new CInlineAnnotationHandler());
         this.annotationHandler.add(new CReplaceCallbackAnnotationHandler());
+        this.annotationHandler.add(new AutoInlineGeneralHandler()); //Inline small handler methods if enabled
         this.annotationHandler.add(new CASMAnnotationHandler(CASM.Shift.BOTTOM));
 
         //Annotation coprocessors
@@ -136,6 +164,7 @@ public class TransformerManager implements ClassFileTransformer {
         this.injectionTargets.put("NEW", new NewTarget());
         this.injectionTargets.put("OPCODE", new OpcodeTarget());
         this.injectionTargets.put("CONSTANT", new ConstantTarget());
+        this.injectionTargets.put("PATTERN", new PatternTarget());
     }
 
     /**
@@ -152,6 +181,36 @@ public class TransformerManager implements ClassFileTransformer {
         return this.classProvider;
     }
 
+    /**
+     * Read the bytecode of a class using the class provider of this transformer manager.<br>
+     * The read is reported to the {@link TransformerMetrics} and recorded as a flight recorder event.
+     *
+     * @param name The name of the class
+     * @return The bytecode of the class
+     * @throws ClassNotFoundException If the class could not be found
+     */
+    public byte[] readClass(final String name) throws ClassNotFoundException {
+        return this.readClass(this.classProvider, name);
+    }
+
+    /**
+     * Read the bytecode of a class using the given class provider.<br>
+     * The read is reported to the {@link TransformerMetrics} and recorded as a flight recorder event.
+     *
+     * @param classProvider The class provider to get the bytecode from
+     * @param name          The name of the class
+     * @return The bytecode of the class
+     * @throws ClassNotFoundException If the class could not be found
+     */
+    public byte[] readClass(final IClassProvider classProvider, final String name) throws ClassNotFoundException {
+        Object event = TransformerEvents.beginClassProviderRead(name, classProvider.getClass().getName());
+        byte[] bytecode = classProvider.getClass(name);
+        TransformerEvents.endClassProviderRead(event, bytecode.length);
+        TransformerMetrics metrics = this.metrics;
+        if (metrics != null) metrics.onClassRead(name, bytecode.length);
+        return bytecode;
+    }
+
     /**
      * @return The mapper
      */
@@ -173,6 +232,26 @@ public class TransformerManager implements ClassFileTransformer {
         return Collections.unmodifiableSet(this.transformedClasses);
     }
 
+    /**
+     * Get the names of all raw transformers and transformers registered for a class.<br>
+     * Raw transformers are named by their class name.
+     *
+     * @param className The name of the class
+     * @return The names of the transformers in the order they are applied
+     */
+    public Set<String> getTransformers(final String className) {
+        Set<String> transformers = new LinkedHashSet<>();
+        List<IRawTransformer> rawTransformer = this.rawTransformer.get(className);
+        if (rawTransformer != null) {
+            for (IRawTransformer transformer : rawTransformer) transformers.add(transformer.getClass().getName());
+        }
+        List<ClassNode> transformer = this.transformer.get(className);
+        if (transformer != null) {
+            for (ClassNode classNode : transformer) transformers.add(dot(classNode.name));
+        }
+        return transformers;
+    }
+
     /**
      * Add a new annotation handler coprocessor.<br>
      * A new coprocessor instance will be created for each annotation handler.
@@ -210,6 +289,16 @@ public class TransformerManager implements ClassFileTransformer {
         return Optional.ofNullable(this.injectionTargets.get(name.toUpperCase(Locale.ROOT)));
     }
 
+    /**
+     * Get the dependency graph of all transformed classes.<br>
+     * Dependencies are only recorded if enabled using {@link TransformerDebugger#setRecordDependencies(boolean)}.
+     *
+     * @return The dependency graph
+     */
+    public DependencyGraph getDependencyGraph() {
+        return this.dependencyGraph;
+    }
+
     /**
      * @return The debugger instance
      */
@@ -233,6 +322,63 @@ public class TransformerManager implements ClassFileTransformer {
         return this.failStrategy;
     }
 
+    /**
+     * Set the policy used to automatically inline small injection handler methods.<br>
+     * Automatic inlining is disabled if the policy is {@code null}, which is the default.
+     *
+     * @param inlinePolicy The inline policy or {@code null} to disable automatic inlining
+     */
+    public void setInlinePolicy(@Nullable final InlinePolicy inlinePolicy) {
+        this.inlinePolicy = inlinePolicy;
+    }
+
+    /**
+     * @return The current inline policy or {@code null} if automatic inlining is disabled
+     */
+    @Nullable
+    public InlinePolicy getInlinePolicy() {
+        return this.inlinePolicy;
+    }
+
+    /**
+     * Set the listener for live metrics of this transformer manager.<br>
+     * Nothing is measured if no listener is set.
+     *
+     * @param metrics The metrics listener or {@code null} to disable metrics
+     * @see net.lenni0451.classtransform.debugger.metrics.DefaultTransformerMetrics#register(TransformerManager)
+     */
+    public void setMetrics(@Nullable final TransformerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return The current metrics listener or {@code null} if metrics are disabled
+     */
+    @Nullable
+    public TransformerMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Set the window in which hotswapped transformers are collected before the affected classes are redefined.<br>
+     * Every hotswapped transformer restarts the window and all affected classes are redefined at once afterwards.<br>
+     * The default window is {@link HotswapScheduler#DEFAULT_WINDOW} milliseconds.
+     *
+     * @param hotswapWindow The window in milliseconds
+     * @throws IllegalArgumentException If the window is negative
+     */
+    public void setHotswapWindow(final long hotswapWindow) {
+        this.hotswapWindow = HotswapScheduler.checkWindow(hotswapWindow);
+        if (this.hotswapScheduler != null) this.hotswapScheduler.setWindow(hotswapWindow);
+    }
+
+    /**
+     * @return The window in milliseconds in which hotswapped transformers are collected
+     */
+    public long getHotswapWindow() {
+        return this.hotswapWindow;
+    }
+
     /**
      * @return The instrumentation instance if hooked
      */
@@ -241,6 +387,13 @@ public class TransformerManager implements ClassFileTransformer {
         return this.instrumentation;
     }
 
+    /**
+     * @return If transformer hotswapping has been enabled when hooking the instrumentation
+     */
+    public boolean isHotswappable() {
+        return this.hotswapClassLoader != null;
+    }
+
     /**
      * Add an annotation handler preprocessor to the preprocessor list.<br>
      * You can modify class transform annotations before they get parsed.
@@ -288,7 +441,11 @@ public class TransformerManager implements ClassFileTransformer {
      * @param rawTransformer The raw transformer to add
      */
     public void addRawTransformer(final String className, final IRawTransformer rawTransformer) {
-        this.rawTransformer.computeIfAbsent(className, n -> new ArrayList<>()).add(rawTransformer);
+        this.rawTransformer.compute(className, (n, transformers) -> {
+            List<IRawTransformer> transformerList = transformers == null ? new ArrayList<>() : new ArrayList<>(transformers);
+            transformerList.add(rawTransformer);
+            return transformerList;
+        });
         this.transformedClasses.add(className);
         this.retransformClasses(Collections.singleton(className));
     }
@@ -333,23 +490,58 @@ public class TransformerManager implements ClassFileTransformer {
             }
         } else {
             try {
-                classes.add(this.classProvider.getClass(transformer));
+                classes.add(this.readClass(transformer));
             } catch (ClassNotFoundException e) {
                 throw new TransformerLoadException(transformer, e);
             }
         }
-        for (byte[] bytecode : classes) {
-            String name = null;
-            try {
-                ClassNode classNode = ASMUtils.fromBytes(bytecode);
-                name = classNode.name;
-                Set<String> transformedClasses = this.addTransformer(classNode, !wildcard, false);
-                if (!transformedClasses.isEmpty()) this.retransformClasses(transformedClasses);
-                else if (!wildcard) Logger.warn("Transformer '{}' does not transform any classes", name);
-            } catch (Throwable e) {
-                if (name == null) throw new RuntimeException("Unable to parse transformer bytecode", e);
-                else throw new TransformerLoadException(name, e);
+        boolean requireAnnotation = !wildcard;
+        this.batch(() -> { //All classes of a package are retransformed at once
+            for (byte[] bytecode : classes) {
+                String name = null;
+                try {
+                    ClassNode classNode = ASMUtils.fromBytes(bytecode);
+                    name = classNode.name;
+                    Set<String> transformedClasses = this.addTransformer(classNode, requireAnnotation, false);
+                    if (!transformedClasses.isEmpty()) this.retransformClasses(transformedClasses);
+                    else if (requireAnnotation) Logger.warn("Transformer '{}' does not transform any classes", name);
+                } catch (Throwable e) {
+                    if (name == null) throw new RuntimeException("Unable to parse transformer bytecode", e);
+                    else throw new TransformerLoadException(name, e);
+                }
             }
+        });
+    }
+
+    /**
+     * Register multiple transformers at once.<br>
+     * All classes which have to be retransformed by the registrations are collected and retransformed in a single call after the registration has finished.<br>
+     * This avoids scanning all loaded classes and retransforming them for every single transformer.<br>
+     * Batches can be nested, the classes are retransformed when the outermost batch has finished.<br>
+     * A batch only collects the registrations of the current thread.
+     * <pre>{@code
+     * transformerManager.batch(() -> {
+     *     transformerManager.addTransformer("package.TransformerA");
+     *     transformerManager.addTransformer("package.TransformerB");
+     *     transformerManager.addRawTransformer("package.Target", rawTransformer);
+     * });
+     * }</pre>
+     *
+     * @param registration The registration of the transformers
+     */
+    public void batch(final Runnable registration) {
+        if (this.pendingRetransforms.get() != null) {
+            //The classes are retransformed by the outermost batch
+            registration.run();
+            return;
+        }
+        Set<String> pendingRetransforms = new HashSet<>();
+        this.pendingRetransforms.set(pendingRetransforms);
+        try {
+            registration.run();
+        } finally {
+            this.pendingRetransforms.remove();
+            if (!pendingRetransforms.isEmpty()) this.retransformClasses(pendingRetransforms);
         }
     }
 
@@ -422,9 +614,12 @@ public class TransformerManager implements ClassFileTransformer {
     }
 
     private void addTransformer(final Set<String> transformedClasses, final String className, final ClassNode transformer) {
-        List<ClassNode> transformerList = this.transformer.computeIfAbsent(className, n -> new ArrayList<>());
-        transformerList.removeIf(cn -> cn.name.equals(transformer.name));
-        transformerList.add(transformer);
+        this.transformer.compute(className, (n, transformers) -> {
+            List<ClassNode> transformerList = transformers == null ? new ArrayList<>() : new ArrayList<>(transformers);
+            transformerList.removeIf(cn -> cn.name.equals(transformer.name));
+            transformerList.add(transformer);
+            return transformerList;
+        });
 
         transformedClasses.add(className);
     }
@@ -482,11 +677,35 @@ public class TransformerManager implements ClassFileTransformer {
      * @return The modified bytecode of the class or null if not changed
      */
     @Nullable
-    public byte[] transform(final String name, byte[] bytecode, final boolean calculateStackMapFrames) {
-        TransformerTimings timings = new TransformerTimings();
+    public byte[] transform(final String name, final byte[] bytecode, final boolean calculateStackMapFrames) {
+        Object event = TransformerEvents.beginTransformClass(name, bytecode.length);
+        byte[] transformedBytecode = null;
+        try {
+            transformedBytecode = this.transformClass(name, bytecode, calculateStackMapFrames);
+            return transformedBytecode;
+        } finally {
+            TransformerEvents.endTransformClass(event, transformedBytecode);
+        }
+    }
+
+    @Nullable
+    private byte[] transformClass(final String name, byte[] bytecode, final boolean calculateStackMapFrames) {
+        TransformerMetrics metrics = this.metrics;
+        boolean events = TransformerEvents.isEnabled();
+        TransformerTimings timings;
+        if (this.debugger.isCollectTimings() || metrics != null || events) {
+            timings = new TransformerTimings(name, this.debugger.isCollectTimings() ? this.debugger.getTimingStatistics() : null, metrics, events);
+        } else {
+            timings = TransformerTimings.DISABLED;
+        }
         try {
             boolean transformed = false;
             ClassNode clazz = null;
+            Map<String, MethodSize> methodSizes = null;
+            //Only the classes defined in the JVM are recorded, the class tree transforms classes without stack map frames
+            boolean recordDependencies = calculateStackMapFrames && this.debugger.isRecordDependencies();
+            Set<String> transformerDependencies = new HashSet<>();
+            Set<String> mappingDependencies = new HashSet<>();
 
             for (IBytecodeTransformer transformer : this.bytecodeTransformer) {
                 timings.start(TimedGroup.BYTECODE_TRANSFORMER, transformer.getClass().getName());
@@ -501,27 +720,38 @@ public class TransformerManager implements ClassFileTransformer {
             List<IRawTransformer> rawTransformer = this.rawTransformer.get(name);
             if (rawTransformer != null) {
                 clazz = ASMUtils.fromBytes(bytecode);
+                if (this.debugger.getMethodSizeLimits() != null) methodSizes = MethodSize.of(clazz);
                 for (IRawTransformer transformer : rawTransformer) {
+                    transformerDependencies.add(transformer.getClass().getName());
                     timings.start(TimedGroup.RAW_TRANSFORMER, transformer.getClass().getName());
                     clazz = transformer.transform(this, clazz);
+                    ClassMemberIndex.invalidate(clazz); //Raw transformers can modify the class node in any way
                     timings.end();
                 }
             }
 
             List<ClassNode> transformer = this.transformer.get(name);
             if (transformer != null) {
-                if (clazz == null) clazz = ASMUtils.fromBytes(bytecode);
+                if (clazz == null) {
+                    clazz = ASMUtils.fromBytes(bytecode);
+                    if (this.debugger.getMethodSizeLimits() != null) methodSizes = MethodSize.of(clazz);
+                }
                 for (ClassNode classNode : transformer) {
+                    transformerDependencies.add(dot(classNode.name));
                     timings.start(TimedGroup.REMAPPER, classNode.name);
+                    Set<String> previousRecorder = this.mapper.getRemapper().setAccessRecorder(recordDependencies ? mappingDependencies : null);
                     try {
-                        classNode = ASMUtils.cloneClass(classNode);
-                        classNode = this.mapper.mapClass(this.classTree, this.classProvider, clazz, classNode);
+                        classNode = this.mapper.mapTransformer(this, clazz, classNode);
                     } catch (Throwable t) {
                         this.dumpInputClass(name, bytecode);
                         Logger.error("Failed to remap and fill annotation details of transformer '{}'", classNode.name, t);
+                        if (metrics != null) metrics.onTransformFailed(name, this.failStrategy);
                         if (FailStrategy.CANCEL.equals(this.failStrategy)) return null;
                         else if (FailStrategy.EXIT.equals(this.failStrategy)) System.exit(-1);
                         else if (FailStrategy.THROW.equals(this.failStrategy)) throw new AlreadyLoggedException(t);
+                        classNode = ASMUtils.cloneClass(classNode); //The registered transformer must not be modified by the annotation handlers
+                    } finally {
+                        this.mapper.getRemapper().setAccessRecorder(previousRecorder);
                     }
                     timings.end();
 
@@ -532,6 +762,7 @@ public class TransformerManager implements ClassFileTransformer {
                         } catch (Throwable t) {
                             this.dumpInputClass(name, bytecode);
                             Logger.error("Transformer '{}' failed to transform class '{}'", annotationHandler.getClass().getSimpleName(), clazz.name, t);
+                            if (metrics != null) metrics.onTransformFailed(name, this.failStrategy);
                             if (FailStrategy.CANCEL.equals(this.failStrategy)) return null;
                             else if (FailStrategy.EXIT.equals(this.failStrategy)) System.exit(-1);
                             else if (FailStrategy.THROW.equals(this.failStrategy)) throw new AlreadyLoggedException(t);
@@ -542,27 +773,38 @@ public class TransformerManager implements ClassFileTransformer {
             }
 
             if (clazz == null) {
+                if (recordDependencies) this.dependencyGraph.remove(name);
                 if (transformed) return bytecode;
                 return null;
             }
             byte[] transformedBytecode;
-            if (calculateStackMapFrames) transformedBytecode = ASMUtils.toBytes(clazz, this.classTree, this.classProvider);
-            else transformedBytecode = ASMUtils.toStacklessBytes(clazz);
+            if (calculateStackMapFrames) {
+                Set<String> superTypeDependencies = new HashSet<>();
+                Set<String> previousRecorder = this.classTree.setAccessRecorder(recordDependencies ? superTypeDependencies : null);
+                try {
+                    timings.start(TimedGroup.FRAME_COMPUTATION, TreeClassWriter.class.getName());
+                    transformedBytecode = ASMUtils.toBytes(clazz, this.classTree, this.classProvider);
+                    timings.end();
+                } finally {
+                    this.classTree.setAccessRecorder(previousRecorder);
+                }
+                if (recordDependencies) {
+                    superTypeDependencies.remove(name);
+                    this.dependencyGraph.setDependencies(name, transformerDependencies, superTypeDependencies, mappingDependencies);
+                }
+            } else {
+                transformedBytecode = ASMUtils.toStacklessBytes(clazz);
+            }
             for (IPostTransformer postTransformer : this.postTransformer) {
                 timings.start(TimedGroup.POST_TRANSFORMER, postTransformer.getClass().getName());
                 byte[] replacementBytecode = postTransformer.replace(name, transformedBytecode);
                 if (replacementBytecode != null) transformedBytecode = replacementBytecode;
                 timings.end();
             }
-            if (this.debugger.isDumpClasses()) {
-                try {
-                    Path path = Paths.get(".", ".classtransform", "dump", name.replace(".", FileSystems.getDefault().getSeparator()) + ".class");
-                    Files.createDirectories(path.getParent());
-                    Files.write(path, transformedBytecode);
-                } catch (Throwable t) {
-                    Logger.error("Failed to dump class '{}'", name, t);
-                }
-            }
+            if (methodSizes != null) this.checkMethodSizes(name, methodSizes, transformedBytecode);
+            ClassVerifier classVerifier = this.debugger.getClassVerifier();
+            if (classVerifier != null && calculateStackMapFrames) classVerifier.submit(name, transformedBytecode);
+            if (this.debugger.isDumpClasses()) this.debugger.dumpClass(DumpType.TRANSFORMED, name, transformedBytecode);
             return transformedBytecode;
         } catch (AlreadyLoggedException e) {
             Sneaky.sneakyThrow(e.getCause());
@@ -570,25 +812,43 @@ public class TransformerManager implements ClassFileTransformer {
         } catch (Throwable t) {
             this.dumpInputClass(name, bytecode);
             Logger.error("Failed to transform class '{}'", name, t);
+            if (metrics != null) metrics.onTransformFailed(name, this.failStrategy);
             if (FailStrategy.CONTINUE.equals(this.failStrategy)) return null;
             else if (FailStrategy.CANCEL.equals(this.failStrategy)) return null;
             else if (FailStrategy.EXIT.equals(this.failStrategy)) System.exit(-1);
             throw t;
         } finally {
-            this.getDebugger().addTimings(name, timings.getTimings());
+            timings.finish();
         }
     }
 
-    private void dumpInputClass(final String name, final byte[] inputClass) {
-        if (this.debugger.isDumpClassOnFailure()) {
-            try {
-                Path path = Paths.get(".", ".classtransform", "input_dump", name.replace(".", FileSystems.getDefault().getSeparator()) + ".class");
-                Files.createDirectories(path.getParent());
-                Files.write(path, inputClass);
-            } catch (Throwable t2) {
-                Logger.error("Failed to dump input class '{}'", name, t2);
+    private void checkMethodSizes(final String name, final Map<String, MethodSize> methodSizes, final byte[] transformedBytecode) {
+        MethodSizeLimits limits = this.debugger.getMethodSizeLimits();
+        if (limits == null) return;
+        //The class is read again to get the max stack and locals calculated by the class writer
+        ClassNode transformedClass = ASMUtils.fromBytes(transformedBytecode, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        List<MethodSizeReport> reports = new ArrayList<>();
+        List<String> crossingMethods = new ArrayList<>();
+        for (MethodNode method : transformedClass.methods) {
+            MethodSize before = methodSizes.get(method.name + method.desc);
+            MethodSize after = MethodSize.of(method);
+            if (after.equals(before)) continue;
+
+            List<String> crossedLimits = limits.getCrossedLimits(before == null ? 0 : before.getCodeSize(), after.getCodeSize());
+            reports.add(new MethodSizeReport(method.name, method.desc, before, after, crossedLimits));
+            if (!crossedLimits.isEmpty()) {
+                Logger.warn("Method '{}' of class '{}' crossed the JIT limits {} and is now {} bytes big", method.name + method.desc, name, crossedLimits, after.getCodeSize());
+                crossingMethods.add(method.name + method.desc);
             }
         }
+        this.debugger.addMethodSizeReports(name, reports);
+        if (this.debugger.isStrictMethodSizes() && !crossingMethods.isEmpty()) {
+            throw new IllegalStateException("Methods " + crossingMethods + " of class '" + name + "' crossed the JIT limits");
+        }
+    }
+
+    private void dumpInputClass(final String name, final byte[] inputClass) {
+        if (this.debugger.isDumpClassOnFailure()) this.debugger.dumpClass(DumpType.INPUT, name, inputClass);
     }
 
     /**
@@ -616,7 +876,9 @@ public class TransformerManager implements ClassFileTransformer {
     public void hookInstrumentation(final Instrumentation instrumentation, final boolean hotswappable) {
         this.instrumentation = instrumentation;
         if (hotswappable) {
+            this.debugger.setRecordDependencies(true); //The dependencies are used to find the classes affected by a hotswapped transformer
             this.hotswapClassLoader = new HotswapClassLoader();
+            this.hotswapScheduler = new HotswapScheduler(this::redefineClasses, this.hotswapWindow);
             for (String transformerClass : this.registeredTransformer) this.hotswapClassLoader.defineHotswapClass(transformerClass);
         }
         instrumentation.addTransformer(this, instrumentation.isRetransformClassesSupported());
@@ -625,14 +887,18 @@ public class TransformerManager implements ClassFileTransformer {
     }
 
     private void retransformClasses(@Nullable final Set<String> classesToRetransform) {
+        Set<String> pendingRetransforms = this.pendingRetransforms.get();
+        if (pendingRetransforms != null) {
+            //The classes are retransformed when the batch has finished
+            if (classesToRetransform != null) pendingRetransforms.addAll(classesToRetransform);
+            else pendingRetransforms.addAll(this.transformedClasses);
+            return;
+        }
         if (this.instrumentation != null && this.instrumentation.isRetransformClassesSupported()) {
-            List<Class<?>> classes = new ArrayList<>();
             Set<String> classSet;
             if (classesToRetransform != null) classSet = classesToRetransform;
             else classSet = this.transformedClasses;
-            for (Class<?> loadedClass : this.instrumentation.getAllLoadedClasses()) {
-                if (loadedClass != null && classSet.contains(loadedClass.getName())) classes.add(loadedClass);
-            }
+            List<Class<?>> classes = this.getLoadedClasses(classSet);
             if (!classes.isEmpty()) {
                 try {
                     this.instrumentation.retransformClasses(classes.toArray(new Class[0]));
@@ -647,13 +913,97 @@ public class TransformerManager implements ClassFileTransformer {
 
     private void redefineClasses(final Set<String> classesToRedefine) throws UnmodifiableClassException, ClassNotFoundException {
         List<ClassDefinition> classDefinitions = new ArrayList<>();
-        for (Class<?> loadedClass : this.instrumentation.getAllLoadedClasses()) {
-            if (loadedClass != null && classesToRedefine.contains(loadedClass.getName())) {
-                byte[] transformedBytecode = this.transform(loadedClass.getName(), this.classProvider.getClass(loadedClass.getName()));
-                if (transformedBytecode != null) classDefinitions.add(new ClassDefinition(loadedClass, transformedBytecode));
+        for (Class<?> loadedClass : this.getLoadedClasses(classesToRedefine)) {
+            String name = loadedClass.getName();
+            ClassLoader loader = loadedClass.getClassLoader();
+            byte[] untransformedBytecode = this.definedClasses.getUntransformedBytecode(loader, name);
+            if (untransformedBytecode == null) untransformedBytecode = this.readClass(name);
+            byte[] transformedBytecode = this.transform(name, untransformedBytecode);
+            if (transformedBytecode == null) continue;
+            if (Arrays.equals(transformedBytecode, this.definedClasses.getDefinedBytecode(loader, name))) continue; //The changes of the transformer did not affect this class
+
+            classDefinitions.add(new ClassDefinition(loadedClass, transformedBytecode));
+        }
+        if (classDefinitions.isEmpty()) return;
+
+        //The class file transformer callback must not transform the already transformed bytecode again
+        Set<Class<?>> redefiningClasses = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (ClassDefinition classDefinition : classDefinitions) redefiningClasses.add(classDefinition.getDefinitionClass());
+        this.redefiningClasses.set(redefiningClasses);
+        try {
+            this.instrumentation.redefineClasses(classDefinitions.toArray(new ClassDefinition[0]));
+        } finally {
+            this.redefiningClasses.remove();
+        }
+        for (ClassDefinition classDefinition : classDefinitions) {
+            Class<?> definedClass = classDefinition.getDefinitionClass();
+            this.definedClasses.record(definedClass.getClassLoader(), definedClass.getName(), null, classDefinition.getDefinitionClassFile());
+        }
+    }
+
+    /**
+     * Hotswap a transformer class and schedule the redefinition of all affected classes.<br>
+     * The new transformer is compared to the old one and nothing is redefined if only debug information has changed.<br>
+     * The affected classes are redefined by the {@link HotswapScheduler} on a background thread.
+     *
+     * @param transformerBytecode The bytecode of the new transformer class
+     * @return The name of the transformer class
+     */
+    private String hotswapTransformer(final byte[] transformerBytecode) {
+        ClassNode transformer = ASMUtils.fromBytes(transformerBytecode);
+        ClassNode oldTransformer = this.getRegisteredTransformer(transformer.name);
+        Set<String> transformedClasses = this.addTransformer(transformer);
+        ClassNode newTransformer = this.getRegisteredTransformer(transformer.name);
+        if (oldTransformer != null && newTransformer != null && TransformerDiff.compare(oldTransformer, newTransformer).isEmpty()) {
+            Logger.info("Transformer '{}' has no changes, skipping redefinition", dot(transformer.name));
+        } else {
+            //Classes using the transformed classes as super types for the stack map frames are affected as well
+            Set<String> affectedClasses = new HashSet<>(transformedClasses);
+            affectedClasses.addAll(this.dependencyGraph.getAffectedClasses(DependencyGraph.DependencyType.TRANSFORMER, dot(transformer.name)));
+            affectedClasses.addAll(this.dependencyGraph.getAffectedClasses(DependencyGraph.DependencyType.SUPER_TYPE, transformedClasses));
+            this.hotswapScheduler.schedule(dot(transformer.name), affectedClasses);
+        }
+        return transformer.name;
+    }
+
+    @Nullable
+    private ClassNode getRegisteredTransformer(final String name) {
+        for (List<ClassNode> transformers : this.transformer.values()) {
+            for (ClassNode transformer : transformers) {
+                if (transformer.name.equals(name)) return transformer;
             }
         }
-        if (!classDefinitions.isEmpty()) this.instrumentation.redefineClasses(classDefinitions.toArray(new ClassDefinition[0]));
+        return null;
+    }
+
+    /**
+     * Get the loaded classes for the given names.<br>
+     * All loaded classes of the JVM are only searched once for names which are not tracked by the {@link LoadedClassRegistry} yet.
+     *
+     * @param classNames The names of the classes
+     * @return The loaded classes
+     */
+    private List<Class<?>> getLoadedClasses(final Set<String> classNames) {
+        List<Class<?>> classes = new ArrayList<>();
+        Map<String, List<Class<?>>> untrackedClasses = new HashMap<>();
+        for (String className : classNames) {
+            List<Class<?>> trackedClasses = this.loadedClasses.getClasses(className);
+            if (trackedClasses != null) classes.addAll(trackedClasses);
+            else untrackedClasses.put(className, new ArrayList<>());
+        }
+        if (!untrackedClasses.isEmpty()) {
+            for (Class<?> loadedClass : this.instrumentation.getAllLoadedClasses()) {
+                if (loadedClass == null) continue;
+                List<Class<?>> untracked = untrackedClasses.get(loadedClass.getName());
+                if (untracked != null) untracked.add(loadedClass);
+            }
+            for (Map.Entry<String, List<Class<?>>> entry : untrackedClasses.entrySet()) {
+                this.loadedClasses.track(entry.getKey(), entry.getValue());
+                List<Class<?>> trackedClasses = this.loadedClasses.getClasses(entry.getKey());
+                classes.addAll(trackedClasses == null ? entry.getValue() : trackedClasses);
+            }
+        }
+        return classes;
     }
 
     /**
@@ -666,20 +1016,30 @@ public class TransformerManager implements ClassFileTransformer {
         if (className == null) return null;
         try {
             className = dot(className);
+            if (this.transformedClasses.contains(className)) this.loadedClasses.record(loader, className, classBeingRedefined);
             if (this.hotswapClassLoader != null && this.registeredTransformer.contains(className)) {
                 try {
-                    ClassNode transformer = ASMUtils.fromBytes(classfileBuffer);
-                    Set<String> transformedClasses = this.addTransformer(transformer);
-                    this.redefineClasses(transformedClasses);
-
-                    return this.hotswapClassLoader.getHotswapClass(transformer.name);
+                    return this.hotswapClassLoader.getHotswapClass(this.hotswapTransformer(classfileBuffer));
                 } catch (Throwable t) {
                     Logger.error("Failed to hotswap transformer '{}'", className, t);
                     return new byte[]{1}; //Tells the IDE something went wrong
                 }
             }
 
+            Set<Class<?>> redefiningClasses = this.redefiningClasses.get();
+            if (classBeingRedefined != null && redefiningClasses != null && redefiningClasses.contains(classBeingRedefined)) {
+                return null; //The class is redefined by a hotswap and the bytecode is already transformed
+            }
+
             byte[] newBytes = this.transform(className, classfileBuffer);
+            if (this.hotswapClassLoader != null) {
+                //Keep the untransformed and defined bytecode to only redefine changed classes when hotswapping a transformer
+                if (newBytes != null) {
+                    this.definedClasses.record(loader, className, classBeingRedefined == null ? classfileBuffer : null, newBytes);
+                } else if (classBeingRedefined != null) {
+                    this.definedClasses.update(loader, className, classfileBuffer); //The class is no longer transformed
+                }
+            }
             if (newBytes != null) return newBytes;
         } catch (Throwable t) {
             Logger.error("Failed to transform class '{}'", className, t);
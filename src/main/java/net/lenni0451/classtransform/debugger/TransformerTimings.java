@@ -1,28 +1,83 @@
 package net.lenni0451.classtransform.debugger;
 
+import net.lenni0451.classtransform.debugger.jfr.TransformerEvents;
+import net.lenni0451.classtransform.debugger.metrics.TransformerMetrics;
 import net.lenni0451.classtransform.debugger.timings.TimedGroup;
 import net.lenni0451.classtransform.debugger.timings.TimedTransformer;
+import net.lenni0451.classtransform.debugger.timings.TimingStatistics;
 
+import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
- * A timer to measure the time it takes to transform a class.
+ * A timer to measure the time it takes to transform a class.<br>
+ * The measured durations are directly added to the {@link TimingStatistics} and passed to the {@link TransformerMetrics}, nothing is kept per class.<br>
+ * Every timed transformer can also be emitted as a Java Flight Recorder event (see {@link TransformerEvents}).
  */
 @ParametersAreNonnullByDefault
 public class TransformerTimings {
 
-    private final Map<TimedTransformer, Integer> timings = new LinkedHashMap<>();
+    /**
+     * A timer which does not measure anything.
+     */
+    public static final TransformerTimings DISABLED = new TransformerTimings("", null, null, false);
+
+    private final String className;
+    private final TimingStatistics statistics;
+    private final TransformerMetrics metrics;
+    private final boolean events;
+    private final Map<TimedTransformer, Integer> timings;
+    private final boolean enabled;
+    private final long classStart;
+    private boolean timed;
     private TimedGroup currentGroup;
     private String currentTransformer;
     private long currentStart;
+    private Object currentEvent;
+
+    /**
+     * <b>Use {@link #TransformerTimings(String, TimingStatistics, TransformerMetrics, boolean)}.</b><br>
+     * The durations are only kept in this timer and can be read using {@link #getTimings()}.
+     */
+    @Deprecated
+    public TransformerTimings() {
+        this("", null, null, false, new LinkedHashMap<>());
+    }
 
     /**
-     * @return The timings map
+     * The timer is disabled if the statistics and the metrics are {@code null} and events are disabled.
+     *
+     * @param className  The name of the transformed class
+     * @param statistics The statistics to add the durations to or {@code null}
+     * @param metrics    The metrics to pass the durations to or {@code null}
+     * @param events     If Java Flight Recorder events should be emitted
      */
+    public TransformerTimings(final String className, @Nullable final TimingStatistics statistics, @Nullable final TransformerMetrics metrics, final boolean events) {
+        this(className, statistics, metrics, events, null);
+    }
+
+    private TransformerTimings(final String className, @Nullable final TimingStatistics statistics, @Nullable final TransformerMetrics metrics, final boolean events, @Nullable final Map<TimedTransformer, Integer> timings) {
+        this.className = className;
+        this.statistics = statistics;
+        this.metrics = metrics;
+        this.events = events;
+        this.timings = timings;
+        this.enabled = statistics != null || metrics != null || events || timings != null;
+        this.classStart = this.enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * <b>Use {@link TimingStatistics}.</b><br>
+     * Only timers created using {@link #TransformerTimings()} keep their durations, the map is empty for all other timers.
+     *
+     * @return The durations of the timed transformers in milliseconds
+     */
+    @Deprecated
     public Map<TimedTransformer, Integer> getTimings() {
+        if (this.timings == null) return Collections.emptyMap();
         return Collections.unmodifiableMap(this.timings);
     }
 
@@ -33,17 +88,38 @@ public class TransformerTimings {
      * @param transformer The name of the transformer
      */
     public void start(final TimedGroup group, final String transformer) {
+        if (!this.enabled) return;
         this.currentGroup = group;
         this.currentTransformer = transformer;
-        this.currentStart = System.currentTimeMillis();
+        if (this.events) this.currentEvent = TransformerEvents.beginPhase(group, this.className, transformer);
+        this.currentStart = System.nanoTime();
     }
 
     /**
-     * End the timing for the current transformer and add it to the timings map.
+     * End the timing for the current transformer and add it to the statistics.
      */
     public void end() {
-        long end = System.currentTimeMillis();
-        this.timings.put(new TimedTransformer(this.currentGroup, this.currentTransformer), (int) (end - this.currentStart));
+        if (!this.enabled) return;
+        long duration = System.nanoTime() - this.currentStart;
+        this.timed = true;
+        if (this.events) {
+            TransformerEvents.endPhase(this.currentEvent);
+            this.currentEvent = null;
+        }
+        if (this.timings != null) this.timings.merge(new TimedTransformer(this.currentGroup, this.currentTransformer), (int) (duration / 1_000_000), Integer::sum);
+        if (this.statistics != null) this.statistics.record(new TimedTransformer(this.currentGroup, this.currentTransformer), duration);
+        if (this.metrics != null) this.metrics.onTransformerTimed(this.currentGroup, this.currentTransformer, duration);
+    }
+
+    /**
+     * End the timing for the transformed class and add the total duration to the statistics.<br>
+     * Classes without any timed transformer are ignored.
+     */
+    public void finish() {
+        if (!this.enabled || !this.timed) return;
+        long duration = System.nanoTime() - this.classStart;
+        if (this.statistics != null) this.statistics.recordClass(this.className, duration);
+        if (this.metrics != null) this.metrics.onClassTransformed(this.className, duration);
     }
 
 }
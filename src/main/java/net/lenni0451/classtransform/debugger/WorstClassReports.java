@@ -0,0 +1,116 @@
+package net.lenni0451.classtransform.debugger;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.*;
+import java.util.function.ToLongFunction;
+
+/**
+ * The reports of the transformed classes with the highest scores.<br>
+ * The score of a class is the sum of the scores of its reports. Only a limited amount of classes is kept,
+ * the class with the lowest score is removed when the limit is exceeded, so the memory usage does not grow with the amount of transformed classes.
+ *
+ * @param <R> The type of the reports
+ */
+@ParametersAreNonnullByDefault
+public class WorstClassReports<R> {
+
+    /**
+     * The default amount of classes which are kept.
+     */
+    public static final int DEFAULT_LIMIT = 100;
+
+    private final ToLongFunction<R> scoreFunction;
+    private final int limit;
+    private final Map<String, ClassReports<R>> classReports = new HashMap<>();
+
+    /**
+     * @param scoreFunction The function calculating the score of a report
+     */
+    public WorstClassReports(final ToLongFunction<R> scoreFunction) {
+        this(scoreFunction, DEFAULT_LIMIT);
+    }
+
+    /**
+     * @param scoreFunction The function calculating the score of a report
+     * @param limit         The amount of classes which are kept
+     */
+    public WorstClassReports(final ToLongFunction<R> scoreFunction, final int limit) {
+        this.scoreFunction = scoreFunction;
+        this.limit = limit;
+    }
+
+    /**
+     * Add a report to the reports of a class.
+     *
+     * @param className The name of the class
+     * @param report    The report
+     */
+    public synchronized void add(final String className, final R report) {
+        ClassReports<R> reports = this.classReports.computeIfAbsent(className, n -> new ClassReports<>());
+        reports.reports.add(report);
+        reports.score += this.scoreFunction.applyAsLong(report);
+        this.trim();
+    }
+
+    /**
+     * Replace all reports of a class.<br>
+     * If the list is empty, the class is removed.
+     *
+     * @param className The name of the class
+     * @param reports   The reports
+     */
+    public synchronized void set(final String className, final List<R> reports) {
+        if (reports.isEmpty()) {
+            this.classReports.remove(className);
+            return;
+        }
+        ClassReports<R> classReports = new ClassReports<>();
+        for (R report : reports) {
+            classReports.reports.add(report);
+            classReports.score += this.scoreFunction.applyAsLong(report);
+        }
+        this.classReports.put(className, classReports);
+        this.trim();
+    }
+
+    /**
+     * @return The reports of all kept classes, sorted from the highest to the lowest score
+     */
+    public synchronized Map<String, List<R>> getReports() {
+        List<Map.Entry<String, ClassReports<R>>> entries = new ArrayList<>(this.classReports.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<String, ClassReports<R>> entry) -> entry.getValue().score).reversed());
+        Map<String, List<R>> reports = new LinkedHashMap<>();
+        for (Map.Entry<String, ClassReports<R>> entry : entries) {
+            reports.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<>(entry.getValue().reports)));
+        }
+        return Collections.unmodifiableMap(reports);
+    }
+
+    /**
+     * Remove all reports.
+     */
+    public synchronized void clear() {
+        this.classReports.clear();
+    }
+
+    private void trim() {
+        while (this.classReports.size() > Math.max(0, this.limit)) {
+            String lowest = null;
+            long lowestScore = Long.MAX_VALUE;
+            for (Map.Entry<String, ClassReports<R>> entry : this.classReports.entrySet()) {
+                if (lowest == null || entry.getValue().score < lowestScore) {
+                    lowest = entry.getKey();
+                    lowestScore = entry.getValue().score;
+                }
+            }
+            this.classReports.remove(lowest);
+        }
+    }
+
+
+    private static class ClassReports<R> {
+        private final List<R> reports = new ArrayList<>();
+        private long score;
+    }
+
+}
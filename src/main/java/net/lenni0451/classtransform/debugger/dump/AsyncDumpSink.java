@@ -0,0 +1,185 @@
+package net.lenni0451.classtransform.debugger.dump;
+
+import net.lenni0451.classtransform.utils.log.Logger;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A sink passing the dumped classes to another sink on a background thread.<br>
+ * The classes are queued in a bounded queue and written in batches. If the queue is full, the dumping thread waits for at most the configured time
+ * and drops the class afterwards, so class loading is never blocked for long.<br>
+ * The amount of written, delayed and dropped classes is counted.
+ */
+@ParametersAreNonnullByDefault
+public class AsyncDumpSink implements ClassDumpSink {
+
+    /**
+     * The default capacity of the queue.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+    private static final int BATCH_SIZE = 64;
+
+    private final ClassDumpSink target;
+    private final BlockingQueue<DumpedClass> queue;
+    private final long maxWaitMillis;
+    private final Thread writerThread;
+    private final LongAdder writtenClasses = new LongAdder();
+    private final LongAdder delayedClasses = new LongAdder();
+    private final LongAdder droppedClasses = new LongAdder();
+    private final LongAdder failedClasses = new LongAdder();
+    private volatile boolean closed;
+
+    /**
+     * Create an async sink with the default capacity which drops classes immediately if the queue is full.
+     *
+     * @param target The sink the classes are passed to
+     */
+    public AsyncDumpSink(final ClassDumpSink target) {
+        this(target, DEFAULT_CAPACITY, 0);
+    }
+
+    /**
+     * @param target        The sink the classes are passed to
+     * @param capacity      The maximum amount of queued classes
+     * @param maxWaitMillis The maximum time in milliseconds to wait for free space in the queue before dropping a class
+     */
+    public AsyncDumpSink(final ClassDumpSink target, final int capacity, final long maxWaitMillis) {
+        this.target = target;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxWaitMillis = maxWaitMillis;
+        this.writerThread = new Thread(this::write, "ClassTransform Dump Writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    @Override
+    public void dump(final DumpType type, final String className, final byte[] bytecode) {
+        if (this.closed) {
+            this.droppedClasses.increment();
+            return;
+        }
+        DumpedClass dumpedClass = new DumpedClass(type, className, bytecode);
+        if (this.queue.offer(dumpedClass)) {
+            this.checkClosed(dumpedClass);
+            return;
+        }
+
+        if (this.maxWaitMillis > 0) {
+            this.delayedClasses.increment();
+            try {
+                if (this.queue.offer(dumpedClass, this.maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                    this.checkClosed(dumpedClass);
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        this.droppedClasses.increment();
+    }
+
+    /**
+     * @return The amount of classes written to the target sink
+     */
+    public long getWrittenClasses() {
+        return this.writtenClasses.sum();
+    }
+
+    /**
+     * @return The amount of classes which had to wait for free space in the queue
+     */
+    public long getDelayedClasses() {
+        return this.delayedClasses.sum();
+    }
+
+    /**
+     * @return The amount of classes dropped because the queue was full or the sink was closed
+     */
+    public long getDroppedClasses() {
+        return this.droppedClasses.sum();
+    }
+
+    /**
+     * @return The amount of classes the target sink failed to write
+     */
+    public long getFailedClasses() {
+        return this.failedClasses.sum();
+    }
+
+    /**
+     * @return The amount of currently queued classes
+     */
+    public int getQueuedClasses() {
+        return this.queue.size();
+    }
+
+    /**
+     * Stop accepting new classes, write all queued classes and close the target sink.
+     *
+     * @throws IOException If the target sink could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.closed) return;
+        this.closed = true;
+        try {
+            this.writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        //Classes queued while the writer thread was exiting are dropped
+        while (this.queue.poll() != null) this.droppedClasses.increment();
+        this.target.close();
+    }
+
+    private void checkClosed(final DumpedClass dumpedClass) {
+        //The sink might have been closed after the closed check, the class is only counted as dropped if it was not taken from the queue yet
+        if (this.closed && this.queue.remove(dumpedClass)) this.droppedClasses.increment();
+    }
+
+    private void write() {
+        List<DumpedClass> batch = new ArrayList<>(BATCH_SIZE);
+        while (!this.closed || !this.queue.isEmpty()) {
+            try {
+                //The writer thread is not interrupted when closing the sink since interrupts would also abort file writes
+                DumpedClass dumpedClass = this.queue.poll(100, TimeUnit.MILLISECONDS);
+                if (dumpedClass == null) continue;
+                batch.add(dumpedClass);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            this.queue.drainTo(batch, BATCH_SIZE - batch.size());
+            for (DumpedClass dumpedClass : batch) {
+                try {
+                    this.target.dump(dumpedClass.type, dumpedClass.className, dumpedClass.bytecode);
+                    this.writtenClasses.increment();
+                } catch (Throwable t) {
+                    this.failedClasses.increment();
+                    Logger.error("Failed to dump class '{}'", dumpedClass.className, t);
+                }
+            }
+            batch.clear();
+        }
+    }
+
+
+    private static class DumpedClass {
+        private final DumpType type;
+        private final String className;
+        private final byte[] bytecode;
+
+        private DumpedClass(final DumpType type, final String className, final byte[] bytecode) {
+            this.type = type;
+            this.className = className;
+            this.bytecode = bytecode;
+        }
+    }
+
+}
@@ -0,0 +1,32 @@
+package net.lenni0451.classtransform.debugger.dump;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A sink for dumped classes.
+ */
+@ParametersAreNonnullByDefault
+public interface ClassDumpSink extends Closeable {
+
+    /**
+     * Dump the bytecode of a class.
+     *
+     * @param type      The type of the dumped class
+     * @param className The name of the class
+     * @param bytecode  The bytecode of the class
+     * @throws IOException If the class could not be written
+     */
+    void dump(final DumpType type, final String className, final byte[] bytecode) throws IOException;
+
+    /**
+     * Close the sink and write all remaining classes.
+     *
+     * @throws IOException If the sink could not be closed
+     */
+    @Override
+    default void close() throws IOException {
+    }
+
+}
@@ -0,0 +1,33 @@
+package net.lenni0451.classtransform.debugger.dump;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A sink writing every dumped class into its own file.<br>
+ * The classes are written to {@code <root>/<type directory>/<package>/<name>.class}.
+ */
+@ParametersAreNonnullByDefault
+public class DirectoryDumpSink implements ClassDumpSink {
+
+    private final Path root;
+
+    /**
+     * @param root The root directory of the dumped classes
+     */
+    public DirectoryDumpSink(final Path root) {
+        this.root = root;
+    }
+
+    @Override
+    public void dump(final DumpType type, final String className, final byte[] bytecode) throws IOException {
+        Path path = this.root.resolve(type.getDirectory());
+        for (String part : className.split("\\.")) path = path.resolve(part);
+        path = path.resolveSibling(path.getFileName() + ".class");
+        Files.createDirectories(path.getParent());
+        Files.write(path, bytecode);
+    }
+
+}
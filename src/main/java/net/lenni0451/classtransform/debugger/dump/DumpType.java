@@ -0,0 +1,30 @@
+package net.lenni0451.classtransform.debugger.dump;
+
+/**
+ * The type of a dumped class.
+ */
+public enum DumpType {
+
+    /**
+     * A class after it has been transformed.
+     */
+    TRANSFORMED("dump"),
+    /**
+     * The input of a failed transformation.
+     */
+    INPUT("input_dump");
+
+    private final String directory;
+
+    DumpType(final String directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return The name of the directory the classes are dumped into
+     */
+    public String getDirectory() {
+        return this.directory;
+    }
+
+}
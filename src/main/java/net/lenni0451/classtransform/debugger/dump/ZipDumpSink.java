@@ -0,0 +1,57 @@
+package net.lenni0451.classtransform.debugger.dump;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * A sink writing all dumped classes into a single zip file.<br>
+ * The entries are named {@code <type directory>/<package>/<name>.class}. If a class is dumped multiple times (e.g. when being retransformed),
+ * the later entries are named {@code <name>.<n>.class}.<br>
+ * The zip file is only valid after the sink has been closed.
+ */
+@ParametersAreNonnullByDefault
+public class ZipDumpSink implements ClassDumpSink {
+
+    private final ZipOutputStream zipOutputStream;
+    private final Map<String, Integer> entryCounts = new HashMap<>();
+
+    /**
+     * @param file The zip file to write to, an existing file is replaced
+     * @throws IOException If the file could not be created
+     */
+    public ZipDumpSink(final Path file) throws IOException {
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        this.zipOutputStream = new ZipOutputStream(Files.newOutputStream(file));
+    }
+
+    @Override
+    public synchronized void dump(final DumpType type, final String className, final byte[] bytecode) throws IOException {
+        String name = type.getDirectory() + "/" + className.replace('.', '/');
+        int count = this.entryCounts.merge(name, 1, Integer::sum);
+        if (count > 1) name += "." + (count - 1);
+        this.zipOutputStream.putNextEntry(new ZipEntry(name + ".class"));
+        this.zipOutputStream.write(bytecode);
+        this.zipOutputStream.closeEntry();
+    }
+
+    /**
+     * Flush all written entries to the file.
+     *
+     * @throws IOException If the entries could not be flushed
+     */
+    public synchronized void flush() throws IOException {
+        this.zipOutputStream.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        this.zipOutputStream.close();
+    }
+
+}
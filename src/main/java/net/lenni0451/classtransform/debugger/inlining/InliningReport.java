@@ -0,0 +1,67 @@
+package net.lenni0451.classtransform.debugger.inlining;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The size impact of automatically inlined handler methods on a transformed method.
+ */
+@ParametersAreNonnullByDefault
+public class InliningReport {
+
+    private final String methodName;
+    private final String methodDesc;
+    private final int sizeBefore;
+    private final int sizeAfter;
+    private final List<String> inlinedHandlers;
+
+    public InliningReport(final String methodName, final String methodDesc, final int sizeBefore, final int sizeAfter, final List<String> inlinedHandlers) {
+        this.methodName = methodName;
+        this.methodDesc = methodDesc;
+        this.sizeBefore = sizeBefore;
+        this.sizeAfter = sizeAfter;
+        this.inlinedHandlers = Collections.unmodifiableList(inlinedHandlers);
+    }
+
+    /**
+     * @return The name of the transformed method
+     */
+    public String getMethodName() {
+        return this.methodName;
+    }
+
+    /**
+     * @return The descriptor of the transformed method
+     */
+    public String getMethodDesc() {
+        return this.methodDesc;
+    }
+
+    /**
+     * @return The estimated bytecode size of the method before inlining
+     */
+    public int getSizeBefore() {
+        return this.sizeBefore;
+    }
+
+    /**
+     * @return The estimated bytecode size of the method after inlining
+     */
+    public int getSizeAfter() {
+        return this.sizeAfter;
+    }
+
+    /**
+     * @return The names of the handler methods inlined into the method
+     */
+    public List<String> getInlinedHandlers() {
+        return this.inlinedHandlers;
+    }
+
+    @Override
+    public String toString() {
+        return this.methodName + this.methodDesc + ": " + this.sizeBefore + " -> " + this.sizeAfter + " bytes " + this.inlinedHandlers;
+    }
+
+}
@@ -0,0 +1,107 @@
+package net.lenni0451.classtransform.debugger.jfr;
+
+import net.lenni0451.classtransform.debugger.timings.TimedGroup;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Java Flight Recorder events for the phases of a class transformation.<br>
+ * JFR events are only available on Java 11+, the implementation is contained in the multi-release part of the jar ({@code META-INF/versions/11}).
+ * On older versions of Java this class is used and no events are emitted.<br>
+ * The {@code begin} methods return {@code null} if the event is not enabled in any recording.
+ */
+@ParametersAreNonnullByDefault
+public class TransformerEvents {
+
+    /**
+     * @return If any transformer event is enabled in a running recording
+     */
+    public static boolean isEnabled() {
+        return false;
+    }
+
+    /**
+     * Begin the transformation of a class.
+     *
+     * @param className The name of the class
+     * @param bytesIn   The size of the input bytecode
+     * @return The event or {@code null} if not enabled
+     */
+    @Nullable
+    public static Object beginTransformClass(final String className, final int bytesIn) {
+        return null;
+    }
+
+    /**
+     * End the transformation of a class.
+     *
+     * @param event            The event returned by {@link #beginTransformClass(String, int)}
+     * @param transformedBytes The transformed bytecode or {@code null} if the class was not transformed
+     */
+    public static void endTransformClass(@Nullable final Object event, @Nullable final byte[] transformedBytes) {
+    }
+
+    /**
+     * Begin a timed phase of a class transformation.
+     *
+     * @param group     The group of the phase
+     * @param className The name of the transformed class
+     * @param handler   The name of the transformer or handler
+     * @return The event or {@code null} if not enabled
+     */
+    @Nullable
+    public static Object beginPhase(final TimedGroup group, final String className, final String handler) {
+        return null;
+    }
+
+    /**
+     * End a timed phase of a class transformation.
+     *
+     * @param event The event returned by {@link #beginPhase(TimedGroup, String, String)}
+     */
+    public static void endPhase(@Nullable final Object event) {
+    }
+
+    /**
+     * Begin reading a class from a class provider.
+     *
+     * @param className The name of the class
+     * @param provider  The name of the class provider
+     * @return The event or {@code null} if not enabled
+     */
+    @Nullable
+    public static Object beginClassProviderRead(final String className, final String provider) {
+        return null;
+    }
+
+    /**
+     * End reading a class from a class provider.
+     *
+     * @param event The event returned by {@link #beginClassProviderRead(String, String)}
+     * @param bytes The size of the read bytecode
+     */
+    public static void endClassProviderRead(@Nullable final Object event, final int bytes) {
+    }
+
+    /**
+     * Begin loading mappings.
+     *
+     * @param mapper The name of the mapper
+     * @return The event or {@code null} if not enabled
+     */
+    @Nullable
+    public static Object beginMappingLoad(final String mapper) {
+        return null;
+    }
+
+    /**
+     * End loading mappings.
+     *
+     * @param event    The event returned by {@link #beginMappingLoad(String)}
+     * @param mappings The amount of loaded mappings
+     */
+    public static void endMappingLoad(@Nullable final Object event, final int mappings) {
+    }
+
+}
@@ -0,0 +1,241 @@
+package net.lenni0451.classtransform.debugger.metrics;
+
+import net.lenni0451.classtransform.TransformerManager;
+import net.lenni0451.classtransform.debugger.timings.TimedGroup;
+import net.lenni0451.classtransform.debugger.timings.TimedTransformer;
+import net.lenni0451.classtransform.debugger.timings.TimingHistogram;
+import net.lenni0451.classtransform.utils.FailStrategy;
+import net.lenni0451.classtransform.utils.log.Logger;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The default metrics implementation using lock free counters.<br>
+ * The metrics can be accessed directly or using JMX after calling {@link #register(TransformerManager)}.
+ */
+@ParametersAreNonnullByDefault
+public class DefaultTransformerMetrics implements TransformerMetrics, TransformerMetricsMXBean {
+
+    /**
+     * Create new metrics, set them as the metrics listener of the transformer manager and register them in the platform MBean server.<br>
+     * The MBean is registered as {@code net.lenni0451.classtransform:type=TransformerMetrics,id=<id>}.
+     * If the registration fails, a warning is logged and the metrics are still collected.
+     *
+     * @param transformerManager The transformer manager
+     * @return The created metrics
+     */
+    public static DefaultTransformerMetrics register(final TransformerManager transformerManager) {
+        DefaultTransformerMetrics metrics = new DefaultTransformerMetrics();
+        transformerManager.setMetrics(metrics);
+        try {
+            ObjectName name = new ObjectName("net.lenni0451.classtransform:type=TransformerMetrics,id=" + Integer.toHexString(System.identityHashCode(transformerManager)));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, name);
+            metrics.objectName = name;
+        } catch (Throwable t) {
+            Logger.warn("Failed to register transformer metrics MBean", t);
+        }
+        return metrics;
+    }
+
+
+    private final LongAdder transformedClasses = new LongAdder();
+    private final TimingHistogram transformLatency = new TimingHistogram();
+    private final Map<TimedTransformer, LongAdder> transformerNanos = new ConcurrentHashMap<>();
+    private final LongAdder frameComputationNanos = new LongAdder();
+    private final LongAdder classTreeHits = new LongAdder();
+    private final LongAdder classTreeMisses = new LongAdder();
+    private final LongAdder mapperHits = new LongAdder();
+    private final LongAdder mapperMisses = new LongAdder();
+    private final LongAdder providerReads = new LongAdder();
+    private final LongAdder providerReadBytes = new LongAdder();
+    private final LongAdder verifiedClasses = new LongAdder();
+    private final LongAdder verificationFailures = new LongAdder();
+    private final Map<FailStrategy, LongAdder> failures = new EnumMap<>(FailStrategy.class);
+    private volatile long startTime = System.nanoTime();
+    private volatile ObjectName objectName;
+
+    public DefaultTransformerMetrics() {
+        for (FailStrategy failStrategy : FailStrategy.values()) this.failures.put(failStrategy, new LongAdder());
+    }
+
+    /**
+     * @return The name of the registered MBean or {@code null} if not registered
+     */
+    @Nullable
+    public ObjectName getObjectName() {
+        return this.objectName;
+    }
+
+    /**
+     * Unregister the MBean from the platform MBean server.
+     */
+    public void unregister() {
+        if (this.objectName == null) return;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(this.objectName)) server.unregisterMBean(this.objectName);
+        } catch (Throwable t) {
+            Logger.warn("Failed to unregister transformer metrics MBean", t);
+        }
+        this.objectName = null;
+    }
+
+    @Override
+    public void onClassTransformed(final String className, final long nanos) {
+        this.transformedClasses.increment();
+        this.transformLatency.record(nanos);
+    }
+
+    @Override
+    public void onTransformFailed(final String className, final FailStrategy failStrategy) {
+        this.failures.get(failStrategy).increment();
+    }
+
+    @Override
+    public void onTransformerTimed(final TimedGroup group, final String name, final long nanos) {
+        if (TimedGroup.FRAME_COMPUTATION.equals(group)) this.frameComputationNanos.add(nanos);
+        else this.transformerNanos.computeIfAbsent(new TimedTransformer(group, name), t -> new LongAdder()).add(nanos);
+    }
+
+    @Override
+    public void onClassTreeLookup(final String className, final boolean cached) {
+        if (cached) this.classTreeHits.increment();
+        else this.classTreeMisses.increment();
+    }
+
+    @Override
+    public void onMapperLookup(final String transformer, final boolean cached) {
+        if (cached) this.mapperHits.increment();
+        else this.mapperMisses.increment();
+    }
+
+    @Override
+    public void onClassRead(final String className, final int size) {
+        this.providerReads.increment();
+        this.providerReadBytes.add(size);
+    }
+
+    @Override
+    public void onClassVerified(final String className) {
+        this.verifiedClasses.increment();
+    }
+
+    @Override
+    public void onVerificationFailed(final String className, final Set<String> transformers, final List<String> errors) {
+        this.verificationFailures.increment();
+    }
+
+    @Override
+    public long getTransformedClasses() {
+        return this.transformedClasses.sum();
+    }
+
+    @Override
+    public double getTransformedClassesPerSecond() {
+        double seconds = (System.nanoTime() - this.startTime) / 1_000_000_000D;
+        if (seconds <= 0) return 0;
+        return this.transformedClasses.sum() / seconds;
+    }
+
+    @Override
+    public long getTransformLatencyP50Nanos() {
+        return this.transformLatency.getPercentile(50);
+    }
+
+    @Override
+    public long getTransformLatencyP99Nanos() {
+        return this.transformLatency.getPercentile(99);
+    }
+
+    @Override
+    public long getTransformLatencyMaxNanos() {
+        return this.transformLatency.getMaxNanos();
+    }
+
+    @Override
+    public Map<String, Long> getTransformerNanos() {
+        Map<String, Long> transformerNanos = new TreeMap<>();
+        for (Map.Entry<TimedTransformer, LongAdder> entry : this.transformerNanos.entrySet()) {
+            transformerNanos.put(entry.getKey().getGroup() + ":" + entry.getKey().getName(), entry.getValue().sum());
+        }
+        return transformerNanos;
+    }
+
+    @Override
+    public long getFrameComputationNanos() {
+        return this.frameComputationNanos.sum();
+    }
+
+    @Override
+    public double getClassTreeHitRate() {
+        return this.getRate(this.classTreeHits.sum(), this.classTreeMisses.sum());
+    }
+
+    @Override
+    public double getMapperHitRate() {
+        return this.getRate(this.mapperHits.sum(), this.mapperMisses.sum());
+    }
+
+    @Override
+    public long getProviderReads() {
+        return this.providerReads.sum();
+    }
+
+    @Override
+    public long getProviderReadBytes() {
+        return this.providerReadBytes.sum();
+    }
+
+    @Override
+    public Map<String, Long> getFailures() {
+        Map<String, Long> failures = new TreeMap<>();
+        for (Map.Entry<FailStrategy, LongAdder> entry : this.failures.entrySet()) failures.put(entry.getKey().name(), entry.getValue().sum());
+        return failures;
+    }
+
+    @Override
+    public long getVerifiedClasses() {
+        return this.verifiedClasses.sum();
+    }
+
+    @Override
+    public long getVerificationFailures() {
+        return this.verificationFailures.sum();
+    }
+
+    @Override
+    public void reset() {
+        this.transformedClasses.reset();
+        this.transformLatency.reset();
+        this.transformerNanos.clear();
+        this.frameComputationNanos.reset();
+        this.classTreeHits.reset();
+        this.classTreeMisses.reset();
+        this.mapperHits.reset();
+        this.mapperMisses.reset();
+        this.providerReads.reset();
+        this.providerReadBytes.reset();
+        this.verifiedClasses.reset();
+        this.verificationFailures.reset();
+        for (LongAdder failures : this.failures.values()) failures.reset();
+        this.startTime = System.nanoTime();
+    }
+
+    private double getRate(final long hits, final long misses) {
+        long total = hits + misses;
+        if (total == 0) return 0;
+        return (double) hits / total;
+    }
+
+}
@@ -0,0 +1,94 @@
+package net.lenni0451.classtransform.debugger.metrics;
+
+import net.lenni0451.classtransform.TransformerManager;
+import net.lenni0451.classtransform.debugger.timings.TimedGroup;
+import net.lenni0451.classtransform.utils.FailStrategy;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A listener for live metrics of a {@link TransformerManager}.<br>
+ * The listener can be set using {@link TransformerManager#setMetrics(TransformerMetrics)}. If no listener is set, no metrics are measured.<br>
+ * All methods may be called concurrently from multiple threads and should return as fast as possible.
+ */
+@ParametersAreNonnullByDefault
+public interface TransformerMetrics {
+
+    /**
+     * Called after a class has been transformed.
+     *
+     * @param className The name of the transformed class
+     * @param nanos     The time it took to transform the class in nanoseconds
+     */
+    default void onClassTransformed(final String className, final long nanos) {
+    }
+
+    /**
+     * Called when the transformation of a class failed.
+     *
+     * @param className    The name of the class
+     * @param failStrategy The fail strategy used to handle the failure
+     */
+    default void onTransformFailed(final String className, final FailStrategy failStrategy) {
+    }
+
+    /**
+     * Called after a transformer (or another timed part of the transformation) has finished.
+     *
+     * @param group The group of the transformer
+     * @param name  The name of the transformer
+     * @param nanos The duration in nanoseconds
+     */
+    default void onTransformerTimed(final TimedGroup group, final String name, final long nanos) {
+    }
+
+    /**
+     * Called when a class is requested from the class tree.
+     *
+     * @param className The name of the class
+     * @param cached    If the class was already loaded in the class tree
+     */
+    default void onClassTreeLookup(final String className, final boolean cached) {
+    }
+
+    /**
+     * Called when a transformer is remapped for a target class.
+     *
+     * @param transformer The name of the transformer
+     * @param cached      If the target independent part of the remapping was already cached
+     */
+    default void onMapperLookup(final String transformer, final boolean cached) {
+    }
+
+    /**
+     * Called after the bytecode of a class has been read from the class provider.
+     *
+     * @param className The name of the class
+     * @param size      The size of the bytecode
+     */
+    default void onClassRead(final String className, final int size) {
+    }
+
+    /**
+     * Called after a transformed class has been verified in the background.
+     *
+     * @param className The name of the class
+     * @see net.lenni0451.classtransform.debugger.verification.ClassVerifier
+     */
+    default void onClassVerified(final String className) {
+    }
+
+    /**
+     * Called when a transformed class failed the bytecode verification.
+     *
+     * @param className    The name of the class
+     * @param transformers The names of the transformers applied to the class
+     * @param errors       The errors of all methods failing the verification
+     * @see net.lenni0451.classtransform.debugger.verification.ClassVerifier
+     */
+    default void onVerificationFailed(final String className, final Set<String> transformers, final List<String> errors) {
+    }
+
+}
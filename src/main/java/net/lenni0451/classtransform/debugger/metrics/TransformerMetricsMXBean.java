@@ -0,0 +1,85 @@
+package net.lenni0451.classtransform.debugger.metrics;
+
+import java.util.Map;
+
+/**
+ * The JMX interface of the {@link DefaultTransformerMetrics}.
+ */
+public interface TransformerMetricsMXBean {
+
+    /**
+     * @return The amount of transformed classes
+     */
+    long getTransformedClasses();
+
+    /**
+     * @return The average amount of transformed classes per second since the metrics were created or reset
+     */
+    double getTransformedClassesPerSecond();
+
+    /**
+     * @return The median time it took to transform a class in nanoseconds
+     */
+    long getTransformLatencyP50Nanos();
+
+    /**
+     * @return The 99th percentile of the time it took to transform a class in nanoseconds
+     */
+    long getTransformLatencyP99Nanos();
+
+    /**
+     * @return The longest time it took to transform a class in nanoseconds
+     */
+    long getTransformLatencyMaxNanos();
+
+    /**
+     * @return The total time spent in every transformer in nanoseconds, keyed by group and name
+     */
+    Map<String, Long> getTransformerNanos();
+
+    /**
+     * @return The total time spent computing stack map frames in nanoseconds
+     */
+    long getFrameComputationNanos();
+
+    /**
+     * @return The ratio of class tree lookups which were already cached
+     */
+    double getClassTreeHitRate();
+
+    /**
+     * @return The ratio of transformer remappings which were already cached
+     */
+    double getMapperHitRate();
+
+    /**
+     * @return The amount of classes read from the class provider
+     */
+    long getProviderReads();
+
+    /**
+     * @return The amount of bytes read from the class provider
+     */
+    long getProviderReadBytes();
+
+    /**
+     * @return The amount of failed transformations, keyed by the fail strategy used to handle them
+     */
+    Map<String, Long> getFailures();
+
+    /**
+     * @return The amount of transformed classes verified in the background
+     */
+    long getVerifiedClasses();
+
+    /**
+     * @return The amount of transformed classes which failed the bytecode verification
+     */
+    long getVerificationFailures();
+
+    /**
+     * Reset all metrics.
+     */
+    void reset();
+
+}
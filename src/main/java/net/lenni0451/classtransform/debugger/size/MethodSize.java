@@ -0,0 +1,92 @@
+package net.lenni0451.classtransform.debugger.size;
+
+import net.lenni0451.classtransform.utils.ASMUtils;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The size of the code of a method.<br>
+ * The code size is estimated using {@link ASMUtils#getCodeSize(MethodNode)}.
+ */
+@ParametersAreNonnullByDefault
+public class MethodSize {
+
+    /**
+     * Get the sizes of all methods of a class.<br>
+     * The max stack and locals are only correct if the class node was read from bytecode and not modified afterwards.
+     *
+     * @param classNode The class node
+     * @return The sizes of all methods mapped by their name and descriptor
+     */
+    public static Map<String, MethodSize> of(final ClassNode classNode) {
+        Map<String, MethodSize> sizes = new LinkedHashMap<>();
+        for (MethodNode method : classNode.methods) sizes.put(method.name + method.desc, of(method));
+        return sizes;
+    }
+
+    /**
+     * Get the size of a method.
+     *
+     * @param methodNode The method node
+     * @return The size of the method
+     */
+    public static MethodSize of(final MethodNode methodNode) {
+        return new MethodSize(ASMUtils.getCodeSize(methodNode), methodNode.maxStack, methodNode.maxLocals);
+    }
+
+
+    private final int codeSize;
+    private final int maxStack;
+    private final int maxLocals;
+
+    public MethodSize(final int codeSize, final int maxStack, final int maxLocals) {
+        this.codeSize = codeSize;
+        this.maxStack = maxStack;
+        this.maxLocals = maxLocals;
+    }
+
+    /**
+     * @return The estimated size of the bytecode in bytes
+     */
+    public int getCodeSize() {
+        return this.codeSize;
+    }
+
+    /**
+     * @return The maximum stack size
+     */
+    public int getMaxStack() {
+        return this.maxStack;
+    }
+
+    /**
+     * @return The maximum amount of local variable slots
+     */
+    public int getMaxLocals() {
+        return this.maxLocals;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MethodSize)) return false;
+        MethodSize that = (MethodSize) o;
+        return this.codeSize == that.codeSize && this.maxStack == that.maxStack && this.maxLocals == that.maxLocals;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.codeSize, this.maxStack, this.maxLocals);
+    }
+
+    @Override
+    public String toString() {
+        return this.codeSize + " bytes, " + this.maxStack + " stack, " + this.maxLocals + " locals";
+    }
+
+}
@@ -0,0 +1,72 @@
+package net.lenni0451.classtransform.debugger.size;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The method size limits checked after a class has been transformed.<br>
+ * The default limits follow the default limits of the HotSpot JIT compiler:
+ * <ul>
+ *     <li>{@code FreqInlineSize} (325 bytes) for the size of methods which can still be inlined into their callers</li>
+ *     <li>{@code HugeMethodLimit} (8000 bytes) for the size of methods which can still be compiled</li>
+ * </ul>
+ * A limit is crossed if a method was within the limit before the transformation and is above it afterwards.
+ */
+@ParametersAreNonnullByDefault
+public class MethodSizeLimits {
+
+    /**
+     * The name of the {@code FreqInlineSize} limit.
+     */
+    public static final String FREQ_INLINE_SIZE = "FreqInlineSize";
+    /**
+     * The name of the {@code HugeMethodLimit} limit.
+     */
+    public static final String HUGE_METHOD_LIMIT = "HugeMethodLimit";
+    /**
+     * The default method size limits.
+     */
+    public static final MethodSizeLimits DEFAULT = new MethodSizeLimits(325, 8000);
+
+    private final int freqInlineSize;
+    private final int hugeMethodLimit;
+
+    /**
+     * @param freqInlineSize  The maximum bytecode size of a method to be inlined into its callers
+     * @param hugeMethodLimit The maximum bytecode size of a method to be compiled
+     */
+    public MethodSizeLimits(final int freqInlineSize, final int hugeMethodLimit) {
+        this.freqInlineSize = freqInlineSize;
+        this.hugeMethodLimit = hugeMethodLimit;
+    }
+
+    /**
+     * @return The maximum bytecode size of a method to be inlined into its callers
+     */
+    public int getFreqInlineSize() {
+        return this.freqInlineSize;
+    }
+
+    /**
+     * @return The maximum bytecode size of a method to be compiled
+     */
+    public int getHugeMethodLimit() {
+        return this.hugeMethodLimit;
+    }
+
+    /**
+     * Get the names of all limits crossed by a method.
+     *
+     * @param sizeBefore The size of the method before the transformation
+     * @param sizeAfter  The size of the method after the transformation
+     * @return The names of the crossed limits
+     */
+    public List<String> getCrossedLimits(final int sizeBefore, final int sizeAfter) {
+        List<String> crossedLimits = new ArrayList<>();
+        if (sizeBefore <= this.freqInlineSize && sizeAfter > this.freqInlineSize) crossedLimits.add(FREQ_INLINE_SIZE);
+        if (sizeBefore <= this.hugeMethodLimit && sizeAfter > this.hugeMethodLimit) crossedLimits.add(HUGE_METHOD_LIMIT);
+        return crossedLimits;
+    }
+
+}
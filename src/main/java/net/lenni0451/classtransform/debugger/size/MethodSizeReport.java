@@ -0,0 +1,70 @@
+package net.lenni0451.classtransform.debugger.size;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The size of a transformed method before and after the transformation.
+ */
+@ParametersAreNonnullByDefault
+public class MethodSizeReport {
+
+    private final String methodName;
+    private final String methodDesc;
+    @Nullable
+    private final MethodSize before;
+    private final MethodSize after;
+    private final List<String> crossedLimits;
+
+    public MethodSizeReport(final String methodName, final String methodDesc, @Nullable final MethodSize before, final MethodSize after, final List<String> crossedLimits) {
+        this.methodName = methodName;
+        this.methodDesc = methodDesc;
+        this.before = before;
+        this.after = after;
+        this.crossedLimits = Collections.unmodifiableList(crossedLimits);
+    }
+
+    /**
+     * @return The name of the transformed method
+     */
+    public String getMethodName() {
+        return this.methodName;
+    }
+
+    /**
+     * @return The descriptor of the transformed method
+     */
+    public String getMethodDesc() {
+        return this.methodDesc;
+    }
+
+    /**
+     * @return The size of the method before the transformation or {@code null} if the method was added by a transformer
+     */
+    @Nullable
+    public MethodSize getBefore() {
+        return this.before;
+    }
+
+    /**
+     * @return The size of the method after the transformation
+     */
+    public MethodSize getAfter() {
+        return this.after;
+    }
+
+    /**
+     * @return The names of the {@link MethodSizeLimits} crossed by the transformation
+     */
+    public List<String> getCrossedLimits() {
+        return this.crossedLimits;
+    }
+
+    @Override
+    public String toString() {
+        return this.methodName + this.methodDesc + ": " + (this.before == null ? "new" : this.before) + " -> " + this.after + (this.crossedLimits.isEmpty() ? "" : " crossed " + this.crossedLimits);
+    }
+
+}
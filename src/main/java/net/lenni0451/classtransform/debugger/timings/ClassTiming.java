@@ -0,0 +1,33 @@
+package net.lenni0451.classtransform.debugger.timings;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * The time it took to transform a class.
+ */
+@ParametersAreNonnullByDefault
+public class ClassTiming {
+
+    private final String className;
+    private final long nanos;
+
+    public ClassTiming(final String className, final long nanos) {
+        this.className = className;
+        this.nanos = nanos;
+    }
+
+    /**
+     * @return The name of the transformed class
+     */
+    public String getClassName() {
+        return this.className;
+    }
+
+    /**
+     * @return The time it took to transform the class in nanoseconds
+     */
+    public long getNanos() {
+        return this.nanos;
+    }
+
+}
@@ -12,6 +12,10 @@ public enum TimedGroup {
     /**
      * Not really a transformer but still timed.
      */
-    REMAPPER
+    REMAPPER,
+    /**
+     * The computation of the stack map frames when writing the transformed class.
+     */
+    FRAME_COMPUTATION
 
 }
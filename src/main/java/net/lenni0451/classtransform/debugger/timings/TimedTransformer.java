@@ -1,6 +1,7 @@
 package net.lenni0451.classtransform.debugger.timings;
 
 import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.Objects;
 
 /**
  * The group and name of a timed transformer.
@@ -30,6 +31,17 @@ public class TimedTransformer {
         return this.name;
     }
 
-    // Do not add a hashCode() method here, this class needs to be a unique key in a map
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TimedTransformer that = (TimedTransformer) o;
+        return this.group == that.group && Objects.equals(this.name, that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.group, this.name);
+    }
 
 }
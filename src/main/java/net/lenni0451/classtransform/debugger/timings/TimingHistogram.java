@@ -0,0 +1,117 @@
+package net.lenni0451.classtransform.debugger.timings;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of durations in nanoseconds with a fixed memory footprint.<br>
+ * Every power of two is split into {@value #SUB_BUCKETS} linear sub buckets (similar to an HDR histogram),
+ * so the recorded values have a relative error of at most 12.5%.<br>
+ * All methods are thread safe.
+ */
+public class TimingHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    /**
+     * The amount of buckets every power of two is split into.
+     */
+    public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Record a duration.
+     *
+     * @param nanos The duration in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        this.buckets.incrementAndGet(getBucket(nanos));
+        this.count.incrementAndGet();
+        this.totalNanos.addAndGet(nanos);
+        long max;
+        do {
+            max = this.maxNanos.get();
+        } while (nanos > max && !this.maxNanos.compareAndSet(max, nanos));
+    }
+
+    /**
+     * @return The amount of recorded durations
+     */
+    public long getCount() {
+        return this.count.get();
+    }
+
+    /**
+     * @return The sum of all recorded durations in nanoseconds
+     */
+    public long getTotalNanos() {
+        return this.totalNanos.get();
+    }
+
+    /**
+     * @return The longest recorded duration in nanoseconds
+     */
+    public long getMaxNanos() {
+        return this.maxNanos.get();
+    }
+
+    /**
+     * @return The average recorded duration in nanoseconds
+     */
+    public double getMeanNanos() {
+        long count = this.count.get();
+        if (count == 0) return 0;
+        return (double) this.totalNanos.get() / count;
+    }
+
+    /**
+     * Get the duration below or equal to which the given percentage of all recorded durations are.<br>
+     * The returned value is the upper bound of the bucket containing the percentile.
+     *
+     * @param percentile The percentile (between 0 and 100)
+     * @return The duration in nanoseconds
+     * @throws IllegalArgumentException If the percentile is not between 0 and 100
+     */
+    public long getPercentile(final double percentile) {
+        if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("The percentile must be between 0 and 100");
+        long count = this.count.get();
+        if (count == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long current = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            current += this.buckets.get(i);
+            if (current >= target) return Math.min(getUpperBound(i), this.maxNanos.get());
+        }
+        return this.maxNanos.get();
+    }
+
+    /**
+     * Remove all recorded durations.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) this.buckets.set(i, 0);
+        this.count.set(0);
+        this.totalNanos.set(0);
+        this.maxNanos.set(0);
+    }
+
+    private static int getBucket(final long nanos) {
+        if (nanos < SUB_BUCKETS) return (int) nanos;
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long getUpperBound(final int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        int subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+}
@@ -0,0 +1,115 @@
+package net.lenni0451.classtransform.debugger.timings;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The aggregated timings of all transformations.<br>
+ * The durations of every transformer are collected in a {@link TimingHistogram} and only the slowest classes are kept,
+ * so the memory usage does not grow with the amount of transformed classes.
+ */
+@ParametersAreNonnullByDefault
+public class TimingStatistics {
+
+    /**
+     * The default amount of slowest classes which are kept.
+     */
+    public static final int DEFAULT_SLOWEST_CLASSES = 20;
+
+    private final Map<TimedTransformer, TimingHistogram> histograms = new ConcurrentHashMap<>();
+    private final TimingHistogram classHistogram = new TimingHistogram();
+    private final PriorityQueue<ClassTiming> slowestClasses = new PriorityQueue<>(Comparator.comparingLong(ClassTiming::getNanos));
+    private final int slowestClassesLimit;
+
+    public TimingStatistics() {
+        this(DEFAULT_SLOWEST_CLASSES);
+    }
+
+    /**
+     * @param slowestClassesLimit The amount of slowest classes which are kept
+     */
+    public TimingStatistics(final int slowestClassesLimit) {
+        this.slowestClassesLimit = slowestClassesLimit;
+    }
+
+    /**
+     * Record the duration of a transformer.
+     *
+     * @param transformer The timed transformer
+     * @param nanos       The duration in nanoseconds
+     */
+    public void record(final TimedTransformer transformer, final long nanos) {
+        this.histograms.computeIfAbsent(transformer, t -> new TimingHistogram()).record(nanos);
+    }
+
+    /**
+     * Record the total duration of a class transformation.
+     *
+     * @param className The name of the transformed class
+     * @param nanos     The duration in nanoseconds
+     */
+    public void recordClass(final String className, final long nanos) {
+        this.classHistogram.record(nanos);
+        if (this.slowestClassesLimit <= 0) return;
+        synchronized (this.slowestClasses) {
+            if (this.slowestClasses.size() < this.slowestClassesLimit) {
+                this.slowestClasses.add(new ClassTiming(className, nanos));
+            } else if (this.slowestClasses.peek().getNanos() < nanos) {
+                this.slowestClasses.poll();
+                this.slowestClasses.add(new ClassTiming(className, nanos));
+            }
+        }
+    }
+
+    /**
+     * @return The histograms of all timed transformers
+     */
+    public Map<TimedTransformer, TimingHistogram> getHistograms() {
+        return Collections.unmodifiableMap(this.histograms);
+    }
+
+    /**
+     * Get the histogram of a timed transformer.
+     *
+     * @param group The group of the transformer
+     * @param name  The name of the transformer
+     * @return The histogram or {@code null} if the transformer was never timed
+     */
+    @Nullable
+    public TimingHistogram getHistogram(final TimedGroup group, final String name) {
+        return this.histograms.get(new TimedTransformer(group, name));
+    }
+
+    /**
+     * @return The histogram of the total transformation durations of all classes
+     */
+    public TimingHistogram getClassHistogram() {
+        return this.classHistogram;
+    }
+
+    /**
+     * @return The slowest transformed classes, sorted from slowest to fastest
+     */
+    public List<ClassTiming> getSlowestClasses() {
+        List<ClassTiming> slowestClasses;
+        synchronized (this.slowestClasses) {
+            slowestClasses = new ArrayList<>(this.slowestClasses);
+        }
+        slowestClasses.sort(Comparator.comparingLong(ClassTiming::getNanos).reversed());
+        return slowestClasses;
+    }
+
+    /**
+     * Remove all recorded timings.
+     */
+    public void reset() {
+        this.histograms.clear();
+        this.classHistogram.reset();
+        synchronized (this.slowestClasses) {
+            this.slowestClasses.clear();
+        }
+    }
+
+}
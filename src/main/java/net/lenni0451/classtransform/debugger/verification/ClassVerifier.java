@@ -0,0 +1,222 @@
+package net.lenni0451.classtransform.debugger.verification;
+
+import net.lenni0451.classtransform.TransformerManager;
+import net.lenni0451.classtransform.debugger.metrics.TransformerMetrics;
+import net.lenni0451.classtransform.utils.ASMUtils;
+import net.lenni0451.classtransform.utils.log.Logger;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.analysis.Analyzer;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.objectweb.asm.tree.analysis.BasicValue;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Verify the bytecode of transformed classes on a background thread.<br>
+ * Only a configurable sample of the transformed classes is verified. The class hierarchy is resolved using the already cached parts of the
+ * {@link net.lenni0451.classtransform.utils.tree.ClassTree}, so no classes are loaded or transformed and class loading threads are never blocked by the verification.
+ * Classes using types which are not cached yet are counted as skipped.<br>
+ * Classes are queued in a bounded queue and dropped if the queue is full, so class loading is never blocked.<br>
+ * Failures are logged with the transformers of the class and passed to the {@link TransformerMetrics} of the transformer manager.
+ */
+@ParametersAreNonnullByDefault
+public class ClassVerifier {
+
+    /**
+     * The default capacity of the queue.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final TransformerManager transformerManager;
+    private final ThreadPoolExecutor executor;
+    private final LongAdder verifiedClasses = new LongAdder();
+    private final LongAdder failedClasses = new LongAdder();
+    private final LongAdder skippedClasses = new LongAdder();
+    private final LongAdder droppedClasses = new LongAdder();
+    private volatile double sampleRate;
+
+    /**
+     * Create a verifier with the default capacity.
+     *
+     * @param transformerManager The transformer manager
+     * @param sampleRate         The ratio of transformed classes which are verified (between 0 and 1)
+     */
+    public ClassVerifier(final TransformerManager transformerManager, final double sampleRate) {
+        this(transformerManager, sampleRate, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param transformerManager The transformer manager
+     * @param sampleRate         The ratio of transformed classes which are verified (between 0 and 1)
+     * @param capacity           The maximum amount of queued classes
+     */
+    public ClassVerifier(final TransformerManager transformerManager, final double sampleRate, final int capacity) {
+        this.transformerManager = transformerManager;
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(capacity), runnable -> {
+            Thread thread = new Thread(runnable, "ClassTransform Verifier");
+            thread.setDaemon(true);
+            return thread;
+        }, (runnable, executor) -> this.droppedClasses.increment());
+        this.setSampleRate(sampleRate);
+    }
+
+    /**
+     * @return The ratio of transformed classes which are verified
+     */
+    public double getSampleRate() {
+        return this.sampleRate;
+    }
+
+    /**
+     * Set the ratio of transformed classes which are verified.<br>
+     * {@code 1} verifies every class and {@code 0} disables the verification.
+     *
+     * @param sampleRate The sample rate (between 0 and 1)
+     * @throws IllegalArgumentException If the sample rate is not between 0 and 1
+     */
+    public void setSampleRate(final double sampleRate) {
+        if (sampleRate < 0 || sampleRate > 1) throw new IllegalArgumentException("The sample rate must be between 0 and 1");
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Queue a transformed class for verification if it is part of the sample.<br>
+     * This method never blocks. If the queue is full, the class is dropped.
+     *
+     * @param className The name of the class
+     * @param bytecode  The transformed bytecode of the class
+     */
+    public void submit(final String className, final byte[] bytecode) {
+        double sampleRate = this.sampleRate;
+        if (sampleRate <= 0) return;
+        if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) return;
+        if (this.executor.isShutdown()) {
+            this.droppedClasses.increment();
+            return;
+        }
+        this.executor.execute(() -> this.verifyAndReport(className, bytecode));
+    }
+
+    /**
+     * Verify a class on the current thread.<br>
+     * Methods using types which are not cached in the class tree are skipped.
+     * The result is not logged or counted.
+     *
+     * @param bytecode The bytecode of the class
+     * @return The errors of all methods failing the verification
+     */
+    public List<String> verify(final byte[] bytecode) {
+        return this.verify(bytecode, new HashSet<>());
+    }
+
+    /**
+     * @return The amount of verified classes
+     */
+    public long getVerifiedClasses() {
+        return this.verifiedClasses.sum();
+    }
+
+    /**
+     * @return The amount of classes which failed the verification
+     */
+    public long getFailedClasses() {
+        return this.failedClasses.sum();
+    }
+
+    /**
+     * @return The amount of classes which were not verified because they use types which are not cached in the class tree
+     */
+    public long getSkippedClasses() {
+        return this.skippedClasses.sum();
+    }
+
+    /**
+     * @return The amount of classes dropped because the queue was full or the verifier was shut down
+     */
+    public long getDroppedClasses() {
+        return this.droppedClasses.sum();
+    }
+
+    /**
+     * @return The amount of currently queued classes
+     */
+    public int getQueuedClasses() {
+        return this.executor.getQueue().size();
+    }
+
+    /**
+     * Stop accepting new classes.<br>
+     * Already queued classes are still verified.
+     */
+    public void shutdown() {
+        this.executor.shutdown();
+    }
+
+    /**
+     * Wait until all queued classes have been verified.<br>
+     * The verifier has to be {@link #shutdown()} first.
+     *
+     * @param timeout The maximum time to wait
+     * @param unit    The unit of the timeout
+     * @return If all classes have been verified before the timeout elapsed
+     * @throws InterruptedException If the current thread was interrupted while waiting
+     */
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        return this.executor.awaitTermination(timeout, unit);
+    }
+
+    private List<String> verify(final byte[] bytecode, final Set<String> unresolvedTypes) {
+        //Frames are not needed since the analyzer computes them itself
+        ClassNode node = ASMUtils.fromBytes(bytecode, ClassReader.SKIP_FRAMES);
+        List<String> errors = new ArrayList<>();
+        for (MethodNode method : node.methods) {
+            Analyzer<BasicValue> analyzer = new Analyzer<>(new TreeVerifier(this.transformerManager.getClassTree(), node));
+            try {
+                analyzer.analyze(node.name, method);
+            } catch (AnalyzerException e) {
+                if (e.getCause() instanceof TreeVerifier.UnresolvedTypeException) {
+                    unresolvedTypes.add(((TreeVerifier.UnresolvedTypeException) e.getCause()).getClassName());
+                } else {
+                    errors.add(method.name + method.desc + ": " + e.getMessage());
+                }
+            }
+        }
+        return errors;
+    }
+
+    private void verifyAndReport(final String className, final byte[] bytecode) {
+        Set<String> unresolvedTypes = new HashSet<>();
+        List<String> errors;
+        try {
+            errors = this.verify(bytecode, unresolvedTypes);
+        } catch (Throwable t) {
+            errors = new ArrayList<>();
+            errors.add(t.toString());
+        }
+        if (errors.isEmpty() && !unresolvedTypes.isEmpty()) {
+            this.skippedClasses.increment();
+            return;
+        }
+        this.verifiedClasses.increment();
+        TransformerMetrics metrics = this.transformerManager.getMetrics();
+        if (metrics != null) metrics.onClassVerified(className);
+        if (errors.isEmpty()) return;
+
+        this.failedClasses.increment();
+        Set<String> transformers = this.transformerManager.getTransformers(className);
+        Logger.error("Transformed class '{}' failed the bytecode verification (transformers: {}):\n{}", className, transformers, String.join("\n", errors));
+        if (metrics != null) metrics.onVerificationFailed(className, transformers, errors);
+    }
+
+}
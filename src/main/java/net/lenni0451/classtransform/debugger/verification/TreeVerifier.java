@@ -0,0 +1,111 @@
+package net.lenni0451.classtransform.debugger.verification;
+
+import net.lenni0451.classtransform.utils.tree.ClassTree;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.analysis.BasicValue;
+import org.objectweb.asm.tree.analysis.SimpleVerifier;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link SimpleVerifier} resolving the class hierarchy using the {@link ClassTree} instead of loading the classes.<br>
+ * Only already cached tree parts are used, so the verifier never locks the class tree or transforms classes.
+ * If a type is not cached, an {@link UnresolvedTypeException} is thrown.
+ */
+@ParametersAreNonnullByDefault
+class TreeVerifier extends SimpleVerifier {
+
+    private static final Type OBJECT_TYPE = Type.getObjectType("java/lang/Object");
+
+    private final ClassTree classTree;
+    private final Type currentClass;
+
+    TreeVerifier(final ClassTree classTree, final ClassNode node) {
+        super(Opcodes.ASM9, Type.getObjectType(node.name), node.superName == null ? null : Type.getObjectType(node.superName), getInterfaces(node), (node.access & Opcodes.ACC_INTERFACE) != 0);
+        this.classTree = classTree;
+        this.currentClass = Type.getObjectType(node.name);
+    }
+
+    @Override
+    protected boolean isSubTypeOf(final BasicValue value, final BasicValue expected) {
+        Type expectedType = expected.getType();
+        Type type = value.getType();
+        if (expectedType != null && type != null && isReference(expectedType) && isReference(type) && !type.getInternalName().equals("null")) {
+            //The merge of two types only results in a common super class, so every reference is accepted for interfaces (like the JVM does)
+            return this.isAssignableFrom(expectedType, type) || this.isInterface(expectedType);
+        }
+        return super.isSubTypeOf(value, expected);
+    }
+
+    @Override
+    protected boolean isInterface(final Type type) {
+        if (type.equals(this.currentClass)) return super.isInterface(type);
+        if (type.getSort() == Type.ARRAY) return false;
+        return (this.getTreePart(type).getModifiers() & Opcodes.ACC_INTERFACE) != 0;
+    }
+
+    @Override
+    protected Type getSuperClass(final Type type) {
+        if (type.equals(this.currentClass)) return super.getSuperClass(type);
+        if (type.getSort() == Type.ARRAY) return OBJECT_TYPE;
+        String superName = this.getTreePart(type).getNode().superName;
+        return superName == null ? null : Type.getObjectType(superName);
+    }
+
+    @Override
+    protected boolean isAssignableFrom(final Type type, final Type other) {
+        if (type.equals(other)) return true;
+        if (type.equals(this.currentClass) || other.equals(this.currentClass)) return super.isAssignableFrom(type, other);
+        if (type.getSort() == Type.ARRAY) {
+            if (other.getSort() != Type.ARRAY) return false;
+            Type elementType = Type.getType(type.getDescriptor().substring(1));
+            Type otherElementType = Type.getType(other.getDescriptor().substring(1));
+            if (!isReference(elementType) || !isReference(otherElementType)) return false;
+            return this.isAssignableFrom(elementType, otherElementType);
+        }
+        if (type.equals(OBJECT_TYPE)) return true;
+        if (other.getSort() == Type.ARRAY) return type.getInternalName().equals("java/lang/Cloneable") || type.getInternalName().equals("java/io/Serializable");
+        return this.getTreePart(other).getSuperClasses().contains(type.getClassName());
+    }
+
+    private ClassTree.TreePart getTreePart(final Type type) {
+        ClassTree.TreePart part = this.classTree.getCachedTreePart(type.getClassName());
+        //Runtime exceptions are reported as analyzer exceptions by the analyzer
+        if (part == null) throw new UnresolvedTypeException(type.getClassName());
+        return part;
+    }
+
+    private static boolean isReference(final Type type) {
+        return type.getSort() == Type.OBJECT || type.getSort() == Type.ARRAY;
+    }
+
+    private static List<Type> getInterfaces(final ClassNode node) {
+        List<Type> interfaces = new ArrayList<>();
+        if (node.interfaces != null) {
+            for (String inter : node.interfaces) interfaces.add(Type.getObjectType(inter));
+        }
+        return interfaces;
+    }
+
+
+    /**
+     * Thrown if a type is not cached in the class tree.
+     */
+    static class UnresolvedTypeException extends RuntimeException {
+        private final String className;
+
+        private UnresolvedTypeException(final String className) {
+            super("The type '" + className + "' is not in the class tree", null, false, false);
+            this.className = className;
+        }
+
+        String getClassName() {
+            return this.className;
+        }
+    }
+
+}
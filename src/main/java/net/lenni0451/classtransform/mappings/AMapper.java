@@ -2,6 +2,8 @@ package net.lenni0451.classtransform.mappings;
 
 import lombok.SneakyThrows;
 import net.lenni0451.classtransform.TransformerManager;
+import net.lenni0451.classtransform.debugger.jfr.TransformerEvents;
+import net.lenni0451.classtransform.debugger.metrics.TransformerMetrics;
 import net.lenni0451.classtransform.mappings.annotation.AnnotationRemap;
 import net.lenni0451.classtransform.mappings.annotation.RemapType;
 import net.lenni0451.classtransform.mappings.dynamic.IDynamicRemapper;
@@ -28,8 +30,12 @@ import java.io.*;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static net.lenni0451.classtransform.utils.ASMUtils.dot;
@@ -44,6 +50,8 @@ public abstract class AMapper {
 
     private final MapperConfig config;
     protected final MapRemapper remapper;
+    private final Set<String> filledSuperClasses = ConcurrentHashMap.newKeySet();
+    private final Map<ClassNode, PreparedTransformer> preparedTransformers = new WeakHashMap<>();
     private boolean initialized = false;
     private ClassTree superMappingsTree = null;
 
@@ -61,7 +69,9 @@ public abstract class AMapper {
     public synchronized final void load() {
         if (this.initialized) return;
         try {
+            Object event = TransformerEvents.beginMappingLoad(this.getClass().getName());
             this.init();
+            TransformerEvents.endMappingLoad(event, this.remapper.getMappings().size());
             this.initialized = true;
         } catch (Throwable t) {
             throw new RuntimeException("Unable to initialize mappings", t);
@@ -111,35 +121,45 @@ public abstract class AMapper {
     public final ClassNode mapClass(final TransformerManager transformerManager, final ClassNode target, final ClassNode transformer) {
         this.fillTransformerSuperMappings(transformerManager, transformer);
         List<AnnotationHolder> annotationsToRemap = new ArrayList<>();
-        this.checkAnnotations(transformer, transformer.visibleAnnotations, annotationsToRemap);
-        this.checkAnnotations(transformer, transformer.invisibleAnnotations, annotationsToRemap);
-        for (FieldNode field : transformer.fields) {
-            this.checkAnnotations(field, field.visibleAnnotations, annotationsToRemap);
-            this.checkAnnotations(field, field.invisibleAnnotations, annotationsToRemap);
-        }
-        for (MethodNode method : transformer.methods) {
-            this.checkAnnotations(method, method.visibleAnnotations, annotationsToRemap);
-            this.checkAnnotations(method, method.invisibleAnnotations, annotationsToRemap);
+        this.checkAnnotations(transformer, transformer.fields, transformer.methods, transformer, annotationsToRemap);
+        this.mapAnnotations(annotationsToRemap, RemapStage.ALL, transformerManager, target, transformer);
+        if (this.config.remapTransformer) return Remapper.remap(transformer, this.remapper);
+        else return transformer;
+    }
+
+    /**
+     * Remap the given registered transformer for the given target class.<br>
+     * The target independent part of the remapping (class, member and descriptor remapping) only runs once per transformer instance and is cached.
+     * Only short members and dynamic remaps are resolved for every target class.<br>
+     * The given transformer is not modified.
+     *
+     * @param transformerManager The transformer manager
+     * @param target             The target class node
+     * @param transformer        The registered transformer class node
+     * @return The remapped copy of the transformer class node
+     */
+    public final ClassNode mapTransformer(final TransformerManager transformerManager, final ClassNode target, final ClassNode transformer) {
+        Set<String> recorder = this.remapper.getAccessRecorder();
+        PreparedTransformer prepared;
+        synchronized (this.preparedTransformers) {
+            prepared = this.preparedTransformers.get(transformer);
         }
-        for (AnnotationHolder annotation : annotationsToRemap) {
-            Class<?> annotationClass;
-            try {
-                annotationClass = Class.forName(type(annotation.annotation.desc).getClassName());
-            } catch (ClassNotFoundException e) {
-                //In bytecode it is possible to add annotations that are not in the classpath
-                //If this is the case it can't be a ClassTransform annotation, so we can ignore it
-                continue;
-            }
-            try {
-                Map<String, Object> annotationMap = AnnotationUtils.listToMap(annotation.annotation.values);
-                this.mapAnnotation(annotation.holder, annotationClass, annotationMap, transformerManager, target, transformer);
-                annotation.annotation.values = AnnotationUtils.mapToList(annotationMap);
-            } catch (ClassNotFoundException e) {
-                throw new RuntimeException("Unable to remap annotation '" + annotation.annotation.desc + "' from transformer '" + transformer.name + "'", e);
+        if (prepared != null && recorder != null && prepared.mappingKeys == null) prepared = null; //The mapping keys have not been recorded when preparing the transformer
+        TransformerMetrics metrics = transformerManager.getMetrics();
+        if (metrics != null) metrics.onMapperLookup(transformer.name, prepared != null);
+        if (prepared == null) {
+            prepared = this.prepareTransformer(transformerManager, transformer, recorder != null);
+            synchronized (this.preparedTransformers) {
+                this.preparedTransformers.put(transformer, prepared);
             }
         }
-        if (this.config.remapTransformer) return Remapper.remap(transformer, this.remapper);
-        else return transformer;
+
+        if (recorder != null) recorder.addAll(prepared.mappingKeys);
+        ClassNode mappedTransformer = ASMUtils.cloneClass(prepared.template);
+        List<AnnotationHolder> annotationsToRemap = new ArrayList<>();
+        this.checkAnnotations(mappedTransformer, prepared.fields, prepared.methods, mappedTransformer, annotationsToRemap);
+        this.mapAnnotations(annotationsToRemap, RemapStage.DYNAMIC, transformerManager, target, mappedTransformer);
+        return mappedTransformer;
     }
 
     /**
@@ -155,6 +175,39 @@ public abstract class AMapper {
     protected abstract void init() throws Throwable;
 
 
+    private PreparedTransformer prepareTransformer(final TransformerManager transformerManager, final ClassNode transformer, final boolean recordMappingKeys) {
+        Set<String> mappingKeys = recordMappingKeys ? new HashSet<>() : null; //The used mapping keys are kept to record them as dependencies of every target class
+        Set<String> previousRecorder = this.remapper.setAccessRecorder(mappingKeys);
+        try {
+            ClassNode node = ASMUtils.cloneClass(transformer);
+            this.fillTransformerSuperMappings(transformerManager, node);
+            List<AnnotationHolder> annotationsToRemap = new ArrayList<>();
+            this.checkAnnotations(node, node.fields, node.methods, node, annotationsToRemap);
+            this.mapAnnotations(annotationsToRemap, RemapStage.STATIC, transformerManager, null, node);
+            if (this.config.remapTransformer) return new PreparedTransformer(Remapper.remap(node, this.remapper), node.fields, node.methods, mappingKeys);
+            else return new PreparedTransformer(node, node.fields, node.methods, mappingKeys);
+        } finally {
+            this.remapper.setAccessRecorder(previousRecorder);
+        }
+    }
+
+    private void mapAnnotations(final List<AnnotationHolder> annotationsToRemap, final RemapStage stage, final TransformerManager transformerManager, @Nullable final ClassNode target, final ClassNode transformer) {
+        for (AnnotationHolder annotation : annotationsToRemap) {
+            AnnotationRemapPlan plan = AnnotationRemapPlan.get(annotation.annotation.desc);
+            //In bytecode it is possible to add annotations that are not in the classpath
+            //If this is the case it can't be a ClassTransform annotation, so we can ignore it
+            if (plan == null || plan.isEmpty()) continue;
+            try {
+                Map<String, Object> annotationMap = AnnotationUtils.listToMap(annotation.annotation.values);
+                this.mapAnnotation(annotation.holder, plan, annotationMap, stage, transformerManager, target, transformer);
+                annotation.annotation.values = AnnotationUtils.mapToList(annotationMap);
+            } catch (ClassNotFoundException e) {
+                throw new RuntimeException("Unable to remap annotation '" + annotation.annotation.desc + "' from transformer '" + transformer.name + "'", e);
+            }
+        }
+    }
+
+
     protected List<String> readLines(final File f) throws IOException {
         return this.readLines(new FileInputStream(f));
     }
@@ -175,7 +228,7 @@ public abstract class AMapper {
     private void fillTransformerSuperMappings(final TransformerManager transformerManager, final ClassNode transformer) {
         if (!this.config.fillSuperMappings) return;
         try {
-            SuperMappingFiller.fillTransformerSuperMembers(transformer, this.remapper, this.getSuperMappingsTree(transformerManager), transformerManager.getClassProvider());
+            SuperMappingFiller.fillTransformerSuperMembers(transformer, this.remapper, this.getSuperMappingsTree(transformerManager), transformerManager.getClassProvider(), this.filledSuperClasses);
         } catch (Throwable t) {
             if (FailStrategy.CONTINUE.equals(this.config.superMappingsFailStrategy)) {
                 Logger.warn("Unable to fill super mappings for class '{}'. Trying without", transformer.name, t);
@@ -192,7 +245,7 @@ public abstract class AMapper {
     private void fillSuperMembers(final String className, final TransformerManager transformerManager) {
         if (!this.config.fillSuperMappings) return;
         try {
-            SuperMappingFiller.fillSuperMembers(className, this.remapper, this.getSuperMappingsTree(transformerManager), transformerManager.getClassProvider());
+            SuperMappingFiller.fillSuperMembers(className, this.remapper, this.getSuperMappingsTree(transformerManager), transformerManager.getClassProvider(), this.filledSuperClasses);
         } catch (Throwable t) {
             if (FailStrategy.CONTINUE.equals(this.config.superMappingsFailStrategy)) {
                 Logger.warn("Unable to fill super mappings for class '{}'. Trying without", className, t);
@@ -206,14 +259,19 @@ public abstract class AMapper {
         }
     }
 
-    private void mapAnnotation(final Object holder, final Class<?> annotation, final Map<String, Object> values, final TransformerManager transformerManager, final ClassNode target, final ClassNode transformer) throws ClassNotFoundException {
-        for (Method method : annotation.getDeclaredMethods()) {
-            AnnotationRemap remap = method.getDeclaredAnnotation(AnnotationRemap.class);
-            if (remap == null) continue;
-            RemapType remapType = remap.value();
+    private void mapAnnotation(final Object holder, final AnnotationRemapPlan plan, final Map<String, Object> values, final RemapStage stage, final TransformerManager transformerManager, @Nullable final ClassNode target, final ClassNode transformer) throws ClassNotFoundException {
+        Class<?> annotation = plan.getAnnotation();
+        for (AnnotationRemapPlan.Attribute attribute : plan.getAttributes()) {
+            Method method = attribute.getMethod();
+            AnnotationRemap remap = attribute.getRemap();
+            RemapType remapType = attribute.getType();
+            if (!stage.handles(remapType)) continue;
+            RemapStage nestedStage = stage;
             if (remapType.equals(RemapType.DYNAMIC)) {
+                //The nested annotations of dynamic attributes are unknown in the static stage and have to be fully remapped
+                nestedStage = RemapStage.ALL;
                 try {
-                    IDynamicRemapper dynamicRemapper = remap.dynamicRemapper().getDeclaredConstructor().newInstance();
+                    IDynamicRemapper dynamicRemapper = attribute.getDynamicRemapper();
                     remapType = dynamicRemapper.dynamicRemap(this, annotation, values, method, transformerManager, target, transformer);
                     if (remapType == null || remapType.equals(RemapType.DYNAMIC)) continue;
                 } catch (Throwable t) {
@@ -229,25 +287,16 @@ public abstract class AMapper {
             if (remapType.equals(RemapType.ANNOTATION)) {
                 if (value instanceof AnnotationNode) {
                     AnnotationNode node = (AnnotationNode) value;
-                    Type type = Type.getType(node.desc);
-                    Map<String, Object> nodeMap = AnnotationUtils.listToMap(node.values);
-                    this.mapAnnotation(holder, Class.forName(type.getClassName()), nodeMap, transformerManager, target, transformer);
-                    node.values = AnnotationUtils.mapToList(nodeMap);
+                    this.mapAnnotation(holder, node, nestedStage, transformerManager, target, transformer);
                 } else if (value instanceof AnnotationNode[]) {
                     AnnotationNode[] nodes = (AnnotationNode[]) value;
                     for (AnnotationNode node : nodes) {
-                        Type type = Type.getType(node.desc);
-                        Map<String, Object> nodeMap = AnnotationUtils.listToMap(node.values);
-                        this.mapAnnotation(holder, Class.forName(type.getClassName()), nodeMap, transformerManager, target, transformer);
-                        node.values = AnnotationUtils.mapToList(nodeMap);
+                        this.mapAnnotation(holder, node, nestedStage, transformerManager, target, transformer);
                     }
                 } else if (value instanceof List) {
                     List<AnnotationNode> nodes = (List<AnnotationNode>) value;
                     for (AnnotationNode node : nodes) {
-                        Type type = Type.getType(node.desc);
-                        Map<String, Object> nodeMap = AnnotationUtils.listToMap(node.values);
-                        this.mapAnnotation(holder, Class.forName(type.getClassName()), nodeMap, transformerManager, target, transformer);
-                        node.values = AnnotationUtils.mapToList(nodeMap);
+                        this.mapAnnotation(holder, node, nestedStage, transformerManager, target, transformer);
                     }
                 } else {
                     throw new IllegalStateException("Unexpected value type '" + value.getClass().getName() + "' for annotation '" + annotation.getName() + "' value '" + annotation.getName() + "'");
@@ -270,6 +319,15 @@ public abstract class AMapper {
         }
     }
 
+    private void mapAnnotation(final Object holder, final AnnotationNode annotation, final RemapStage stage, final TransformerManager transformerManager, @Nullable final ClassNode target, final ClassNode transformer) throws ClassNotFoundException {
+        AnnotationRemapPlan plan = AnnotationRemapPlan.get(annotation.desc);
+        if (plan == null) throw new ClassNotFoundException(type(annotation.desc).getClassName());
+        if (plan.isEmpty()) return;
+        Map<String, Object> values = AnnotationUtils.listToMap(annotation.values);
+        this.mapAnnotation(holder, plan, values, stage, transformerManager, target, transformer);
+        annotation.values = AnnotationUtils.mapToList(values);
+    }
+
     private String remap(final RemapType type, String s, final TransformerManager transformerManager) {
         switch (type) {
             case SHORT_MEMBER:
@@ -304,12 +362,69 @@ public abstract class AMapper {
         }
     }
 
+    /**
+     * Collect all annotations of the given class and its members.<br>
+     * The fields and methods of the holders are matched by index with the members of the class.
+     */
+    private void checkAnnotations(final ClassNode node, final List<FieldNode> fieldHolders, final List<MethodNode> methodHolders, final Object classHolder, final List<AnnotationHolder> out) {
+        this.checkAnnotations(classHolder, node.visibleAnnotations, out);
+        this.checkAnnotations(classHolder, node.invisibleAnnotations, out);
+        for (int i = 0; i < node.fields.size(); i++) {
+            FieldNode field = node.fields.get(i);
+            this.checkAnnotations(fieldHolders.get(i), field.visibleAnnotations, out);
+            this.checkAnnotations(fieldHolders.get(i), field.invisibleAnnotations, out);
+        }
+        for (int i = 0; i < node.methods.size(); i++) {
+            MethodNode method = node.methods.get(i);
+            this.checkAnnotations(methodHolders.get(i), method.visibleAnnotations, out);
+            this.checkAnnotations(methodHolders.get(i), method.invisibleAnnotations, out);
+        }
+    }
+
     private void checkAnnotations(final Object holder, @Nullable final List<AnnotationNode> annotations, final List<AnnotationHolder> out) {
         if (annotations == null) return;
         for (AnnotationNode annotation : annotations) out.add(new AnnotationHolder(holder, annotation));
     }
 
 
+    private enum RemapStage {
+        /**
+         * Remap all attributes.
+         */
+        ALL,
+        /**
+         * Only remap attributes which do not depend on the target class.
+         */
+        STATIC,
+        /**
+         * Only remap attributes which depend on the target class (short members and dynamic remaps).
+         */
+        DYNAMIC;
+
+        private boolean handles(final RemapType type) {
+            if (RemapType.ANNOTATION.equals(type)) return true; //Nested annotations are visited in all stages
+            boolean dynamic = RemapType.DYNAMIC.equals(type) || RemapType.SHORT_MEMBER.equals(type);
+            if (this.equals(STATIC)) return !dynamic;
+            else if (this.equals(DYNAMIC)) return dynamic;
+            else return true;
+        }
+    }
+
+    private static class PreparedTransformer {
+        private final ClassNode template;
+        private final List<FieldNode> fields;
+        private final List<MethodNode> methods;
+        @Nullable
+        private final Set<String> mappingKeys;
+
+        private PreparedTransformer(final ClassNode template, final List<FieldNode> fields, final List<MethodNode> methods, @Nullable final Set<String> mappingKeys) {
+            this.template = template;
+            this.fields = fields;
+            this.methods = methods;
+            this.mappingKeys = mappingKeys;
+        }
+    }
+
     private static class AnnotationHolder {
         private final Object holder;
         private final AnnotationNode annotation;
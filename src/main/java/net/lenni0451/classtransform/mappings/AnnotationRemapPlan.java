@@ -0,0 +1,152 @@
+package net.lenni0451.classtransform.mappings;
+
+import net.lenni0451.classtransform.mappings.annotation.AnnotationRemap;
+import net.lenni0451.classtransform.mappings.annotation.RemapType;
+import net.lenni0451.classtransform.mappings.dynamic.IDynamicRemapper;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static net.lenni0451.classtransform.utils.Types.type;
+
+/**
+ * The precomputed remapping information of an annotation type.<br>
+ * Plans are cached by the descriptor of the annotation, so the annotation class only has to be resolved and reflected once.
+ */
+@ParametersAreNonnullByDefault
+final class AnnotationRemapPlan {
+
+    private static final Map<String, AnnotationRemapPlan> PLANS = new ConcurrentHashMap<>();
+    private static final Map<Class<? extends IDynamicRemapper>, IDynamicRemapper> DYNAMIC_REMAPPERS = new ConcurrentHashMap<>();
+    private static final AnnotationRemapPlan MISSING = new AnnotationRemapPlan(null, Collections.emptyList());
+
+    /**
+     * Get the remap plan for the given annotation descriptor.<br>
+     * Annotation classes which can't be found are cached as well.
+     *
+     * @param descriptor The descriptor of the annotation
+     * @return The remap plan or {@code null} if the annotation class could not be found
+     */
+    @Nullable
+    static AnnotationRemapPlan get(final String descriptor) {
+        AnnotationRemapPlan plan = PLANS.get(descriptor);
+        if (plan == null) {
+            plan = create(descriptor);
+            AnnotationRemapPlan existing = PLANS.putIfAbsent(descriptor, plan);
+            if (existing != null) plan = existing;
+        }
+        return plan == MISSING ? null : plan;
+    }
+
+    private static AnnotationRemapPlan create(final String descriptor) {
+        Class<?> annotation;
+        try {
+            annotation = Class.forName(type(descriptor).getClassName());
+        } catch (ClassNotFoundException e) {
+            return MISSING;
+        }
+        List<Attribute> attributes = new ArrayList<>();
+        for (Method method : annotation.getDeclaredMethods()) {
+            AnnotationRemap remap = method.getDeclaredAnnotation(AnnotationRemap.class);
+            if (remap != null) attributes.add(new Attribute(method, remap));
+        }
+        return new AnnotationRemapPlan(annotation, attributes);
+    }
+
+    private static IDynamicRemapper getDynamicRemapper(final Class<? extends IDynamicRemapper> remapperClass) throws ReflectiveOperationException {
+        IDynamicRemapper remapper = DYNAMIC_REMAPPERS.get(remapperClass);
+        if (remapper == null) {
+            remapper = remapperClass.getDeclaredConstructor().newInstance();
+            IDynamicRemapper existing = DYNAMIC_REMAPPERS.putIfAbsent(remapperClass, remapper);
+            if (existing != null) remapper = existing;
+        }
+        return remapper;
+    }
+
+
+    private final Class<?> annotation;
+    private final List<Attribute> attributes;
+
+    private AnnotationRemapPlan(@Nullable final Class<?> annotation, final List<Attribute> attributes) {
+        this.annotation = annotation;
+        this.attributes = attributes;
+    }
+
+    /**
+     * @return The annotation class
+     */
+    Class<?> getAnnotation() {
+        return this.annotation;
+    }
+
+    /**
+     * @return All attributes of the annotation which need to be remapped
+     */
+    List<Attribute> getAttributes() {
+        return this.attributes;
+    }
+
+    /**
+     * @return If the annotation has no attributes which need to be remapped
+     */
+    boolean isEmpty() {
+        return this.attributes.isEmpty();
+    }
+
+
+    /**
+     * An attribute of an annotation which is annotated with {@link AnnotationRemap}.
+     */
+    static final class Attribute {
+        private final Method method;
+        private final AnnotationRemap remap;
+
+        private Attribute(final Method method, final AnnotationRemap remap) {
+            this.method = method;
+            this.remap = remap;
+        }
+
+        /**
+         * @return The annotation method of the attribute
+         */
+        Method getMethod() {
+            return this.method;
+        }
+
+        /**
+         * @return The name of the attribute
+         */
+        String getName() {
+            return this.method.getName();
+        }
+
+        /**
+         * @return The remap annotation of the attribute
+         */
+        AnnotationRemap getRemap() {
+            return this.remap;
+        }
+
+        /**
+         * @return The remap type of the attribute
+         */
+        RemapType getType() {
+            return this.remap.value();
+        }
+
+        /**
+         * Get the shared dynamic remapper instance of the attribute.<br>
+         * The instance is created the first time it is requested.
+         *
+         * @return The dynamic remapper
+         * @throws ReflectiveOperationException If the dynamic remapper could not be created
+         */
+        IDynamicRemapper getDynamicRemapper() throws ReflectiveOperationException {
+            return AnnotationRemapPlan.getDynamicRemapper(this.remap.dynamicRemapper());
+        }
+    }
+
+}
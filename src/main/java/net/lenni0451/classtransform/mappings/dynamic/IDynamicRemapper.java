@@ -9,6 +9,10 @@ import javax.annotation.Nullable;
 import java.lang.reflect.Method;
 import java.util.Map;
 
+/**
+ * A remapper for annotation fields which can't be remapped statically.<br>
+ * Implementations are instantiated once and shared between all remapping calls, so they should not hold any state.
+ */
 public interface IDynamicRemapper {
 
     /**
@@ -0,0 +1,315 @@
+package net.lenni0451.classtransform.mappings.impl;
+
+import net.lenni0451.classtransform.mappings.AMapper;
+import net.lenni0451.classtransform.mappings.MapperConfig;
+import net.lenni0451.classtransform.utils.mappings.MapRemapper;
+import org.objectweb.asm.commons.Remapper;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+
+/**
+ * A remapper that combines the mappings of multiple other mappers.<br>
+ * The mappers are grouped into layers which are chained after each other (e.g. {@code intermediary -> named}).<br>
+ * All mappers of a layer use the same namespaces and are merged together. If multiple mappers of a layer map the same key, the last one wins.<br>
+ * <br>
+ * All input mappers are loaded in parallel on the given {@link ForkJoinPool}.<br>
+ * The mappings are merged in shards keyed by the owner class and the chain is composed once while loading,
+ * so lookups never go through intermediate layers ({@code A -> B -> C} becomes {@code A -> C}).
+ */
+@ParametersAreNonnullByDefault
+public class CompositeMapper extends AMapper {
+
+    private final ForkJoinPool pool;
+    private final List<List<AMapper>> layers;
+
+    /**
+     * Create a composite mapper which chains the given mappers.<br>
+     * Every mapper is used as its own layer.
+     *
+     * @param config The mapper config
+     * @param chain  The mappers in the order they should be applied
+     */
+    public CompositeMapper(final MapperConfig config, final AMapper... chain) {
+        this(config, Arrays.stream(chain).map(Collections::singletonList).collect(Collectors.toList()));
+    }
+
+    /**
+     * Create a composite mapper which chains the given layers.
+     *
+     * @param config The mapper config
+     * @param layers The layers in the order they should be applied
+     */
+    public CompositeMapper(final MapperConfig config, final List<List<AMapper>> layers) {
+        this(config, ForkJoinPool.commonPool(), layers);
+    }
+
+    /**
+     * Create a composite mapper which chains the given layers.
+     *
+     * @param config The mapper config
+     * @param pool   The pool used to load and merge the mappings
+     * @param layers The layers in the order they should be applied
+     */
+    public CompositeMapper(final MapperConfig config, final ForkJoinPool pool, final List<List<AMapper>> layers) {
+        super(config);
+        if (layers.isEmpty()) throw new IllegalArgumentException("At least one mapping layer is required");
+        for (List<AMapper> layer : layers) {
+            if (layer.isEmpty()) throw new IllegalArgumentException("Mapping layers can not be empty");
+        }
+        this.pool = pool;
+        this.layers = layers;
+    }
+
+    @Override
+    protected void init() throws Throwable {
+        List<Map<String, String>> shards;
+        try {
+            shards = this.pool.submit(this::compose).get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+        for (Map<String, String> shard : shards) this.remapper.copy(new MapRemapper(shard));
+    }
+
+    private List<Map<String, String>> compose() {
+        List<Callable<Void>> loadTasks = new ArrayList<>();
+        for (List<AMapper> layer : this.layers) {
+            for (AMapper mapper : layer) {
+                loadTasks.add(() -> {
+                    mapper.load();
+                    return null;
+                });
+            }
+        }
+        invokeAll(loadTasks);
+
+        int shardCount = Math.max(1, this.pool.getParallelism() * 4);
+        List<Map<String, String>> composed = null;
+        for (List<AMapper> layer : this.layers) {
+            List<Map<String, String>> merged = this.merge(layer, shardCount);
+            if (composed == null) composed = merged;
+            else composed = this.chain(composed, merged);
+        }
+        return composed;
+    }
+
+    /**
+     * Merge all mappers of a layer into owner keyed shards.<br>
+     * Later mappers overwrite the mappings of earlier ones.
+     */
+    private List<Map<String, String>> merge(final List<AMapper> layer, final int shardCount) {
+        List<Callable<List<List<Map.Entry<String, String>>>>> splitTasks = new ArrayList<>();
+        for (AMapper mapper : layer) {
+            splitTasks.add(() -> split(mapper.getRemapper().getMappings().entrySet(), shardCount));
+        }
+        List<List<List<Map.Entry<String, String>>>> buckets = invokeAll(splitTasks);
+
+        List<Callable<Map<String, String>>> mergeTasks = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            final int shard = i;
+            mergeTasks.add(() -> {
+                int size = 0;
+                for (List<List<Map.Entry<String, String>>> bucket : buckets) size += bucket.get(shard).size();
+                Map<String, String> merged = new HashMap<>(capacity(size));
+                for (List<List<Map.Entry<String, String>>> bucket : buckets) {
+                    for (Map.Entry<String, String> entry : bucket.get(shard)) merged.put(entry.getKey(), entry.getValue());
+                }
+                return merged;
+            });
+        }
+        return invokeAll(mergeTasks);
+    }
+
+    /**
+     * Compose two layers ({@code A -> B} and {@code B -> C}) into a single layer ({@code A -> C}).<br>
+     * Mappings of the second layer which are not reached by the first one are added with their owners and descriptors mapped back to {@code A}.
+     */
+    private List<Map<String, String>> chain(final List<Map<String, String>> first, final List<Map<String, String>> second) {
+        int shardCount = first.size();
+        ShardedRemapper firstRemapper = new ShardedRemapper(first);
+        ShardedRemapper secondRemapper = new ShardedRemapper(second);
+        Map<String, String> reverseClasses = new HashMap<>();
+        for (Map<String, String> shard : first) {
+            for (Map.Entry<String, String> entry : shard.entrySet()) {
+                if (entry.getKey().indexOf('.') == -1) reverseClasses.put(entry.getValue(), entry.getKey());
+            }
+        }
+        ShardedRemapper reverseRemapper = new ShardedRemapper(Collections.singletonList(reverseClasses));
+        Set<String> reached = ConcurrentHashMap.newKeySet();
+
+        List<Callable<Map<String, String>>> composeTasks = new ArrayList<>();
+        for (Map<String, String> shard : first) {
+            composeTasks.add(() -> {
+                Map<String, String> composed = new HashMap<>(capacity(shard.size()));
+                for (Map.Entry<String, String> entry : shard.entrySet()) {
+                    composed.put(entry.getKey(), mapThrough(entry.getKey(), entry.getValue(), firstRemapper, secondRemapper, reached));
+                }
+                return composed;
+            });
+        }
+        List<Callable<List<List<Map.Entry<String, String>>>>> missingTasks = new ArrayList<>();
+        for (Map<String, String> shard : second) {
+            missingTasks.add(() -> {
+                List<Map.Entry<String, String>> missing = new ArrayList<>();
+                for (Map.Entry<String, String> entry : shard.entrySet()) {
+                    String key = entry.getKey();
+                    if (reached.contains(key)) continue;
+                    if (key.indexOf('.') == -1 && reverseClasses.containsKey(key)) continue; //The class is renamed by the first layer
+                    missing.add(new AbstractMap.SimpleImmutableEntry<>(mapBack(key, reverseRemapper), entry.getValue()));
+                }
+                return split(missing, shardCount);
+            });
+        }
+        List<Map<String, String>> composed = invokeAll(composeTasks);
+        List<List<List<Map.Entry<String, String>>>> missing = invokeAll(missingTasks);
+
+        List<Callable<Void>> fillTasks = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            final int shard = i;
+            fillTasks.add(() -> {
+                for (List<List<Map.Entry<String, String>>> bucket : missing) {
+                    for (Map.Entry<String, String> entry : bucket.get(shard)) composed.get(shard).putIfAbsent(entry.getKey(), entry.getValue());
+                }
+                return null;
+            });
+        }
+        invokeAll(fillTasks);
+        return composed;
+    }
+
+
+    /**
+     * Map a mapping of the first layer through the second layer.
+     *
+     * @param key     The mapping key in the {@code A} namespace
+     * @param value   The mapped value in the {@code B} namespace
+     * @param first   The remapper of the first layer
+     * @param second  The remapper of the second layer
+     * @param reached The keys of the second layer which have been used
+     * @return The mapped value in the {@code C} namespace
+     */
+    private static String mapThrough(final String key, final String value, final Remapper first, final Remapper second, final Set<String> reached) {
+        int dotIndex = key.indexOf('.');
+        if (dotIndex == -1) {
+            String mapped = lookup(second, value, reached);
+            return mapped == null ? value : mapped;
+        }
+
+        String owner = key.substring(0, dotIndex);
+        int fieldIndex = key.indexOf(':', dotIndex);
+        int methodIndex = key.indexOf('(', dotIndex);
+        String mapped;
+        if (dotIndex > 0 && fieldIndex != -1) {
+            String desc = key.substring(fieldIndex + 1);
+            String mappedOwner = first.mapType(owner);
+            if (desc.isEmpty()) {
+                mapped = lookup(second, mappedOwner + '.' + value + ':', reached);
+            } else {
+                mapped = lookup(second, mappedOwner + '.' + value + ':' + first.mapDesc(desc), reached);
+                if (mapped == null) mapped = lookup(second, mappedOwner + '.' + value + ':', reached);
+            }
+        } else if (dotIndex > 0 && methodIndex != -1) {
+            mapped = lookup(second, first.mapType(owner) + '.' + value + first.mapMethodDesc(key.substring(methodIndex)), reached);
+        } else {
+            //Invoke dynamic and annotation attribute mappings are not owned by a class
+            mapped = lookup(second, key, reached);
+        }
+        return mapped == null ? value : mapped;
+    }
+
+    @Nullable
+    private static String lookup(final Remapper remapper, final String key, final Set<String> reached) {
+        String mapped = remapper.map(key);
+        if (mapped != null) reached.add(key);
+        return mapped;
+    }
+
+    /**
+     * Map the owner and descriptor of a mapping key back to the {@code A} namespace.
+     *
+     * @param key     The mapping key in the {@code B} namespace
+     * @param reverse The reversed class mappings of the first layer
+     * @return The mapping key in the {@code A} namespace
+     */
+    private static String mapBack(final String key, final Remapper reverse) {
+        int dotIndex = key.indexOf('.');
+        if (dotIndex <= 0) return key;
+
+        String owner = reverse.mapType(key.substring(0, dotIndex));
+        int fieldIndex = key.indexOf(':', dotIndex);
+        int methodIndex = key.indexOf('(', dotIndex);
+        if (fieldIndex != -1) {
+            String desc = key.substring(fieldIndex + 1);
+            return owner + key.substring(dotIndex, fieldIndex + 1) + (desc.isEmpty() ? "" : reverse.mapDesc(desc));
+        } else if (methodIndex != -1) {
+            return owner + key.substring(dotIndex, methodIndex) + reverse.mapMethodDesc(key.substring(methodIndex));
+        } else {
+            return key;
+        }
+    }
+
+    private static List<List<Map.Entry<String, String>>> split(final Collection<Map.Entry<String, String>> entries, final int shardCount) {
+        List<List<Map.Entry<String, String>>> buckets = new ArrayList<>(shardCount);
+        int expectedSize = entries.size() / shardCount + 1;
+        for (int i = 0; i < shardCount; i++) buckets.add(new ArrayList<>(expectedSize));
+        for (Map.Entry<String, String> entry : entries) buckets.get(shardOf(entry.getKey(), shardCount)).add(entry);
+        return buckets;
+    }
+
+    /**
+     * Get the shard of a mapping key.<br>
+     * All mappings of a class (the class itself, its methods and its fields) are in the same shard.
+     *
+     * @param key        The mapping key
+     * @param shardCount The amount of shards
+     * @return The index of the shard
+     */
+    private static int shardOf(final String key, final int shardCount) {
+        int hash = 0;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c == '.') break;
+            hash = 31 * hash + c;
+        }
+        return (hash & Integer.MAX_VALUE) % shardCount;
+    }
+
+    private static int capacity(final int size) {
+        return (int) (size / 0.75F) + 1;
+    }
+
+    private static <T> List<T> invokeAll(final List<Callable<T>> tasks) {
+        List<ForkJoinTask<T>> forkTasks = tasks.stream().map(ForkJoinTask::adapt).collect(Collectors.toList());
+        ForkJoinTask.invokeAll(forkTasks);
+        List<T> results = new ArrayList<>(forkTasks.size());
+        for (ForkJoinTask<T> task : forkTasks) results.add(task.join());
+        return results;
+    }
+
+
+    /**
+     * A read only remapper looking up mappings in owner keyed shards.
+     */
+    private static class ShardedRemapper extends Remapper {
+        private final List<Map<String, String>> shards;
+
+        private ShardedRemapper(final List<Map<String, String>> shards) {
+            this.shards = shards;
+        }
+
+        @Override
+        @Nullable
+        public String map(final String key) {
+            return this.shards.get(shardOf(key, this.shards.size())).get(key);
+        }
+    }
+
+}
@@ -3,7 +3,6 @@ package net.lenni0451.classtransform.targets;
 import net.lenni0451.classtransform.TransformerManager;
 import net.lenni0451.classtransform.annotations.CSlice;
 import net.lenni0451.classtransform.annotations.CTarget;
-import net.lenni0451.classtransform.exceptions.SliceException;
 import net.lenni0451.classtransform.mappings.AMapper;
 import net.lenni0451.classtransform.mappings.annotation.RemapType;
 import net.lenni0451.classtransform.mappings.dynamic.IDynamicRemapper;
@@ -14,10 +13,12 @@ import org.objectweb.asm.tree.MethodNode;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import java.lang.reflect.Method;
-import java.util.*;
+import java.util.List;
+import java.util.Map;
 
 /**
- * The interface which is used to define a target for an injection.
+ * The interface which is used to define a target for an injection.<br>
+ * Implementations can use the {@link MethodInstructionIndex} of the method to look up instructions without scanning the whole method.
  */
 @ParametersAreNonnullByDefault
 public interface IInjectionTarget extends IDynamicRemapper {
@@ -45,7 +46,8 @@ public interface IInjectionTarget extends IDynamicRemapper {
     }
 
     /**
-     * Get all instructions in the given slice.
+     * Get all instructions in the given slice.<br>
+     * The slice is resolved using the {@link MethodInstructionIndex} of the method.
      *
      * @param injectionTargets All existing injection targets
      * @param method           The method to search in
@@ -54,39 +56,8 @@ public interface IInjectionTarget extends IDynamicRemapper {
      * @throws IllegalArgumentException If the slice is invalid
      */
     default List<AbstractInsnNode> getSlice(final Map<String, IInjectionTarget> injectionTargets, final MethodNode method, @Nullable final CSlice slice) {
-        if (slice == null) return Arrays.asList(method.instructions.toArray());
-
-        int from;
-        int to;
-        if (slice.from().value().isEmpty()) {
-            from = 0;
-        } else {
-            IInjectionTarget target = injectionTargets.get(slice.from().value().toUpperCase(Locale.ROOT));
-            if (target == null) throw SliceException.unknown("from", slice.from().value());
-            List<AbstractInsnNode> targets = target.getTargets(injectionTargets, method, slice.from(), null);
-            if (targets.size() != 1) throw SliceException.count("From", slice.from().value(), targets.size());
-            from = method.instructions.indexOf(targets.get(0));
-        }
-        if (slice.to().value().isEmpty()) {
-            to = method.instructions.size();
-        } else {
-            IInjectionTarget target = injectionTargets.get(slice.to().value().toUpperCase(Locale.ROOT));
-            if (target == null) throw SliceException.unknown("to", slice.to().value());
-            List<AbstractInsnNode> targets = target.getTargets(injectionTargets, method, slice.to(), null);
-            if (targets.size() != 1) throw SliceException.count("To", slice.to().value(), targets.size());
-            to = method.instructions.indexOf(targets.get(0));
-        }
-
-        List<AbstractInsnNode> instructions = new ArrayList<>();
-        for (AbstractInsnNode instruction : method.instructions) instructions.add(instruction);
-        Iterator<AbstractInsnNode> it = instructions.iterator();
-        while (it.hasNext()) {
-            AbstractInsnNode instruction = it.next();
-            int index = method.instructions.indexOf(instruction);
-            if (index < from || index > to) it.remove();
-        }
-
-        return instructions;
+        MethodInstructionIndex index = MethodInstructionIndex.of(method);
+        return index.getInstructions(index.getSlice(injectionTargets, method, slice));
     }
 
     @Nullable
@@ -0,0 +1,373 @@
+package net.lenni0451.classtransform.targets;
+
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.*;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A compiled pattern matching a sequence of instructions.<br>
+ * The elements of the pattern are separated by {@code ;}, a {@code ;} terminating an object type in a descriptor is part of the element:
+ * <ul>
+ *     <li>{@code OPCODE} matches an instruction with the given opcode (name or number)</li>
+ *     <li>{@code OPCODE|OPCODE} matches an instruction with one of the given opcodes</li>
+ *     <li>{@code OPCODE operand} additionally matches the operand of the instruction, {@code *} can be used as a wildcard</li>
+ *     <li>{@code *} matches any instruction</li>
+ *     <li>{@code ...} matches any number of instructions, including none</li>
+ *     <li>{@code @} in front of an element captures the matched instruction</li>
+ * </ul>
+ * The operands are formatted like this:
+ * <ul>
+ *     <li>Method instructions: {@code owner.name(desc)}</li>
+ *     <li>Field instructions: {@code owner.name:desc}</li>
+ *     <li>Type instructions: The internal name of the type</li>
+ *     <li>Variable and int instructions: The number</li>
+ *     <li>Ldc instructions: The constant, types as descriptor</li>
+ *     <li>Invokedynamic instructions: {@code name(desc)}</li>
+ * </ul>
+ * e.g. {@code ALOAD; GETFIELD Test.field:Ljava/lang/String;; @INVOKEVIRTUAL java/io/PrintStream.println(Ljava/lang/String;)V}<br>
+ * Labels, line numbers and frames are ignored.<br>
+ * The targets of a match are the captured instructions or the first instruction if nothing is captured.<br>
+ * The pattern is compiled into a lazily built DFA, so a method is searched in a single linear pass.
+ * Matches do not overlap, the earliest ending match is used and starts as early as possible.
+ */
+@ParametersAreNonnullByDefault
+public final class InstructionPattern {
+
+    private static final int MAX_ELEMENTS = 62;
+
+    /**
+     * Compile the given pattern.
+     *
+     * @param pattern The pattern
+     * @return The compiled pattern
+     * @throws IllegalArgumentException If the pattern is invalid
+     */
+    public static InstructionPattern compile(final String pattern) {
+        List<Element> elements = new ArrayList<>();
+        for (String part : split(pattern)) {
+            part = part.trim();
+            if (part.isEmpty()) throw new IllegalArgumentException("Empty element in pattern '" + pattern + "'");
+            elements.add(Element.parse(part));
+        }
+        if (elements.size() > MAX_ELEMENTS) throw new IllegalArgumentException("Pattern '" + pattern + "' has more than " + MAX_ELEMENTS + " elements");
+        if (elements.stream().allMatch(element -> element.gap)) throw new IllegalArgumentException("Pattern '" + pattern + "' does not match any instruction");
+        return new InstructionPattern(pattern, elements.toArray(new Element[0]));
+    }
+
+    private static List<String> split(final String pattern) {
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        boolean parameters = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (parameters) {
+                //Only primitive and array types are skipped, object types are handled below
+                if (c == ')') {
+                    parameters = false;
+                    continue;
+                }
+                if ("BCDFIJSZ[".indexOf(c) != -1) continue;
+                if (c != 'L') parameters = false;
+            }
+            if (c == '(') {
+                parameters = true;
+            } else if (c == 'L' && (parameters || isDescriptorStart(pattern, start, i))) {
+                int end = getObjectTypeEnd(pattern, i);
+                if (end != -1) i = end;
+                else parameters = false;
+            } else if (c == ';') {
+                parts.add(pattern.substring(start, i));
+                start = i + 1;
+            }
+        }
+        parts.add(pattern.substring(start));
+        return parts;
+    }
+
+    private static boolean isDescriptorStart(final String pattern, final int elementStart, final int index) {
+        if (index == elementStart) return false;
+        char previous = pattern.charAt(index - 1);
+        if (previous == ')' || previous == ':' || previous == '[') return true;
+        if (previous != ' ' && previous != '\t') return false;
+        //The operand of LDC instructions can be a type descriptor
+        String element = pattern.substring(elementStart, index).trim();
+        if (element.startsWith("@")) element = element.substring(1);
+        return element.equalsIgnoreCase("LDC");
+    }
+
+    private static int getObjectTypeEnd(final String pattern, final int start) {
+        for (int i = start + 1; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == ';') return i == start + 1 ? -1 : i;
+            if (c == '*' || c == '|' || c == '(' || c == ')' || Character.isWhitespace(c)) return -1;
+        }
+        return -1;
+    }
+
+    private static String getOperand(final AbstractInsnNode instruction) {
+        if (instruction instanceof MethodInsnNode) {
+            MethodInsnNode methodInsn = (MethodInsnNode) instruction;
+            return methodInsn.owner + "." + methodInsn.name + methodInsn.desc;
+        } else if (instruction instanceof FieldInsnNode) {
+            FieldInsnNode fieldInsn = (FieldInsnNode) instruction;
+            return fieldInsn.owner + "." + fieldInsn.name + ":" + fieldInsn.desc;
+        } else if (instruction instanceof TypeInsnNode) {
+            return ((TypeInsnNode) instruction).desc;
+        } else if (instruction instanceof VarInsnNode) {
+            return String.valueOf(((VarInsnNode) instruction).var);
+        } else if (instruction instanceof IincInsnNode) {
+            return String.valueOf(((IincInsnNode) instruction).var);
+        } else if (instruction instanceof IntInsnNode) {
+            return String.valueOf(((IntInsnNode) instruction).operand);
+        } else if (instruction instanceof LdcInsnNode) {
+            Object cst = ((LdcInsnNode) instruction).cst;
+            return cst instanceof Type ? ((Type) cst).getDescriptor() : String.valueOf(cst);
+        } else if (instruction instanceof InvokeDynamicInsnNode) {
+            InvokeDynamicInsnNode invokeDynamicInsn = (InvokeDynamicInsnNode) instruction;
+            return invokeDynamicInsn.name + invokeDynamicInsn.desc;
+        } else if (instruction instanceof MultiANewArrayInsnNode) {
+            return ((MultiANewArrayInsnNode) instruction).desc;
+        }
+        return "";
+    }
+
+    private static boolean matchesGlob(final String[] parts, final String text) {
+        if (parts.length == 1) return parts[0].equals(text);
+        if (!text.startsWith(parts[0])) return false;
+        int start = parts[0].length();
+        int end = text.length() - parts[parts.length - 1].length();
+        if (end < start || !text.endsWith(parts[parts.length - 1])) return false;
+        for (int i = 1; i < parts.length - 1; i++) {
+            int index = text.indexOf(parts[i], start);
+            if (index == -1 || index + parts[i].length() > end) return false;
+            start = index + parts[i].length();
+        }
+        return true;
+    }
+
+
+    private final String pattern;
+    private final Element[] elements;
+    private final int accept;
+    private final Map<Long, State> states = new ConcurrentHashMap<>();
+    private final State initial;
+
+    private InstructionPattern(final String pattern, final Element[] elements) {
+        this.pattern = pattern;
+        this.elements = elements;
+        this.accept = elements.length;
+        this.initial = this.getState(this.closure(1L));
+    }
+
+    /**
+     * Get the targets of all matches in the given range.
+     *
+     * @param index   The instruction index of the method
+     * @param range   The range to search in
+     * @param ordinal The ordinal of the target or {@code -1} for all
+     * @return The targets
+     */
+    public List<AbstractInsnNode> getTargets(final MethodInstructionIndex index, final MethodInstructionIndex.Range range, final int ordinal) {
+        List<AbstractInsnNode> targets = new ArrayList<>();
+        int to = Math.min(range.getTo(), index.size() - 1);
+        int[] positions = new int[16];
+        long[] masks = new long[16];
+        int count = 0;
+        State state = this.initial;
+        for (int i = range.getFrom(); i <= to; i++) {
+            AbstractInsnNode instruction = index.get(i);
+            if (instruction.getOpcode() == -1) continue;
+
+            long mask = this.getMask(instruction);
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count * 2);
+                masks = Arrays.copyOf(masks, count * 2);
+            }
+            positions[count] = i;
+            masks[count] = mask;
+            count++;
+            state = state.next(this, mask);
+            if (state.accepting) {
+                this.collectTargets(index, positions, masks, count, targets);
+                state = this.initial;
+                count = 0;
+            }
+        }
+        if (ordinal == -1) return targets;
+        if (ordinal < targets.size()) return new ArrayList<>(Collections.singletonList(targets.get(ordinal)));
+        return new ArrayList<>();
+    }
+
+    private long getMask(final AbstractInsnNode instruction) {
+        long mask = 0;
+        String operand = null;
+        for (int i = 0; i < this.elements.length; i++) {
+            Element element = this.elements[i];
+            if (element.gap || !element.matchesOpcode(instruction.getOpcode())) continue;
+            if (element.operand != null) {
+                if (operand == null) operand = getOperand(instruction);
+                if (!matchesGlob(element.operand, operand)) continue;
+            }
+            mask |= 1L << i;
+        }
+        return mask;
+    }
+
+    private void collectTargets(final MethodInstructionIndex index, final int[] positions, final long[] masks, final int count, final List<AbstractInsnNode> targets) {
+        //The match ends at the last instruction, search backwards for the earliest possible start
+        //matches[p] has bit j set if the elements j.. exactly match the instructions p..count-1
+        long[] matches = new long[count + 1];
+        matches[count] = this.closureBackwards(1L << this.accept);
+        int start = -1;
+        for (int p = count - 1; p >= 0; p--) {
+            long current = 0;
+            for (int j = this.accept - 1; j >= 0; j--) {
+                boolean matched;
+                if (this.elements[j].gap) matched = (current & (1L << (j + 1))) != 0 || (matches[p + 1] & (1L << j)) != 0;
+                else matched = (masks[p] & (1L << j)) != 0 && (matches[p + 1] & (1L << (j + 1))) != 0;
+                if (matched) current |= 1L << j;
+            }
+            matches[p] = current;
+            if ((current & 1L) != 0) start = p;
+        }
+        if (start == -1) throw new IllegalStateException("Unable to find the start of the match of pattern '" + this.pattern + "'");
+
+        boolean captured = false;
+        int p = start;
+        int j = 0;
+        while (j < this.accept) {
+            Element element = this.elements[j];
+            if (element.gap) {
+                if ((matches[p] & (1L << (j + 1))) != 0) j++;
+                else p++;
+            } else {
+                if (element.capture) {
+                    targets.add(index.get(positions[p]));
+                    captured = true;
+                }
+                p++;
+                j++;
+            }
+        }
+        if (!captured) targets.add(index.get(positions[start]));
+    }
+
+    private long closure(long positions) {
+        for (int i = 0; i < this.accept; i++) {
+            if ((positions & (1L << i)) != 0 && this.elements[i].gap) positions |= 1L << (i + 1);
+        }
+        return positions;
+    }
+
+    private long closureBackwards(long positions) {
+        for (int i = this.accept - 1; i >= 0; i--) {
+            if ((positions & (1L << (i + 1))) != 0 && this.elements[i].gap) positions |= 1L << i;
+        }
+        return positions;
+    }
+
+    private State getState(final long positions) {
+        return this.states.computeIfAbsent(positions, p -> new State(p, (p & (1L << this.accept)) != 0));
+    }
+
+    private State step(final State state, final long mask) {
+        long next = 1L; //A new match can start at every instruction
+        for (int i = 0; i < this.accept; i++) {
+            if ((state.positions & (1L << i)) == 0) continue;
+            if (this.elements[i].gap) next |= 1L << i;
+            else if ((mask & (1L << i)) != 0) next |= 1L << (i + 1);
+        }
+        return this.getState(this.closure(next));
+    }
+
+    @Override
+    public String toString() {
+        return this.pattern;
+    }
+
+
+    private static class Element {
+        private static Element parse(String element) {
+            boolean capture = element.startsWith("@");
+            if (capture) element = element.substring(1).trim();
+            if (element.equals("...")) {
+                if (capture) throw new IllegalArgumentException("Gaps can not be captured");
+                return new Element(true, false, null, null);
+            }
+
+            String opcodePart = element;
+            String operandPart = null;
+            int space = element.indexOf(' ');
+            if (space != -1) {
+                opcodePart = element.substring(0, space);
+                operandPart = element.substring(space + 1).trim();
+            }
+            int[] opcodes = null;
+            if (!opcodePart.equals("*")) {
+                String[] names = opcodePart.split("\\|");
+                opcodes = new int[names.length];
+                for (int i = 0; i < names.length; i++) opcodes[i] = parseOpcode(names[i]);
+                Arrays.sort(opcodes);
+            }
+            String[] operand = null;
+            if (operandPart != null && !operandPart.equals("*")) operand = operandPart.split("\\*", -1);
+            return new Element(false, capture, opcodes, operand);
+        }
+
+        private static int parseOpcode(final String name) {
+            try {
+                return Integer.parseInt(name);
+            } catch (NumberFormatException ignored) {
+            }
+            try {
+                return Opcodes.class.getDeclaredField(name.toUpperCase(Locale.ROOT)).getInt(null);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("Unknown opcode '" + name + "'");
+            }
+        }
+
+        private final boolean gap;
+        private final boolean capture;
+        @Nullable
+        private final int[] opcodes;
+        @Nullable
+        private final String[] operand;
+
+        private Element(final boolean gap, final boolean capture, @Nullable final int[] opcodes, @Nullable final String[] operand) {
+            this.gap = gap;
+            this.capture = capture;
+            this.opcodes = opcodes;
+            this.operand = operand;
+        }
+
+        private boolean matchesOpcode(final int opcode) {
+            return this.opcodes == null || Arrays.binarySearch(this.opcodes, opcode) >= 0;
+        }
+    }
+
+    private static class State {
+        private final long positions;
+        private final boolean accepting;
+        private final Map<Long, State> transitions = new ConcurrentHashMap<>();
+
+        private State(final long positions, final boolean accepting) {
+            this.positions = positions;
+            this.accepting = accepting;
+        }
+
+        private State next(final InstructionPattern pattern, final long mask) {
+            State next = this.transitions.get(mask);
+            if (next == null) {
+                next = pattern.step(this, mask);
+                this.transitions.put(mask, next);
+            }
+            return next;
+        }
+    }
+
+}
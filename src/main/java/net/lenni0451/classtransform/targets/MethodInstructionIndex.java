@@ -0,0 +1,419 @@
+package net.lenni0451.classtransform.targets;
+
+import net.lenni0451.classtransform.annotations.CSlice;
+import net.lenni0451.classtransform.annotations.CTarget;
+import net.lenni0451.classtransform.exceptions.SliceException;
+import net.lenni0451.classtransform.utils.ASMUtils;
+import org.objectweb.asm.tree.*;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A lazily built lookup index over the instructions of a method.<br>
+ * The index maps opcodes, method/field instructions and constants to the positions of the matching instructions.
+ * Resolved slices are cached as well.<br>
+ * Indices are only kept while a {@link #scope(Supplier) scope} is active on the current thread, e.g. while the targets of an injection are resolved.
+ * All lookups in the scope share the same index, so the method is only scanned once. The index is dropped when the scope ends.<br>
+ * All returned position arrays are shared and must not be modified.<br>
+ * Like the method itself an index is not thread safe.
+ */
+@ParametersAreNonnullByDefault
+public final class MethodInstructionIndex {
+
+    private static final ThreadLocal<Map<MethodNode, MethodInstructionIndex>> SCOPE = new ThreadLocal<>();
+    private static final int[] EMPTY = new int[0];
+
+    /**
+     * Get the instruction index of the given method.<br>
+     * If a scope is active the index is reused for all lookups in the scope, otherwise a new index is built.
+     *
+     * @param method The method to get the index for
+     * @return The instruction index
+     */
+    public static MethodInstructionIndex of(final MethodNode method) {
+        Map<MethodNode, MethodInstructionIndex> scope = SCOPE.get();
+        if (scope == null) return new MethodInstructionIndex(method.instructions);
+        MethodInstructionIndex index = scope.get(method);
+        if (index == null || index.instructions != method.instructions || index.nodes.length != method.instructions.size()) {
+            index = new MethodInstructionIndex(method.instructions);
+            scope.put(method, index);
+        }
+        return index;
+    }
+
+    /**
+     * Run the given action with an active index scope.<br>
+     * All indices built in the scope are reused until the action returns. The instructions of the indexed methods must not be modified in the scope.<br>
+     * If a scope is already active the action is run in the existing scope.
+     *
+     * @param action The action to run
+     * @param <T>    The return type of the action
+     * @return The result of the action
+     */
+    public static <T> T scope(final Supplier<T> action) {
+        if (SCOPE.get() != null) return action.get();
+        SCOPE.set(new IdentityHashMap<>());
+        try {
+            return action.get();
+        } finally {
+            SCOPE.remove();
+        }
+    }
+
+    /**
+     * Get the constant loaded by the given instruction.<br>
+     * {@link Byte} and {@link Short} constants are converted to {@link Integer}s.
+     *
+     * @param instruction The instruction
+     * @return The constant or {@code null} if the instruction does not load a constant
+     */
+    @Nullable
+    static Object getConstant(final AbstractInsnNode instruction) {
+        Object constant = ASMUtils.getNumber(instruction);
+        if (constant == null && instruction instanceof LdcInsnNode) constant = ((LdcInsnNode) instruction).cst;
+        return constant == null ? null : normalizeConstant(constant);
+    }
+
+    static Object normalizeConstant(final Object constant) {
+        if (constant instanceof Byte || constant instanceof Short) return ((Number) constant).intValue();
+        return constant;
+    }
+
+
+    private final InsnList instructions;
+    private final AbstractInsnNode[] nodes;
+    private int[][] opcodePositions;
+    private Map<MemberKey, int[]> methodPositions;
+    private Map<MemberKey, int[]> fieldPositions;
+    private Map<Object, int[]> constantPositions;
+    private final Map<CSlice, Range> slices = new IdentityHashMap<>();
+
+    private MethodInstructionIndex(final InsnList instructions) {
+        this.instructions = instructions;
+        this.nodes = instructions.toArray();
+    }
+
+    /**
+     * @return The amount of indexed instructions
+     */
+    public int size() {
+        return this.nodes.length;
+    }
+
+    /**
+     * Get the instruction at the given position.
+     *
+     * @param position The position of the instruction
+     * @return The instruction
+     */
+    public AbstractInsnNode get(final int position) {
+        return this.nodes[position];
+    }
+
+    /**
+     * Get the position of the given instruction.
+     *
+     * @param instruction The instruction
+     * @return The position of the instruction
+     */
+    public int indexOf(final AbstractInsnNode instruction) {
+        return this.instructions.indexOf(instruction);
+    }
+
+    /**
+     * Get the positions of all instructions with the given opcode.
+     *
+     * @param opcode The opcode
+     * @return The sorted positions
+     */
+    public int[] getOpcodePositions(final int opcode) {
+        if (this.opcodePositions == null) this.indexOpcodes();
+        if (opcode < 0 || opcode >= this.opcodePositions.length) return EMPTY;
+        return this.opcodePositions[opcode];
+    }
+
+    /**
+     * Get the positions of all instructions with an opcode in the given range.
+     *
+     * @param fromOpcode The first opcode (inclusive)
+     * @param toOpcode   The last opcode (inclusive)
+     * @return The sorted positions
+     */
+    public int[] getOpcodePositions(final int fromOpcode, final int toOpcode) {
+        if (fromOpcode == toOpcode) return this.getOpcodePositions(fromOpcode);
+        int count = 0;
+        for (int opcode = fromOpcode; opcode <= toOpcode; opcode++) count += this.getOpcodePositions(opcode).length;
+        if (count == 0) return EMPTY;
+
+        int[] positions = new int[count];
+        int offset = 0;
+        for (int opcode = fromOpcode; opcode <= toOpcode; opcode++) {
+            int[] opcodePositions = this.getOpcodePositions(opcode);
+            System.arraycopy(opcodePositions, 0, positions, offset, opcodePositions.length);
+            offset += opcodePositions.length;
+        }
+        Arrays.sort(positions);
+        return positions;
+    }
+
+    /**
+     * Get the positions of all {@link MethodInsnNode}s calling the given method.
+     *
+     * @param owner The owner of the method
+     * @param name  The name of the method
+     * @param desc  The descriptor of the method
+     * @return The sorted positions
+     */
+    public int[] getMethodPositions(final String owner, final String name, final String desc) {
+        if (this.methodPositions == null) this.indexMembers();
+        return this.methodPositions.getOrDefault(new MemberKey(owner, name, desc), EMPTY);
+    }
+
+    /**
+     * Get the positions of all {@link FieldInsnNode}s accessing the given field.
+     *
+     * @param owner The owner of the field
+     * @param name  The name of the field
+     * @param desc  The descriptor of the field
+     * @return The sorted positions
+     */
+    public int[] getFieldPositions(final String owner, final String name, final String desc) {
+        if (this.fieldPositions == null) this.indexMembers();
+        return this.fieldPositions.getOrDefault(new MemberKey(owner, name, desc), EMPTY);
+    }
+
+    /**
+     * Get the positions of all instructions loading the given constant.<br>
+     * {@link Byte}, {@link Short} and {@link Integer} constants are treated the same.<br>
+     * {@code null} constants can be found using the {@code ACONST_NULL} opcode.
+     *
+     * @param constant The constant
+     * @return The sorted positions
+     */
+    public int[] getConstantPositions(final Object constant) {
+        if (this.constantPositions == null) this.indexConstants();
+        return this.constantPositions.getOrDefault(normalizeConstant(constant), EMPTY);
+    }
+
+    /**
+     * Get the resolved range of the given slice.<br>
+     * The bounds of the slice are resolved using the injection targets and cached in the index.
+     *
+     * @param injectionTargets All existing injection targets
+     * @param method           The method the index was created for
+     * @param slice            The {@link CSlice} annotation
+     * @return The range of the slice
+     * @throws SliceException If the slice is invalid
+     */
+    public Range getSlice(final Map<String, IInjectionTarget> injectionTargets, final MethodNode method, @Nullable final CSlice slice) {
+        if (slice == null) return new Range(0, this.nodes.length);
+        Range range = this.slices.get(slice);
+        if (range == null) {
+            int from;
+            int to;
+            if (slice.from().value().isEmpty()) from = 0;
+            else from = this.resolveSliceBound(injectionTargets, method, slice.from(), "from");
+            if (slice.to().value().isEmpty()) to = this.nodes.length;
+            else to = this.resolveSliceBound(injectionTargets, method, slice.to(), "to");
+            range = new Range(from, to);
+            this.slices.put(slice, range);
+        }
+        return range;
+    }
+
+    /**
+     * Get all instructions in the given range.
+     *
+     * @param range The range
+     * @return The instructions in the range
+     */
+    public List<AbstractInsnNode> getInstructions(final Range range) {
+        int from = Math.max(0, range.getFrom());
+        int to = Math.min(this.nodes.length - 1, range.getTo());
+        if (from > to) return new ArrayList<>();
+        return new ArrayList<>(Arrays.asList(this.nodes).subList(from, to + 1));
+    }
+
+    /**
+     * Select the instructions at the given positions which are in the range.<br>
+     * If the ordinal is not {@code -1} only the n-th matching instruction is selected.
+     *
+     * @param positions The sorted positions
+     * @param range     The range to select from
+     * @param ordinal   The ordinal of the instruction or {@code -1} for all
+     * @return The selected instructions
+     */
+    public List<AbstractInsnNode> select(final int[] positions, final Range range, final int ordinal) {
+        return this.select(positions, range, ordinal, null);
+    }
+
+    /**
+     * Select the instructions at the given positions which are in the range and match the filter.<br>
+     * If the ordinal is not {@code -1} only the n-th matching instruction is selected.
+     *
+     * @param positions The sorted positions
+     * @param range     The range to select from
+     * @param ordinal   The ordinal of the instruction or {@code -1} for all
+     * @param filter    An additional filter for the instructions
+     * @return The selected instructions
+     */
+    public List<AbstractInsnNode> select(final int[] positions, final Range range, final int ordinal, @Nullable final Predicate<AbstractInsnNode> filter) {
+        List<AbstractInsnNode> targets = new ArrayList<>();
+        int start = Arrays.binarySearch(positions, range.getFrom());
+        if (start < 0) start = -start - 1;
+        int i = 0;
+        for (int p = start; p < positions.length && positions[p] <= range.getTo(); p++) {
+            AbstractInsnNode instruction = this.nodes[positions[p]];
+            if (filter != null && !filter.test(instruction)) continue;
+            if (ordinal == -1 || ordinal == i) {
+                targets.add(instruction);
+                if (ordinal != -1) break;
+            }
+            i++;
+        }
+        return targets;
+    }
+
+    private int resolveSliceBound(final Map<String, IInjectionTarget> injectionTargets, final MethodNode method, final CTarget bound, final String position) {
+        IInjectionTarget target = injectionTargets.get(bound.value().toUpperCase(Locale.ROOT));
+        if (target == null) throw SliceException.unknown(position, bound.value());
+        List<AbstractInsnNode> targets = target.getTargets(injectionTargets, method, bound, null);
+        if (targets.size() != 1) {
+            throw SliceException.count(Character.toUpperCase(position.charAt(0)) + position.substring(1), bound.value(), targets.size());
+        }
+        return this.indexOf(targets.get(0));
+    }
+
+    private void indexOpcodes() {
+        int[] counts = new int[256];
+        for (AbstractInsnNode node : this.nodes) {
+            if (node.getOpcode() >= 0) counts[node.getOpcode()]++;
+        }
+        int[][] positions = new int[256][];
+        for (int i = 0; i < positions.length; i++) positions[i] = counts[i] == 0 ? EMPTY : new int[counts[i]];
+        Arrays.fill(counts, 0);
+        for (int i = 0; i < this.nodes.length; i++) {
+            int opcode = this.nodes[i].getOpcode();
+            if (opcode >= 0) positions[opcode][counts[opcode]++] = i;
+        }
+        this.opcodePositions = positions;
+    }
+
+    private void indexMembers() {
+        Map<MemberKey, Positions> methods = new HashMap<>();
+        Map<MemberKey, Positions> fields = new HashMap<>();
+        for (int i = 0; i < this.nodes.length; i++) {
+            AbstractInsnNode node = this.nodes[i];
+            if (node instanceof MethodInsnNode) {
+                MethodInsnNode methodInsn = (MethodInsnNode) node;
+                methods.computeIfAbsent(new MemberKey(methodInsn.owner, methodInsn.name, methodInsn.desc), k -> new Positions()).add(i);
+            } else if (node instanceof FieldInsnNode) {
+                FieldInsnNode fieldInsn = (FieldInsnNode) node;
+                fields.computeIfAbsent(new MemberKey(fieldInsn.owner, fieldInsn.name, fieldInsn.desc), k -> new Positions()).add(i);
+            }
+        }
+        this.methodPositions = Positions.toArrays(methods);
+        this.fieldPositions = Positions.toArrays(fields);
+    }
+
+    private void indexConstants() {
+        Map<Object, Positions> constants = new HashMap<>();
+        for (int i = 0; i < this.nodes.length; i++) {
+            AbstractInsnNode node = this.nodes[i];
+            Object constant = getConstant(node);
+            if (constant != null) constants.computeIfAbsent(constant, k -> new Positions()).add(i);
+        }
+        this.constantPositions = Positions.toArrays(constants);
+    }
+
+
+
+    /**
+     * A resolved range of instruction positions.<br>
+     * Both bounds are inclusive.
+     */
+    public static final class Range {
+        private final int from;
+        private final int to;
+
+        public Range(final int from, final int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * @return The first position of the range
+         */
+        public int getFrom() {
+            return this.from;
+        }
+
+        /**
+         * @return The last position of the range
+         */
+        public int getTo() {
+            return this.to;
+        }
+
+        /**
+         * Check if the given position is in the range.
+         *
+         * @param position The position
+         * @return If the position is in the range
+         */
+        public boolean contains(final int position) {
+            return position >= this.from && position <= this.to;
+        }
+    }
+
+    private static final class MemberKey {
+        private final String owner;
+        private final String name;
+        private final String desc;
+        private final int hash;
+
+        private MemberKey(final String owner, final String name, final String desc) {
+            this.owner = owner;
+            this.name = name;
+            this.desc = desc;
+            this.hash = (owner.hashCode() * 31 + name.hashCode()) * 31 + desc.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (!(o instanceof MemberKey)) return false;
+            MemberKey memberKey = (MemberKey) o;
+            return this.hash == memberKey.hash && this.owner.equals(memberKey.owner) && this.name.equals(memberKey.name) && this.desc.equals(memberKey.desc);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+
+    private static final class Positions {
+        private static <K> Map<K, int[]> toArrays(final Map<K, Positions> positions) {
+            Map<K, int[]> arrays = new HashMap<>(positions.size() * 2);
+            for (Map.Entry<K, Positions> entry : positions.entrySet()) {
+                Positions value = entry.getValue();
+                arrays.put(entry.getKey(), Arrays.copyOf(value.values, value.size));
+            }
+            return arrays;
+        }
+
+        private int[] values = new int[4];
+        private int size;
+
+        private void add(final int position) {
+            if (this.size == this.values.length) this.values = Arrays.copyOf(this.values, this.size * 2);
+            this.values[this.size++] = position;
+        }
+    }
+
+}
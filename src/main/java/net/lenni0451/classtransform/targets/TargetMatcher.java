@@ -0,0 +1,234 @@
+package net.lenni0451.classtransform.targets;
+
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * An immutable matcher compiled from the target string of a {@link net.lenni0451.classtransform.annotations.CTarget}.<br>
+ * Matchers are evaluated against the {@link MethodInstructionIndex} of a method, so the target string only has to be parsed once.
+ */
+@ParametersAreNonnullByDefault
+public final class TargetMatcher {
+
+    private static final int[] EMPTY = new int[0];
+    private static final Object[] NO_CONSTANTS = new Object[0];
+    private static final TargetMatcher INVALID = new TargetMatcher(Kind.OPCODE, EMPTY, null, null, null, NO_CONSTANTS, null);
+
+    /**
+     * Create a matcher for method invocations.
+     *
+     * @param owner The owner of the method
+     * @param name  The name of the method
+     * @param desc  The descriptor of the method
+     * @return The matcher
+     */
+    public static TargetMatcher method(final String owner, final String name, final String desc) {
+        return new TargetMatcher(Kind.METHOD, EMPTY, owner.intern(), name.intern(), desc.intern(), NO_CONSTANTS, null);
+    }
+
+    /**
+     * Create a matcher for field accesses.<br>
+     * If no opcodes are given all field accesses are matched.
+     *
+     * @param owner   The owner of the field
+     * @param name    The name of the field
+     * @param desc    The descriptor of the field
+     * @param opcodes The opcodes of the field instructions
+     * @return The matcher
+     */
+    public static TargetMatcher field(final String owner, final String name, final String desc, final int... opcodes) {
+        int[] sortedOpcodes = sorted(opcodes);
+        Predicate<AbstractInsnNode> opcodeFilter = sortedOpcodes.length == 0 ? null : insn -> Arrays.binarySearch(sortedOpcodes, insn.getOpcode()) >= 0;
+        return new TargetMatcher(Kind.FIELD, sortedOpcodes, owner.intern(), name.intern(), desc.intern(), NO_CONSTANTS, opcodeFilter);
+    }
+
+    /**
+     * Create a matcher for instructions with one of the given opcodes.
+     *
+     * @param opcodes The opcodes
+     * @return The matcher
+     */
+    public static TargetMatcher opcodes(final int... opcodes) {
+        return new TargetMatcher(Kind.OPCODE, sorted(opcodes), null, null, null, NO_CONSTANTS, null);
+    }
+
+    /**
+     * Create a matcher for instructions loading one of the given constants.<br>
+     * See {@link MethodInstructionIndex#getConstantPositions(Object)} for the supported constants.
+     *
+     * @param constants The constants
+     * @return The matcher
+     */
+    public static TargetMatcher constants(final Object... constants) {
+        return new TargetMatcher(Kind.CONSTANT, EMPTY, null, null, null, constants.clone(), null);
+    }
+
+    private static int[] sorted(final int[] values) {
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private static int[] merge(final int[] first, final int[] second) {
+        if (second.length == 0) return first;
+        if (first.length == 0) return second;
+        int[] merged = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, merged, first.length, second.length);
+        Arrays.sort(merged);
+        return merged;
+    }
+
+
+    private final Kind kind;
+    private final int[] opcodes;
+    private final String owner;
+    private final String name;
+    private final String desc;
+    private final Object[] constants;
+    private final Predicate<AbstractInsnNode> filter;
+
+    private TargetMatcher(final Kind kind, final int[] opcodes, @Nullable final String owner, @Nullable final String name, @Nullable final String desc, final Object[] constants, @Nullable final Predicate<AbstractInsnNode> filter) {
+        this.kind = kind;
+        this.opcodes = opcodes;
+        this.owner = owner;
+        this.name = name;
+        this.desc = desc;
+        this.constants = constants;
+        this.filter = filter;
+    }
+
+    /**
+     * Create a copy of this matcher which additionally has to match the given filter.
+     *
+     * @param filter The filter
+     * @return The new matcher
+     */
+    public TargetMatcher filter(final Predicate<AbstractInsnNode> filter) {
+        Predicate<AbstractInsnNode> combined = this.filter == null ? filter : this.filter.and(filter);
+        return new TargetMatcher(this.kind, this.opcodes, this.owner, this.name, this.desc, this.constants, combined);
+    }
+
+    /**
+     * Check if the given instruction is matched by this matcher.
+     *
+     * @param instruction The instruction to check
+     * @return If the instruction is matched
+     */
+    public boolean matches(final AbstractInsnNode instruction) {
+        boolean matches = false;
+        switch (this.kind) {
+            case METHOD:
+                if (instruction instanceof MethodInsnNode) {
+                    MethodInsnNode methodInsn = (MethodInsnNode) instruction;
+                    matches = this.owner.equals(methodInsn.owner) && this.name.equals(methodInsn.name) && this.desc.equals(methodInsn.desc);
+                }
+                break;
+            case FIELD:
+                if (instruction instanceof FieldInsnNode) {
+                    FieldInsnNode fieldInsn = (FieldInsnNode) instruction;
+                    matches = this.owner.equals(fieldInsn.owner) && this.name.equals(fieldInsn.name) && this.desc.equals(fieldInsn.desc);
+                }
+                break;
+            case OPCODE:
+                matches = Arrays.binarySearch(this.opcodes, instruction.getOpcode()) >= 0;
+                break;
+            case CONSTANT:
+                Object constant = MethodInstructionIndex.getConstant(instruction);
+                if (constant != null) {
+                    for (Object value : this.constants) {
+                        if (constant.equals(MethodInstructionIndex.normalizeConstant(value))) {
+                            matches = true;
+                            break;
+                        }
+                    }
+                }
+                break;
+        }
+        return matches && (this.filter == null || this.filter.test(instruction));
+    }
+
+    /**
+     * Get the sorted positions of all candidate instructions of this matcher.<br>
+     * The filter of the matcher (including the opcodes of field matchers) is not applied to the positions.
+     *
+     * @param index The instruction index of the method
+     * @return The sorted positions
+     */
+    public int[] getPositions(final MethodInstructionIndex index) {
+        int[] positions = EMPTY;
+        switch (this.kind) {
+            case METHOD:
+                return index.getMethodPositions(this.owner, this.name, this.desc);
+            case FIELD:
+                return index.getFieldPositions(this.owner, this.name, this.desc);
+            case OPCODE:
+                for (int opcode : this.opcodes) positions = merge(positions, index.getOpcodePositions(opcode));
+                return positions;
+            case CONSTANT:
+                for (Object constant : this.constants) positions = merge(positions, index.getConstantPositions(constant));
+                return positions;
+        }
+        return positions;
+    }
+
+    /**
+     * Get all instructions in the range which are matched by this matcher.
+     *
+     * @param index   The instruction index of the method
+     * @param range   The range to search in
+     * @param ordinal The ordinal of the instruction or {@code -1} for all
+     * @return The matched instructions
+     */
+    public List<AbstractInsnNode> getTargets(final MethodInstructionIndex index, final MethodInstructionIndex.Range range, final int ordinal) {
+        return index.select(this.getPositions(index), range, ordinal, this.filter);
+    }
+
+
+    private enum Kind {
+        METHOD, FIELD, OPCODE, CONSTANT
+    }
+
+    /**
+     * A cache for compiled matchers by their target string.<br>
+     * Target strings which can't be compiled are cached as well.
+     */
+    public static final class Cache {
+        private final Map<String, TargetMatcher> matchers = new ConcurrentHashMap<>();
+        private final Function<String, TargetMatcher> compiler;
+
+        /**
+         * @param compiler The compiler for target strings which returns {@code null} for invalid targets
+         */
+        public Cache(final Function<String, TargetMatcher> compiler) {
+            this.compiler = compiler;
+        }
+
+        /**
+         * Get the compiled matcher for the given target string.
+         *
+         * @param target The target string
+         * @return The matcher or {@code null} if the target is invalid
+         */
+        @Nullable
+        public TargetMatcher get(final String target) {
+            TargetMatcher matcher = this.matchers.get(target);
+            if (matcher == null) {
+                matcher = this.compiler.apply(target);
+                if (matcher == null) matcher = INVALID;
+                this.matchers.putIfAbsent(target, matcher);
+            }
+            return matcher == INVALID ? null : matcher;
+        }
+    }
+
+}
@@ -3,11 +3,11 @@ package net.lenni0451.classtransform.targets.impl;
 import net.lenni0451.classtransform.annotations.CSlice;
 import net.lenni0451.classtransform.annotations.CTarget;
 import net.lenni0451.classtransform.targets.IInjectionTarget;
-import net.lenni0451.classtransform.utils.ASMUtils;
+import net.lenni0451.classtransform.targets.MethodInstructionIndex;
+import net.lenni0451.classtransform.targets.TargetMatcher;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.AbstractInsnNode;
-import org.objectweb.asm.tree.LdcInsnNode;
 import org.objectweb.asm.tree.MethodNode;
 
 import javax.annotation.Nullable;
@@ -33,83 +33,37 @@ import java.util.function.Function;
 @ParametersAreNonnullByDefault
 public class ConstantTarget implements IInjectionTarget {
 
+    private final TargetMatcher.Cache matchers = new TargetMatcher.Cache(this::compile);
+
     @Override
     public List<AbstractInsnNode> getTargets(Map<String, IInjectionTarget> injectionTargets, MethodNode method, CTarget target, @Nullable CSlice slice) {
-        List<AbstractInsnNode> targets = new ArrayList<>();
-        List<AbstractInsnNode> instructions = this.getSlice(injectionTargets, method, slice);
-
-        if (target.target().equalsIgnoreCase("null")) this.findNull(targets, instructions);
-        else if (target.target().toLowerCase(Locale.ROOT).startsWith("int")) this.findInt(targets, instructions, target.target());
-        else if (target.target().toLowerCase(Locale.ROOT).startsWith("long")) this.findLong(targets, instructions, target.target());
-        else if (target.target().toLowerCase(Locale.ROOT).startsWith("float")) this.findFloat(targets, instructions, target.target());
-        else if (target.target().toLowerCase(Locale.ROOT).startsWith("double")) this.findDouble(targets, instructions, target.target());
-        else if (target.target().toLowerCase(Locale.ROOT).startsWith("string")) this.findString(targets, instructions, target.target());
-        else if (target.target().toLowerCase(Locale.ROOT).startsWith("type")) this.findType(targets, instructions, target.target());
-        else throw new IllegalArgumentException("Unknown constant type '" + target.target() + "'");
-
-        if (target.ordinal() != -1) {
-            if (target.ordinal() < 0 || target.ordinal() >= targets.size()) return Collections.emptyList();
-            return Collections.singletonList(targets.get(target.ordinal()));
-        }
-        return targets;
+        TargetMatcher matcher = this.matchers.get(target.target());
+        MethodInstructionIndex index = MethodInstructionIndex.of(method);
+        return matcher.getTargets(index, index.getSlice(injectionTargets, method, slice), target.ordinal());
     }
 
-    private void findNull(final List<AbstractInsnNode> targets, final List<AbstractInsnNode> instructions) {
-        for (AbstractInsnNode instruction : instructions) {
-            if (instruction.getOpcode() == Opcodes.ACONST_NULL) targets.add(instruction);
-        }
+    private TargetMatcher compile(final String target) {
+        String lowerTarget = target.toLowerCase(Locale.ROOT);
+        if (lowerTarget.equals("null")) return TargetMatcher.opcodes(Opcodes.ACONST_NULL);
+        else if (lowerTarget.startsWith("int")) return TargetMatcher.constants(this.<Integer>parse(target, "int", len -> len == 2, Integer::parseInt));
+        else if (lowerTarget.startsWith("long")) return TargetMatcher.constants(this.<Long>parse(target, "long", len -> len == 2, Long::parseLong));
+        else if (lowerTarget.startsWith("float")) return this.compileFloat(this.parse(target, "float", len -> len == 2, Float::parseFloat));
+        else if (lowerTarget.startsWith("double")) return this.compileDouble(this.parse(target, "double", len -> len == 2, Double::parseDouble));
+        else if (lowerTarget.startsWith("string")) return TargetMatcher.constants(this.<String>parse(target, "String", len -> len >= 2, s -> s));
+        else if (lowerTarget.startsWith("type")) return TargetMatcher.constants(this.<Type>parse(target, "type", len -> len == 2, Type::getType));
+        else throw new IllegalArgumentException("Unknown constant type '" + target + "'");
     }
 
-    private void findInt(final List<AbstractInsnNode> targets, final List<AbstractInsnNode> instructions, final String value) {
-        int val = this.parse(value, "int", len -> len == 2, Integer::parseInt);
-
-        for (AbstractInsnNode instruction : instructions) {
-            Number number = ASMUtils.getNumber(instruction);
-            if ((number instanceof Byte || number instanceof Short || number instanceof Integer) && number.intValue() == val) targets.add(instruction);
-        }
+    private TargetMatcher compileFloat(final float val) {
+        if (Float.isNaN(val)) return TargetMatcher.constants(); //NaN is never equal to itself
+        if (val == 0) return TargetMatcher.constants(0F, -0F);
+        return TargetMatcher.constants(val);
     }
 
-    private void findLong(final List<AbstractInsnNode> targets, final List<AbstractInsnNode> instructions, final String value) {
-        long val = this.parse(value, "long", len -> len == 2, Long::parseLong);
-
-        for (AbstractInsnNode instruction : instructions) {
-            Number number = ASMUtils.getNumber(instruction);
-            if (number instanceof Long && number.longValue() == val) targets.add(instruction);
-        }
-    }
-
-    private void findFloat(final List<AbstractInsnNode> targets, final List<AbstractInsnNode> instructions, final String value) {
-        float val = this.parse(value, "float", len -> len == 2, Float::parseFloat);
-
-        for (AbstractInsnNode instruction : instructions) {
-            Number number = ASMUtils.getNumber(instruction);
-            if (number instanceof Float && number.floatValue() == val) targets.add(instruction);
-        }
-    }
-
-    private void findDouble(final List<AbstractInsnNode> targets, final List<AbstractInsnNode> instructions, final String value) {
-        double val = this.parse(value, "double", len -> len == 2, Double::parseDouble);
-
-        for (AbstractInsnNode instruction : instructions) {
-            Number number = ASMUtils.getNumber(instruction);
-            if (number instanceof Double && number.doubleValue() == val) targets.add(instruction);
-        }
-    }
-
-    private void findString(final List<AbstractInsnNode> targets, final List<AbstractInsnNode> instructions, final String value) {
-        String val = this.parse(value, "String", len -> len >= 2, s -> s);
-
-        for (AbstractInsnNode instruction : instructions) {
-            if (instruction instanceof LdcInsnNode && val.equals(((LdcInsnNode) instruction).cst)) targets.add(instruction);
-        }
-    }
-
-    private void findType(final List<AbstractInsnNode> targets, final List<AbstractInsnNode> instructions, final String value) {
-        Type val = this.parse(value, "type", len -> len == 2, Type::getType);
-
-        for (AbstractInsnNode instruction : instructions) {
-            if (instruction instanceof LdcInsnNode && val.equals(((LdcInsnNode) instruction).cst)) targets.add(instruction);
-        }
+    private TargetMatcher compileDouble(final double val) {
+        if (Double.isNaN(val)) return TargetMatcher.constants(); //NaN is never equal to itself
+        if (val == 0) return TargetMatcher.constants(0D, -0D);
+        return TargetMatcher.constants(val);
     }
 
     private <T> T parse(final String value, final String constantName, final Function<Integer, Boolean> sizeChecker, final Function<String, T> parser) {
@@ -3,15 +3,15 @@ package net.lenni0451.classtransform.targets.impl;
 import net.lenni0451.classtransform.annotations.CSlice;
 import net.lenni0451.classtransform.annotations.CTarget;
 import net.lenni0451.classtransform.targets.IInjectionTarget;
+import net.lenni0451.classtransform.targets.MethodInstructionIndex;
+import net.lenni0451.classtransform.targets.TargetMatcher;
 import net.lenni0451.classtransform.utils.ASMUtils;
 import net.lenni0451.classtransform.utils.MemberDeclaration;
 import org.objectweb.asm.tree.AbstractInsnNode;
-import org.objectweb.asm.tree.FieldInsnNode;
 import org.objectweb.asm.tree.MethodNode;
 
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -24,6 +24,7 @@ public class FieldTarget implements IInjectionTarget {
 
     private final int nonStaticAccess;
     private final int staticAccess;
+    private final TargetMatcher.Cache matchers = new TargetMatcher.Cache(this::compile);
 
     public FieldTarget() {
         this(-1, -1);
@@ -36,22 +37,21 @@ public class FieldTarget implements IInjectionTarget {
 
     @Override
     public List<AbstractInsnNode> getTargets(Map<String, IInjectionTarget> injectionTargets, MethodNode method, CTarget target, @Nullable CSlice slice) {
-        List<AbstractInsnNode> targets = new ArrayList<>();
-        MemberDeclaration memberDeclaration = ASMUtils.splitMemberDeclaration(target.target());
+        TargetMatcher matcher = this.matchers.get(target.target());
+        if (matcher == null) return null;
+
+        MethodInstructionIndex index = MethodInstructionIndex.of(method);
+        return matcher.getTargets(index, index.getSlice(injectionTargets, method, slice), target.ordinal());
+    }
+
+    @Nullable
+    private TargetMatcher compile(final String target) {
+        MemberDeclaration memberDeclaration = ASMUtils.splitMemberDeclaration(target);
         if (memberDeclaration == null) return null;
 
         boolean allAccess = this.nonStaticAccess == -1 && this.staticAccess == -1;
-        int i = 0;
-        for (AbstractInsnNode instruction : this.getSlice(injectionTargets, method, slice)) {
-            if (!(instruction instanceof FieldInsnNode)) continue;
-            if (!allAccess && (this.nonStaticAccess != instruction.getOpcode() && this.staticAccess != instruction.getOpcode())) continue;
-            FieldInsnNode fieldInsnNode = (FieldInsnNode) instruction;
-            if (fieldInsnNode.owner.equals(memberDeclaration.getOwner()) && fieldInsnNode.name.equals(memberDeclaration.getName()) && fieldInsnNode.desc.equals(memberDeclaration.getDesc())) {
-                if (target.ordinal() == -1 || target.ordinal() == i) targets.add(instruction);
-                i++;
-            }
-        }
-        return targets;
+        if (allAccess) return TargetMatcher.field(memberDeclaration.getOwner(), memberDeclaration.getName(), memberDeclaration.getDesc());
+        return TargetMatcher.field(memberDeclaration.getOwner(), memberDeclaration.getName(), memberDeclaration.getDesc(), this.nonStaticAccess, this.staticAccess);
     }
 
 }
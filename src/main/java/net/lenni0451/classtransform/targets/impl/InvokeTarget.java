@@ -3,15 +3,15 @@ package net.lenni0451.classtransform.targets.impl;
 import net.lenni0451.classtransform.annotations.CSlice;
 import net.lenni0451.classtransform.annotations.CTarget;
 import net.lenni0451.classtransform.targets.IInjectionTarget;
+import net.lenni0451.classtransform.targets.MethodInstructionIndex;
+import net.lenni0451.classtransform.targets.TargetMatcher;
 import net.lenni0451.classtransform.utils.ASMUtils;
 import net.lenni0451.classtransform.utils.MemberDeclaration;
 import org.objectweb.asm.tree.AbstractInsnNode;
-import org.objectweb.asm.tree.MethodInsnNode;
 import org.objectweb.asm.tree.MethodNode;
 
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -22,22 +22,19 @@ import java.util.Map;
 @ParametersAreNonnullByDefault
 public class InvokeTarget implements IInjectionTarget {
 
+    private final TargetMatcher.Cache matchers = new TargetMatcher.Cache(target -> {
+        MemberDeclaration memberDeclaration = ASMUtils.splitMemberDeclaration(target);
+        if (memberDeclaration == null) return null;
+        return TargetMatcher.method(memberDeclaration.getOwner(), memberDeclaration.getName(), memberDeclaration.getDesc());
+    });
+
     @Override
     public List<AbstractInsnNode> getTargets(Map<String, IInjectionTarget> injectionTargets, MethodNode method, CTarget target, @Nullable CSlice slice) {
-        List<AbstractInsnNode> targets = new ArrayList<>();
-        MemberDeclaration memberDeclaration = ASMUtils.splitMemberDeclaration(target.target());
-        if (memberDeclaration == null) return null;
+        TargetMatcher matcher = this.matchers.get(target.target());
+        if (matcher == null) return null;
 
-        int i = 0;
-        for (AbstractInsnNode instruction : this.getSlice(injectionTargets, method, slice)) {
-            if (!(instruction instanceof MethodInsnNode)) continue;
-            MethodInsnNode methodInsnNode = (MethodInsnNode) instruction;
-            if (methodInsnNode.owner.equals(memberDeclaration.getOwner()) && methodInsnNode.name.equals(memberDeclaration.getName()) && methodInsnNode.desc.equals(memberDeclaration.getDesc())) {
-                if (target.ordinal() == -1 || target.ordinal() == i) targets.add(instruction);
-                i++;
-            }
-        }
-        return targets;
+        MethodInstructionIndex index = MethodInstructionIndex.of(method);
+        return matcher.getTargets(index, index.getSlice(injectionTargets, method, slice), target.ordinal());
     }
 
 }
@@ -6,10 +6,11 @@ import net.lenni0451.classtransform.annotations.CTarget;
 import net.lenni0451.classtransform.mappings.AMapper;
 import net.lenni0451.classtransform.mappings.annotation.RemapType;
 import net.lenni0451.classtransform.targets.IInjectionTarget;
+import net.lenni0451.classtransform.targets.MethodInstructionIndex;
+import net.lenni0451.classtransform.targets.TargetMatcher;
 import net.lenni0451.classtransform.utils.ASMUtils;
 import net.lenni0451.classtransform.utils.MemberDeclaration;
 import org.objectweb.asm.Opcodes;
-import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.MethodInsnNode;
@@ -18,13 +19,10 @@ import org.objectweb.asm.tree.MethodNode;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
 import static net.lenni0451.classtransform.utils.ASMUtils.slash;
-import static net.lenni0451.classtransform.utils.Types.argumentTypes;
 import static net.lenni0451.classtransform.utils.Types.returnType;
 
 /**
@@ -34,18 +32,13 @@ import static net.lenni0451.classtransform.utils.Types.returnType;
 @ParametersAreNonnullByDefault
 public class NewTarget implements IInjectionTarget {
 
+    private final TargetMatcher.Cache matchers = new TargetMatcher.Cache(this::compile);
+
     @Override
     public List<AbstractInsnNode> getTargets(Map<String, IInjectionTarget> injectionTargets, MethodNode method, CTarget target, @Nullable CSlice slice) {
-        List<AbstractInsnNode> targets = new ArrayList<>();
-        int i = 0;
-        for (AbstractInsnNode instruction : this.getSlice(injectionTargets, method, slice)) {
-            if (instruction.getOpcode() != Opcodes.INVOKESPECIAL) continue;
-            MethodInsnNode methodInsnNode = (MethodInsnNode) instruction;
-            if (!this.isTarget(methodInsnNode.owner, methodInsnNode.name, methodInsnNode.desc, target.target())) continue;
-            if (target.ordinal() == -1 || target.ordinal() == i) targets.add(instruction);
-            i++;
-        }
-        return targets;
+        TargetMatcher matcher = this.matchers.get(target.target());
+        MethodInstructionIndex index = MethodInstructionIndex.of(method);
+        return matcher.getTargets(index, index.getSlice(injectionTargets, method, slice), target.ordinal());
     }
 
     @Nullable
@@ -68,21 +61,24 @@ public class NewTarget implements IInjectionTarget {
         }
     }
 
-    private boolean isTarget(final String owner, final String name, final String desc, String target) {
-        if (!name.equals("<init>")) return false;
+    private TargetMatcher compile(String target) {
+        TargetMatcher constructorCalls = TargetMatcher.opcodes(Opcodes.INVOKESPECIAL).filter(insn -> ((MethodInsnNode) insn).name.equals("<init>"));
         MemberDeclaration declaration = ASMUtils.splitMemberDeclaration(target);
         if (declaration != null) {
-            return declaration.is(owner, name, desc);
+            return constructorCalls.filter(insn -> declaration.is((MethodInsnNode) insn));
         } else if (target.startsWith("(")) {
-            if (desc.equals(target)) return true;
-
-            Type expectedOwner = returnType(target);
-            Type[] expectedArgs = argumentTypes(target);
-            Type[] actualArgs = argumentTypes(desc);
-            return owner.equals(expectedOwner.getInternalName()) && Arrays.equals(expectedArgs, actualArgs);
+            String descriptor = target;
+            String expectedOwner = returnType(target).getInternalName();
+            String expectedArgs = target.substring(0, target.indexOf(')') + 1);
+            return constructorCalls.filter(insn -> {
+                MethodInsnNode methodInsnNode = (MethodInsnNode) insn;
+                if (methodInsnNode.desc.equals(descriptor)) return true;
+                return methodInsnNode.owner.equals(expectedOwner) && methodInsnNode.desc.startsWith(expectedArgs);
+            });
         } else {
             if (target.startsWith("L") && target.endsWith(";")) target = target.substring(1, target.length() - 1);
-            return owner.equals(slash(target));
+            String expectedOwner = slash(target);
+            return constructorCalls.filter(insn -> ((MethodInsnNode) insn).owner.equals(expectedOwner));
         }
     }
 
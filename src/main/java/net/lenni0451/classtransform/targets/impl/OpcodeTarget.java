@@ -3,13 +3,14 @@ package net.lenni0451.classtransform.targets.impl;
 import net.lenni0451.classtransform.annotations.CSlice;
 import net.lenni0451.classtransform.annotations.CTarget;
 import net.lenni0451.classtransform.targets.IInjectionTarget;
+import net.lenni0451.classtransform.targets.MethodInstructionIndex;
+import net.lenni0451.classtransform.targets.TargetMatcher;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.MethodNode;
 
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -23,19 +24,19 @@ import java.util.Map;
 @ParametersAreNonnullByDefault
 public class OpcodeTarget implements IInjectionTarget {
 
+    private final TargetMatcher.Cache matchers = new TargetMatcher.Cache(target -> {
+        int opcode = this.getOpcode(target);
+        if (opcode == -1) return null;
+        return TargetMatcher.opcodes(opcode);
+    });
+
     @Override
     public List<AbstractInsnNode> getTargets(Map<String, IInjectionTarget> injectionTargets, MethodNode method, CTarget target, @Nullable CSlice slice) {
-        List<AbstractInsnNode> targets = new ArrayList<>();
-        int opcode = this.getOpcode(target.target());
-        if (opcode == -1) return null;
+        TargetMatcher matcher = this.matchers.get(target.target());
+        if (matcher == null) return null;
 
-        int i = 0;
-        for (AbstractInsnNode instruction : this.getSlice(injectionTargets, method, slice)) {
-            if (instruction.getOpcode() != opcode) continue;
-            if (target.ordinal() == -1 || target.ordinal() == i) targets.add(instruction);
-            i++;
-        }
-        return targets;
+        MethodInstructionIndex index = MethodInstructionIndex.of(method);
+        return matcher.getTargets(index, index.getSlice(injectionTargets, method, slice), target.ordinal());
     }
 
     private int getOpcode(final String opcode) {
@@ -0,0 +1,63 @@
+package net.lenni0451.classtransform.targets.impl;
+
+import net.lenni0451.classtransform.TransformerManager;
+import net.lenni0451.classtransform.annotations.CSlice;
+import net.lenni0451.classtransform.annotations.CTarget;
+import net.lenni0451.classtransform.mappings.AMapper;
+import net.lenni0451.classtransform.mappings.annotation.RemapType;
+import net.lenni0451.classtransform.targets.IInjectionTarget;
+import net.lenni0451.classtransform.targets.InstructionPattern;
+import net.lenni0451.classtransform.targets.MethodInstructionIndex;
+import net.lenni0451.classtransform.utils.log.Logger;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A target for a sequence of instructions.<br>
+ * See {@link InstructionPattern} for the pattern syntax.<br>
+ * Invalid patterns are logged once and ignored.<br>
+ * Patterns are not remapped, so the operands have to use the names of the runtime environment.<br>
+ * e.g. {@code ALOAD; GETFIELD Test.field:I; @INVOKEVIRTUAL java/io/PrintStream.println*}
+ */
+@ParametersAreNonnullByDefault
+public class PatternTarget implements IInjectionTarget {
+
+    private final Map<String, Optional<InstructionPattern>> patterns = new ConcurrentHashMap<>();
+
+    @Override
+    public List<AbstractInsnNode> getTargets(Map<String, IInjectionTarget> injectionTargets, MethodNode method, CTarget target, @Nullable CSlice slice) {
+        InstructionPattern pattern = this.getPattern(target.target());
+        if (pattern == null) return null;
+
+        MethodInstructionIndex index = MethodInstructionIndex.of(method);
+        return pattern.getTargets(index, index.getSlice(injectionTargets, method, slice), target.ordinal());
+    }
+
+    @Nullable
+    @Override
+    public RemapType dynamicRemap(AMapper mapper, Class<?> annotation, Map<String, Object> values, Method remappedMethod, TransformerManager transformerManager, ClassNode target, ClassNode transformer) {
+        return null; //Patterns can contain wildcards and are not member declarations
+    }
+
+    @Nullable
+    private InstructionPattern getPattern(final String pattern) {
+        return this.patterns.computeIfAbsent(pattern, p -> {
+            try {
+                return Optional.of(InstructionPattern.compile(p));
+            } catch (IllegalArgumentException e) {
+                Logger.error("Invalid instruction pattern '{}': {}", p, e.getMessage());
+                return Optional.empty();
+            }
+        }).orElse(null);
+    }
+
+}
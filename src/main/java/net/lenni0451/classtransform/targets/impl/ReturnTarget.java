@@ -5,13 +5,13 @@ import net.lenni0451.classtransform.annotations.CSlice;
 import net.lenni0451.classtransform.annotations.CTarget;
 import net.lenni0451.classtransform.annotations.injection.CInject;
 import net.lenni0451.classtransform.targets.IInjectionTarget;
+import net.lenni0451.classtransform.targets.MethodInstructionIndex;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.MethodNode;
 
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -24,15 +24,9 @@ public class ReturnTarget implements IInjectionTarget {
 
     @Override
     public List<AbstractInsnNode> getTargets(Map<String, IInjectionTarget> injectionTargets, MethodNode method, CTarget target, @Nullable CSlice slice) {
-        List<AbstractInsnNode> targets = new ArrayList<>();
-        int i = 0;
-        for (AbstractInsnNode instruction : this.getSlice(injectionTargets, method, slice)) {
-            if (instruction.getOpcode() >= Opcodes.IRETURN && instruction.getOpcode() <= Opcodes.RETURN) {
-                if (target.ordinal() == -1 || target.ordinal() == i) targets.add(instruction);
-                i++;
-            }
-        }
-        return targets;
+        MethodInstructionIndex index = MethodInstructionIndex.of(method);
+        int[] positions = index.getOpcodePositions(Opcodes.IRETURN, Opcodes.RETURN);
+        return index.select(positions, index.getSlice(injectionTargets, method, slice), target.ordinal());
     }
 
     @Override
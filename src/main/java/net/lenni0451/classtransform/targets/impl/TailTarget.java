@@ -5,6 +5,7 @@ import net.lenni0451.classtransform.annotations.CSlice;
 import net.lenni0451.classtransform.annotations.CTarget;
 import net.lenni0451.classtransform.annotations.injection.CInject;
 import net.lenni0451.classtransform.targets.IInjectionTarget;
+import net.lenni0451.classtransform.targets.MethodInstructionIndex;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.MethodNode;
@@ -24,11 +25,10 @@ public class TailTarget implements IInjectionTarget {
 
     @Override
     public List<AbstractInsnNode> getTargets(Map<String, IInjectionTarget> injectionTargets, MethodNode method, CTarget target, @Nullable CSlice slice) {
-        for (int i = method.instructions.size() - 1; i >= 0; i--) {
-            AbstractInsnNode instruction = method.instructions.get(i);
-            if (instruction.getOpcode() >= Opcodes.IRETURN && instruction.getOpcode() <= Opcodes.RETURN) return Collections.singletonList(instruction);
-        }
-        return Collections.emptyList();
+        MethodInstructionIndex index = MethodInstructionIndex.of(method);
+        int[] positions = index.getOpcodePositions(Opcodes.IRETURN, Opcodes.RETURN);
+        if (positions.length == 0) return Collections.emptyList();
+        return Collections.singletonList(index.get(positions[positions.length - 1]));
     }
 
     @Override
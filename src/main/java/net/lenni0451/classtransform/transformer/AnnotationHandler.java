@@ -1,10 +1,17 @@
 package net.lenni0451.classtransform.transformer;
 
 import net.lenni0451.classtransform.TransformerManager;
+import net.lenni0451.classtransform.annotations.CSlice;
+import net.lenni0451.classtransform.annotations.CTarget;
 import net.lenni0451.classtransform.annotations.InjectionInfo;
+import net.lenni0451.classtransform.exceptions.InvalidTargetException;
+import net.lenni0451.classtransform.targets.IInjectionTarget;
+import net.lenni0451.classtransform.targets.MethodInstructionIndex;
+import net.lenni0451.classtransform.utils.ClassMemberIndex;
 import net.lenni0451.classtransform.utils.annotations.AnnotationParser;
 import net.lenni0451.classtransform.utils.annotations.AnnotationUtils;
 import net.lenni0451.classtransform.utils.mappings.Remapper;
+import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.AnnotationNode;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.FieldNode;
@@ -13,9 +20,8 @@ import org.objectweb.asm.tree.MethodNode;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import java.lang.annotation.Annotation;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
 import static net.lenni0451.classtransform.utils.Types.typeDescriptor;
@@ -150,21 +156,37 @@ public abstract class AnnotationHandler {
      */
     protected MethodNode renameAndCopy(final MethodNode injectionMethod, final MethodNode targetMethod, final ClassNode transformer, final ClassNode transformedClass, final String extra) {
         this.prepareForCopy(transformer, injectionMethod);
-        int i = 0;
         String targetName = ANGLE_BRACKET.matcher(targetMethod.name).replaceAll(""); // Make sure method name is valid when targeting <init> and <clinit>
         String baseName = injectionMethod.name + "$" + targetName + "$" + extra;
-        do {
-            injectionMethod.name = baseName + i++;
-        } while (this.hasMethod(transformedClass, injectionMethod.name));
+        ClassMemberIndex.of(transformer).renameMethod(injectionMethod, ClassMemberIndex.of(transformedClass).getUniqueMethodName(baseName, null));
         return Remapper.remapAndAdd(transformer, transformedClass, injectionMethod);
     }
 
-
-    private boolean hasMethod(final ClassNode node, final String name) {
-        for (MethodNode method : node.methods) {
-            if (method.name.equals(name)) return true;
-        }
-        return false;
+    /**
+     * Get the target instructions of all given targets.<br>
+     * All targets are resolved in a single {@link MethodInstructionIndex#scope(Supplier) index scope}, so the target method is only indexed once.
+     * The targets have to be resolved before the target method is modified.
+     *
+     * @param transformerManager The transformer manager
+     * @param transformer        The transformer class node
+     * @param transformerMethod  The transformer method node
+     * @param target             The target method node
+     * @param targets            The targets to resolve
+     * @param slice              The slice the targets are searched in
+     * @return The target instructions for every target in the same order, an entry is {@code null} if the member declaration of the target is invalid
+     * @throws InvalidTargetException If a target type does not exist
+     */
+    protected List<List<AbstractInsnNode>> getTargetInstructions(final TransformerManager transformerManager, final ClassNode transformer, final MethodNode transformerMethod, final MethodNode target, final CTarget[] targets, final CSlice slice) {
+        Map<String, IInjectionTarget> injectionTargets = transformerManager.getInjectionTargets();
+        return MethodInstructionIndex.scope(() -> {
+            List<List<AbstractInsnNode>> targetInstructions = new ArrayList<>(targets.length);
+            for (CTarget cTarget : targets) {
+                IInjectionTarget injectionTarget = injectionTargets.get(cTarget.value().toUpperCase(Locale.ROOT));
+                if (injectionTarget == null) throw new InvalidTargetException(transformerMethod, transformer, cTarget.target(), injectionTargets.keySet());
+                targetInstructions.add(injectionTarget.getTargets(injectionTargets, target, cTarget, slice));
+            }
+            return targetInstructions;
+        });
     }
 
 }
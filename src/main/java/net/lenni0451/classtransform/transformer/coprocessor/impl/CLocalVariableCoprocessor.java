@@ -14,6 +14,7 @@ import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.*;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
@@ -21,68 +22,81 @@ import java.util.List;
 public class CLocalVariableCoprocessor implements IAnnotationCoprocessor {
 
     private CoprocessorUtils.AnnotatedParameter[] parameters;
-    private boolean isAnyModifiable;
+    private boolean[] holders;
+    private Type[] parameterTypes;
 
     @Override
     public MethodNode preprocess(TransformerManager transformerManager, ClassNode transformedClass, MethodNode transformedMethod, ClassNode transformer, MethodNode transformerMethod) {
         this.parameters = CoprocessorUtils.getAnnotatedParameters(transformerMethod, CLocalVariable.class);
         if (this.parameters == null) return transformerMethod; //No annotated parameters found
         transformedMethod.signature = null; //Remove the signature as it is no longer valid
-        CoprocessorUtils.mergeParametersToArray(transformerMethod, this.parameters);
+        List<Boolean> holders = new ArrayList<>();
+        for (CoprocessorUtils.AnnotatedParameter parameter : this.parameters) {
+            if (parameter == null) continue;
+            CLocalVariable annotation = AnnotationParser.parse(CLocalVariable.class, transformerManager, AnnotationUtils.listToMap(parameter.getAnnotation().values));
+            //Only modifiable variables which are actually written to need a holder, all other variables are passed directly
+            holders.add(annotation.modifiable() && CoprocessorUtils.isParameterWritten(transformerMethod, parameter));
+        }
+        this.holders = new boolean[holders.size()];
+        for (int i = 0; i < this.holders.length; i++) this.holders[i] = holders.get(i);
+        this.parameterTypes = CoprocessorUtils.moveParametersToEnd(transformerMethod, this.parameters, this.holders);
         return transformerMethod;
     }
 
     @Override
     public MethodNode transform(TransformerManager transformerManager, ClassNode transformedClass, MethodNode transformedMethod, ClassNode transformer, MethodNode transformerMethod) {
         if (this.parameters == null) return transformerMethod;
-        ASMUtils.cutParameters(transformerMethod, 1); //Remove the object array parameter again
+        ASMUtils.cutParameters(transformerMethod, this.parameterTypes.length); //Remove the moved parameters again
         return transformerMethod;
     }
 
     @Override
     public void postprocess(TransformerManager transformerManager, ClassNode transformedClass, MethodNode transformedMethod, List<MethodInsnNode> transformerMethodCalls, ClassNode transformer, MethodNode transformerMethod) {
         if (this.parameters == null) return;
-        ASMUtils.addParameters(transformerMethod, Types.type(Object[].class)); //Add the object array parameter again
+        ASMUtils.addParameters(transformerMethod, this.parameterTypes); //Add the moved parameters again
 
         LocalVariable[] localVariables = this.getLocalVariables(transformerManager, transformer, transformerMethod, transformedMethod);
-        int targetArrayIndex = ASMUtils.getFreeVarIndex(transformedMethod);
+        int holderIndex = ASMUtils.getFreeVarIndex(transformedMethod);
         InsnList before = new InsnList();
         InsnList after = new InsnList();
 
-        { //Instructions inserted before the method call
-            before.add(ASMUtils.intPush(localVariables.length)); //Push the array size
-            before.add(new TypeInsnNode(Opcodes.ANEWARRAY, Types.internalName(Object.class))); //Create the array
-            if (this.isAnyModifiable) {
-                //If any parameter is modifiable, we need to store the array in a local variable for later use
-                before.add(new InsnNode(Opcodes.DUP)); //Duplicate the array
-                before.add(new VarInsnNode(Opcodes.ASTORE, targetArrayIndex)); //Store the array in a local variable
+        for (int i = 0; i < localVariables.length; i++) {
+            LocalVariable localVariable = localVariables[i];
+            Type parameterType = localVariable.parameter.getType();
+            InsnList load = this.convert(localVariable.type, parameterType);
+            InsnList store = this.convert(parameterType, localVariable.type);
+            if (load == null || store == null) {
+                throw new TransformerException(transformerMethod, transformer, "accesses local variable " + localVariable.variableIndex + " with the wrong type (" + parameterType + " != " + localVariable.type + ")")
+                        .help("Change the parameter type to " + localVariable.type);
             }
-            for (int i = 0; i < localVariables.length; i++) {
-                //Go through all parameters and add them to the array
-                LocalVariable localVariable = localVariables[i];
-                before.add(new InsnNode(Opcodes.DUP)); //Duplicate the array
-                before.add(ASMUtils.intPush(i)); //Push the array index
+
+            if (this.holders[i]) {
+                //The variable is modified, pass it in a holder and copy it back after the call
+                Type elementType = CoprocessorUtils.getHolderType(parameterType).getElementType();
+                before.add(CoprocessorUtils.createHolder(parameterType)); //Create the holder
+                before.add(new InsnNode(Opcodes.DUP)); //Duplicate the holder
+                before.add(new VarInsnNode(Opcodes.ASTORE, holderIndex)); //Store the holder in a local variable
+                before.add(new InsnNode(Opcodes.DUP)); //Duplicate the holder
+                before.add(new InsnNode(Opcodes.ICONST_0)); //Push the holder index
                 before.add(new VarInsnNode(localVariable.type.getOpcode(Opcodes.ILOAD), localVariable.variableIndex)); //Load the variable
-                AbstractInsnNode cast = ASMUtils.getPrimitiveToObject(localVariable.parameter.getType());
-                if (cast != null) before.add(cast); //Convert primitive to object (if needed)
-                before.add(new InsnNode(Opcodes.AASTORE)); //Store the variable in the array
-            }
-        }
-        if (this.isAnyModifiable) { //Instructions inserted after the method call
-            for (int i = 0; i < localVariables.length; i++) {
-                LocalVariable localVariable = localVariables[i];
-                if (localVariable.annotation.modifiable()) {
-                    after.add(new VarInsnNode(Opcodes.ALOAD, targetArrayIndex)); //Load the array
-                    after.add(ASMUtils.intPush(i)); //Push the array index
-                    after.add(new InsnNode(Opcodes.AALOAD)); //Load the variable from the array
-                    InsnList cast = ASMUtils.getCast(localVariable.parameter.getType());
-                    after.add(cast);
-                    after.add(new VarInsnNode(localVariable.type.getOpcode(Opcodes.ISTORE), localVariable.variableIndex)); //Store the variable back
-                }
+                before.add(load); //Convert the variable to the parameter type
+                before.add(new InsnNode(elementType.getOpcode(Opcodes.IASTORE))); //Store the variable in the holder
+
+                after.add(new VarInsnNode(Opcodes.ALOAD, holderIndex)); //Load the holder
+                after.add(new InsnNode(Opcodes.ICONST_0)); //Push the holder index
+                after.add(new InsnNode(elementType.getOpcode(Opcodes.IALOAD))); //Load the variable from the holder
+                if (!elementType.equals(parameterType)) after.add(new TypeInsnNode(Opcodes.CHECKCAST, parameterType.getInternalName()));
+                after.add(store); //Convert the variable back to its original type
+                after.add(new VarInsnNode(localVariable.type.getOpcode(Opcodes.ISTORE), localVariable.variableIndex)); //Store the variable back
+                holderIndex++;
+            } else {
+                //The variable is not modified, pass it directly
+                before.add(new VarInsnNode(localVariable.type.getOpcode(Opcodes.ILOAD), localVariable.variableIndex)); //Load the variable
+                before.add(load); //Convert the variable to the parameter type
             }
         }
         for (MethodInsnNode transformerCall : transformerMethodCalls) {
-            transformerCall.desc = transformerMethod.desc; //Set the correct method descriptor (with the array parameter)
+            transformerCall.desc = transformerMethod.desc; //Set the correct method descriptor (with the moved parameters)
             transformedMethod.instructions.insertBefore(transformerCall, ASMUtils.cloneInsnList(before));
             transformedMethod.instructions.insert(transformerCall, ASMUtils.cloneInsnList(after));
         }
@@ -94,7 +108,6 @@ public class CLocalVariableCoprocessor implements IAnnotationCoprocessor {
             if (parameter == null) continue;
             CLocalVariable annotation = AnnotationParser.parse(CLocalVariable.class, transformerManager, AnnotationUtils.listToMap(parameter.getAnnotation().values));
             IParsedAnnotation parsedAnnotation = (IParsedAnnotation) annotation;
-            this.isAnyModifiable |= annotation.modifiable();
 
             boolean nameSet = parsedAnnotation.wasSet("name");
             boolean ordinalSet = parsedAnnotation.wasSet("ordinal");
@@ -192,6 +205,31 @@ public class CLocalVariableCoprocessor implements IAnnotationCoprocessor {
         return localVariables.toArray(new LocalVariable[0]);
     }
 
+    /**
+     * Get the byte code to convert a value between the type of a local variable and the type of a parameter.<br>
+     * Objects are cast and primitives are boxed or unboxed if required.
+     *
+     * @param from The type of the value
+     * @param to   The wanted type
+     * @return The byte code for the conversion or {@code null} if the primitive types are not compatible
+     */
+    @Nullable
+    private InsnList convert(final Type from, final Type to) {
+        InsnList insns = new InsnList();
+        boolean fromPrimitive = Types.isPrimitive(from);
+        boolean toPrimitive = Types.isPrimitive(to);
+        if (fromPrimitive && toPrimitive) {
+            //int, boolean, byte, char and short are all stored as int
+            if (from.getOpcode(Opcodes.ILOAD) != to.getOpcode(Opcodes.ILOAD)) return null;
+        } else if (toPrimitive) {
+            insns.add(ASMUtils.getCast(to)); //Unbox the wrapper
+        } else {
+            if (fromPrimitive) insns.add(ASMUtils.getPrimitiveToObject(from)); //Box the primitive
+            if (!to.equals(Types.type(Object.class)) && !to.equals(from)) insns.add(new TypeInsnNode(Opcodes.CHECKCAST, to.getInternalName()));
+        }
+        return insns;
+    }
+
     private Type getType(final int opcode) {
         switch (opcode) {
             case Opcodes.ILOAD:
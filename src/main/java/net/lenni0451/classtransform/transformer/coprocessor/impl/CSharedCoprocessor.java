@@ -21,63 +21,76 @@ import java.util.List;
 public class CSharedCoprocessor implements IAnnotationCoprocessor {
 
     private CoprocessorUtils.AnnotatedParameter[] parameters;
+    private boolean[] holders;
+    private Type[] parameterTypes;
 
     @Override
     public MethodNode preprocess(TransformerManager transformerManager, ClassNode transformedClass, MethodNode transformedMethod, ClassNode transformer, MethodNode transformerMethod) {
         this.parameters = CoprocessorUtils.getAnnotatedParameters(transformerMethod, CShared.class);
         if (this.parameters == null) return transformerMethod; //No annotated parameters found
         transformedMethod.signature = null; //Remove the signature as it is no longer valid
-        CoprocessorUtils.mergeParametersToArray(transformerMethod, this.parameters);
+        List<Boolean> holders = new ArrayList<>();
+        for (CoprocessorUtils.AnnotatedParameter parameter : this.parameters) {
+            //Only shared variables which are written to need a holder, all other variables are passed directly
+            if (parameter != null) holders.add(CoprocessorUtils.isParameterWritten(transformerMethod, parameter));
+        }
+        this.holders = new boolean[holders.size()];
+        for (int i = 0; i < this.holders.length; i++) this.holders[i] = holders.get(i);
+        this.parameterTypes = CoprocessorUtils.moveParametersToEnd(transformerMethod, this.parameters, this.holders);
         return transformerMethod;
     }
 
     @Override
     public MethodNode transform(TransformerManager transformerManager, ClassNode transformedClass, MethodNode transformedMethod, ClassNode transformer, MethodNode transformerMethod) {
         if (this.parameters == null) return transformerMethod;
-        ASMUtils.cutParameters(transformerMethod, 1); //Remove the object array parameter again
+        ASMUtils.cutParameters(transformerMethod, this.parameterTypes.length); //Remove the moved parameters again
         return transformerMethod;
     }
 
     @Override
     public void postprocess(TransformerManager transformerManager, ClassNode transformedClass, MethodNode transformedMethod, List<MethodInsnNode> transformerMethodCalls, ClassNode transformer, MethodNode transformerMethod) {
         if (this.parameters == null) return;
-        ASMUtils.addParameters(transformerMethod, Types.type(Object[].class)); //Add the object array parameter again
+        ASMUtils.addParameters(transformerMethod, this.parameterTypes); //Add the moved parameters again
 
         SharedVariableAttribute attribute = this.getAttribute(transformedMethod);
         ParsedSharedVariable[] parsedSharedVariables = this.initializeSharedVariables(transformerManager, transformer, transformerMethod, attribute, transformedMethod);
-        int targetArrayIndex = ASMUtils.getFreeVarIndex(transformedMethod);
+        int holderIndex = ASMUtils.getFreeVarIndex(transformedMethod);
         InsnList before = new InsnList();
         InsnList after = new InsnList();
 
-        { //Instructions inserted before the method call
-            before.add(ASMUtils.intPush(parsedSharedVariables.length)); //Push the array size
-            before.add(new TypeInsnNode(Opcodes.ANEWARRAY, Types.internalName(Object.class))); //Create the array
-            before.add(new InsnNode(Opcodes.DUP)); //Duplicate the array
-            before.add(new VarInsnNode(Opcodes.ASTORE, targetArrayIndex)); //Store the array in a local variable
-            for (int i = 0; i < parsedSharedVariables.length; i++) {
-                //Go through all shared variables and add them to the array
-                ParsedSharedVariable parsedSharedVariable = parsedSharedVariables[i];
-                before.add(new InsnNode(Opcodes.DUP)); //Duplicate the array
-                before.add(ASMUtils.intPush(i)); //Push the array index
-                before.add(new VarInsnNode(parsedSharedVariable.parameter.getType().getOpcode(Opcodes.ILOAD), parsedSharedVariable.sharedVariable.getVariableIndex())); //Load the variable
-                AbstractInsnNode cast = ASMUtils.getPrimitiveToObject(parsedSharedVariable.parameter.getType());
-                if (cast != null) before.add(cast); //Convert primitive to object (if needed)
-                before.add(new InsnNode(Opcodes.AASTORE)); //Store the variable in the array
-            }
-        }
-        { //Instructions inserted after the method call
-            for (int i = 0; i < parsedSharedVariables.length; i++) {
-                ParsedSharedVariable parsedSharedVariable = parsedSharedVariables[i];
-                after.add(new VarInsnNode(Opcodes.ALOAD, targetArrayIndex)); //Load the array
-                after.add(ASMUtils.intPush(i)); //Push the array index
-                after.add(new InsnNode(Opcodes.AALOAD)); //Load the variable from the array
-                InsnList cast = ASMUtils.getCast(parsedSharedVariable.sharedVariable.getType());
-                after.add(cast);
-                after.add(new VarInsnNode(parsedSharedVariable.parameter.getType().getOpcode(Opcodes.ISTORE), parsedSharedVariable.sharedVariable.getVariableIndex())); //Store the variable back
+        for (int i = 0; i < parsedSharedVariables.length; i++) {
+            ParsedSharedVariable parsedSharedVariable = parsedSharedVariables[i];
+            Type parameterType = parsedSharedVariable.parameter.getType();
+            int variableIndex = parsedSharedVariable.sharedVariable.getVariableIndex();
+            if (this.holders[i]) {
+                //The variable is modified, pass it in a holder and copy it back after the call
+                Type elementType = CoprocessorUtils.getHolderType(parameterType).getElementType();
+                before.add(CoprocessorUtils.createHolder(parameterType)); //Create the holder
+                before.add(new InsnNode(Opcodes.DUP)); //Duplicate the holder
+                before.add(new VarInsnNode(Opcodes.ASTORE, holderIndex)); //Store the holder in a local variable
+                before.add(new InsnNode(Opcodes.DUP)); //Duplicate the holder
+                before.add(new InsnNode(Opcodes.ICONST_0)); //Push the holder index
+                before.add(new VarInsnNode(parameterType.getOpcode(Opcodes.ILOAD), variableIndex)); //Load the variable
+                before.add(new InsnNode(elementType.getOpcode(Opcodes.IASTORE))); //Store the variable in the holder
+
+                after.add(new VarInsnNode(Opcodes.ALOAD, holderIndex)); //Load the holder
+                after.add(new InsnNode(Opcodes.ICONST_0)); //Push the holder index
+                after.add(new InsnNode(elementType.getOpcode(Opcodes.IALOAD))); //Load the variable from the holder
+                if (!elementType.equals(parsedSharedVariable.sharedVariable.getType())) {
+                    after.add(new TypeInsnNode(Opcodes.CHECKCAST, parsedSharedVariable.sharedVariable.getType().getInternalName()));
+                }
+                after.add(new VarInsnNode(parameterType.getOpcode(Opcodes.ISTORE), variableIndex)); //Store the variable back
+                holderIndex++;
+            } else {
+                //The variable is not modified, pass it directly
+                before.add(new VarInsnNode(parameterType.getOpcode(Opcodes.ILOAD), variableIndex)); //Load the variable
+                if (!parameterType.equals(parsedSharedVariable.sharedVariable.getType())) {
+                    before.add(new TypeInsnNode(Opcodes.CHECKCAST, parameterType.getInternalName()));
+                }
             }
         }
         for (MethodInsnNode transformerCall : transformerMethodCalls) {
-            transformerCall.desc = transformerMethod.desc; //Set the correct method descriptor (with the array parameter)
+            transformerCall.desc = transformerMethod.desc; //Set the correct method descriptor (with the moved parameters)
             transformedMethod.instructions.insertBefore(transformerCall, ASMUtils.cloneInsnList(before));
             transformedMethod.instructions.insert(transformerCall, ASMUtils.cloneInsnList(after));
         }
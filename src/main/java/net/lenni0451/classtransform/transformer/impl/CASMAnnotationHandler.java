@@ -6,6 +6,7 @@ import net.lenni0451.classtransform.exceptions.MethodNotFoundException;
 import net.lenni0451.classtransform.exceptions.TransformerException;
 import net.lenni0451.classtransform.transformer.types.RemovingAnnotationHandler;
 import net.lenni0451.classtransform.utils.ASMUtils;
+import net.lenni0451.classtransform.utils.ClassMemberIndex;
 import net.lenni0451.classtransform.utils.annotations.ClassDefiner;
 import net.lenni0451.classtransform.utils.mappings.Remapper;
 import org.objectweb.asm.Handle;
@@ -52,6 +53,7 @@ public class CASMAnnotationHandler extends RemovingAnnotationHandler<CASM> {
                 Method isolatedMethod = classDefiner.getClazz().getDeclaredMethod(transformerMethod.name, ClassNode.class);
                 isolatedMethod.setAccessible(true);
                 isolatedMethod.invoke(instance, transformedClass);
+                ClassMemberIndex.invalidate(transformedClass); //The members may have been modified in any way
             } catch (Throwable t) {
                 throw new TransformerException(transformerMethod, transformer, "failed to call isolated method (ClassNode)").cause(t);
             }
@@ -68,6 +70,7 @@ public class CASMAnnotationHandler extends RemovingAnnotationHandler<CASM> {
                         Method isolatedMethod = classDefiner.getClazz().getDeclaredMethod(transformerMethod.name, MethodNode.class);
                         isolatedMethod.setAccessible(true);
                         isolatedMethod.invoke(instance, target);
+                        ClassMemberIndex.invalidate(transformedClass); //The method may have been renamed
                     } catch (Throwable t) {
                         throw new TransformerException(transformerMethod, transformer, "failed to call isolated method (MethodNode)").cause(t);
                     }
@@ -4,7 +4,6 @@ import net.lenni0451.classtransform.InjectionCallback;
 import net.lenni0451.classtransform.TransformerManager;
 import net.lenni0451.classtransform.annotations.CTarget;
 import net.lenni0451.classtransform.annotations.injection.CInject;
-import net.lenni0451.classtransform.exceptions.InvalidTargetException;
 import net.lenni0451.classtransform.exceptions.TransformerException;
 import net.lenni0451.classtransform.targets.IInjectionTarget;
 import net.lenni0451.classtransform.transformer.coprocessor.AnnotationCoprocessorList;
@@ -14,13 +13,15 @@ import net.lenni0451.classtransform.utils.Codifier;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.*;
+import org.objectweb.asm.tree.analysis.Analyzer;
+import org.objectweb.asm.tree.analysis.BasicInterpreter;
+import org.objectweb.asm.tree.analysis.BasicValue;
+import org.objectweb.asm.tree.analysis.Frame;
 
+import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import java.lang.reflect.Modifier;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Locale;
-import java.util.Map;
+import java.util.*;
 
 import static net.lenni0451.classtransform.utils.Types.*;
 
@@ -65,15 +66,22 @@ public class CInjectAnnotationHandler extends RemovingTargetAnnotationHandler<CI
             }
         }
         if (!returnType(transformerMethod.desc).equals(Type.VOID_TYPE)) throw TransformerException.mustReturnVoid(transformerMethod, transformer);
+        boolean usesCallback = hasCallback && this.usesCallback(transformerMethod);
 
         MethodNode copiedTransformerMethod = this.renameAndCopy(transformerMethod, target, transformer, transformedClass, "CInject");
         Map<String, IInjectionTarget> injectionTargets = transformerManager.getInjectionTargets();
         List<MethodInsnNode> transformerMethodCalls = new ArrayList<>();
-        for (CTarget injectTarget : annotation.target()) {
+        //All injections of this method share the same callback and return value variables
+        int callbackVar = ASMUtils.getFreeVarIndex(target);
+        int returnVar = callbackVar + 1;
+        boolean shareCancelExit = annotation.cancellable() && usesCallback && !target.name.equals(MN_Init);
+        LabelNode cancelExit = null;
+        AbstractInsnNode cancelExitReturn = null;
+        List<List<AbstractInsnNode>> resolvedTargets = this.getTargetInstructions(transformerManager, transformer, transformerMethod, target, annotation.target(), annotation.slice());
+        for (int i = 0; i < annotation.target().length; i++) {
+            CTarget injectTarget = annotation.target()[i];
             IInjectionTarget injectionTarget = injectionTargets.get(injectTarget.value().toUpperCase(Locale.ROOT));
-            if (injectionTarget == null) throw new InvalidTargetException(transformerMethod, transformer, injectTarget.target(), injectionTargets.keySet());
-
-            List<AbstractInsnNode> targetInstructions = injectionTarget.getTargets(injectionTargets, target, injectTarget, annotation.slice());
+            List<AbstractInsnNode> targetInstructions = resolvedTargets.get(i);
             CTarget.Shift shift = injectionTarget.getShift(injectTarget);
             if (targetInstructions == null) {
                 throw new TransformerException(transformerMethod, transformer, "has invalid " + injectTarget.value() + " member declaration")
@@ -83,13 +91,25 @@ public class CInjectAnnotationHandler extends RemovingTargetAnnotationHandler<CI
                 throw new TransformerException(transformerMethod, transformer, "target '" + injectTarget.value() + "' could not be found")
                         .help("e.g. Ljava/lang/String;toString()V, Ljava/lang/Integer;MAX_VALUE:I");
             }
+            Set<AbstractInsnNode> emptyStackInstructions = shareCancelExit ? this.getEmptyStackInstructions(transformedClass, target, targetInstructions, shift) : Collections.emptySet();
             for (AbstractInsnNode instruction : targetInstructions) {
                 InsnList instructions;
 
+                LabelNode instructionCancelExit = null;
+                if (instruction != cancelExitReturn && emptyStackInstructions.contains(instruction)) {
+                    if (cancelExit == null) {
+                        //The cancel exit is only added once and reused by all injections with an empty stack
+                        cancelExit = new LabelNode();
+                        InsnList cancelExitInstructions = this.getCancelExitInstructions(cancelExit, callbackVar, returnType(target.desc));
+                        cancelExitReturn = cancelExitInstructions.getLast().getPrevious();
+                        target.instructions.insert(cancelExitInstructions);
+                    }
+                    instructionCancelExit = cancelExit;
+                }
                 if (instruction.getOpcode() >= Opcodes.IRETURN && instruction.getOpcode() <= Opcodes.RETURN || instruction.getOpcode() == Opcodes.ATHROW) {
-                    instructions = this.getReturnInstructions(transformedClass, target, transformerMethod, annotation.cancellable(), hasArgs, hasCallback, transformerMethodCalls);
+                    instructions = this.getReturnInstructions(transformedClass, target, transformerMethod, annotation.cancellable(), hasArgs, hasCallback, usesCallback, callbackVar, returnVar, instructionCancelExit, transformerMethodCalls);
                 } else {
-                    instructions = this.getCallInstructions(transformedClass, target, transformerMethod, annotation.cancellable(), hasArgs, hasCallback, transformerMethodCalls);
+                    instructions = this.getCallInstructions(transformedClass, target, transformerMethod, annotation.cancellable(), hasArgs, hasCallback, usesCallback, callbackVar, instructionCancelExit, transformerMethodCalls);
                 }
 
                 if (shift == CTarget.Shift.BEFORE) target.instructions.insertBefore(instruction, instructions);
@@ -99,28 +119,93 @@ public class CInjectAnnotationHandler extends RemovingTargetAnnotationHandler<CI
         coprocessors.postprocess(transformerManager, transformedClass, target, transformerMethodCalls, transformer, copiedTransformerMethod);
     }
 
-    private InsnList getCallInstructions(final ClassNode classNode, final MethodNode target, final MethodNode source, final boolean cancellable, final boolean hasArgs, final boolean hasCallback, final List<MethodInsnNode> transformerMethodCalls) {
+    /**
+     * Check if the injection method accesses the callback parameter.<br>
+     * If the callback is never accessed, no callback has to be created and the cancel checks can be skipped.
+     *
+     * @param transformerMethod The injection method with the callback as the last parameter
+     * @return If the callback is accessed
+     */
+    private boolean usesCallback(final MethodNode transformerMethod) {
+        Type[] arguments = argumentTypes(transformerMethod.desc);
+        int callbackIndex = Modifier.isStatic(transformerMethod.access) ? 0 : 1;
+        for (int i = 0; i < arguments.length - 1; i++) callbackIndex += arguments[i].getSize();
+        for (AbstractInsnNode instruction : transformerMethod.instructions) {
+            if (instruction instanceof VarInsnNode && ((VarInsnNode) instruction).var == callbackIndex) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Get all target instructions at which the stack is empty when the injection is executed.<br>
+     * Only those injections can jump to the shared cancel exit since the stack has to be the same for all jumps.
+     *
+     * @param classNode          The class node containing the target method
+     * @param target             The target method
+     * @param targetInstructions The instructions to inject at
+     * @param shift              The shift of the injection
+     * @return The instructions with an empty stack
+     */
+    private Set<AbstractInsnNode> getEmptyStackInstructions(final ClassNode classNode, final MethodNode target, final List<AbstractInsnNode> targetInstructions, final CTarget.Shift shift) {
+        Set<AbstractInsnNode> emptyStackInstructions = new HashSet<>();
+        if (targetInstructions.isEmpty()) return emptyStackInstructions;
+        Frame<BasicValue>[] frames;
+        try {
+            //The max values of the target method are not updated by previous transformations
+            //The analyzer only uses them as the size of the frames, so some space is added to be safe
+            MethodNode analyzedMethod = new MethodNode(target.access, target.name, target.desc, null, null);
+            analyzedMethod.instructions = target.instructions;
+            analyzedMethod.tryCatchBlocks = target.tryCatchBlocks;
+            analyzedMethod.maxLocals = Math.max(target.maxLocals, ASMUtils.getFreeVarIndex(target));
+            analyzedMethod.maxStack = target.maxStack + 32;
+            frames = new Analyzer<>(new BasicInterpreter()).analyze(classNode.name, analyzedMethod);
+        } catch (Throwable t) {
+            return emptyStackInstructions; //Fall back to a cancel check at every injection
+        }
+        for (AbstractInsnNode instruction : targetInstructions) {
+            int opcode = instruction.getOpcode();
+            boolean isReturn = opcode >= Opcodes.IRETURN && opcode <= Opcodes.RETURN;
+            if (opcode == Opcodes.ATHROW || (isReturn && shift != CTarget.Shift.BEFORE)) continue;
+
+            int index = target.instructions.indexOf(instruction);
+            if (shift == CTarget.Shift.AFTER) index++;
+            if (index >= frames.length || frames[index] == null) continue;
+            //The return value is stored in a local variable before the injection method is called
+            int stackSize = isReturn && opcode != Opcodes.RETURN ? 1 : 0;
+            if (frames[index].getStackSize() == stackSize) emptyStackInstructions.add(instruction);
+        }
+        return emptyStackInstructions;
+    }
+
+    private InsnList getCallInstructions(final ClassNode classNode, final MethodNode target, final MethodNode source, final boolean cancellable, final boolean hasArgs, final boolean hasCallback, final boolean usesCallback, final int callbackVar, @Nullable final LabelNode cancelExit, final List<MethodInsnNode> transformerMethodCalls) {
         Type returnType = returnType(target.desc);
-        int callbackVar = ASMUtils.getFreeVarIndex(target);
 
         InsnList instructions = this.getLoadInstructions(target, hasArgs);
+        if (hasCallback && !usesCallback) {
+            instructions.add(new InsnNode(Opcodes.ACONST_NULL));
+            this.callInjectionMethod(instructions, classNode, target, source, transformerMethodCalls);
+            return instructions;
+        }
         this.createCallback(instructions, cancellable, hasCallback, callbackVar, Type.VOID_TYPE, 0);
         this.callInjectionMethod(instructions, classNode, target, source, transformerMethodCalls);
-        this.getCancelInstructions(instructions, cancellable, hasCallback, callbackVar, returnType, -1);
+        this.getCancelInstructions(instructions, cancellable, hasCallback, callbackVar, returnType, -1, cancelExit);
         return instructions;
     }
 
-    private InsnList getReturnInstructions(final ClassNode classNode, final MethodNode target, final MethodNode source, final boolean cancellable, final boolean hasArgs, final boolean hasCallback, final List<MethodInsnNode> transformerMethodCalls) {
+    private InsnList getReturnInstructions(final ClassNode classNode, final MethodNode target, final MethodNode source, final boolean cancellable, final boolean hasArgs, final boolean hasCallback, final boolean usesCallback, final int callbackVar, final int returnVar, @Nullable final LabelNode cancelExit, final List<MethodInsnNode> transformerMethodCalls) {
         Type returnType = returnType(target.desc);
         boolean isVoid = returnType.equals(Type.VOID_TYPE);
-        int callbackVar = ASMUtils.getFreeVarIndex(target);
-        //The return value has to be stored locally. We just take the callbackVar + 1 since callbackVar is the last element on the variable table
-        int returnVar = callbackVar + 1;
 
         InsnList instructions = this.getLoadInstructions(target, hasArgs);
+        if (hasCallback && !usesCallback) {
+            //The return value stays on the stack below the arguments
+            instructions.add(new InsnNode(Opcodes.ACONST_NULL));
+            this.callInjectionMethod(instructions, classNode, target, source, transformerMethodCalls);
+            return instructions;
+        }
         this.createCallback(instructions, cancellable, hasCallback, callbackVar, returnType, returnVar);
         this.callInjectionMethod(instructions, classNode, target, source, transformerMethodCalls);
-        this.getCancelInstructions(instructions, cancellable, hasCallback, callbackVar, returnType, returnVar);
+        this.getCancelInstructions(instructions, cancellable, hasCallback, callbackVar, returnType, returnVar, cancelExit);
         if (!isVoid && hasCallback) {
             instructions.insert(new VarInsnNode(ASMUtils.getStoreOpcode(returnType), returnVar)); //If the method is not a void, store the return value
             if (!cancellable) instructions.add(new VarInsnNode(ASMUtils.getLoadOpcode(returnType), returnVar));
@@ -172,10 +257,21 @@ public class CInjectAnnotationHandler extends RemovingTargetAnnotationHandler<CI
         instructions.add(new TypeInsnNode(Opcodes.NEW, internalName(InjectionCallback.class)));
         instructions.add(new InsnNode(Opcodes.DUP));
         instructions.add(new InsnNode(cancellable ? Opcodes.ICONST_1 : Opcodes.ICONST_0));
-        if (!Type.VOID_TYPE.equals(returnType)) {
+        if (!Type.VOID_TYPE.equals(returnType) && isPrimitive(returnType)) {
+            //Primitive return values are passed as raw bits and only boxed if the injection method requests them
+            instructions.add(new IntInsnNode(Opcodes.BIPUSH, returnType.getDescriptor().charAt(0)));
+            instructions.add(new VarInsnNode(ASMUtils.getLoadOpcode(returnType), returnVar));
+            if (returnType.getSort() == Type.FLOAT) {
+                instructions.add(new MethodInsnNode(Opcodes.INVOKESTATIC, IN_Float, "floatToRawIntBits", methodDescriptor(int.class, float.class), false));
+                instructions.add(new InsnNode(Opcodes.I2L));
+            } else if (returnType.getSort() == Type.DOUBLE) {
+                instructions.add(new MethodInsnNode(Opcodes.INVOKESTATIC, IN_Double, "doubleToRawLongBits", methodDescriptor(long.class, double.class), false));
+            } else if (returnType.getSort() != Type.LONG) {
+                instructions.add(new InsnNode(Opcodes.I2L));
+            }
+            instructions.add(new MethodInsnNode(Opcodes.INVOKESPECIAL, internalName(InjectionCallback.class), MN_Init, methodDescriptor(void.class, boolean.class, char.class, long.class)));
+        } else if (!Type.VOID_TYPE.equals(returnType)) {
             instructions.add(new VarInsnNode(ASMUtils.getLoadOpcode(returnType), returnVar));
-            AbstractInsnNode convertOpcode = ASMUtils.getPrimitiveToObject(returnType);
-            if (convertOpcode != null) instructions.add(convertOpcode);
             instructions.add(new MethodInsnNode(Opcodes.INVOKESPECIAL, internalName(InjectionCallback.class), MN_Init, methodDescriptor(void.class, boolean.class, Object.class)));
         } else {
             instructions.add(new MethodInsnNode(Opcodes.INVOKESPECIAL, internalName(InjectionCallback.class), MN_Init, methodDescriptor(void.class, boolean.class)));
@@ -222,11 +318,26 @@ public class CInjectAnnotationHandler extends RemovingTargetAnnotationHandler<CI
      * } else {
      *     stack << currentReturnValue;
      * }
+     *
+     * //cancelExit
+     * if (injectionCallback.isCancelled()) {
+     *     goto cancelExit;
+     * }
+     * stack << currentReturnValue; //If returnVar
      */
-    private void getCancelInstructions(final InsnList instructions, final boolean cancellable, final boolean hasCallback, final int callbackVar, final Type returnType, final int returnVar) {
+    private void getCancelInstructions(final InsnList instructions, final boolean cancellable, final boolean hasCallback, final int callbackVar, final Type returnType, final int returnVar, @Nullable final LabelNode cancelExit) {
         if (!cancellable || !hasCallback) return; //If the method is cancellable, check if the callback has been cancelled
         boolean willCancel = returnVar >= 0;
+        if (willCancel && Type.VOID_TYPE.equals(returnType)) return; //The method returns anyway
         InsnList cancelInstructions = new InsnList();
+        if (cancelExit != null) {
+            cancelInstructions.add(new VarInsnNode(Opcodes.ALOAD, callbackVar));
+            cancelInstructions.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, internalName(InjectionCallback.class), "isCancelled", methodDescriptor(boolean.class)));
+            cancelInstructions.add(new JumpInsnNode(Opcodes.IFNE, cancelExit));
+            if (willCancel) cancelInstructions.add(new VarInsnNode(ASMUtils.getLoadOpcode(returnType), returnVar));
+            instructions.add(cancelInstructions);
+            return;
+        }
         //Check if the callback is cancelled
         LabelNode jump = new LabelNode();
         LabelNode end = new LabelNode();
@@ -234,21 +345,56 @@ public class CInjectAnnotationHandler extends RemovingTargetAnnotationHandler<CI
         cancelInstructions.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, internalName(InjectionCallback.class), "isCancelled", methodDescriptor(boolean.class)));
         cancelInstructions.add(new JumpInsnNode(Opcodes.IFEQ, jump));
         if (!Type.VOID_TYPE.equals(returnType)) { //If the method has a return value, take the value from the callback
-            cancelInstructions.add(new VarInsnNode(Opcodes.ALOAD, callbackVar));
-            cancelInstructions.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, internalName(InjectionCallback.class), "getReturnValue", methodDescriptor(Object.class)));
-            cancelInstructions.add(ASMUtils.getCast(returnType));
+            this.getCallbackReturnValue(cancelInstructions, callbackVar, returnType);
             if (willCancel) cancelInstructions.add(new JumpInsnNode(Opcodes.GOTO, end));
             else cancelInstructions.add(new InsnNode(ASMUtils.getReturnOpcode(returnType)));
         } else { //If the method is void, simply return
-            if (willCancel) cancelInstructions.clear();
-            else cancelInstructions.add(new InsnNode(Opcodes.RETURN));
+            cancelInstructions.add(new InsnNode(Opcodes.RETURN));
         }
         cancelInstructions.add(jump);
-        if (willCancel && cancelInstructions.size() > 0) {
+        if (willCancel) {
             cancelInstructions.add(new VarInsnNode(ASMUtils.getLoadOpcode(returnType), returnVar));
             cancelInstructions.add(end);
         }
         instructions.add(cancelInstructions);
     }
 
+    /*
+     * goto start;
+     * cancelExit:
+     * return (T) injectionCallback.getReturnValue();
+     * start:
+     *
+     * The cancel exit is placed at the start of the method to keep the last return of the method in place
+     */
+    private InsnList getCancelExitInstructions(final LabelNode cancelExit, final int callbackVar, final Type returnType) {
+        InsnList instructions = new InsnList();
+        LabelNode start = new LabelNode();
+        instructions.add(new JumpInsnNode(Opcodes.GOTO, start));
+        instructions.add(cancelExit);
+        if (!Type.VOID_TYPE.equals(returnType)) this.getCallbackReturnValue(instructions, callbackVar, returnType);
+        instructions.add(new InsnNode(ASMUtils.getReturnOpcode(returnType)));
+        instructions.add(start);
+        return instructions;
+    }
+
+    private void getCallbackReturnValue(final InsnList instructions, final int callbackVar, final Type returnType) {
+        instructions.add(new VarInsnNode(Opcodes.ALOAD, callbackVar));
+        if (isPrimitive(returnType)) {
+            instructions.add(new IntInsnNode(Opcodes.BIPUSH, returnType.getDescriptor().charAt(0)));
+            instructions.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, internalName(InjectionCallback.class), "getPrimitiveReturnValue", methodDescriptor(long.class, char.class)));
+            if (returnType.getSort() == Type.FLOAT) {
+                instructions.add(new InsnNode(Opcodes.L2I));
+                instructions.add(new MethodInsnNode(Opcodes.INVOKESTATIC, IN_Float, "intBitsToFloat", methodDescriptor(float.class, int.class), false));
+            } else if (returnType.getSort() == Type.DOUBLE) {
+                instructions.add(new MethodInsnNode(Opcodes.INVOKESTATIC, IN_Double, "longBitsToDouble", methodDescriptor(double.class, long.class), false));
+            } else if (returnType.getSort() != Type.LONG) {
+                instructions.add(new InsnNode(Opcodes.L2I));
+            }
+        } else {
+            instructions.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, internalName(InjectionCallback.class), "getReturnValue", methodDescriptor(Object.class)));
+            instructions.add(ASMUtils.getCast(returnType));
+        }
+    }
+
 }
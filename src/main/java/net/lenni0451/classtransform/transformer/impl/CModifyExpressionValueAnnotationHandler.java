@@ -5,6 +5,7 @@ import net.lenni0451.classtransform.annotations.injection.CModifyExpressionValue
 import net.lenni0451.classtransform.exceptions.InvalidTargetException;
 import net.lenni0451.classtransform.exceptions.TransformerException;
 import net.lenni0451.classtransform.targets.IInjectionTarget;
+import net.lenni0451.classtransform.targets.MethodInstructionIndex;
 import net.lenni0451.classtransform.transformer.coprocessor.AnnotationCoprocessorList;
 import net.lenni0451.classtransform.transformer.types.RemovingTargetAnnotationHandler;
 import net.lenni0451.classtransform.utils.ASMUtils;
@@ -41,7 +42,7 @@ public class CModifyExpressionValueAnnotationHandler extends RemovingTargetAnnot
             throw TransformerException.wrongStaticAccess(transformerMethod, transformer, Modifier.isStatic(target.access));
         }
 
-        List<AbstractInsnNode> injectionInstructions = injectionTarget.getTargets(injectionTargets, target, annotation.target(), annotation.slice());
+        List<AbstractInsnNode> injectionInstructions = MethodInstructionIndex.scope(() -> injectionTarget.getTargets(injectionTargets, target, annotation.target(), annotation.slice()));
         if (injectionInstructions == null) {
             throw TransformerException.invalidMemberDeclaration(transformerMethod, transformer, annotation.target().target());
         }
@@ -5,6 +5,7 @@ import net.lenni0451.classtransform.annotations.injection.COverride;
 import net.lenni0451.classtransform.exceptions.TransformerException;
 import net.lenni0451.classtransform.transformer.types.RemovingTargetAnnotationHandler;
 import net.lenni0451.classtransform.utils.ASMUtils;
+import net.lenni0451.classtransform.utils.ClassMemberIndex;
 import net.lenni0451.classtransform.utils.mappings.Remapper;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.MethodNode;
@@ -35,9 +36,9 @@ public class COverrideAnnotationHandler extends RemovingTargetAnnotationHandler<
         if (ASMUtils.isAccessLower(transformerMethod.access, target.access)) {
             throw new TransformerException(transformerMethod, transformer, "must have higher/equal access than original method");
         }
-        transformerMethod.name = target.name;
+        ClassMemberIndex.of(transformer).renameMethod(transformerMethod, target.name);
         transformerMethod.desc = target.desc;
-        transformedClass.methods.remove(target);
+        ClassMemberIndex.of(transformedClass).removeMethod(target);
         this.prepareForCopy(transformer, transformerMethod);
         Remapper.remapAndAdd(transformer, transformedClass, transformerMethod);
     }
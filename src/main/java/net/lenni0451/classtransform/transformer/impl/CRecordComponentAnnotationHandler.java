@@ -5,6 +5,7 @@ import net.lenni0451.classtransform.annotations.injection.CRecordComponent;
 import net.lenni0451.classtransform.exceptions.TransformerException;
 import net.lenni0451.classtransform.transformer.AnnotationHandler;
 import net.lenni0451.classtransform.utils.ASMUtils;
+import net.lenni0451.classtransform.utils.ClassMemberIndex;
 import net.lenni0451.classtransform.utils.Types;
 import net.lenni0451.classtransform.utils.mappings.Remapper;
 import org.objectweb.asm.Handle;
@@ -38,6 +39,7 @@ public class CRecordComponentAnnotationHandler extends AnnotationHandler {
             if (recordComponent == null) continue;
             this.copyField(transformer, transformedClass, field);
             it.remove();
+            ClassMemberIndex.invalidate(transformer);
 
             if (recordComponent.addRecordComponent()) recordComponents.add(field);
             if (recordComponent.addConstructor()) constructor.add(field);
@@ -90,7 +92,7 @@ public class CRecordComponentAnnotationHandler extends AnnotationHandler {
         }
         constructor.visitInsn(Opcodes.RETURN);
 
-        transformedClass.methods.add(constructor);
+        ClassMemberIndex.of(transformedClass).addMethod(constructor);
     }
 
     private void addGetter(final ClassNode transformer, final ClassNode transformedClass, final List<FieldNode> fields) {
@@ -103,7 +105,7 @@ public class CRecordComponentAnnotationHandler extends AnnotationHandler {
             getter.visitFieldInsn(Opcodes.GETFIELD, transformedClass.name, field.name, field.desc);
             getter.visitInsn(type.getOpcode(Opcodes.IRETURN));
 
-            transformedClass.methods.add(getter);
+            ClassMemberIndex.of(transformedClass).addMethod(getter);
         }
     }
 
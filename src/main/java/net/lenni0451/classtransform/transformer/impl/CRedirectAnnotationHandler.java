@@ -5,6 +5,7 @@ import net.lenni0451.classtransform.annotations.injection.CRedirect;
 import net.lenni0451.classtransform.exceptions.InvalidTargetException;
 import net.lenni0451.classtransform.exceptions.TransformerException;
 import net.lenni0451.classtransform.targets.IInjectionTarget;
+import net.lenni0451.classtransform.targets.MethodInstructionIndex;
 import net.lenni0451.classtransform.transformer.coprocessor.AnnotationCoprocessorList;
 import net.lenni0451.classtransform.transformer.impl.redirect.CRedirectField;
 import net.lenni0451.classtransform.transformer.impl.redirect.CRedirectInvoke;
@@ -43,7 +44,7 @@ public class CRedirectAnnotationHandler extends RemovingTargetAnnotationHandler<
             throw TransformerException.wrongStaticAccess(transformerMethod, transformer, Modifier.isStatic(target.access));
         }
 
-        List<AbstractInsnNode> injectionInstructions = injectionTarget.getTargets(injectionTargets, target, annotation.target(), annotation.slice());
+        List<AbstractInsnNode> injectionInstructions = MethodInstructionIndex.scope(() -> injectionTarget.getTargets(injectionTargets, target, annotation.target(), annotation.slice()));
         if (injectionInstructions == null) {
             throw TransformerException.invalidMemberDeclaration(transformerMethod, transformer, annotation.target().target());
         }
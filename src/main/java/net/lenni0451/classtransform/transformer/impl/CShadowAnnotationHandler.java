@@ -6,6 +6,7 @@ import net.lenni0451.classtransform.exceptions.FieldNotFoundException;
 import net.lenni0451.classtransform.exceptions.MethodNotFoundException;
 import net.lenni0451.classtransform.transformer.AnnotationHandler;
 import net.lenni0451.classtransform.utils.ASMUtils;
+import net.lenni0451.classtransform.utils.ClassMemberIndex;
 import net.lenni0451.classtransform.utils.mappings.MapRemapper;
 import net.lenni0451.classtransform.utils.mappings.Remapper;
 import org.objectweb.asm.Opcodes;
@@ -41,6 +42,7 @@ public class CShadowAnnotationHandler extends AnnotationHandler {
             CShadow annotation = this.getAnnotation(CShadow.class, field, transformerManager);
             if (annotation == null) continue;
             it.remove();
+            ClassMemberIndex.invalidate(transformer);
 
             List<FieldNode> targets = ASMUtils.getFieldsFromCombi(target, annotation.value());
             if (targets.isEmpty()) throw new FieldNotFoundException(target, transformer, annotation.value());
@@ -60,6 +62,7 @@ public class CShadowAnnotationHandler extends AnnotationHandler {
             CShadow annotation = this.getAnnotation(CShadow.class, method, transformerManager);
             if (annotation == null) continue;
             it.remove();
+            ClassMemberIndex.invalidate(transformer);
 
             List<MethodNode> targets = ASMUtils.getMethodsFromCombi(target, annotation.value());
             if (targets.isEmpty()) throw new MethodNotFoundException(target, transformer, annotation.value());
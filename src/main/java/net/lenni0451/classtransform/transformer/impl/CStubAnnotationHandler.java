@@ -37,7 +37,7 @@ public class CStubAnnotationHandler extends RemovingAnnotationHandler<CStub> {
         ClassNode stubOwner = null;
         if (annotation.memberValidation()) {
             try {
-                stubOwner = ASMUtils.fromBytes(transformerManager.getClassProvider().getClass(memberDeclaration.getOwner()));
+                stubOwner = ASMUtils.fromBytes(transformerManager.readClass(memberDeclaration.getOwner()));
             } catch (Throwable t) {
                 throw new TransformerException(transformerMethod, transformer, "has unknown stub class '" + memberDeclaration.getOwner() + "'");
             }
@@ -4,6 +4,7 @@ import net.lenni0451.classtransform.TransformerManager;
 import net.lenni0451.classtransform.annotations.injection.CWrapCatch;
 import net.lenni0451.classtransform.exceptions.TransformerException;
 import net.lenni0451.classtransform.targets.IInjectionTarget;
+import net.lenni0451.classtransform.targets.MethodInstructionIndex;
 import net.lenni0451.classtransform.transformer.coprocessor.AnnotationCoprocessorList;
 import net.lenni0451.classtransform.transformer.types.RemovingTargetAnnotationHandler;
 import net.lenni0451.classtransform.utils.ASMUtils;
@@ -76,7 +77,7 @@ public class CWrapCatchAnnotationHandler extends RemovingTargetAnnotationHandler
             transformerMethodCalls.add(transformerCall);
         } else {
             Map<String, IInjectionTarget> injectionTargets = transformerManager.getInjectionTargets();
-            List<AbstractInsnNode> targetInstructions = injectionTargets.get("INVOKE").getTargets(injectionTargets, target, CTargetImpl.invoke(annotation.target(), annotation.ordinal()), annotation.slice());
+            List<AbstractInsnNode> targetInstructions = MethodInstructionIndex.scope(() -> injectionTargets.get("INVOKE").getTargets(injectionTargets, target, CTargetImpl.invoke(annotation.target(), annotation.ordinal()), annotation.slice()));
             for (AbstractInsnNode instruction : targetInstructions) {
                 Type instructionReturnType = returnType(((MethodInsnNode) instruction).desc);
                 if (!ASMUtils.compareType(instructionReturnType, returnType)) {
@@ -1,11 +1,8 @@
 package net.lenni0451.classtransform.transformer.impl;
 
 import net.lenni0451.classtransform.TransformerManager;
-import net.lenni0451.classtransform.annotations.CTarget;
 import net.lenni0451.classtransform.annotations.injection.CWrapCondition;
-import net.lenni0451.classtransform.exceptions.InvalidTargetException;
 import net.lenni0451.classtransform.exceptions.TransformerException;
-import net.lenni0451.classtransform.targets.IInjectionTarget;
 import net.lenni0451.classtransform.transformer.coprocessor.AnnotationCoprocessorList;
 import net.lenni0451.classtransform.transformer.impl.wrapcondition.CWrapConditionField;
 import net.lenni0451.classtransform.transformer.impl.wrapcondition.CWrapConditionMethod;
@@ -18,8 +15,6 @@ import javax.annotation.ParametersAreNonnullByDefault;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
-import java.util.Map;
 
 import static net.lenni0451.classtransform.utils.Types.returnType;
 
@@ -46,12 +41,8 @@ public class CWrapConditionAnnotationHandler extends RemovingTargetAnnotationHan
         if (!returnType(transformerMethod).equals(Type.BOOLEAN_TYPE)) throw new TransformerException(transformerMethod, transformer, "must return 'boolean'");
 
         MethodNode copiedTransformerMethod = null;
-        Map<String, IInjectionTarget> injectionTargets = transformerManager.getInjectionTargets();
         List<MethodInsnNode> transformerMethodCalls = new ArrayList<>();
-        for (CTarget wrapTarget : annotation.target()) {
-            IInjectionTarget injectionTarget = injectionTargets.get(wrapTarget.value().toUpperCase(Locale.ROOT));
-            if (injectionTarget == null) throw new InvalidTargetException(transformerMethod, transformer, wrapTarget.target(), injectionTargets.keySet());
-            List<AbstractInsnNode> targetInstructions = injectionTarget.getTargets(injectionTargets, target, wrapTarget, annotation.slice());
+        for (List<AbstractInsnNode> targetInstructions : this.getTargetInstructions(transformerManager, transformer, transformerMethod, target, annotation.target(), annotation.slice())) {
             if (targetInstructions.isEmpty()) throw new TransformerException(transformerMethod, transformer, "No valid method/field target found");
 
             if (copiedTransformerMethod == null) copiedTransformerMethod = this.renameAndCopy(transformerMethod, target, transformer, transformedClass, "CWrapCondition");
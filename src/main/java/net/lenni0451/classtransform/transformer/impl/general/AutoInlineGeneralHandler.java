@@ -0,0 +1,170 @@
+package net.lenni0451.classtransform.transformer.impl.general;
+
+import net.lenni0451.classtransform.TransformerManager;
+import net.lenni0451.classtransform.annotations.CInline;
+import net.lenni0451.classtransform.annotations.InjectionInfo;
+import net.lenni0451.classtransform.annotations.injection.*;
+import net.lenni0451.classtransform.debugger.inlining.InliningReport;
+import net.lenni0451.classtransform.transformer.AnnotationHandler;
+import net.lenni0451.classtransform.utils.ASMUtils;
+import net.lenni0451.classtransform.utils.ClassMemberIndex;
+import net.lenni0451.classtransform.utils.InlinePolicy;
+import net.lenni0451.classtransform.utils.MethodInliner;
+import net.lenni0451.classtransform.utils.annotations.AnnotationUtils;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.*;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * Automatically inline small injection handler methods into the transformed methods.<br>
+ * A handler is only inlined if it and all methods calling it stay within the limits of the {@link InlinePolicy}.
+ * Handlers modifying their parameters are never inlined since the {@link MethodInliner} does not support it.<br>
+ * Inlined handlers are removed from the transformed class. If transformer hotswapping is enabled they are kept, so the methods of the class
+ * do not depend on the inlining decision and a hotswapped transformer can still redefine the class.<br>
+ * This handler does nothing if no inline policy is set.
+ */
+@ParametersAreNonnullByDefault
+public class AutoInlineGeneralHandler extends AnnotationHandler {
+
+    private static final List<Class<?>> HANDLER_ANNOTATIONS = Arrays.asList(
+            CInject.class,
+            CRedirect.class,
+            CModifyConstant.class,
+            CModifyExpressionValue.class,
+            CWrapCatch.class,
+            CWrapCondition.class
+    );
+
+    @Override
+    public void transform(TransformerManager transformerManager, ClassNode transformedClass, ClassNode transformer) {
+        InlinePolicy policy = transformerManager.getInlinePolicy();
+        if (policy == null) return;
+        boolean keepHandlers = transformerManager.isHotswappable();
+
+        Map<MethodNode, Integer> originalSizes = new LinkedHashMap<>();
+        Map<MethodNode, List<String>> inlinedHandlers = new HashMap<>();
+        for (MethodNode handler : new ArrayList<>(transformedClass.methods)) {
+            if (!this.isHandler(handler) || ASMUtils.getCodeSize(handler) > policy.getMaxHandlerSize()) continue;
+            if (handler.tryCatchBlocks != null && !handler.tryCatchBlocks.isEmpty()) continue; //Exception handlers would require the stack to be spilled at every call site
+            if (this.modifiesParameters(handler)) continue;
+
+            Map<MethodNode, Integer> callSites = this.getCallSites(transformedClass, handler);
+            if (callSites == null || callSites.isEmpty()) continue;
+            if (callSites.values().stream().mapToInt(Integer::intValue).sum() > policy.getMaxCallSites()) continue;
+
+            //Inline the handler into copies of all callers first, so the transformation can be discarded if a caller would get too big
+            Map<MethodNode, MethodNode> inlinedCallers = new HashMap<>();
+            for (MethodNode caller : callSites.keySet()) {
+                MethodNode inlinedCaller = ASMUtils.cloneMethod(caller);
+                for (AbstractInsnNode call : this.getCalls(transformedClass, inlinedCaller, handler)) {
+                    MethodInliner.wrappedInline(transformedClass.name, inlinedCaller, call, ASMUtils.cloneMethod(handler));
+                }
+                int sizeBefore = originalSizes.computeIfAbsent(caller, ASMUtils::getCodeSize);
+                if (!policy.isAllowedSize(sizeBefore, ASMUtils.getCodeSize(inlinedCaller))) {
+                    inlinedCallers = null;
+                    break;
+                }
+                inlinedCallers.put(caller, inlinedCaller);
+            }
+            if (inlinedCallers == null) continue;
+
+            for (Map.Entry<MethodNode, MethodNode> entry : inlinedCallers.entrySet()) {
+                MethodNode caller = entry.getKey();
+                MethodNode inlinedCaller = entry.getValue();
+                caller.instructions = inlinedCaller.instructions;
+                caller.tryCatchBlocks = inlinedCaller.tryCatchBlocks;
+                caller.localVariables = inlinedCaller.localVariables;
+                caller.exceptions = inlinedCaller.exceptions;
+                caller.maxLocals = inlinedCaller.maxLocals;
+                caller.maxStack = inlinedCaller.maxStack;
+                inlinedHandlers.computeIfAbsent(caller, c -> new ArrayList<>()).add(handler.name + handler.desc);
+            }
+            if (!keepHandlers) ClassMemberIndex.of(transformedClass).removeMethod(handler);
+        }
+
+        for (Map.Entry<MethodNode, Integer> entry : originalSizes.entrySet()) {
+            MethodNode caller = entry.getKey();
+            List<String> handlers = inlinedHandlers.get(caller);
+            if (handlers == null) continue;
+            InliningReport report = new InliningReport(caller.name, caller.desc, entry.getValue(), ASMUtils.getCodeSize(caller), handlers);
+            transformerManager.getDebugger().addInliningReport(transformedClass.name, report);
+        }
+    }
+
+    private boolean isHandler(final MethodNode methodNode) {
+        if (!AnnotationUtils.hasAnnotation(methodNode, InjectionInfo.class)) return false; //Only methods copied into the transformed class
+        if (AnnotationUtils.hasAnnotation(methodNode, CInline.class)) return false; //Already handled by the CInline annotation handler
+        for (Class<?> annotation : HANDLER_ANNOTATIONS) {
+            if (AnnotationUtils.hasAnnotation(methodNode, annotation)) return true;
+        }
+        return false;
+    }
+
+    private boolean modifiesParameters(final MethodNode methodNode) {
+        int parameterSize = Type.getArgumentsAndReturnSizes(methodNode.desc) >> 2; //Includes the this slot
+        if (Modifier.isStatic(methodNode.access)) parameterSize--;
+        for (AbstractInsnNode instruction : methodNode.instructions) {
+            if (instruction instanceof VarInsnNode) {
+                VarInsnNode varInsn = (VarInsnNode) instruction;
+                if (varInsn.getOpcode() >= Opcodes.ISTORE && varInsn.getOpcode() <= Opcodes.ASTORE && varInsn.var < parameterSize) return true;
+            } else if (instruction instanceof IincInsnNode) {
+                if (((IincInsnNode) instruction).var < parameterSize) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Count the calls to the handler method in all methods of the class.
+     *
+     * @param classNode The class node
+     * @param handler   The handler method
+     * @return The amount of calls per calling method or {@code null} if the handler is referenced in another way
+     */
+    @Nullable
+    private Map<MethodNode, Integer> getCallSites(final ClassNode classNode, final MethodNode handler) {
+        Map<MethodNode, Integer> callSites = new HashMap<>();
+        for (MethodNode method : classNode.methods) {
+            for (AbstractInsnNode instruction : method.instructions) {
+                if (instruction instanceof MethodInsnNode) {
+                    if (!this.isCall((MethodInsnNode) instruction, classNode, handler)) continue;
+                    if (method == handler) return null; //Recursive handlers can not be inlined
+                    callSites.merge(method, 1, Integer::sum);
+                } else if (instruction instanceof InvokeDynamicInsnNode) {
+                    InvokeDynamicInsnNode invokeDynamic = (InvokeDynamicInsnNode) instruction;
+                    for (Object arg : invokeDynamic.bsmArgs) {
+                        if (this.isHandle(arg, classNode, handler)) return null;
+                    }
+                } else if (instruction instanceof LdcInsnNode) {
+                    if (this.isHandle(((LdcInsnNode) instruction).cst, classNode, handler)) return null;
+                }
+            }
+        }
+        return callSites;
+    }
+
+    private List<AbstractInsnNode> getCalls(final ClassNode classNode, final MethodNode method, final MethodNode handler) {
+        List<AbstractInsnNode> calls = new ArrayList<>();
+        for (AbstractInsnNode instruction : method.instructions) {
+            if (instruction instanceof MethodInsnNode && this.isCall((MethodInsnNode) instruction, classNode, handler)) calls.add(instruction);
+        }
+        return calls;
+    }
+
+    private boolean isCall(final MethodInsnNode methodInsn, final ClassNode classNode, final MethodNode handler) {
+        return methodInsn.owner.equals(classNode.name) && methodInsn.name.equals(handler.name) && methodInsn.desc.equals(handler.desc);
+    }
+
+    private boolean isHandle(final Object value, final ClassNode classNode, final MethodNode handler) {
+        if (!(value instanceof Handle)) return false;
+        Handle handle = (Handle) value;
+        return handle.getOwner().equals(classNode.name) && handle.getName().equals(handler.name) && handle.getDesc().equals(handler.desc);
+    }
+
+}
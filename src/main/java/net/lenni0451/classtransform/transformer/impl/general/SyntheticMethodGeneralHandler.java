@@ -2,7 +2,7 @@ package net.lenni0451.classtransform.transformer.impl.general;
 
 import net.lenni0451.classtransform.TransformerManager;
 import net.lenni0451.classtransform.transformer.AnnotationHandler;
-import net.lenni0451.classtransform.utils.ASMUtils;
+import net.lenni0451.classtransform.utils.ClassMemberIndex;
 import net.lenni0451.classtransform.utils.mappings.MapRemapper;
 import net.lenni0451.classtransform.utils.mappings.Remapper;
 import org.objectweb.asm.Opcodes;
@@ -26,12 +26,7 @@ public class SyntheticMethodGeneralHandler extends AnnotationHandler {
     }
 
     private static String getUniqueName(final ClassNode target, final ClassNode owner, final MethodNode method) {
-        int id = 0;
-        String current;
-        do {
-            current = method.name + "$" + getSimpleName(owner) + id;
-        } while (ASMUtils.hasMethod(target, current, method.desc));
-        return current;
+        return ClassMemberIndex.of(target).getUniqueMethodName(method.name + "$" + getSimpleName(owner), method.desc);
     }
 
     private static String getSimpleName(final ClassNode node) {
@@ -2,6 +2,7 @@ package net.lenni0451.classtransform.transformer.impl.general.membercopy;
 
 import net.lenni0451.classtransform.utils.ASMComparator;
 import net.lenni0451.classtransform.utils.ASMUtils;
+import net.lenni0451.classtransform.utils.ClassMemberIndex;
 import net.lenni0451.classtransform.utils.mappings.Remapper;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.tree.*;
@@ -127,7 +128,7 @@ public class InitializerMerger {
 
         MethodNode staticBlock = new MethodNode(Opcodes.ACC_STATIC, MN_Clinit, MD_Void, null, null);
         staticBlock.instructions.add(new InsnNode(Opcodes.RETURN));
-        classNode.methods.add(staticBlock);
+        ClassMemberIndex.of(classNode).addMethod(staticBlock);
         return staticBlock;
     }
 
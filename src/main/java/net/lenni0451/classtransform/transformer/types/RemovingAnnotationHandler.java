@@ -4,6 +4,7 @@ import net.lenni0451.classtransform.TransformerManager;
 import net.lenni0451.classtransform.exceptions.TransformerException;
 import net.lenni0451.classtransform.transformer.AnnotationHandler;
 import net.lenni0451.classtransform.utils.ASMUtils;
+import net.lenni0451.classtransform.utils.ClassMemberIndex;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.MethodNode;
 
@@ -35,6 +36,7 @@ public abstract class RemovingAnnotationHandler<T extends Annotation> extends An
             if (annotation == null) continue;
             if (!this.shouldExecute(annotation)) continue;
             it.remove();
+            ClassMemberIndex.invalidate(transformer);
 
             try {
                 this.transform(annotation, transformerManager, transformedClass, transformer, ASMUtils.cloneMethod(transformerMethod));
@@ -5,7 +5,7 @@ import net.lenni0451.classtransform.exceptions.MethodNotFoundException;
 import net.lenni0451.classtransform.exceptions.SliceException;
 import net.lenni0451.classtransform.exceptions.TransformerException;
 import net.lenni0451.classtransform.utils.ASMUtils;
-import net.lenni0451.classtransform.utils.MemberDeclaration;
+import net.lenni0451.classtransform.utils.MemberSelector;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.MethodNode;
 
@@ -35,15 +35,11 @@ public abstract class RemovingTargetAnnotationHandler<T extends Annotation> exte
     public final void transform(T annotation, TransformerManager transformerManager, ClassNode transformedClass, ClassNode transformer, MethodNode transformerMethod) {
         for (String targetCombi : this.targetCombis.apply(annotation)) {
             if (targetCombi.isEmpty()) throw new TransformerException(transformerMethod, transformer, "Target is empty");
-            if (ASMUtils.METHOD_DECLARATION_PATTERN.matcher(targetCombi).matches()) {
-                MemberDeclaration declaration = ASMUtils.splitMemberDeclaration(targetCombi);
-                if (declaration == null) throw new TransformerException(transformerMethod, transformer, "Target is not a valid method declaration");
-                if (!transformedClass.name.equals(declaration.getOwner())) continue;
-                targetCombi = declaration.getName() + declaration.getDesc();
-            }
+            MemberSelector selector = MemberSelector.methodDeclaration(targetCombi);
+            if (selector.getOwner() != null && !transformedClass.name.equals(selector.getOwner())) continue;
 
-            List<MethodNode> targets = ASMUtils.getMethodsFromCombi(transformedClass, targetCombi);
-            if (targets.isEmpty()) throw new MethodNotFoundException(transformedClass, transformer, targetCombi);
+            List<MethodNode> targets = selector.getMethods(transformedClass);
+            if (targets.isEmpty()) throw new MethodNotFoundException(transformedClass, transformer, selector.getCombi());
             for (MethodNode target : targets) {
                 try {
                     this.transform(annotation, transformerManager, transformedClass, transformer, ASMUtils.cloneMethod(transformerMethod), target);
@@ -127,10 +127,7 @@ public class ASMUtils {
      */
     @Nullable
     public static MethodNode getMethod(final ClassNode classNode, final String name, final String desc) {
-        for (MethodNode method : classNode.methods) {
-            if (method.name.equals(name) && method.desc.equals(desc)) return method;
-        }
-        return null;
+        return ClassMemberIndex.of(classNode).getMethod(name, desc);
     }
 
     /**
@@ -156,10 +153,7 @@ public class ASMUtils {
      */
     @Nullable
     public static FieldNode getField(final ClassNode classNode, final String name, final String desc) {
-        for (FieldNode field : classNode.fields) {
-            if (field.name.equals(name)) return field;
-        }
-        return null;
+        return ClassMemberIndex.of(classNode).getField(name);
     }
 
     /**
@@ -185,24 +179,7 @@ public class ASMUtils {
      * @throws IllegalArgumentException If the combined name and descriptor is empty
      */
     public static List<MethodNode> getMethodsFromCombi(final ClassNode classNode, final String combi) {
-        if (combi.isEmpty()) throw new IllegalArgumentException("Combi cannot be empty");
-        List<MethodNode> methods = new ArrayList<>();
-        if (combi.contains("(")) {
-            String name = combi.substring(0, combi.indexOf("("));
-            String desc = combi.substring(combi.indexOf("("));
-            MethodNode method = getMethod(classNode, name, desc);
-            if (method != null) methods.add(method);
-        } else {
-            String regex = combiToRegex(combi);
-            Pattern pattern = Pattern.compile(regex);
-            for (MethodNode method : classNode.methods) {
-                if (pattern.matcher(method.name).matches()) methods.add(method);
-            }
-            if (methods.size() > 1 && methods.stream().anyMatch(method -> (method.access & Opcodes.ACC_SYNTHETIC) == 0)) {
-                methods.removeIf(method -> (method.access & Opcodes.ACC_SYNTHETIC) != 0);
-            }
-        }
-        return methods;
+        return MemberSelector.method(combi).getMethods(classNode);
     }
 
     /**
@@ -215,24 +192,11 @@ public class ASMUtils {
      * @return The list of method nodes
      */
     public static List<FieldNode> getFieldsFromCombi(final ClassNode classNode, final String combi) {
-        if (combi.isEmpty()) throw new IllegalArgumentException("Combi cannot be empty");
-        List<FieldNode> fields = new ArrayList<>();
-        if (combi.contains(":")) {
-            String name = combi.substring(0, combi.indexOf(":"));
-            String desc = combi.substring(combi.indexOf(":") + 1);
-            FieldNode field = getField(classNode, name, desc);
-            if (field != null) fields.add(field);
-        } else {
-            String regex = combiToRegex(combi);
-            Pattern pattern = Pattern.compile(regex);
-            for (FieldNode field : classNode.fields) {
-                if (pattern.matcher(field.name).matches()) fields.add(field);
-            }
-        }
-        return fields;
+        return MemberSelector.field(combi).getFields(classNode);
     }
 
     /**
+     * <b>Use {@link MemberSelector}.</b><br>
      * Convert a field or method search pattern to a regex pattern.<br>
      * Use <b>*</b> for a wildcard search.<br>
      * e.g. <b>get*</b> -&gt; <b>^\Qget\E.*$</b>
@@ -240,6 +204,7 @@ public class ASMUtils {
      * @param combi The search pattern
      * @return The converted regex pattern
      */
+    @Deprecated
     public static String combiToRegex(String combi) {
         if (combi.replace("*", "").isEmpty()) {
             return ".*";
@@ -389,6 +354,67 @@ public class ASMUtils {
         return currentIndex + 2; //Add 2 just to be sure not to overwrite anything
     }
 
+    /**
+     * Estimate the size of the bytecode of a method in bytes.<br>
+     * The estimation assumes that all constants fit into the first 256 constant pool entries and that no wide jumps are needed.
+     *
+     * @param methodNode The method node
+     * @return The estimated size of the bytecode
+     */
+    public static int getCodeSize(final MethodNode methodNode) {
+        int size = 0;
+        for (AbstractInsnNode instruction : methodNode.instructions) {
+            switch (instruction.getType()) {
+                case AbstractInsnNode.LABEL:
+                case AbstractInsnNode.LINE:
+                case AbstractInsnNode.FRAME:
+                    break;
+                case AbstractInsnNode.INT_INSN:
+                    size += instruction.getOpcode() == Opcodes.SIPUSH ? 3 : 2;
+                    break;
+                case AbstractInsnNode.VAR_INSN:
+                    int var = ((VarInsnNode) instruction).var;
+                    if (var < 4 && instruction.getOpcode() != Opcodes.RET) size += 1;
+                    else if (var < 256) size += 2;
+                    else size += 4;
+                    break;
+                case AbstractInsnNode.IINC_INSN:
+                    IincInsnNode iincInsn = (IincInsnNode) instruction;
+                    size += iincInsn.var < 256 && iincInsn.incr >= Byte.MIN_VALUE && iincInsn.incr <= Byte.MAX_VALUE ? 3 : 6;
+                    break;
+                case AbstractInsnNode.METHOD_INSN:
+                    size += instruction.getOpcode() == Opcodes.INVOKEINTERFACE ? 5 : 3;
+                    break;
+                case AbstractInsnNode.INVOKE_DYNAMIC_INSN:
+                    size += 5;
+                    break;
+                case AbstractInsnNode.LDC_INSN:
+                    Object cst = ((LdcInsnNode) instruction).cst;
+                    size += cst instanceof Long || cst instanceof Double ? 3 : 2;
+                    break;
+                case AbstractInsnNode.TABLESWITCH_INSN:
+                    size += 4 - (size & 3); //Opcode and padding
+                    size += 12 + ((TableSwitchInsnNode) instruction).labels.size() * 4;
+                    break;
+                case AbstractInsnNode.LOOKUPSWITCH_INSN:
+                    size += 4 - (size & 3); //Opcode and padding
+                    size += 8 + ((LookupSwitchInsnNode) instruction).labels.size() * 8;
+                    break;
+                case AbstractInsnNode.MULTIANEWARRAY_INSN:
+                    size += 4;
+                    break;
+                case AbstractInsnNode.TYPE_INSN:
+                case AbstractInsnNode.FIELD_INSN:
+                case AbstractInsnNode.JUMP_INSN:
+                    size += 3;
+                    break;
+                default:
+                    size += 1;
+            }
+        }
+        return size;
+    }
+
     /**
      * Get the byte code to cast an object to a given type.<br>
      * Converts primitive wrapper to their primitive types (e.g. Integer to int).
@@ -650,7 +676,7 @@ public class ASMUtils {
         constructor.instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
         constructor.instructions.add(new MethodInsnNode(Opcodes.INVOKESPECIAL, IN_Object, MN_Init, MD_Void));
         constructor.instructions.add(new InsnNode(Opcodes.RETURN));
-        node.methods.add(constructor);
+        ClassMemberIndex.of(node).addMethod(constructor);
 
         return node;
     }
@@ -774,10 +800,10 @@ public class ASMUtils {
         methodNode.desc = methodDescriptor(returnType(methodNode), (Object[]) newParameters);
 
         if (methodNode.visibleParameterAnnotations != null) {
-            methodNode.visibleParameterAnnotations = Arrays.copyOf(methodNode.visibleParameterAnnotations, methodNode.visibleParameterAnnotations.length + 1);
+            methodNode.visibleParameterAnnotations = Arrays.copyOf(methodNode.visibleParameterAnnotations, methodNode.visibleParameterAnnotations.length + parameters.length);
         }
         if (methodNode.invisibleParameterAnnotations != null) {
-            methodNode.invisibleParameterAnnotations = Arrays.copyOf(methodNode.invisibleParameterAnnotations, methodNode.invisibleParameterAnnotations.length + 1);
+            methodNode.invisibleParameterAnnotations = Arrays.copyOf(methodNode.invisibleParameterAnnotations, methodNode.invisibleParameterAnnotations.length + parameters.length);
         }
     }
 
@@ -0,0 +1,242 @@
+package net.lenni0451.classtransform.utils;
+
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.*;
+
+/**
+ * A lookup index for the methods and fields of a class node.<br>
+ * Indices are cached per thread for the lifetime of the class node, so looking up an index never contends on a shared lock.<br>
+ * Members have to be added, removed and renamed using the index to keep it up to date.
+ * Replaced member lists and members added or removed without the index are detected by the size of the lists and cause the index to be rebuilt.
+ * Any other modification (e.g. replacing or renaming a member directly) requires the index to be {@link #invalidate(ClassNode) invalidated}.<br>
+ * All returned lists are shared and must not be modified.<br>
+ * Like the class node itself an index is not thread safe.
+ */
+@ParametersAreNonnullByDefault
+public final class ClassMemberIndex {
+
+    private static final ThreadLocal<Map<ClassNode, ClassMemberIndex>> INDICES = ThreadLocal.withInitial(WeakHashMap::new);
+
+    /**
+     * Get the member index of the given class node.<br>
+     * If the member lists have been replaced or their size has changed without using the index, a new index is built.
+     *
+     * @param classNode The class node to get the index for
+     * @return The member index
+     */
+    public static ClassMemberIndex of(final ClassNode classNode) {
+        Map<ClassNode, ClassMemberIndex> indices = INDICES.get();
+        ClassMemberIndex index = indices.get(classNode);
+        if (index == null || !index.isValid(classNode)) {
+            index = new ClassMemberIndex(classNode);
+            indices.put(classNode, index);
+        }
+        return index;
+    }
+
+    /**
+     * Invalidate the member index of the given class node for the current thread.<br>
+     * This is required after modifying the members of the class node without using the index.
+     *
+     * @param classNode The class node to invalidate the index for
+     */
+    public static void invalidate(final ClassNode classNode) {
+        INDICES.get().remove(classNode);
+    }
+
+    private static <T> void add(final Map<String, List<T>> members, final String name, final T member) {
+        members.computeIfAbsent(name, n -> new ArrayList<>(1)).add(member);
+    }
+
+    private static <T> void remove(final Map<String, List<T>> members, final String name, final T member) {
+        List<T> named = members.get(name);
+        if (named == null) return;
+        named.remove(member);
+        if (named.isEmpty()) members.remove(name);
+    }
+
+
+
+    private final List<MethodNode> methodList;
+    private final List<FieldNode> fieldList;
+    private int methodCount;
+    private int fieldCount;
+    private final Map<String, List<MethodNode>> methods = new HashMap<>();
+    private final Map<String, List<FieldNode>> fields = new HashMap<>();
+    private final Map<String, Integer> uniqueNameCounters = new HashMap<>();
+
+    private ClassMemberIndex(final ClassNode classNode) {
+        this.methodList = classNode.methods;
+        this.fieldList = classNode.fields;
+        this.methodCount = this.methodList.size();
+        this.fieldCount = this.fieldList.size();
+        for (MethodNode method : classNode.methods) add(this.methods, method.name, method);
+        for (FieldNode field : classNode.fields) add(this.fields, field.name, field);
+    }
+
+    private boolean isValid(final ClassNode classNode) {
+        //Only constant time checks, every lookup has to validate the index
+        return classNode.methods == this.methodList && classNode.fields == this.fieldList
+                && this.methodList.size() == this.methodCount && this.fieldList.size() == this.fieldCount;
+    }
+
+    /**
+     * Get all methods with the given name.<br>
+     * The methods are in the same order as in the class node.
+     *
+     * @param name The name of the methods
+     * @return The methods
+     */
+    public List<MethodNode> getMethods(final String name) {
+        return this.methods.getOrDefault(name, Collections.emptyList());
+    }
+
+    /**
+     * Get a method by its name and descriptor.
+     *
+     * @param name The name of the method
+     * @param desc The descriptor of the method
+     * @return The method or {@code null} if it does not exist
+     */
+    @Nullable
+    public MethodNode getMethod(final String name, final String desc) {
+        for (MethodNode method : this.getMethods(name)) {
+            if (method.desc.equals(desc)) return method;
+        }
+        return null;
+    }
+
+    /**
+     * Check if a method with the given name exists.
+     *
+     * @param name The name of the method
+     * @return If the method exists
+     */
+    public boolean hasMethod(final String name) {
+        return !this.getMethods(name).isEmpty();
+    }
+
+    /**
+     * Get all fields with the given name.<br>
+     * The fields are in the same order as in the class node.
+     *
+     * @param name The name of the fields
+     * @return The fields
+     */
+    public List<FieldNode> getFields(final String name) {
+        return this.fields.getOrDefault(name, Collections.emptyList());
+    }
+
+    /**
+     * Get the first field with the given name.
+     *
+     * @param name The name of the field
+     * @return The field or {@code null} if it does not exist
+     */
+    @Nullable
+    public FieldNode getField(final String name) {
+        List<FieldNode> named = this.getFields(name);
+        return named.isEmpty() ? null : named.get(0);
+    }
+
+    /**
+     * Get the first free method name consisting of the base name and a number.<br>
+     * If a descriptor is given, only methods with the same descriptor are considered.<br>
+     * The search continues at the last returned number, so generating many names with the same base name does not rescan all previous names.
+     *
+     * @param baseName The base name of the method
+     * @param desc     The descriptor of the method or {@code null} to consider all methods
+     * @return The free method name
+     */
+    public String getUniqueMethodName(final String baseName, @Nullable final String desc) {
+        String key = desc == null ? baseName : (baseName + desc);
+        int id = this.uniqueNameCounters.getOrDefault(key, 0);
+        String name;
+        while (true) {
+            name = baseName + id;
+            if (desc == null ? !this.hasMethod(name) : this.getMethod(name, desc) == null) break;
+            id++;
+        }
+        this.uniqueNameCounters.put(key, id);
+        return name;
+    }
+
+    /**
+     * Add a method to the class node and the index.
+     *
+     * @param method The method to add
+     */
+    public void addMethod(final MethodNode method) {
+        this.methodList.add(method);
+        add(this.methods, method.name, method);
+        this.methodCount++;
+    }
+
+    /**
+     * Remove a method from the class node and the index.
+     *
+     * @param method The method to remove
+     * @return If the method was removed
+     */
+    public boolean removeMethod(final MethodNode method) {
+        if (!this.methodList.remove(method)) return false;
+        remove(this.methods, method.name, method);
+        this.uniqueNameCounters.clear();
+        this.methodCount--;
+        return true;
+    }
+
+    /**
+     * Rename a method of the class node.<br>
+     * Methods which are not part of the class node are renamed without updating the index.
+     *
+     * @param method The method to rename
+     * @param name   The new name of the method
+     */
+    public void renameMethod(final MethodNode method, final String name) {
+        List<MethodNode> named = this.methods.get(method.name);
+        if (named == null || !named.contains(method)) {
+            method.name = name;
+            return;
+        }
+        remove(this.methods, method.name, method);
+        method.name = name;
+        //Keep the methods in the same order as in the class node
+        List<MethodNode> renamed = new ArrayList<>();
+        for (MethodNode other : this.methodList) {
+            if (other.name.equals(name)) renamed.add(other);
+        }
+        this.methods.put(name, renamed);
+        this.uniqueNameCounters.clear();
+    }
+
+    /**
+     * Add a field to the class node and the index.
+     *
+     * @param field The field to add
+     */
+    public void addField(final FieldNode field) {
+        this.fieldList.add(field);
+        add(this.fields, field.name, field);
+        this.fieldCount++;
+    }
+
+    /**
+     * Remove a field from the class node and the index.
+     *
+     * @param field The field to remove
+     * @return If the field was removed
+     */
+    public boolean removeField(final FieldNode field) {
+        if (!this.fieldList.remove(field)) return false;
+        remove(this.fields, field.name, field);
+        this.fieldCount--;
+        return true;
+    }
+
+}
@@ -141,6 +141,176 @@ public class CoprocessorUtils {
         }
     }
 
+    /**
+     * Check if a parameter is written to by the method.
+     *
+     * @param methodNode The method to check
+     * @param parameter  The parameter to check
+     * @return If the parameter variable is stored or incremented
+     */
+    public static boolean isParameterWritten(final MethodNode methodNode, final AnnotatedParameter parameter) {
+        for (AbstractInsnNode insn : methodNode.instructions) {
+            if (insn.getOpcode() >= Opcodes.ISTORE && insn.getOpcode() <= Opcodes.ASTORE) {
+                if (((VarInsnNode) insn).var == parameter.index) return true;
+            } else if (insn.getOpcode() == Opcodes.IINC) {
+                if (((IincInsnNode) insn).var == parameter.index) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the type of the holder used to pass a modifiable parameter.<br>
+     * Primitive types are held by a primitive array of the same type to avoid boxing, all other types by an object array.
+     *
+     * @param type The type of the parameter
+     * @return The array type of the holder
+     */
+    public static Type getHolderType(final Type type) {
+        if (type.getSort() >= Type.BOOLEAN && type.getSort() <= Type.DOUBLE) return Type.getType("[" + type.getDescriptor());
+        return Types.type(Object[].class);
+    }
+
+    /**
+     * Get the byte code to create an empty holder for the given type.
+     *
+     * @param type The type of the parameter
+     * @return The byte code creating the holder array
+     */
+    public static InsnList createHolder(final Type type) {
+        InsnList insns = new InsnList();
+        insns.add(new InsnNode(Opcodes.ICONST_1)); //Holders always have one element
+        switch (type.getSort()) {
+            case Type.BOOLEAN:
+                insns.add(new IntInsnNode(Opcodes.NEWARRAY, Opcodes.T_BOOLEAN));
+                break;
+            case Type.CHAR:
+                insns.add(new IntInsnNode(Opcodes.NEWARRAY, Opcodes.T_CHAR));
+                break;
+            case Type.BYTE:
+                insns.add(new IntInsnNode(Opcodes.NEWARRAY, Opcodes.T_BYTE));
+                break;
+            case Type.SHORT:
+                insns.add(new IntInsnNode(Opcodes.NEWARRAY, Opcodes.T_SHORT));
+                break;
+            case Type.INT:
+                insns.add(new IntInsnNode(Opcodes.NEWARRAY, Opcodes.T_INT));
+                break;
+            case Type.FLOAT:
+                insns.add(new IntInsnNode(Opcodes.NEWARRAY, Opcodes.T_FLOAT));
+                break;
+            case Type.LONG:
+                insns.add(new IntInsnNode(Opcodes.NEWARRAY, Opcodes.T_LONG));
+                break;
+            case Type.DOUBLE:
+                insns.add(new IntInsnNode(Opcodes.NEWARRAY, Opcodes.T_DOUBLE));
+                break;
+            default:
+                insns.add(new TypeInsnNode(Opcodes.ANEWARRAY, Types.internalName(Object.class)));
+        }
+        return insns;
+    }
+
+    /**
+     * Move all annotated parameters to the end of the method while keeping their order.<br>
+     * Annotated parameters are passed directly with their type.
+     * Parameters marked as holder are replaced by a single element array ({@link #getHolderType(Type)}) so changes made by the method can be read back by the caller.
+     *
+     * @param methodNode          The method to move the parameters in
+     * @param annotatedParameters The annotated parameters to move
+     * @param holders             If the annotated parameter with the annotation index should be passed using a holder
+     * @return The types of the moved parameters
+     */
+    public static Type[] moveParametersToEnd(final MethodNode methodNode, final AnnotatedParameter[] annotatedParameters, final boolean[] holders) {
+        Type[] types = Types.argumentTypes(methodNode.desc); //The current method argument types
+        int[] typeIndices = ASMUtils.getParameterIndices(methodNode); //The argument variable indices
+        Map<Integer, Integer> indexMappings = new HashMap<>(); //Mappings from old variable index to new variable index. Used for non annotated and directly passed parameters.
+        Map<Integer, Integer> holderIndices = new HashMap<>(); //Mappings from old variable index to the variable index of the holder
+        Map<Integer, AnnotatedParameter> holderMappings = new HashMap<>(); //Mappings from old variable index to annotated parameter
+
+        //Calculate mappings
+        List<Integer> parametersToRemove = new ArrayList<>();
+        List<AnnotatedParameter> movedParameters = new ArrayList<>();
+        int currentIndex = Modifier.isStatic(methodNode.access) ? 0 : 1; //The current variable index
+        for (int i = 0; i < types.length; i++) {
+            AnnotatedParameter parameter = annotatedParameters[i];
+            if (parameter == null) {
+                //Not annotated
+                indexMappings.put(typeIndices[i], currentIndex);
+                currentIndex += types[i].getSize();
+            } else {
+                //Annotated
+                parametersToRemove.add(i);
+                movedParameters.add(parameter);
+            }
+        }
+        Type[] movedTypes = new Type[movedParameters.size()];
+        for (AnnotatedParameter parameter : movedParameters) {
+            if (holders[parameter.annotationIndex]) {
+                movedTypes[parameter.annotationIndex] = getHolderType(parameter.type);
+                holderIndices.put(parameter.index, currentIndex);
+                holderMappings.put(parameter.index, parameter);
+            } else {
+                movedTypes[parameter.annotationIndex] = parameter.type;
+                indexMappings.put(parameter.index, currentIndex);
+            }
+            currentIndex += movedTypes[parameter.annotationIndex].getSize();
+        }
+
+        //New method descriptor
+        ASMUtils.removeParameters(methodNode, parametersToRemove.stream().mapToInt(i -> i).toArray()); //Remove annotated parameters
+        ASMUtils.addParameters(methodNode, movedTypes); //Add them again at the end
+
+        //Map variables
+        //Holders are never bigger than the parameter they replace, so the moved parameters can't collide with the other local variables.
+        for (AbstractInsnNode insn : methodNode.instructions.toArray()) {
+            if (insn instanceof VarInsnNode) {
+                VarInsnNode varInsnNode = (VarInsnNode) insn;
+                if (indexMappings.containsKey(varInsnNode.var)) {
+                    varInsnNode.var = indexMappings.get(varInsnNode.var);
+                } else if (holderMappings.containsKey(varInsnNode.var)) {
+                    AnnotatedParameter parameter = holderMappings.get(varInsnNode.var);
+                    int holderIndex = holderIndices.get(varInsnNode.var);
+                    Type elementType = getHolderType(parameter.type).getElementType();
+                    InsnList insns = new InsnList();
+                    if (varInsnNode.getOpcode() >= Opcodes.ISTORE && varInsnNode.getOpcode() <= Opcodes.ASTORE) {
+                        insns.add(new VarInsnNode(Opcodes.ALOAD, holderIndex)); //Load holder
+                        insns.add(new InsnNode(Opcodes.ICONST_0)); //int -> Holder index
+                        insns.add(new InsnNode(parameter.type.getSize() == 2 ? Opcodes.DUP2_X2 : Opcodes.DUP2_X1)); //Copy holder and index below the value
+                        insns.add(new InsnNode(Opcodes.POP2)); //Remove the original holder and index
+                        insns.add(new InsnNode(elementType.getOpcode(Opcodes.IASTORE))); //Store value in holder
+                    } else if (varInsnNode.getOpcode() >= Opcodes.ILOAD && varInsnNode.getOpcode() <= Opcodes.ALOAD) {
+                        insns.add(new VarInsnNode(Opcodes.ALOAD, holderIndex)); //Load holder
+                        insns.add(new InsnNode(Opcodes.ICONST_0)); //int -> Holder index
+                        insns.add(new InsnNode(elementType.getOpcode(Opcodes.IALOAD))); //Load value from holder
+                        if (!elementType.equals(parameter.type)) insns.add(new TypeInsnNode(Opcodes.CHECKCAST, parameter.type.getInternalName())); //Cast objects to the correct type
+                    } else {
+                        throw new IllegalStateException("Unknown var insn opcode: " + varInsnNode.getOpcode());
+                    }
+                    methodNode.instructions.insert(varInsnNode, insns);
+                    methodNode.instructions.remove(varInsnNode);
+                }
+            } else if (insn instanceof IincInsnNode) {
+                IincInsnNode iincInsnNode = (IincInsnNode) insn;
+                if (indexMappings.containsKey(iincInsnNode.var)) {
+                    iincInsnNode.var = indexMappings.get(iincInsnNode.var);
+                } else if (holderMappings.containsKey(iincInsnNode.var)) {
+                    InsnList insns = new InsnList();
+                    insns.add(new VarInsnNode(Opcodes.ALOAD, holderIndices.get(iincInsnNode.var))); //Load holder
+                    insns.add(new InsnNode(Opcodes.ICONST_0)); //int -> Holder index
+                    insns.add(new InsnNode(Opcodes.DUP2)); //Duplicate holder and index
+                    insns.add(new InsnNode(Opcodes.IALOAD)); //Load value from holder
+                    insns.add(ASMUtils.intPush(iincInsnNode.incr)); //int -> Increment
+                    insns.add(new InsnNode(Opcodes.IADD)); //Add increment to value
+                    insns.add(new InsnNode(Opcodes.IASTORE)); //Store value in holder
+                    methodNode.instructions.insert(iincInsnNode, insns);
+                    methodNode.instructions.remove(iincInsnNode);
+                }
+            }
+        }
+        return movedTypes;
+    }
+
 
     /**
      * A parameter annotated with an annotation and its variable index and type.
@@ -0,0 +1,102 @@
+package net.lenni0451.classtransform.utils;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A registry of the untransformed and the defined bytecode of transformed classes.<br>
+ * The bytecode is stored per defining class loader, so classes with the same name from different class loaders do not overwrite each other.
+ * Class loaders are only weakly referenced, the bytecode of their classes is removed when they are garbage collected.
+ */
+@ParametersAreNonnullByDefault
+public class DefinedClassRegistry {
+
+    private final Map<ClassLoader, Map<String, Entry>> loaders = new WeakHashMap<>();
+    private final Map<String, Entry> bootstrapClasses = new ConcurrentHashMap<>();
+
+    /**
+     * Record the bytecode of a defined class.<br>
+     * The untransformed bytecode is only stored when the class is defined for the first time.
+     *
+     * @param loader                The defining class loader or {@code null} for the bootstrap class loader
+     * @param name                  The name of the class
+     * @param untransformedBytecode The untransformed bytecode or {@code null} if it is not known
+     * @param definedBytecode       The bytecode which was defined by the JVM
+     */
+    public void record(@Nullable final ClassLoader loader, final String name, @Nullable final byte[] untransformedBytecode, final byte[] definedBytecode) {
+        Entry entry = this.getClasses(loader, true).computeIfAbsent(name, n -> new Entry());
+        if (untransformedBytecode != null && entry.untransformedBytecode == null) entry.untransformedBytecode = untransformedBytecode;
+        entry.definedBytecode = definedBytecode;
+    }
+
+    /**
+     * Update the defined bytecode of a class which is already known.
+     *
+     * @param loader          The defining class loader or {@code null} for the bootstrap class loader
+     * @param name            The name of the class
+     * @param definedBytecode The bytecode which was defined by the JVM
+     */
+    public void update(@Nullable final ClassLoader loader, final String name, final byte[] definedBytecode) {
+        Map<String, Entry> classes = this.getClasses(loader, false);
+        if (classes == null) return;
+        Entry entry = classes.get(name);
+        if (entry != null) entry.definedBytecode = definedBytecode;
+    }
+
+    /**
+     * @param loader The defining class loader or {@code null} for the bootstrap class loader
+     * @param name   The name of the class
+     * @return The untransformed bytecode of the class or {@code null} if it is not known
+     */
+    @Nullable
+    public byte[] getUntransformedBytecode(@Nullable final ClassLoader loader, final String name) {
+        Entry entry = this.getEntry(loader, name);
+        return entry == null ? null : entry.untransformedBytecode;
+    }
+
+    /**
+     * @param loader The defining class loader or {@code null} for the bootstrap class loader
+     * @param name   The name of the class
+     * @return The bytecode which was last defined for the class or {@code null} if it is not known
+     */
+    @Nullable
+    public byte[] getDefinedBytecode(@Nullable final ClassLoader loader, final String name) {
+        Entry entry = this.getEntry(loader, name);
+        return entry == null ? null : entry.definedBytecode;
+    }
+
+    /**
+     * Remove the bytecode of all classes.
+     */
+    public void clear() {
+        synchronized (this.loaders) {
+            this.loaders.clear();
+        }
+        this.bootstrapClasses.clear();
+    }
+
+    @Nullable
+    private Entry getEntry(@Nullable final ClassLoader loader, final String name) {
+        Map<String, Entry> classes = this.getClasses(loader, false);
+        return classes == null ? null : classes.get(name);
+    }
+
+    @Nullable
+    private Map<String, Entry> getClasses(@Nullable final ClassLoader loader, final boolean create) {
+        if (loader == null) return this.bootstrapClasses;
+        synchronized (this.loaders) {
+            if (create) return this.loaders.computeIfAbsent(loader, l -> new ConcurrentHashMap<>());
+            else return this.loaders.get(loader);
+        }
+    }
+
+
+    private static class Entry {
+        private volatile byte[] untransformedBytecode;
+        private volatile byte[] definedBytecode;
+    }
+
+}
@@ -0,0 +1,135 @@
+package net.lenni0451.classtransform.utils;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The dependencies of all transformed classes recorded during transformation.<br>
+ * The output of a transformed class depends on the transformers applied to it, the mapping entries used to remap them
+ * and the super types loaded to compute the stack map frames.<br>
+ * The graph can be used to find the minimal set of classes which have to be transformed again if any of them changes.
+ */
+@ParametersAreNonnullByDefault
+public class DependencyGraph {
+
+    private final Map<String, Map<DependencyType, Set<String>>> dependencies = new ConcurrentHashMap<>();
+
+    /**
+     * Set the dependencies of a transformed class.<br>
+     * Previously recorded dependencies of the class are replaced.
+     *
+     * @param className    The name of the transformed class
+     * @param transformers The names of the transformers applied to the class
+     * @param superTypes   The names of the super types loaded to compute the stack map frames
+     * @param mappings     The mapping keys used to remap the transformers
+     */
+    public void setDependencies(final String className, final Set<String> transformers, final Set<String> superTypes, final Set<String> mappings) {
+        Map<DependencyType, Set<String>> classDependencies = new EnumMap<>(DependencyType.class);
+        classDependencies.put(DependencyType.TRANSFORMER, Collections.unmodifiableSet(new HashSet<>(transformers)));
+        classDependencies.put(DependencyType.SUPER_TYPE, Collections.unmodifiableSet(new HashSet<>(superTypes)));
+        classDependencies.put(DependencyType.MAPPING, Collections.unmodifiableSet(new HashSet<>(mappings)));
+        this.dependencies.put(className, classDependencies);
+    }
+
+    /**
+     * Get the recorded dependencies of a transformed class.
+     *
+     * @param className The name of the transformed class
+     * @param type      The type of the dependencies
+     * @return The dependencies or an empty set if the class was not transformed
+     */
+    public Set<String> getDependencies(final String className, final DependencyType type) {
+        Map<DependencyType, Set<String>> classDependencies = this.dependencies.get(className);
+        if (classDependencies == null) return Collections.emptySet();
+        return classDependencies.get(type);
+    }
+
+    /**
+     * @return The names of all classes with recorded dependencies
+     */
+    public Set<String> getClasses() {
+        return Collections.unmodifiableSet(this.dependencies.keySet());
+    }
+
+    /**
+     * Get all classes which have to be transformed again if the given dependencies change.<br>
+     * If the output of a class is affected, all classes using it as a super type for the stack map frame computation are affected as well.
+     *
+     * @param type  The type of the changed dependencies
+     * @param names The names of the changed dependencies
+     * @return The names of all affected classes
+     */
+    public Set<String> getAffectedClasses(final DependencyType type, final Collection<String> names) {
+        Set<String> affectedClasses = new HashSet<>();
+        Deque<String> changedClasses = new ArrayDeque<>();
+        for (Map.Entry<String, Map<DependencyType, Set<String>>> entry : this.dependencies.entrySet()) {
+            if (this.containsAny(entry.getValue().get(type), names) && affectedClasses.add(entry.getKey())) changedClasses.add(entry.getKey());
+        }
+        if (DependencyType.SUPER_TYPE.equals(type)) changedClasses.addAll(names);
+        while (!changedClasses.isEmpty()) {
+            String changedClass = changedClasses.poll();
+            for (Map.Entry<String, Map<DependencyType, Set<String>>> entry : this.dependencies.entrySet()) {
+                if (!entry.getValue().get(DependencyType.SUPER_TYPE).contains(changedClass)) continue;
+                if (affectedClasses.add(entry.getKey())) changedClasses.add(entry.getKey());
+            }
+        }
+        return affectedClasses;
+    }
+
+    /**
+     * Get all classes which have to be transformed again if the given dependency changes.
+     *
+     * @param type The type of the changed dependency
+     * @param name The name of the changed dependency
+     * @return The names of all affected classes
+     * @see #getAffectedClasses(DependencyType, Collection)
+     */
+    public Set<String> getAffectedClasses(final DependencyType type, final String name) {
+        return this.getAffectedClasses(type, Collections.singleton(name));
+    }
+
+    /**
+     * Remove the dependencies of a class.
+     *
+     * @param className The name of the class
+     */
+    public void remove(final String className) {
+        this.dependencies.remove(className);
+    }
+
+    /**
+     * Remove the dependencies of all classes.
+     */
+    public void clear() {
+        this.dependencies.clear();
+    }
+
+    private boolean containsAny(final Set<String> dependencies, final Collection<String> names) {
+        for (String name : names) {
+            if (dependencies.contains(name)) return true;
+        }
+        return false;
+    }
+
+
+    /**
+     * The type of a dependency.
+     */
+    public enum DependencyType {
+        /**
+         * A transformer applied to the class.<br>
+         * Annotation based transformers are identified by their class name, raw transformers by the name of their implementation class.
+         */
+        TRANSFORMER,
+        /**
+         * A super type loaded from the class tree to compute the stack map frames.
+         */
+        SUPER_TYPE,
+        /**
+         * A mapping key used to remap a transformer (see {@link net.lenni0451.classtransform.utils.mappings.MapRemapper#map(String)}).
+         */
+        MAPPING
+    }
+
+}
@@ -0,0 +1,126 @@
+package net.lenni0451.classtransform.utils;
+
+import net.lenni0451.classtransform.utils.log.Logger;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesce the redefinitions caused by hotswapped transformers.<br>
+ * IDEs often hotswap multiple transformers within a few milliseconds. Instead of redefining the target classes for every transformer,
+ * all transformer updates within the window are collected and the union of their target classes is redefined once on a background thread.<br>
+ * If the combined redefinition fails, the target classes of every transformer are redefined separately to report which transformer caused the error.
+ */
+@ParametersAreNonnullByDefault
+public class HotswapScheduler {
+
+    /**
+     * The default window in milliseconds in which transformer updates are collected.
+     */
+    public static final long DEFAULT_WINDOW = 100;
+
+    /**
+     * Check if the given window is valid.
+     *
+     * @param window The window in milliseconds
+     * @return The window
+     * @throws IllegalArgumentException If the window is negative
+     */
+    public static long checkWindow(final long window) {
+        if (window < 0) throw new IllegalArgumentException("The window must not be negative");
+        return window;
+    }
+
+    private final Redefiner redefiner;
+    private final ScheduledExecutorService executor;
+    private final Map<String, Set<String>> pendingTransformers = new LinkedHashMap<>();
+    private volatile long window;
+    private ScheduledFuture<?> pendingRedefinition;
+
+    /**
+     * @param redefiner The redefiner used to redefine the target classes
+     * @param window    The window in milliseconds in which transformer updates are collected
+     */
+    public HotswapScheduler(final Redefiner redefiner, final long window) {
+        this.redefiner = redefiner;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ClassTransform Hotswap");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.setWindow(window);
+    }
+
+    /**
+     * @return The window in milliseconds in which transformer updates are collected
+     */
+    public long getWindow() {
+        return this.window;
+    }
+
+    /**
+     * Set the window in which transformer updates are collected.<br>
+     * Every new update restarts the window.
+     *
+     * @param window The window in milliseconds
+     * @throws IllegalArgumentException If the window is negative
+     */
+    public void setWindow(final long window) {
+        this.window = checkWindow(window);
+    }
+
+    /**
+     * Schedule the redefinition of the target classes of a hotswapped transformer.<br>
+     * If the same transformer is hotswapped again before the redefinition ran, the target classes are merged.
+     *
+     * @param transformer   The name of the transformer
+     * @param targetClasses The names of the target classes
+     */
+    public synchronized void schedule(final String transformer, final Set<String> targetClasses) {
+        this.pendingTransformers.computeIfAbsent(transformer, t -> new HashSet<>()).addAll(targetClasses);
+        if (this.pendingRedefinition != null) this.pendingRedefinition.cancel(false);
+        this.pendingRedefinition = this.executor.schedule(this::redefine, this.window, TimeUnit.MILLISECONDS);
+    }
+
+    private void redefine() {
+        Map<String, Set<String>> transformers;
+        synchronized (this) {
+            if (this.pendingTransformers.isEmpty()) return;
+            transformers = new LinkedHashMap<>(this.pendingTransformers);
+            this.pendingTransformers.clear();
+            this.pendingRedefinition = null;
+        }
+
+        Set<String> targetClasses = new HashSet<>();
+        for (Set<String> classes : transformers.values()) targetClasses.addAll(classes);
+        try {
+            this.redefiner.redefine(targetClasses);
+            return;
+        } catch (Throwable t) {
+            if (transformers.size() == 1) {
+                String transformer = transformers.keySet().iterator().next();
+                Logger.error("Failed to redefine classes of transformer '{}'", transformer, t);
+                return;
+            }
+            Logger.warn("Failed to redefine classes of transformers '{}', redefining them separately", String.join(", ", transformers.keySet()), t);
+        }
+        for (Map.Entry<String, Set<String>> entry : transformers.entrySet()) {
+            try {
+                this.redefiner.redefine(entry.getValue());
+            } catch (Throwable t) {
+                Logger.error("Failed to redefine classes of transformer '{}'", entry.getKey(), t);
+            }
+        }
+    }
+
+
+    @FunctionalInterface
+    public interface Redefiner {
+        void redefine(final Set<String> classNames) throws Exception;
+    }
+
+}
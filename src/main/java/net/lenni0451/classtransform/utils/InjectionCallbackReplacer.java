@@ -19,12 +19,49 @@ public class InjectionCallbackReplacer {
      */
     public static void replaceCallback(final ClassNode classNode) {
         for (MethodNode method : classNode.methods) {
+            boxPrimitiveReturnValues(method);
             replaceParameters(method);
             replaceConstructor(method);
             replaceInvokes(method);
         }
     }
 
+    /*
+     * The generated code passes primitive return values as raw bits:
+     * BIPUSH type; xLOAD value; <to bits>; INVOKESPECIAL <init>(ZCJ)V
+     * BIPUSH type; INVOKEVIRTUAL getPrimitiveReturnValue(C)J; <from bits>
+     * Both are converted back to the boxed variants before replacing the callback.
+     */
+    private static void boxPrimitiveReturnValues(final MethodNode methodNode) {
+        for (AbstractInsnNode insn : methodNode.instructions.toArray()) {
+            if (!(insn instanceof MethodInsnNode)) continue;
+            MethodInsnNode methodInsn = (MethodInsnNode) insn;
+            if (!methodInsn.owner.equals(internalName(InjectionCallback.class))) continue;
+
+            if (methodInsn.name.equals(MN_Init) && methodInsn.desc.equals(methodDescriptor(void.class, boolean.class, char.class, long.class))) {
+                AbstractInsnNode load = methodInsn.getPrevious();
+                while (!(load instanceof VarInsnNode)) {
+                    AbstractInsnNode conversion = load;
+                    load = load.getPrevious();
+                    methodNode.instructions.remove(conversion);
+                }
+                IntInsnNode typeInsn = (IntInsnNode) load.getPrevious();
+                methodNode.instructions.remove(typeInsn);
+                methodNode.instructions.insert(load, ASMUtils.getPrimitiveToObject(Type.getType(String.valueOf((char) typeInsn.operand))));
+                methodInsn.desc = methodDescriptor(void.class, boolean.class, Object.class);
+            } else if (methodInsn.name.equals("getPrimitiveReturnValue")) {
+                IntInsnNode typeInsn = (IntInsnNode) methodInsn.getPrevious();
+                Type type = Type.getType(String.valueOf((char) typeInsn.operand));
+                int conversions = type.getSort() == Type.FLOAT ? 2 : (type.getSort() == Type.LONG ? 0 : 1);
+                for (int i = 0; i < conversions; i++) methodNode.instructions.remove(methodInsn.getNext());
+                methodNode.instructions.remove(typeInsn);
+                methodNode.instructions.insert(methodInsn, ASMUtils.getCast(type));
+                methodInsn.name = "getReturnValue";
+                methodInsn.desc = methodDescriptor(Object.class);
+            }
+        }
+    }
+
     private static void replaceParameters(final MethodNode methodNode) {
         Type injectionCallback = type(InjectionCallback.class);
         Type objectArray = type(Object[].class);
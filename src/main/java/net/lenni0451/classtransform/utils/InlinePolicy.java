@@ -0,0 +1,81 @@
+package net.lenni0451.classtransform.utils;
+
+import net.lenni0451.classtransform.TransformerManager;
+
+/**
+ * The policy used to automatically inline injection handler methods into the transformed methods.<br>
+ * Inlining is disabled by default and can be enabled using {@link TransformerManager#setInlinePolicy(InlinePolicy)}.<br>
+ * The default limits follow the default inlining limits of the HotSpot JIT compiler:
+ * <ul>
+ *     <li>{@code MaxInlineSize} (35 bytes) for the size of the handler</li>
+ *     <li>{@code FreqInlineSize} (325 bytes) for the size of methods which can still be inlined into their callers</li>
+ *     <li>{@code HugeMethodLimit} (8000 bytes) for the size of methods which can still be compiled</li>
+ * </ul>
+ * All sizes are estimated using {@link ASMUtils#getCodeSize(org.objectweb.asm.tree.MethodNode)}.
+ */
+public class InlinePolicy {
+
+    /**
+     * The default inline policy.
+     */
+    public static final InlinePolicy DEFAULT = new InlinePolicy(35, 3, 325, 8000);
+
+    private final int maxHandlerSize;
+    private final int maxCallSites;
+    private final int maxInlineableSize;
+    private final int maxMethodSize;
+
+    /**
+     * @param maxHandlerSize    The maximum bytecode size of a handler method to be inlined
+     * @param maxCallSites      The maximum amount of calls to a handler method to be inlined
+     * @param maxInlineableSize Methods smaller than this size are not allowed to grow above it
+     * @param maxMethodSize     The maximum bytecode size of a method after inlining
+     */
+    public InlinePolicy(final int maxHandlerSize, final int maxCallSites, final int maxInlineableSize, final int maxMethodSize) {
+        this.maxHandlerSize = maxHandlerSize;
+        this.maxCallSites = maxCallSites;
+        this.maxInlineableSize = maxInlineableSize;
+        this.maxMethodSize = maxMethodSize;
+    }
+
+    /**
+     * @return The maximum bytecode size of a handler method to be inlined
+     */
+    public int getMaxHandlerSize() {
+        return this.maxHandlerSize;
+    }
+
+    /**
+     * @return The maximum amount of calls to a handler method to be inlined
+     */
+    public int getMaxCallSites() {
+        return this.maxCallSites;
+    }
+
+    /**
+     * @return The size methods are not allowed to grow above if they were smaller before
+     */
+    public int getMaxInlineableSize() {
+        return this.maxInlineableSize;
+    }
+
+    /**
+     * @return The maximum bytecode size of a method after inlining
+     */
+    public int getMaxMethodSize() {
+        return this.maxMethodSize;
+    }
+
+    /**
+     * Check if a method is allowed to grow to the given size.
+     *
+     * @param sizeBefore The size of the method before inlining
+     * @param sizeAfter  The size of the method after inlining
+     * @return If the new size is within the limits
+     */
+    public boolean isAllowedSize(final int sizeBefore, final int sizeAfter) {
+        if (sizeAfter > this.maxMethodSize) return false;
+        return sizeBefore > this.maxInlineableSize || sizeAfter <= this.maxInlineableSize;
+    }
+
+}
@@ -0,0 +1,147 @@
+package net.lenni0451.classtransform.utils;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A registry of the loaded classes for the names of transformed classes.<br>
+ * The registry is fed by the class file transformer callback, so the loaded classes can be found without iterating over all loaded classes of the JVM.<br>
+ * Classes which are defined for the first time are looked up lazily using their defining class loader.
+ * If the lookup does not find the class defined by that class loader, the name is no longer tracked and has to be tracked again.<br>
+ * A name is only tracked after all classes loaded before were added once using {@link #track(String, List)}, classes and class loaders are only weakly referenced.
+ */
+@ParametersAreNonnullByDefault
+public class LoadedClassRegistry {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Record a class passed to the class file transformer.
+     *
+     * @param loader              The defining class loader or {@code null} for the bootstrap class loader
+     * @param name                The name of the class
+     * @param classBeingRedefined The class if it is being redefined or retransformed
+     */
+    public void record(@Nullable final ClassLoader loader, final String name, @Nullable final Class<?> classBeingRedefined) {
+        Entry entry = this.entries.computeIfAbsent(name, n -> new Entry());
+        if (classBeingRedefined != null) entry.addClass(classBeingRedefined);
+        else entry.addLoader(loader);
+    }
+
+    /**
+     * Check if all loaded classes with the given name are known.
+     *
+     * @param name The name of the class
+     * @return If the name is tracked
+     */
+    public boolean isTracked(final String name) {
+        Entry entry = this.entries.get(name);
+        return entry != null && entry.tracked;
+    }
+
+    /**
+     * Start tracking a name.<br>
+     * All classes with the name which are loaded at this point have to be passed.
+     *
+     * @param name          The name of the class
+     * @param loadedClasses All currently loaded classes with the name
+     */
+    public void track(final String name, final List<Class<?>> loadedClasses) {
+        Entry entry = this.entries.computeIfAbsent(name, n -> new Entry());
+        for (Class<?> loadedClass : loadedClasses) entry.addClass(loadedClass);
+        entry.tracked = true;
+    }
+
+    /**
+     * Get all loaded classes with the given name.
+     *
+     * @param name The name of the class
+     * @return The loaded classes or {@code null} if not all loaded classes with the name are known
+     */
+    @Nullable
+    public List<Class<?>> getClasses(final String name) {
+        Entry entry = this.entries.get(name);
+        if (entry == null || !entry.tracked) return null;
+        return entry.getClasses(name);
+    }
+
+    /**
+     * Remove all tracked names and classes.
+     */
+    public void clear() {
+        this.entries.clear();
+    }
+
+
+    private static class Entry {
+        private final List<WeakReference<Class<?>>> classes = new ArrayList<>();
+        private final List<WeakReference<ClassLoader>> loaders = new ArrayList<>();
+        private boolean bootstrapLoader;
+        private volatile boolean tracked;
+
+        private synchronized void addClass(final Class<?> clazz) {
+            for (WeakReference<Class<?>> reference : this.classes) {
+                if (reference.get() == clazz) return;
+            }
+            this.classes.add(new WeakReference<>(clazz));
+        }
+
+        private synchronized void addLoader(@Nullable final ClassLoader loader) {
+            if (loader == null) this.bootstrapLoader = true;
+            else this.loaders.add(new WeakReference<>(loader));
+        }
+
+        @Nullable
+        private List<Class<?>> getClasses(final String name) {
+            //The classes are looked up after they have been defined by their class loader
+            //This is done without holding the lock since looking up a class can load it through any class loader
+            for (ClassLoader loader : this.pollLoaders()) {
+                Class<?> clazz;
+                try {
+                    clazz = Class.forName(name, false, loader);
+                } catch (Throwable t) {
+                    continue; //The class could not be defined
+                }
+                if (clazz.getClassLoader() == loader) {
+                    this.addClass(clazz);
+                } else {
+                    //The class loader delegated the lookup, so the class it defined is unknown
+                    this.tracked = false;
+                    return null;
+                }
+            }
+
+            synchronized (this) {
+                List<Class<?>> classes = new ArrayList<>();
+                Iterator<WeakReference<Class<?>>> it = this.classes.iterator();
+                while (it.hasNext()) {
+                    Class<?> clazz = it.next().get();
+                    if (clazz == null) it.remove();
+                    else classes.add(clazz);
+                }
+                return classes;
+            }
+        }
+
+        private synchronized List<ClassLoader> pollLoaders() {
+            List<ClassLoader> loaders = new ArrayList<>();
+            if (this.bootstrapLoader) {
+                this.bootstrapLoader = false;
+                loaders.add(null);
+            }
+            for (WeakReference<ClassLoader> reference : this.loaders) {
+                ClassLoader loader = reference.get();
+                if (loader != null) loaders.add(loader);
+            }
+            this.loaders.clear();
+            return loaders;
+        }
+    }
+
+}
@@ -0,0 +1,226 @@
+package net.lenni0451.classtransform.utils;
+
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A compiled selector for methods or fields using a combined name and descriptor.<br>
+ * Use <b>*</b> in the name for a wildcard search.<br>
+ * e.g. <b>print(Ljava/lang/String;)V</b>, <b>get*</b> or <b>field:I</b><br>
+ * Selectors are cached by their combi, so every combi only has to be parsed once.
+ */
+@ParametersAreNonnullByDefault
+public final class MemberSelector {
+
+    private static final Map<String, MemberSelector> METHOD_SELECTORS = new ConcurrentHashMap<>();
+    private static final Map<String, MemberSelector> DECLARATION_SELECTORS = new ConcurrentHashMap<>();
+    private static final Map<String, MemberSelector> FIELD_SELECTORS = new ConcurrentHashMap<>();
+
+    /**
+     * Get the selector for methods matching the given combi.<br>
+     * e.g. <b>print(Ljava/lang/String;)V</b> or <b>print</b>
+     *
+     * @param combi The combined name and descriptor
+     * @return The selector
+     * @throws IllegalArgumentException If the combined name and descriptor is empty
+     */
+    public static MemberSelector method(final String combi) {
+        if (combi.isEmpty()) throw new IllegalArgumentException("Combi cannot be empty");
+        return METHOD_SELECTORS.computeIfAbsent(combi, c -> compile(null, c, '(', false));
+    }
+
+    /**
+     * Get the selector for methods matching the given combi or full method declaration.<br>
+     * e.g. <b>java/io/PrintStream.print(Ljava/lang/String;)V</b> or <b>print</b>
+     *
+     * @param combi The combined name and descriptor or the method declaration
+     * @return The selector
+     * @throws IllegalArgumentException If the combined name and descriptor is empty
+     */
+    public static MemberSelector methodDeclaration(final String combi) {
+        if (combi.isEmpty()) throw new IllegalArgumentException("Combi cannot be empty");
+        return DECLARATION_SELECTORS.computeIfAbsent(combi, c -> {
+            if (ASMUtils.METHOD_DECLARATION_PATTERN.matcher(c).matches()) {
+                MemberDeclaration declaration = ASMUtils.splitMemberDeclaration(c);
+                if (declaration != null) return compile(declaration.getOwner(), declaration.getName() + declaration.getDesc(), '(', false);
+            }
+            return compile(null, c, '(', false);
+        });
+    }
+
+    /**
+     * Get the selector for fields matching the given combi.<br>
+     * e.g. <b>field:I</b> or <b>field</b>
+     *
+     * @param combi The combined name and descriptor
+     * @return The selector
+     * @throws IllegalArgumentException If the combined name and descriptor is empty
+     */
+    public static MemberSelector field(final String combi) {
+        if (combi.isEmpty()) throw new IllegalArgumentException("Combi cannot be empty");
+        return FIELD_SELECTORS.computeIfAbsent(combi, c -> compile(null, c, ':', true));
+    }
+
+    private static MemberSelector compile(@Nullable final String owner, final String combi, final char descriptorStart, final boolean field) {
+        String name = combi;
+        String desc = null;
+        int descIndex = combi.indexOf(descriptorStart);
+        if (descIndex != -1) {
+            name = combi.substring(0, descIndex);
+            desc = combi.substring(field ? descIndex + 1 : descIndex);
+        }
+
+        if (name.indexOf('*') == -1) return new MemberSelector(owner, combi, name, desc, null, false, false);
+        boolean leadingWildcard = name.startsWith("*");
+        boolean trailingWildcard = name.endsWith("*");
+        List<String> parts = new ArrayList<>();
+        for (String part : name.split("\\*")) {
+            if (!part.isEmpty()) parts.add(part);
+        }
+        return new MemberSelector(owner, combi, name, desc, parts.toArray(new String[0]), leadingWildcard, trailingWildcard);
+    }
+
+
+    private final String owner;
+    private final String combi;
+    private final String name;
+    private final String desc;
+    private final String[] parts;
+    private final boolean leadingWildcard;
+    private final boolean trailingWildcard;
+
+    private MemberSelector(@Nullable final String owner, final String combi, final String name, @Nullable final String desc, @Nullable final String[] parts, final boolean leadingWildcard, final boolean trailingWildcard) {
+        this.owner = owner;
+        this.combi = combi;
+        this.name = name;
+        this.desc = desc;
+        this.parts = parts;
+        this.leadingWildcard = leadingWildcard;
+        this.trailingWildcard = trailingWildcard;
+    }
+
+    /**
+     * @return The owner of the method declaration or {@code null} if the combi did not contain an owner
+     */
+    @Nullable
+    public String getOwner() {
+        return this.owner;
+    }
+
+    /**
+     * @return The combined name and descriptor without the owner
+     */
+    public String getCombi() {
+        return this.combi;
+    }
+
+    /**
+     * @return If the name contains a wildcard
+     */
+    public boolean isWildcard() {
+        return this.parts != null;
+    }
+
+    /**
+     * Check if the given name matches the name of this selector.
+     *
+     * @param name The name to check
+     * @return If the name matches
+     */
+    public boolean matchesName(final String name) {
+        if (this.parts == null) return this.name.equals(name);
+
+        int start = 0;
+        int end = name.length();
+        int first = 0;
+        int last = this.parts.length - 1;
+        if (!this.leadingWildcard) {
+            if (!name.startsWith(this.parts[0])) return false;
+            start = this.parts[0].length();
+            first++;
+        }
+        if (!this.trailingWildcard && first <= last) {
+            String suffix = this.parts[last];
+            if (end - suffix.length() < start || !name.endsWith(suffix)) return false;
+            end -= suffix.length();
+            last--;
+        }
+        for (int i = first; i <= last; i++) {
+            int index = name.indexOf(this.parts[i], start);
+            if (index == -1 || index + this.parts[i].length() > end) return false;
+            start = index + this.parts[i].length();
+        }
+        return true;
+    }
+
+    /**
+     * Check if the given name and descriptor match this selector.
+     *
+     * @param name The name to check
+     * @param desc The descriptor to check
+     * @return If the name and descriptor match
+     */
+    public boolean matches(final String name, final String desc) {
+        return (this.desc == null || this.desc.equals(desc)) && this.matchesName(name);
+    }
+
+    /**
+     * Get all methods of the class node matching this selector.<br>
+     * If no descriptor is given and there are multiple matches, synthetic methods are ignored.
+     *
+     * @param classNode The class node to search in
+     * @return The matching methods
+     */
+    public List<MethodNode> getMethods(final ClassNode classNode) {
+        List<MethodNode> methods = new ArrayList<>();
+        if (this.owner != null && !this.owner.equals(classNode.name)) return methods;
+        if (this.parts == null) {
+            for (MethodNode method : ClassMemberIndex.of(classNode).getMethods(this.name)) {
+                if (this.desc == null || this.desc.equals(method.desc)) methods.add(method);
+            }
+        } else {
+            for (MethodNode method : classNode.methods) {
+                if (this.matches(method.name, method.desc)) methods.add(method);
+            }
+        }
+        if (this.desc == null && methods.size() > 1 && methods.stream().anyMatch(method -> (method.access & Opcodes.ACC_SYNTHETIC) == 0)) {
+            methods.removeIf(method -> (method.access & Opcodes.ACC_SYNTHETIC) != 0);
+        }
+        return methods;
+    }
+
+    /**
+     * Get all fields of the class node matching this selector.<br>
+     * Fields without a wildcard are only matched by their name.
+     *
+     * @param classNode The class node to search in
+     * @return The matching fields
+     */
+    public List<FieldNode> getFields(final ClassNode classNode) {
+        List<FieldNode> fields = new ArrayList<>();
+        if (this.parts == null) {
+            List<FieldNode> named = ClassMemberIndex.of(classNode).getFields(this.name);
+            if (!named.isEmpty()) fields.add(named.get(0));
+        } else {
+            for (FieldNode field : classNode.fields) {
+                if (this.matches(field.name, field.desc)) fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    @Override
+    public String toString() {
+        return this.owner == null ? this.combi : ("L" + this.owner + ";" + this.combi);
+    }
+
+}
@@ -35,7 +35,7 @@ public class MethodInliner {
             AbstractInsnNode[] inlinedInstructions = instructionCalling(method, Modifier.isStatic(inlinedMethod.access) ? Opcodes.INVOKESTATIC : Opcodes.INVOKEVIRTUAL, inlinedMethodOwner, inlinedMethod.name, inlinedMethod.desc);
             for (AbstractInsnNode inlinedInstruction : inlinedInstructions) wrappedInline(classNode.name, method, inlinedInstruction, ASMUtils.cloneMethod(inlinedMethod));
         }
-        classNode.methods.remove(inlinedMethod);
+        ClassMemberIndex.of(classNode).removeMethod(inlinedMethod);
     }
 
     private static AbstractInsnNode[] instructionCalling(final MethodNode method, final int callOpcode, final String owner, final String name, final String desc) {
@@ -49,7 +49,17 @@ public class MethodInliner {
         return insns.toArray(new AbstractInsnNode[0]);
     }
 
-    private static void wrappedInline(final String methodOwner, final MethodNode method, final AbstractInsnNode inlinedInstruction, final MethodNode inlinedMethod) {
+    /**
+     * Inline a method at the given call instruction.<br>
+     * Return opcodes are replaced with a jump instruction behind the inlined method instructions.<br>
+     * Direct modifications of arguments are not supported.
+     *
+     * @param methodOwner        The owner of the method to inline into
+     * @param method             The method to inline into
+     * @param inlinedInstruction The call instruction to replace
+     * @param inlinedMethod      The method to inline, this method node is modified and should be a copy
+     */
+    public static void wrappedInline(final String methodOwner, final MethodNode method, final AbstractInsnNode inlinedInstruction, final MethodNode inlinedMethod) {
         int freeVarSpace = ASMUtils.getFreeVarIndex(method);
         Map<Integer, Integer> varMappings = new HashMap<>();
         List<StackVariable> stackVariables = new ArrayList<>();
@@ -122,6 +132,9 @@ public class MethodInliner {
 
         method.instructions.insertBefore(inlinedInstruction, instructions);
         method.instructions.remove(inlinedInstruction);
+        //Keep the max values valid for further analysis, they are recalculated when writing the class
+        method.maxLocals = Math.max(method.maxLocals, ASMUtils.getFreeVarIndex(method));
+        method.maxStack += inlinedMethod.maxStack;
 
         //Merge other method attributes
         method.tryCatchBlocks = mergeTryCatchBlockNodes(method.tryCatchBlocks, inlinedMethod.tryCatchBlocks);
@@ -0,0 +1,117 @@
+package net.lenni0451.classtransform.utils;
+
+import org.objectweb.asm.*;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.*;
+
+/**
+ * The difference between two versions of a transformer class.<br>
+ * Debug information (line numbers, local variable names and the source file) and stack map frames are ignored,
+ * so moving code around in the source file is not detected as a change.
+ */
+@ParametersAreNonnullByDefault
+public class TransformerDiff {
+
+    /**
+     * Compare two versions of a transformer class.
+     *
+     * @param oldTransformer The old transformer class
+     * @param newTransformer The new transformer class
+     * @return The difference between the two versions
+     */
+    public static TransformerDiff compare(final ClassNode oldTransformer, final ClassNode newTransformer) {
+        boolean classChanged = !Arrays.equals(getClassBytes(oldTransformer), getClassBytes(newTransformer));
+        Map<String, byte[]> oldMethods = getMethodBytes(oldTransformer);
+        Map<String, byte[]> newMethods = getMethodBytes(newTransformer);
+        Set<String> changedMethods = new HashSet<>();
+        for (Map.Entry<String, byte[]> entry : oldMethods.entrySet()) {
+            if (!Arrays.equals(entry.getValue(), newMethods.get(entry.getKey()))) changedMethods.add(entry.getKey());
+        }
+        for (String method : newMethods.keySet()) {
+            if (!oldMethods.containsKey(method)) changedMethods.add(method);
+        }
+        return new TransformerDiff(classChanged, changedMethods);
+    }
+
+    private static byte[] getClassBytes(final ClassNode classNode) {
+        ClassWriter writer = new ClassWriter(0);
+        classNode.accept(new ClassVisitor(Opcodes.ASM9, writer) {
+            @Override
+            public void visitSource(String source, String debug) {
+            }
+
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                return null; //Methods are compared separately
+            }
+        });
+        return writer.toByteArray();
+    }
+
+    private static Map<String, byte[]> getMethodBytes(final ClassNode classNode) {
+        Map<String, byte[]> methods = new HashMap<>();
+        for (MethodNode method : classNode.methods) {
+            //Every method is written into its own class to get a constant pool which only depends on the method itself
+            ClassWriter writer = new ClassWriter(0);
+            writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, "Diff", null, "java/lang/Object", null);
+            method.accept(new ClassVisitor(Opcodes.ASM9, writer) {
+                @Override
+                public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                    return new MethodVisitor(Opcodes.ASM9, super.visitMethod(access, name, descriptor, signature, exceptions)) {
+                        @Override
+                        public void visitFrame(int type, int numLocal, Object[] local, int numStack, Object[] stack) {
+                        }
+
+                        @Override
+                        public void visitLineNumber(int line, Label start) {
+                        }
+
+                        @Override
+                        public void visitLocalVariable(String name, String descriptor, String signature, Label start, Label end, int index) {
+                        }
+                    };
+                }
+            });
+            writer.visitEnd();
+            methods.put(method.name + method.desc, writer.toByteArray());
+        }
+        return methods;
+    }
+
+
+    private final boolean classChanged;
+    private final Set<String> changedMethods;
+
+    private TransformerDiff(final boolean classChanged, final Set<String> changedMethods) {
+        this.classChanged = classChanged;
+        this.changedMethods = Collections.unmodifiableSet(changedMethods);
+    }
+
+    /**
+     * @return If the class itself (e.g. annotations, fields or super types) has changed
+     */
+    public boolean isClassChanged() {
+        return this.classChanged;
+    }
+
+    /**
+     * Get all changed methods.<br>
+     * This also contains added and removed methods.
+     *
+     * @return The name and descriptor of all changed methods
+     */
+    public Set<String> getChangedMethods() {
+        return this.changedMethods;
+    }
+
+    /**
+     * @return If there are no changes between the two versions
+     */
+    public boolean isEmpty() {
+        return !this.classChanged && this.changedMethods.isEmpty();
+    }
+
+}
@@ -348,7 +348,7 @@ public class InjectionClassLoader extends URLClassLoader {
      */
     @SneakyThrows
     public void copyClass(final IClassProvider classProvider, final String className) {
-        byte[] classBytes = classProvider.getClass(className);
+        byte[] classBytes = this.transformerManager.readClass(classProvider, className);
         this.addRuntimeResource(slash(className) + ".class", classBytes);
     }
 
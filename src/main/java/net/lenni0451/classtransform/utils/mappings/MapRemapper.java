@@ -17,6 +17,8 @@ import static net.lenni0451.classtransform.utils.Types.*;
 public class MapRemapper extends Remapper {
 
     private final Map<String, String> mappings;
+    private final ThreadLocal<Set<String>> accessRecorder = new ThreadLocal<>();
+    private volatile boolean recordingAccesses; //Skip the thread local lookup until a recorder has been set once
     private MapRemapper reverse;
 
     public MapRemapper() {
@@ -182,6 +184,11 @@ public class MapRemapper extends Remapper {
      */
     public void copy(final MapRemapper remapper) {
         this.mappings.putAll(remapper.mappings);
+
+        if (this.reverse != null) {
+            this.reverse.reverse = null;
+            this.reverse = null;
+        }
     }
 
 
@@ -217,6 +224,7 @@ public class MapRemapper extends Remapper {
     @Override
     @Nullable
     public String map(final String key) {
+        if (this.recordingAccesses) this.recordAccess(key);
         return this.mappings.get(key);
     }
 
@@ -229,10 +237,45 @@ public class MapRemapper extends Remapper {
      */
     @Nonnull
     public String mapSafe(final String key) {
+        if (this.recordingAccesses) this.recordAccess(key);
         return this.mappings.getOrDefault(key, key);
     }
 
 
+    /**
+     * Set the set which all keys accessed using {@link #map(String)} or {@link #mapSafe(String)} by the current thread are added to.<br>
+     * The previous recorder should be restored after recording.
+     *
+     * @param recorder The set to add the accessed keys to or {@code null} to stop recording
+     * @return The previous recorder
+     */
+    @Nullable
+    public Set<String> setAccessRecorder(@Nullable final Set<String> recorder) {
+        if (recorder == null && !this.recordingAccesses) return null;
+        Set<String> previous = this.accessRecorder.get();
+        if (recorder == null) {
+            this.accessRecorder.remove();
+        } else {
+            this.recordingAccesses = true;
+            this.accessRecorder.set(recorder);
+        }
+        return previous;
+    }
+
+    /**
+     * @return The set all keys accessed by the current thread are added to or {@code null} if not recording
+     */
+    @Nullable
+    public Set<String> getAccessRecorder() {
+        if (!this.recordingAccesses) return null;
+        return this.accessRecorder.get();
+    }
+
+    private void recordAccess(final String key) {
+        Set<String> recorder = this.accessRecorder.get();
+        if (recorder != null) recorder.add(key);
+    }
+
     /**
      * Get a list of all classes that are mentioned in the mappings.<br>
      * This includes classes which are not directly mapped but are part of a field or method mapping.
@@ -1,5 +1,6 @@
 package net.lenni0451.classtransform.utils.mappings;
 
+import net.lenni0451.classtransform.utils.ClassMemberIndex;
 import org.objectweb.asm.commons.ClassRemapper;
 import org.objectweb.asm.commons.FieldRemapper;
 import org.objectweb.asm.commons.MethodRemapper;
@@ -56,7 +57,7 @@ public class Remapper {
         MethodNode newNode = new MethodNode(methodNode.access, remapper.mapMethodName(sourceName, methodNode.name, methodNode.desc), remapper.mapDesc(methodNode.desc), methodNode.signature, methodNode.exceptions == null ? null : remapper.mapTypes(methodNode.exceptions.toArray(new String[0])));
         MethodRemapper methodRemapper = new MethodRemapper(newNode, remapper);
         methodNode.accept(methodRemapper);
-        holder.methods.add(newNode);
+        ClassMemberIndex.of(holder).addMethod(newNode);
         return newNode;
     }
 
@@ -94,7 +95,7 @@ public class Remapper {
                 annotation.accept(fieldRemapper.visitAnnotation(annotation.desc, false));
             }
         }
-        holder.fields.add(newNode);
+        ClassMemberIndex.of(holder).addField(newNode);
         return newNode;
     }
 
@@ -147,6 +148,7 @@ public class Remapper {
                 throw new RuntimeException("Failed to merge class nodes", t);
             }
         }
+        ClassMemberIndex.invalidate(original);
     }
 
 }
@@ -13,6 +13,9 @@ import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
 import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.Collectors;
 
 import static net.lenni0451.classtransform.utils.ASMUtils.slash;
@@ -34,6 +37,22 @@ public class SuperMappingFiller {
      * @throws ClassNotFoundException If a class could not be found
      */
     public static void fillTransformerSuperMembers(final ClassNode transformer, final MapRemapper remapper, final ClassTree classTree, final IClassProvider classProvider) throws ClassNotFoundException {
+        fillTransformerSuperMembers(transformer, remapper, classTree, classProvider, new HashSet<>());
+    }
+
+    /**
+     * Fill all super mappings for the given transformer targets.<br>
+     * Targets which are already in the set of filled classes are skipped. Newly filled classes are added to the set.<br>
+     * Missing mappings are added to the given remapper.
+     *
+     * @param transformer   The class node of the transformer
+     * @param remapper      The remapper to use
+     * @param classTree     The class tree to use
+     * @param classProvider The class provider to use
+     * @param filledClasses The names of all classes which have already been filled
+     * @throws ClassNotFoundException If a class could not be found
+     */
+    public static void fillTransformerSuperMembers(final ClassNode transformer, final MapRemapper remapper, final ClassTree classTree, final IClassProvider classProvider, final Set<String> filledClasses) throws ClassNotFoundException {
         List<Object> annotation = AnnotationUtils.findAnnotation(transformer, CTransformer.class).map(a -> a.values).orElseThrow(() -> new IllegalStateException("Transformer does not have CTransformer annotation"));
         for (int i = 0; i < annotation.size(); i += 2) {
             String key = (String) annotation.get(i);
@@ -41,10 +60,10 @@ public class SuperMappingFiller {
 
             if (key.equals("value")) {
                 List<Type> classesList = (List<Type>) value;
-                for (Type type : classesList) fillSuperMembers(type.getInternalName(), remapper, classTree, classProvider);
+                for (Type type : classesList) fillSuperMembers(type.getInternalName(), remapper, classTree, classProvider, filledClasses);
             } else if (key.equals("name")) {
                 List<String> classesList = (List<String>) value;
-                for (String className : classesList) fillSuperMembers(slash(className), remapper, classTree, classProvider);
+                for (String className : classesList) fillSuperMembers(slash(className), remapper, classTree, classProvider, filledClasses);
             }
         }
     }
@@ -66,6 +85,25 @@ public class SuperMappingFiller {
         fillSuperMembers(treePart.getNode(), superClasses, remapper);
     }
 
+    /**
+     * Fill all super mappings for the given class by name if it has not been filled yet.<br>
+     * The class name <b>must</b> be separated by slashes.<br>
+     * The class is added to the set of filled classes after the mappings have been filled.<br>
+     * Missing mappings are added to the given remapper.
+     *
+     * @param className     The name of the class (not descriptor)
+     * @param remapper      The remapper to use
+     * @param classTree     The class tree to use
+     * @param classProvider The class provider to use
+     * @param filledClasses The names of all classes which have already been filled
+     * @throws ClassNotFoundException If a class could not be found
+     */
+    public static void fillSuperMembers(final String className, final MapRemapper remapper, final ClassTree classTree, final IClassProvider classProvider, final Set<String> filledClasses) throws ClassNotFoundException {
+        if (filledClasses.contains(className)) return;
+        fillSuperMembers(className, remapper, classTree, classProvider);
+        filledClasses.add(className);
+    }
+
     /**
      * Fill all super mappings for the given class.<br>
      * All input classes <b>must</b> be in the target format of the remapper.<br>
@@ -131,6 +169,93 @@ public class SuperMappingFiller {
         }
     }
 
+    /**
+     * Fill all super mappings for all classes found in the given remapper using the given pool.<br>
+     * The class hierarchy is resolved on the calling thread since the class tree is synchronized. Afterwards all classes are filled in parallel.<br>
+     * If a class could not be found the mappings for it will be skipped.<br>
+     * Missing mappings are added to the given remapper.<br>
+     * The remapper <b>must</b> map from named to obfuscated. If you need to map from obfuscated to named use {@link MapRemapper#reverse()}.
+     *
+     * @param remapper      The remapper to use
+     * @param classTree     The class tree to use
+     * @param classProvider The class provider to use
+     * @param pool          The pool to fill the mappings on
+     */
+    public static void fillAllSuperMembers(final MapRemapper remapper, final ClassTree classTree, final IClassProvider classProvider, final ForkJoinPool pool) {
+        List<HierarchyEntry> hierarchy = new ArrayList<>();
+        for (String clazz : remapper.getMentionedClasses()) {
+            String obfClass = remapper.mapSafe(clazz);
+            try {
+                ClassTree.TreePart treePart = classTree.getTreePart(classProvider, obfClass);
+                Set<ClassNode> superClasses = new LinkedHashSet<>();
+                for (ClassTree.TreePart part : treePart.getParsedSuperClasses(classProvider, false)) superClasses.add(part.getNode());
+                hierarchy.add(new HierarchyEntry(treePart.getNode(), superClasses));
+            } catch (Throwable ignored) {
+            }
+        }
+
+        //Every class only adds mappings owned by itself, so the classes can be filled independently of each other
+        ConcurrentMapRemapper concurrentRemapper = new ConcurrentMapRemapper(remapper);
+        List<ForkJoinTask<?>> fillTasks = new ArrayList<>(hierarchy.size());
+        for (HierarchyEntry entry : hierarchy) {
+            fillTasks.add(pool.submit(() -> SuperMappingFiller.fillSuperMembers(entry.node, entry.superClasses, concurrentRemapper)));
+        }
+        for (ForkJoinTask<?> task : fillTasks) task.join();
+        concurrentRemapper.apply();
+    }
+
+
+    private static class HierarchyEntry {
+        private final ClassNode node;
+        private final Set<ClassNode> superClasses;
+
+        private HierarchyEntry(final ClassNode node, final Set<ClassNode> superClasses) {
+            this.node = node;
+            this.superClasses = superClasses;
+        }
+    }
+
+    private static class ConcurrentMapRemapper extends MapRemapper {
+        private final MapRemapper remapper;
+        private final MapRemapper reverse;
+        private final Map<String, String> addedMappings = new ConcurrentHashMap<>();
+
+        public ConcurrentMapRemapper(final MapRemapper remapper) {
+            super(Collections.emptyMap());
+            this.remapper = remapper;
+            this.reverse = new MapRemapper(remapper.reverse().getMappings());
+        }
+
+        @Override
+        public void addFieldMapping(String owner, String name, String desc, String target, boolean skipIfExists) {
+            this.add(owner + "." + name + ":" + desc, target, skipIfExists);
+        }
+
+        @Override
+        public void addMethodMapping(String owner, String name, String desc, String target, boolean skipIfExists) {
+            this.add(owner + "." + name + desc, target, skipIfExists);
+        }
+
+        @Nonnull
+        @Override
+        public MapRemapper reverse() {
+            return this.reverse;
+        }
+
+        private void add(final String key, final String target, final boolean skipIfExists) {
+            //The wrapped remapper is not modified while the classes are filled, so it can be read concurrently
+            if (!skipIfExists) this.addedMappings.put(key, target);
+            else if (this.remapper.map(key) == null) this.addedMappings.putIfAbsent(key, target);
+        }
+
+        /**
+         * Add all collected mappings to the wrapped remapper.
+         */
+        private void apply() {
+            if (!this.addedMappings.isEmpty()) this.remapper.copy(new MapRemapper(this.addedMappings));
+        }
+    }
+
 
     private static class CachedMapRemapper extends MapRemapper {
         private final MapRemapper remapper;
@@ -1,6 +1,7 @@
 package net.lenni0451.classtransform.utils.tree;
 
 import net.lenni0451.classtransform.TransformerManager;
+import net.lenni0451.classtransform.debugger.metrics.TransformerMetrics;
 import net.lenni0451.classtransform.utils.ASMUtils;
 import org.objectweb.asm.tree.ClassNode;
 
@@ -8,6 +9,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static net.lenni0451.classtransform.utils.ASMUtils.dot;
 
@@ -17,7 +19,9 @@ import static net.lenni0451.classtransform.utils.ASMUtils.dot;
 @ParametersAreNonnullByDefault
 public class ClassTree {
 
-    private final Map<String, TreePart> tree = new HashMap<>();
+    private final Map<String, TreePart> tree = new ConcurrentHashMap<>(); //Concurrent to allow reading cached tree parts without locking
+    private final ThreadLocal<Set<String>> accessRecorder = new ThreadLocal<>();
+    private volatile boolean recordingAccesses; //Skip the thread local lookup until a recorder has been set once
     private final TransformerManager transformerManager;
 
     public ClassTree() {
@@ -35,6 +39,27 @@ public class ClassTree {
         return this.transformerManager != null;
     }
 
+    /**
+     * Set the set which the names of all classes accessed by the current thread are added to.<br>
+     * This includes the super classes of all accessed classes.<br>
+     * The previous recorder should be restored after recording.
+     *
+     * @param recorder The set to add the accessed class names to or {@code null} to stop recording
+     * @return The previous recorder
+     */
+    @Nullable
+    public Set<String> setAccessRecorder(@Nullable final Set<String> recorder) {
+        if (recorder == null && !this.recordingAccesses) return null;
+        Set<String> previous = this.accessRecorder.get();
+        if (recorder == null) {
+            this.accessRecorder.remove();
+        } else {
+            this.recordingAccesses = true;
+            this.accessRecorder.set(recorder);
+        }
+        return previous;
+    }
+
     /**
      * Get a tree part from a class by name.
      *
@@ -46,15 +71,26 @@ public class ClassTree {
     @Nonnull
     public synchronized TreePart getTreePart(final IClassProvider classProvider, String className) throws ClassNotFoundException {
         className = dot(className);
-        if (this.tree.containsKey(className)) return this.tree.get(className);
+        Set<String> recorder = this.recordingAccesses ? this.accessRecorder.get() : null;
+        if (recorder != null) recorder.add(className);
+        TransformerMetrics metrics = this.transformerManager == null ? null : this.transformerManager.getMetrics();
+        TreePart part = this.tree.get(className);
+        if (metrics != null) metrics.onClassTreeLookup(className, part != null);
+        if (part != null) {
+            if (recorder != null) recorder.addAll(part.superClasses);
+            return part;
+        }
 
-        byte[] bytecode = classProvider.getClass(className);
-        if (this.transformerManager != null) {
+        byte[] bytecode;
+        if (this.transformerManager == null) {
+            bytecode = classProvider.getClass(className);
+        } else {
+            bytecode = this.transformerManager.readClass(classProvider, className);
             byte[] transformed = this.transformerManager.transform(className, bytecode, false);
             if (transformed != null) bytecode = transformed;
         }
         ClassNode node = ASMUtils.fromBytes(bytecode);
-        TreePart part = new TreePart(node);
+        part = new TreePart(node);
         this.tree.put(className, part);
 
         int oldSize;
@@ -65,10 +101,26 @@ public class ClassTree {
                 part.superClasses.addAll(superTree.superClasses);
             }
         } while (oldSize != part.superClasses.size());
+        part.resolved = true;
+        if (recorder != null) recorder.addAll(part.superClasses);
 
         return part;
     }
 
+    /**
+     * Get a tree part from a class by name if it is already cached.<br>
+     * This method does not lock the class tree and never reads or transforms classes.
+     *
+     * @param className The name of the class
+     * @return The tree part or {@code null} if the class is not cached or its super classes are still being resolved
+     */
+    @Nullable
+    public TreePart getCachedTreePart(final String className) {
+        TreePart part = this.tree.get(dot(className));
+        if (part == null || !part.resolved) return null;
+        return part;
+    }
+
 
     @ParametersAreNonnullByDefault
     public class TreePart {
@@ -78,6 +130,7 @@ public class ClassTree {
         private final String superClass;
         private final Set<String> superClasses;
         private final int modifiers;
+        private volatile boolean resolved; //Set after all super classes have been added
 
         private TreePart(final ClassNode node) {
             this.node = node;
@@ -0,0 +1,11 @@
+package net.lenni0451.classtransform.debugger.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("net.lenni0451.classtransform.AnnotationHandlerPhase")
+@Label("Annotation Handler Phase")
+@Description("An annotation handler applying a transformer to a class")
+class AnnotationHandlerPhaseEvent extends PhaseEvent {
+}
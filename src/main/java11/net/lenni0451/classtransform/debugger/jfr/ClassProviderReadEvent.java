@@ -0,0 +1,22 @@
+package net.lenni0451.classtransform.debugger.jfr;
+
+import jdk.jfr.*;
+
+@Name("net.lenni0451.classtransform.ClassProviderRead")
+@Label("Class Provider Read")
+@Category("ClassTransform")
+@Description("The bytecode of a class read from a class provider")
+@StackTrace(false)
+class ClassProviderReadEvent extends Event {
+
+    @Label("Class Name")
+    String className;
+
+    @Label("Provider")
+    String provider;
+
+    @Label("Bytes")
+    @DataAmount
+    int bytes;
+
+}
@@ -0,0 +1,115 @@
+package net.lenni0451.classtransform.debugger.jfr;
+
+import jdk.jfr.EventType;
+import net.lenni0451.classtransform.debugger.timings.TimedGroup;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * The implementation of the {@link TransformerEvents}.<br>
+ * This class is only loaded if the {@code jdk.jfr} module is available.
+ */
+@ParametersAreNonnullByDefault
+class FlightRecorderEvents {
+
+    private static final EventType TRANSFORM_CLASS = EventType.getEventType(TransformClassEvent.class);
+    private static final EventType ANNOTATION_HANDLER_PHASE = EventType.getEventType(AnnotationHandlerPhaseEvent.class);
+    private static final EventType REMAP_PHASE = EventType.getEventType(RemapPhaseEvent.class);
+    private static final EventType FRAME_COMPUTATION = EventType.getEventType(FrameComputationEvent.class);
+    private static final EventType TRANSFORMER_PHASE = EventType.getEventType(TransformerPhaseEvent.class);
+    private static final EventType CLASS_PROVIDER_READ = EventType.getEventType(ClassProviderReadEvent.class);
+    private static final EventType MAPPING_LOAD = EventType.getEventType(MappingLoadEvent.class);
+
+    static boolean isEnabled() {
+        return TRANSFORM_CLASS.isEnabled()
+                || ANNOTATION_HANDLER_PHASE.isEnabled()
+                || REMAP_PHASE.isEnabled()
+                || FRAME_COMPUTATION.isEnabled()
+                || TRANSFORMER_PHASE.isEnabled()
+                || CLASS_PROVIDER_READ.isEnabled()
+                || MAPPING_LOAD.isEnabled();
+    }
+
+    @Nullable
+    static Object beginTransformClass(final String className, final int bytesIn) {
+        if (!TRANSFORM_CLASS.isEnabled()) return null;
+        TransformClassEvent event = new TransformClassEvent();
+        event.className = className;
+        event.bytesIn = bytesIn;
+        event.begin();
+        return event;
+    }
+
+    static void endTransformClass(@Nullable final Object event, @Nullable final byte[] transformedBytes) {
+        if (event == null) return;
+        TransformClassEvent transformClassEvent = (TransformClassEvent) event;
+        transformClassEvent.bytesOut = transformedBytes == null ? -1 : transformedBytes.length;
+        transformClassEvent.commit();
+    }
+
+    @Nullable
+    static Object beginPhase(final TimedGroup group, final String className, final String handler) {
+        PhaseEvent event;
+        switch (group) {
+            case ANNOTATION_HANDLER:
+                if (!ANNOTATION_HANDLER_PHASE.isEnabled()) return null;
+                event = new AnnotationHandlerPhaseEvent();
+                break;
+            case REMAPPER:
+                if (!REMAP_PHASE.isEnabled()) return null;
+                event = new RemapPhaseEvent();
+                break;
+            case FRAME_COMPUTATION:
+                if (!FRAME_COMPUTATION.isEnabled()) return null;
+                event = new FrameComputationEvent();
+                break;
+            default:
+                if (!TRANSFORMER_PHASE.isEnabled()) return null;
+                event = new TransformerPhaseEvent();
+                break;
+        }
+        event.className = className;
+        event.handler = handler;
+        event.begin();
+        return event;
+    }
+
+    static void endPhase(@Nullable final Object event) {
+        if (event != null) ((PhaseEvent) event).commit();
+    }
+
+    @Nullable
+    static Object beginClassProviderRead(final String className, final String provider) {
+        if (!CLASS_PROVIDER_READ.isEnabled()) return null;
+        ClassProviderReadEvent event = new ClassProviderReadEvent();
+        event.className = className;
+        event.provider = provider;
+        event.begin();
+        return event;
+    }
+
+    static void endClassProviderRead(@Nullable final Object event, final int bytes) {
+        if (event == null) return;
+        ClassProviderReadEvent classProviderReadEvent = (ClassProviderReadEvent) event;
+        classProviderReadEvent.bytes = bytes;
+        classProviderReadEvent.commit();
+    }
+
+    @Nullable
+    static Object beginMappingLoad(final String mapper) {
+        if (!MAPPING_LOAD.isEnabled()) return null;
+        MappingLoadEvent event = new MappingLoadEvent();
+        event.mapper = mapper;
+        event.begin();
+        return event;
+    }
+
+    static void endMappingLoad(@Nullable final Object event, final int mappings) {
+        if (event == null) return;
+        MappingLoadEvent mappingLoadEvent = (MappingLoadEvent) event;
+        mappingLoadEvent.mappings = mappings;
+        mappingLoadEvent.commit();
+    }
+
+}
@@ -0,0 +1,11 @@
+package net.lenni0451.classtransform.debugger.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("net.lenni0451.classtransform.FrameComputation")
+@Label("Frame Computation")
+@Description("The computation of the stack map frames of a transformed class")
+class FrameComputationEvent extends PhaseEvent {
+}
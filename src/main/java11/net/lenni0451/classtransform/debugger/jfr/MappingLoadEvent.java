@@ -0,0 +1,18 @@
+package net.lenni0451.classtransform.debugger.jfr;
+
+import jdk.jfr.*;
+
+@Name("net.lenni0451.classtransform.MappingLoad")
+@Label("Mapping Load")
+@Category("ClassTransform")
+@Description("The loading of the mappings of a mapper")
+@StackTrace(false)
+class MappingLoadEvent extends Event {
+
+    @Label("Mapper")
+    String mapper;
+
+    @Label("Mappings")
+    int mappings;
+
+}
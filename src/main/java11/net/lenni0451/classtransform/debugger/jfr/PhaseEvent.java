@@ -0,0 +1,18 @@
+package net.lenni0451.classtransform.debugger.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+@Category("ClassTransform")
+@StackTrace(false)
+abstract class PhaseEvent extends Event {
+
+    @Label("Class Name")
+    String className;
+
+    @Label("Handler")
+    String handler;
+
+}
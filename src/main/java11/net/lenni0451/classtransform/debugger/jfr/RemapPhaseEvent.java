@@ -0,0 +1,11 @@
+package net.lenni0451.classtransform.debugger.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("net.lenni0451.classtransform.RemapPhase")
+@Label("Remap Phase")
+@Description("The remapping of a transformer for a target class")
+class RemapPhaseEvent extends PhaseEvent {
+}
@@ -0,0 +1,23 @@
+package net.lenni0451.classtransform.debugger.jfr;
+
+import jdk.jfr.*;
+
+@Name("net.lenni0451.classtransform.TransformClass")
+@Label("Transform Class")
+@Category("ClassTransform")
+@Description("The transformation of a class")
+class TransformClassEvent extends Event {
+
+    @Label("Class Name")
+    String className;
+
+    @Label("Bytes In")
+    @DataAmount
+    int bytesIn;
+
+    @Label("Bytes Out")
+    @Description("The size of the transformed bytecode or -1 if the class was not transformed")
+    @DataAmount
+    int bytesOut;
+
+}
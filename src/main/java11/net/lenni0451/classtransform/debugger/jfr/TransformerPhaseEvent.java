@@ -0,0 +1,11 @@
+package net.lenni0451.classtransform.debugger.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("net.lenni0451.classtransform.TransformerPhase")
+@Label("Transformer Phase")
+@Description("A bytecode, raw or post transformer applied to a class")
+class TransformerPhaseEvent extends PhaseEvent {
+}
@@ -0,0 +1,287 @@
+package net.lenni0451.classtransform;
+
+import net.lenni0451.classtransform.annotations.CTarget;
+import net.lenni0451.classtransform.annotations.CTransformer;
+import net.lenni0451.classtransform.annotations.injection.CInject;
+import net.lenni0451.classtransform.debugger.metrics.TransformerMetrics;
+import net.lenni0451.classtransform.test.SCalculator;
+import net.lenni0451.classtransform.test.VCalculator;
+import net.lenni0451.classtransform.transformer.AnnotationHandler;
+import net.lenni0451.classtransform.transformer.HandlerPosition;
+import net.lenni0451.classtransform.transformer.IRawTransformer;
+import net.lenni0451.classtransform.utils.ASMUtils;
+import net.lenni0451.classtransform.utils.DependencyGraph;
+import net.lenni0451.classtransform.utils.FailStrategy;
+import net.lenni0451.classtransform.utils.tree.BasicClassProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+
+import java.lang.instrument.ClassDefinition;
+import java.lang.instrument.Instrumentation;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransformerManagerTest {
+
+    private final List<List<Class<?>>> retransformedClasses = new ArrayList<>();
+    private int loadedClassScans;
+    private TransformerManager transformerManager;
+
+    @BeforeEach
+    public void setUp() {
+        Instrumentation instrumentation = (Instrumentation) Proxy.newProxyInstance(Instrumentation.class.getClassLoader(), new Class[]{Instrumentation.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "isRetransformClassesSupported":
+                    return true;
+                case "getAllLoadedClasses":
+                    this.loadedClassScans++;
+                    return new Class[]{SCalculator.class, VCalculator.class, String.class};
+                case "retransformClasses":
+                    this.retransformedClasses.add(Arrays.asList((Class<?>[]) args[0]));
+                    return null;
+                default:
+                    return null;
+            }
+        });
+        this.transformerManager = new TransformerManager(new BasicClassProvider());
+        this.transformerManager.hookInstrumentation(instrumentation);
+    }
+
+    @Test
+    @DisplayName("Retransform every registration")
+    public void retransformEveryRegistration() {
+        this.transformerManager.addRawTransformer(SCalculator.class.getName(), (transformerManager, transformedClass) -> transformedClass);
+        this.transformerManager.addRawTransformer(VCalculator.class.getName(), (transformerManager, transformedClass) -> transformedClass);
+        assertEquals(2, this.retransformedClasses.size());
+    }
+
+    @Test
+    @DisplayName("Retransform batched registrations at once")
+    public void retransformBatch() {
+        this.transformerManager.batch(() -> {
+            this.transformerManager.addRawTransformer(SCalculator.class.getName(), (transformerManager, transformedClass) -> transformedClass);
+            this.transformerManager.batch(() -> this.transformerManager.addRawTransformer(VCalculator.class.getName(), (transformerManager, transformedClass) -> transformedClass));
+            assertTrue(this.retransformedClasses.isEmpty());
+        });
+        assertEquals(1, this.retransformedClasses.size());
+        List<Class<?>> classes = this.retransformedClasses.get(0);
+        assertEquals(2, classes.size());
+        assertTrue(classes.contains(SCalculator.class));
+        assertTrue(classes.contains(VCalculator.class));
+    }
+
+    @Test
+    @DisplayName("Do not batch registrations of other threads")
+    public void batchOtherThreads() {
+        this.transformerManager.batch(() -> {
+            Thread thread = new Thread(() -> this.transformerManager.addRawTransformer(VCalculator.class.getName(), (transformerManager, transformedClass) -> transformedClass));
+            thread.start();
+            assertDoesNotThrow(() -> thread.join());
+            this.transformerManager.addRawTransformer(SCalculator.class.getName(), (transformerManager, transformedClass) -> transformedClass);
+            assertEquals(1, this.retransformedClasses.size());
+            assertEquals(Collections.singletonList(VCalculator.class), this.retransformedClasses.get(0));
+        });
+        assertEquals(2, this.retransformedClasses.size());
+        assertEquals(Collections.singletonList(SCalculator.class), this.retransformedClasses.get(1));
+    }
+
+    @Test
+    @DisplayName("Scan loaded classes only once per class name")
+    public void scanLoadedClassesOnce() {
+        this.transformerManager.addRawTransformer(SCalculator.class.getName(), (transformerManager, transformedClass) -> transformedClass);
+        this.transformerManager.addRawTransformer(SCalculator.class.getName(), (transformerManager, transformedClass) -> transformedClass);
+        assertEquals(1, this.loadedClassScans);
+        assertEquals(2, this.retransformedClasses.size());
+        assertEquals(Collections.singletonList(SCalculator.class), this.retransformedClasses.get(1));
+    }
+
+    @Test
+    @DisplayName("Record transformer dependencies")
+    public void recordDependencies() throws ClassNotFoundException {
+        IRawTransformer rawTransformer = (transformerManager, transformedClass) -> transformedClass;
+        this.transformerManager.getDebugger().setRecordDependencies(true);
+        this.transformerManager.addRawTransformer(SCalculator.class.getName(), rawTransformer);
+        byte[] bytecode = this.transformerManager.getClassProvider().getClass(SCalculator.class.getName());
+        assertNotNull(this.transformerManager.transform(SCalculator.class.getName(), bytecode));
+
+        DependencyGraph graph = this.transformerManager.getDependencyGraph();
+        assertEquals(Collections.singleton(rawTransformer.getClass().getName()), graph.getDependencies(SCalculator.class.getName(), DependencyGraph.DependencyType.TRANSFORMER));
+        assertEquals(Collections.singleton(SCalculator.class.getName()), graph.getAffectedClasses(DependencyGraph.DependencyType.TRANSFORMER, rawTransformer.getClass().getName()));
+    }
+
+    @Test
+    @DisplayName("Do not record dependencies by default")
+    public void skipDependencies() throws ClassNotFoundException {
+        this.transformerManager.addRawTransformer(SCalculator.class.getName(), (transformerManager, transformedClass) -> transformedClass);
+        byte[] bytecode = this.transformerManager.getClassProvider().getClass(SCalculator.class.getName());
+        assertNotNull(this.transformerManager.transform(SCalculator.class.getName(), bytecode));
+
+        assertFalse(this.transformerManager.getDebugger().isRecordDependencies());
+        assertTrue(this.transformerManager.getDependencyGraph().getDependencies(SCalculator.class.getName(), DependencyGraph.DependencyType.TRANSFORMER).isEmpty());
+        assertNull(this.transformerManager.getMapper().getRemapper().getAccessRecorder());
+    }
+
+    @Test
+    @DisplayName("Record the defined bytecode of retransformed classes")
+    public void recordRetransformedClasses() throws ClassNotFoundException {
+        Instrumentation instrumentation = (Instrumentation) Proxy.newProxyInstance(Instrumentation.class.getClassLoader(), new Class[]{Instrumentation.class}, (proxy, method, args) -> {
+            if (method.getName().equals("isRetransformClassesSupported")) return false;
+            return null;
+        });
+        TransformerManager transformerManager = new TransformerManager(new BasicClassProvider());
+        transformerManager.hookInstrumentation(instrumentation, true);
+        String name = SCalculator.class.getName();
+        String internalName = name.replace('.', '/');
+        byte[] bytecode = transformerManager.getClassProvider().getClass(name);
+
+        transformerManager.addRawTransformer(name, (tm, transformedClass) -> {
+            transformedClass.visitField(Opcodes.ACC_PUBLIC, "first", "I", null, null);
+            return transformedClass;
+        });
+        byte[] defined = transformerManager.transform(SCalculator.class.getClassLoader(), internalName, null, null, bytecode);
+        assertNotNull(defined);
+        assertArrayEquals(defined, transformerManager.definedClasses.getDefinedBytecode(SCalculator.class.getClassLoader(), name));
+
+        transformerManager.addRawTransformer(name, (tm, transformedClass) -> {
+            transformedClass.visitField(Opcodes.ACC_PUBLIC, "second", "I", null, null);
+            return transformedClass;
+        });
+        byte[] retransformed = transformerManager.transform(SCalculator.class.getClassLoader(), internalName, SCalculator.class, null, bytecode);
+        assertNotNull(retransformed);
+        assertFalse(Arrays.equals(defined, retransformed));
+        assertArrayEquals(retransformed, transformerManager.definedClasses.getDefinedBytecode(SCalculator.class.getClassLoader(), name));
+    }
+
+    @Test
+    @DisplayName("Do not transform redefined classes twice")
+    public void redefineTransformedBytecode() throws Throwable {
+        String internalName = SCalculator.class.getName().replace('.', '/');
+        AtomicReference<TransformerManager> manager = new AtomicReference<>();
+        List<byte[]> callbackResults = new ArrayList<>();
+        CountDownLatch firstRedefinition = new CountDownLatch(1);
+        CountDownLatch secondRedefinition = new CountDownLatch(2);
+        Instrumentation instrumentation = (Instrumentation) Proxy.newProxyInstance(Instrumentation.class.getClassLoader(), new Class[]{Instrumentation.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "isRetransformClassesSupported":
+                    return false;
+                case "getAllLoadedClasses":
+                    return new Class[]{SCalculator.class};
+                case "redefineClasses":
+                    //The JVM passes the redefined bytecode to the class file transformer
+                    for (ClassDefinition definition : (ClassDefinition[]) args[0]) {
+                        callbackResults.add(manager.get().transform(SCalculator.class.getClassLoader(), internalName, definition.getDefinitionClass(), null, definition.getDefinitionClassFile()));
+                    }
+                    firstRedefinition.countDown();
+                    secondRedefinition.countDown();
+                    return null;
+                default:
+                    return null;
+            }
+        });
+        TransformerManager transformerManager = new TransformerManager(new BasicClassProvider());
+        manager.set(transformerManager);
+        transformerManager.hookInstrumentation(instrumentation, true);
+        transformerManager.setHotswapWindow(0);
+        transformerManager.addTransformer(FirstTransformer.class.getName());
+        byte[] transformerBytecode = transformerManager.getClassProvider().getClass(FirstTransformer.class.getName());
+        //An invisible annotation changes the transformer without changing the transformed class
+        ClassNode changedTransformer = ASMUtils.fromBytes(transformerBytecode);
+        changedTransformer.visitAnnotation("Ljava/lang/Deprecated;", false);
+        byte[] changedBytecode = ASMUtils.toStacklessBytes(changedTransformer);
+
+        hotswap(transformerManager, changedBytecode);
+        assertTrue(firstRedefinition.await(5, TimeUnit.SECONDS));
+        assertEquals(1, callbackResults.size());
+        assertNull(callbackResults.get(0));
+
+        hotswap(transformerManager, transformerBytecode);
+        assertFalse(secondRedefinition.await(500, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    @DisplayName("Hotswap transformers while classes are redefined")
+    public void hotswapDuringRedefinition() throws Throwable {
+        CountDownLatch redefined = new CountDownLatch(1);
+        Instrumentation instrumentation = (Instrumentation) Proxy.newProxyInstance(Instrumentation.class.getClassLoader(), new Class[]{Instrumentation.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "isRetransformClassesSupported":
+                    return false;
+                case "getAllLoadedClasses":
+                    return new Class[]{SCalculator.class};
+                case "redefineClasses":
+                    redefined.countDown();
+                    return null;
+                default:
+                    return null;
+            }
+        });
+        TransformerManager transformerManager = new TransformerManager(new BasicClassProvider());
+        AtomicInteger failures = new AtomicInteger();
+        transformerManager.setFailStrategy(FailStrategy.CANCEL);
+        transformerManager.setMetrics(new TransformerMetrics() {
+            @Override
+            public void onTransformFailed(String className, FailStrategy failStrategy) {
+                failures.incrementAndGet();
+            }
+        });
+        transformerManager.hookInstrumentation(instrumentation, true);
+        assertTrue(transformerManager.getDebugger().isRecordDependencies());
+        transformerManager.setHotswapWindow(0);
+        transformerManager.addTransformer(FirstTransformer.class.getName());
+        transformerManager.addTransformer(SecondTransformer.class.getName());
+        byte[] transformerBytecode = transformerManager.getClassProvider().getClass(FirstTransformer.class.getName());
+        ClassNode changedTransformer = ASMUtils.fromBytes(transformerBytecode);
+        changedTransformer.methods.add(ASMUtils.createEmptyClass("Changed").methods.get(0));
+        byte[] changedBytecode = ASMUtils.toStacklessBytes(changedTransformer);
+
+        AtomicBoolean hotswapped = new AtomicBoolean();
+        transformerManager.addCustomAnnotationHandler(new AnnotationHandler() {
+            @Override
+            public void transform(TransformerManager transformerManager, ClassNode transformedClass, ClassNode transformer) {
+                if (!Thread.currentThread().getName().equals("ClassTransform Hotswap") || !hotswapped.compareAndSet(false, true)) return;
+                //Hotswap the transformer again while the transformers of the class are being applied
+                Thread thread = new Thread(() -> hotswap(transformerManager, transformerBytecode));
+                thread.start();
+                assertDoesNotThrow(() -> thread.join(5000));
+            }
+        }, HandlerPosition.POST);
+        hotswap(transformerManager, changedBytecode);
+
+        assertTrue(redefined.await(5, TimeUnit.SECONDS));
+        assertTrue(hotswapped.get());
+        assertEquals(0, failures.get());
+    }
+
+    private static void hotswap(final TransformerManager transformerManager, final byte[] transformerBytecode) {
+        transformerManager.transform(FirstTransformer.class.getClassLoader(), FirstTransformer.class.getName().replace('.', '/'), FirstTransformer.class, null, transformerBytecode);
+    }
+
+
+    @CTransformer(SCalculator.class)
+    private static class FirstTransformer {
+        @CInject(method = "add", target = @CTarget("HEAD"))
+        public static void inject(final InjectionCallback callback) {
+        }
+    }
+
+    @CTransformer(SCalculator.class)
+    private static class SecondTransformer {
+        @CInject(method = "subtract", target = @CTarget("HEAD"))
+        public static void inject(final InjectionCallback callback) {
+        }
+    }
+
+}
@@ -0,0 +1,65 @@
+package net.lenni0451.classtransform.debugger;
+
+import net.lenni0451.classtransform.TransformerManager;
+import net.lenni0451.classtransform.debugger.size.MethodSizeLimits;
+import net.lenni0451.classtransform.debugger.size.MethodSizeReport;
+import net.lenni0451.classtransform.test.SCalculator;
+import net.lenni0451.classtransform.utils.ASMUtils;
+import net.lenni0451.classtransform.utils.FailStrategy;
+import net.lenni0451.classtransform.utils.tree.BasicClassProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MethodSizeReportTest {
+
+    private TransformerManager transformerManager;
+
+    @BeforeEach
+    public void setUp() throws ClassNotFoundException {
+        this.transformerManager = new TransformerManager(new BasicClassProvider());
+        this.transformerManager.getDebugger().setMethodSizeLimits(MethodSizeLimits.DEFAULT);
+        this.transformerManager.addRawTransformer(SCalculator.class.getName(), (transformerManager, transformedClass) -> {
+            MethodNode add = ASMUtils.getMethod(transformedClass, "add", "(II)I");
+            InsnList padding = new InsnList();
+            for (int i = 0; i < 400; i++) padding.add(new InsnNode(Opcodes.NOP));
+            add.instructions.insert(padding);
+            return transformedClass;
+        });
+    }
+
+    @Test
+    @DisplayName("Report methods crossing a limit")
+    public void reportCrossedLimits() throws ClassNotFoundException {
+        byte[] bytecode = new BasicClassProvider().getClass(SCalculator.class.getName());
+        assertNotNull(this.transformerManager.transform(SCalculator.class.getName(), bytecode));
+
+        List<MethodSizeReport> reports = this.transformerManager.getDebugger().getMethodSizeReports().get(SCalculator.class.getName());
+        assertNotNull(reports);
+        assertEquals(1, reports.size());
+        MethodSizeReport report = reports.get(0);
+        assertEquals("add", report.getMethodName());
+        assertNotNull(report.getBefore());
+        assertEquals(report.getBefore().getCodeSize() + 400, report.getAfter().getCodeSize());
+        assertEquals(Collections.singletonList(MethodSizeLimits.FREQ_INLINE_SIZE), report.getCrossedLimits());
+    }
+
+    @Test
+    @DisplayName("Fail in strict mode")
+    public void failStrict() throws ClassNotFoundException {
+        byte[] bytecode = new BasicClassProvider().getClass(SCalculator.class.getName());
+        this.transformerManager.setFailStrategy(FailStrategy.THROW);
+        this.transformerManager.getDebugger().setStrictMethodSizes(true);
+        assertThrows(IllegalStateException.class, () -> this.transformerManager.transform(SCalculator.class.getName(), bytecode));
+    }
+
+}
@@ -0,0 +1,45 @@
+package net.lenni0451.classtransform.debugger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorstClassReportsTest {
+
+    @Test
+    @DisplayName("Keep only the classes with the highest scores")
+    public void keepHighestScores() {
+        WorstClassReports<Integer> reports = new WorstClassReports<>(Integer::longValue, 3);
+        for (int i = 0; i < 100; i++) reports.add("test.Class" + i, i);
+        reports.add("test.Class0", 0);
+        reports.add("test.Class97", 5);
+
+        Map<String, List<Integer>> worst = reports.getReports();
+        assertEquals(Arrays.asList("test.Class97", "test.Class99", "test.Class98"), new ArrayList<>(worst.keySet()));
+        assertEquals(Arrays.asList(97, 5), worst.get("test.Class97"));
+    }
+
+    @Test
+    @DisplayName("Replace and remove the reports of a class")
+    public void replaceReports() {
+        WorstClassReports<Integer> reports = new WorstClassReports<>(Integer::longValue, 2);
+        reports.set("test.A", Arrays.asList(1, 2));
+        reports.set("test.B", Collections.singletonList(5));
+        reports.set("test.A", Collections.singletonList(10));
+        assertEquals(Arrays.asList("test.A", "test.B"), new ArrayList<>(reports.getReports().keySet()));
+        assertEquals(Collections.singletonList(10), reports.getReports().get("test.A"));
+
+        reports.set("test.A", Collections.emptyList());
+        assertFalse(reports.getReports().containsKey("test.A"));
+        reports.clear();
+        assertTrue(reports.getReports().isEmpty());
+    }
+
+}
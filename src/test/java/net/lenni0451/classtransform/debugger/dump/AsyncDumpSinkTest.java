@@ -0,0 +1,97 @@
+package net.lenni0451.classtransform.debugger.dump;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncDumpSinkTest {
+
+    @Test
+    @DisplayName("Write classes into a zip file")
+    public void writeZip() throws IOException {
+        Path file = Files.createTempFile("classtransform", ".zip");
+        try {
+            AsyncDumpSink sink = new AsyncDumpSink(new ZipDumpSink(file));
+            sink.dump(DumpType.TRANSFORMED, "test.Test", new byte[]{1});
+            sink.dump(DumpType.TRANSFORMED, "test.Test", new byte[]{2});
+            sink.dump(DumpType.INPUT, "test.Test", new byte[]{3});
+            sink.close();
+            assertEquals(3, sink.getWrittenClasses());
+            assertEquals(0, sink.getDroppedClasses());
+
+            List<String> entries = new ArrayList<>();
+            try (ZipFile zipFile = new ZipFile(file.toFile())) {
+                for (ZipEntry entry : Collections.list(zipFile.entries())) entries.add(entry.getName());
+            }
+            assertEquals(3, entries.size());
+            assertTrue(entries.contains("dump/test/Test.class"));
+            assertTrue(entries.contains("dump/test/Test.1.class"));
+            assertTrue(entries.contains("input_dump/test/Test.class"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    @DisplayName("Drop classes if the queue is full")
+    public void dropClasses() throws IOException, InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AsyncDumpSink sink = new AsyncDumpSink((type, className, bytecode) -> {
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        }, 1, 0);
+        sink.dump(DumpType.TRANSFORMED, "A", new byte[0]);
+        writing.await();
+        sink.dump(DumpType.TRANSFORMED, "B", new byte[0]); //Queued
+        sink.dump(DumpType.TRANSFORMED, "C", new byte[0]); //Dropped
+        assertEquals(1, sink.getDroppedClasses());
+        assertEquals(0, sink.getDelayedClasses());
+
+        release.countDown();
+        sink.close();
+        assertEquals(2, sink.getWrittenClasses());
+        sink.dump(DumpType.TRANSFORMED, "D", new byte[0]);
+        assertEquals(2, sink.getDroppedClasses());
+    }
+
+    @Test
+    @DisplayName("Count classes waiting for free space")
+    public void delayClasses() throws IOException, InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AsyncDumpSink sink = new AsyncDumpSink((type, className, bytecode) -> {
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        }, 1, 10);
+        sink.dump(DumpType.TRANSFORMED, "A", new byte[0]);
+        writing.await();
+        sink.dump(DumpType.TRANSFORMED, "B", new byte[0]); //Queued
+        sink.dump(DumpType.TRANSFORMED, "C", new byte[0]); //Delayed and dropped
+        assertEquals(1, sink.getDelayedClasses());
+        assertEquals(1, sink.getDroppedClasses());
+
+        release.countDown();
+        sink.close();
+        assertEquals(2, sink.getWrittenClasses());
+        assertEquals(0, sink.getQueuedClasses());
+    }
+
+}
@@ -0,0 +1,62 @@
+package net.lenni0451.classtransform.debugger.metrics;
+
+import net.lenni0451.classtransform.TransformerManager;
+import net.lenni0451.classtransform.test.SCalculator;
+import net.lenni0451.classtransform.utils.loader.InjectionClassLoader;
+import net.lenni0451.classtransform.utils.tree.BasicClassProvider;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DefaultTransformerMetricsTest {
+
+    @Test
+    @DisplayName("Collect metrics of transformations")
+    public void collectMetrics() throws Throwable {
+        TransformerManager transformerManager = new TransformerManager(new BasicClassProvider());
+        DefaultTransformerMetrics metrics = DefaultTransformerMetrics.register(transformerManager);
+        try {
+            assertSame(metrics, transformerManager.getMetrics());
+            assertNotNull(metrics.getObjectName());
+            assertEquals(Long.valueOf(0), ManagementFactory.getPlatformMBeanServer().getAttribute(metrics.getObjectName(), "TransformedClasses"));
+
+            transformerManager.addRawTransformer(SCalculator.class.getName(), (manager, transformedClass) -> transformedClass);
+            byte[] bytecode = transformerManager.getClassProvider().getClass(SCalculator.class.getName());
+            assertNotNull(transformerManager.transform(SCalculator.class.getName(), bytecode));
+
+            assertEquals(1, metrics.getTransformedClasses());
+            assertTrue(metrics.getTransformLatencyP99Nanos() > 0);
+            assertTrue(metrics.getFrameComputationNanos() > 0);
+            assertEquals(1, metrics.getTransformerNanos().size());
+            assertEquals(Long.valueOf(0), metrics.getFailures().get("EXIT"));
+
+            metrics.reset();
+            assertEquals(0, metrics.getTransformedClasses());
+            assertTrue(metrics.getTransformerNanos().isEmpty());
+        } finally {
+            metrics.unregister();
+        }
+        assertNull(metrics.getObjectName());
+    }
+
+    @Test
+    @DisplayName("Count every class provider read")
+    public void countProviderReads() throws Throwable {
+        TransformerManager transformerManager = new TransformerManager(new BasicClassProvider());
+        DefaultTransformerMetrics metrics = new DefaultTransformerMetrics();
+        transformerManager.setMetrics(metrics);
+
+        byte[] bytecode = transformerManager.readClass(SCalculator.class.getName());
+        assertEquals(1, metrics.getProviderReads());
+        assertEquals(bytecode.length, metrics.getProviderReadBytes());
+
+        InjectionClassLoader classLoader = new InjectionClassLoader(transformerManager);
+        classLoader.copyClass(transformerManager.getClassProvider(), SCalculator.class.getName());
+        assertEquals(2, metrics.getProviderReads());
+        assertEquals(bytecode.length * 2L, metrics.getProviderReadBytes());
+    }
+
+}
@@ -0,0 +1,49 @@
+package net.lenni0451.classtransform.debugger.timings;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingStatisticsTest {
+
+    @Test
+    @DisplayName("Aggregate durations in histograms")
+    public void histogram() {
+        TimingHistogram histogram = new TimingHistogram();
+        for (int i = 1; i <= 100; i++) histogram.record(i * 1000L);
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(100_000, histogram.getMaxNanos());
+        assertEquals(50_500, histogram.getMeanNanos());
+        long median = histogram.getPercentile(50);
+        assertTrue(median >= 50_000 && median <= 50_000 * 1.125, "Median " + median + " is not within the expected precision");
+        assertEquals(100_000, histogram.getPercentile(100));
+        assertEquals(0, new TimingHistogram().getPercentile(50));
+    }
+
+    @Test
+    @DisplayName("Keep only the slowest classes")
+    public void slowestClasses() {
+        TimingStatistics statistics = new TimingStatistics(2);
+        statistics.record(new TimedTransformer(TimedGroup.ANNOTATION_HANDLER, "Handler"), 10);
+        statistics.record(new TimedTransformer(TimedGroup.ANNOTATION_HANDLER, "Handler"), 20);
+        statistics.recordClass("A", 30);
+        statistics.recordClass("B", 10);
+        statistics.recordClass("C", 20);
+
+        TimingHistogram histogram = statistics.getHistogram(TimedGroup.ANNOTATION_HANDLER, "Handler");
+        assertNotNull(histogram);
+        assertEquals(2, histogram.getCount());
+        assertEquals(1, statistics.getHistograms().size());
+        assertEquals(3, statistics.getClassHistogram().getCount());
+
+        List<ClassTiming> slowestClasses = statistics.getSlowestClasses();
+        assertEquals(2, slowestClasses.size());
+        assertEquals("A", slowestClasses.get(0).getClassName());
+        assertEquals("C", slowestClasses.get(1).getClassName());
+    }
+
+}
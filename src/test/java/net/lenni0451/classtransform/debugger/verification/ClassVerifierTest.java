@@ -0,0 +1,106 @@
+package net.lenni0451.classtransform.debugger.verification;
+
+import net.lenni0451.classtransform.TransformerManager;
+import net.lenni0451.classtransform.debugger.metrics.DefaultTransformerMetrics;
+import net.lenni0451.classtransform.test.SCalculator;
+import net.lenni0451.classtransform.utils.ASMUtils;
+import net.lenni0451.classtransform.utils.tree.BasicClassProvider;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClassVerifierTest {
+
+    @Test
+    @DisplayName("Verify transformed classes in the background")
+    public void verifyInBackground() throws Throwable {
+        TransformerManager transformerManager = new TransformerManager(new BasicClassProvider());
+        AtomicReference<Set<String>> failedTransformers = new AtomicReference<>();
+        DefaultTransformerMetrics metrics = new DefaultTransformerMetrics() {
+            @Override
+            public void onVerificationFailed(String className, Set<String> transformers, List<String> errors) {
+                super.onVerificationFailed(className, transformers, errors);
+                failedTransformers.set(transformers);
+            }
+        };
+        ClassVerifier classVerifier = new ClassVerifier(transformerManager, 1);
+        transformerManager.setMetrics(metrics);
+        transformerManager.getDebugger().setClassVerifier(classVerifier);
+        transformerManager.addRawTransformer(SCalculator.class.getName(), (manager, transformedClass) -> {
+            MethodNode method = new MethodNode(Opcodes.ACC_PUBLIC, "broken", "()I", null, null);
+            method.instructions.add(new InsnNode(Opcodes.ACONST_NULL));
+            method.instructions.add(new InsnNode(Opcodes.IRETURN));
+            transformedClass.methods.add(method);
+            return transformedClass;
+        });
+
+        byte[] bytecode = transformerManager.getClassProvider().getClass(SCalculator.class.getName());
+        assertTrue(classVerifier.verify(bytecode).isEmpty());
+        byte[] transformedBytecode = transformerManager.transform(SCalculator.class.getName(), bytecode);
+        assertNotNull(transformedBytecode);
+        assertEquals(1, classVerifier.verify(transformedBytecode).size());
+
+        classVerifier.shutdown();
+        assertTrue(classVerifier.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(1, classVerifier.getVerifiedClasses());
+        assertEquals(1, classVerifier.getFailedClasses());
+        assertEquals(1, metrics.getVerificationFailures());
+        assertFalse(transformerManager.getDebugger().isRecordDependencies());
+        assertEquals(transformerManager.getTransformers(SCalculator.class.getName()), failedTransformers.get());
+        assertEquals(1, failedTransformers.get().size());
+    }
+
+    @Test
+    @DisplayName("Skip classes using types which are not in the class tree")
+    public void skipUnresolvedTypes() throws Throwable {
+        TransformerManager transformerManager = new TransformerManager(new BasicClassProvider());
+        ClassVerifier classVerifier = new ClassVerifier(transformerManager, 1);
+        ClassNode node = ASMUtils.createEmptyClass("test/Test");
+        MethodNode method = new MethodNode(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "get", "(Ljava/lang/String;)Ljava/lang/CharSequence;", null, null);
+        method.instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
+        method.instructions.add(new InsnNode(Opcodes.ARETURN));
+        node.methods.add(method);
+        byte[] bytecode = ASMUtils.toStacklessBytes(node);
+
+        classVerifier.submit("test.Test", bytecode);
+        classVerifier.shutdown();
+        assertTrue(classVerifier.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(0, classVerifier.getVerifiedClasses());
+        assertEquals(1, classVerifier.getSkippedClasses());
+        assertNull(transformerManager.getClassTree().getCachedTreePart(String.class.getName()));
+
+        transformerManager.getClassTree().getTreePart(transformerManager.getClassProvider(), String.class.getName());
+        ClassVerifier resolvingVerifier = new ClassVerifier(transformerManager, 1);
+        resolvingVerifier.submit("test.Test", bytecode);
+        resolvingVerifier.shutdown();
+        assertTrue(resolvingVerifier.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(1, resolvingVerifier.getVerifiedClasses());
+        assertEquals(0, resolvingVerifier.getSkippedClasses());
+        assertEquals(0, resolvingVerifier.getFailedClasses());
+    }
+
+    @Test
+    @DisplayName("Skip classes which are not part of the sample")
+    public void skipClasses() throws InterruptedException {
+        ClassVerifier classVerifier = new ClassVerifier(new TransformerManager(new BasicClassProvider()), 0);
+        classVerifier.submit("test.Test", new byte[0]);
+        classVerifier.shutdown();
+        classVerifier.submit("test.Test", new byte[0]);
+        assertTrue(classVerifier.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(0, classVerifier.getVerifiedClasses());
+        assertEquals(0, classVerifier.getDroppedClasses());
+        assertThrows(IllegalArgumentException.class, () -> classVerifier.setSampleRate(2));
+    }
+
+}
@@ -0,0 +1,93 @@
+package net.lenni0451.classtransform.mappings;
+
+import net.lenni0451.classtransform.InjectionCallback;
+import net.lenni0451.classtransform.TransformerManager;
+import net.lenni0451.classtransform.annotations.CTarget;
+import net.lenni0451.classtransform.annotations.CTransformer;
+import net.lenni0451.classtransform.annotations.injection.CInject;
+import net.lenni0451.classtransform.debugger.metrics.TransformerMetrics;
+import net.lenni0451.classtransform.mappings.impl.RawMapper;
+import net.lenni0451.classtransform.test.SCalculator;
+import net.lenni0451.classtransform.utils.ASMUtils;
+import net.lenni0451.classtransform.utils.annotations.AnnotationUtils;
+import net.lenni0451.classtransform.utils.mappings.MapRemapper;
+import net.lenni0451.classtransform.utils.tree.BasicClassProvider;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.tree.AnnotationNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AMapperTest {
+
+    @Test
+    @DisplayName("Reuse the target independent remapping")
+    public void reuseRemapping() throws ClassNotFoundException {
+        MapRemapper remapper = new MapRemapper();
+        remapper.addClassMapping("named/Calculator", SCalculator.class.getName().replace('.', '/'));
+        RawMapper mapper = new RawMapper(MapperConfig.create(), remapper);
+        TransformerManager transformerManager = new TransformerManager(new BasicClassProvider(), mapper);
+        AtomicInteger cached = new AtomicInteger();
+        AtomicInteger uncached = new AtomicInteger();
+        transformerManager.setMetrics(new TransformerMetrics() {
+            @Override
+            public void onMapperLookup(String transformer, boolean isCached) {
+                if (isCached) cached.incrementAndGet();
+                else uncached.incrementAndGet();
+            }
+        });
+        ClassNode target = ASMUtils.fromBytes(transformerManager.getClassProvider().getClass(SCalculator.class.getName()));
+        ClassNode transformer = ASMUtils.fromBytes(transformerManager.getClassProvider().getClass(Transformer.class.getName()));
+        byte[] transformerBytes = ASMUtils.toStacklessBytes(transformer);
+
+        ClassNode first = mapper.mapTransformer(transformerManager, target, transformer);
+        ClassNode second = mapper.mapTransformer(transformerManager, target, transformer);
+        ClassNode expected = mapper.mapClass(transformerManager, target, ASMUtils.cloneClass(transformer));
+        assertEquals(1, uncached.get());
+        assertEquals(1, cached.get());
+        assertNotSame(first, second);
+        assertArrayEquals(ASMUtils.toStacklessBytes(expected), ASMUtils.toStacklessBytes(first));
+        assertArrayEquals(ASMUtils.toStacklessBytes(expected), ASMUtils.toStacklessBytes(second));
+        assertFalse(Arrays.equals(transformerBytes, ASMUtils.toStacklessBytes(first)));
+        assertArrayEquals(transformerBytes, ASMUtils.toStacklessBytes(transformer));
+    }
+
+    @Test
+    @DisplayName("Keep instruction patterns when remapping")
+    public void keepPatterns() throws ClassNotFoundException {
+        MapRemapper remapper = new MapRemapper();
+        remapper.addClassMapping("named/Calculator", SCalculator.class.getName().replace('.', '/'));
+        RawMapper mapper = new RawMapper(MapperConfig.create(), remapper);
+        TransformerManager transformerManager = new TransformerManager(new BasicClassProvider(), mapper);
+        ClassNode target = ASMUtils.fromBytes(transformerManager.getClassProvider().getClass(SCalculator.class.getName()));
+        ClassNode transformer = ASMUtils.fromBytes(transformerManager.getClassProvider().getClass(PatternTransformer.class.getName()));
+
+        ClassNode mapped = assertDoesNotThrow(() -> mapper.mapTransformer(transformerManager, target, transformer));
+        MethodNode inject = mapped.methods.stream().filter(method -> method.name.equals("inject")).findFirst().get();
+        AnnotationNode cInject = AnnotationUtils.findAnnotation(inject, CInject.class).get();
+        List<AnnotationNode> targets = (List<AnnotationNode>) AnnotationUtils.listToMap(cInject.values).get("target");
+        assertEquals("ILOAD; ILOAD; IADD", AnnotationUtils.listToMap(targets.get(0).values).get("target"));
+    }
+
+
+    @CTransformer(name = "named.Calculator")
+    private static class Transformer {
+        @CInject(method = "add", target = @CTarget("HEAD"))
+        public static void inject(final int i1, final int i2, final InjectionCallback callback) {
+        }
+    }
+
+    @CTransformer(SCalculator.class)
+    private static class PatternTransformer {
+        @CInject(method = "add", target = @CTarget(value = "PATTERN", target = "ILOAD; ILOAD; IADD"))
+        public static void inject(final int i1, final int i2, final InjectionCallback callback) {
+        }
+    }
+
+}
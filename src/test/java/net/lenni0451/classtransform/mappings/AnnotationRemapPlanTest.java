@@ -0,0 +1,53 @@
+package net.lenni0451.classtransform.mappings;
+
+import net.lenni0451.classtransform.annotations.CTarget;
+import net.lenni0451.classtransform.mappings.annotation.AnnotationRemap;
+import net.lenni0451.classtransform.mappings.annotation.RemapType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Type;
+
+import java.lang.reflect.Method;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnnotationRemapPlanTest {
+
+    @Test
+    @DisplayName("Cache remap plans by descriptor")
+    public void cachePlans() {
+        String descriptor = Type.getDescriptor(CTarget.class);
+        AnnotationRemapPlan plan = AnnotationRemapPlan.get(descriptor);
+        assertNotNull(plan);
+        assertSame(plan, AnnotationRemapPlan.get(descriptor));
+        assertSame(CTarget.class, plan.getAnnotation());
+
+        Set<String> expected = new HashSet<>();
+        for (Method method : CTarget.class.getDeclaredMethods()) {
+            if (method.isAnnotationPresent(AnnotationRemap.class)) expected.add(method.getName());
+        }
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, plan.getAttributes().stream().map(AnnotationRemapPlan.Attribute::getName).collect(Collectors.toSet()));
+    }
+
+    @Test
+    @DisplayName("Cache missing annotation classes")
+    public void cacheMissing() {
+        assertNull(AnnotationRemapPlan.get("Lmissing/Annotation;"));
+        assertNull(AnnotationRemapPlan.get("Lmissing/Annotation;"));
+    }
+
+    @Test
+    @DisplayName("Share dynamic remapper instances")
+    public void shareDynamicRemappers() throws ReflectiveOperationException {
+        AnnotationRemapPlan plan = AnnotationRemapPlan.get(Type.getDescriptor(CTarget.class));
+        assertNotNull(plan);
+        AnnotationRemapPlan.Attribute attribute = plan.getAttributes().stream().filter(a -> RemapType.DYNAMIC.equals(a.getType())).findFirst().orElse(null);
+        assertNotNull(attribute);
+        assertSame(attribute.getDynamicRemapper(), attribute.getDynamicRemapper());
+    }
+
+}
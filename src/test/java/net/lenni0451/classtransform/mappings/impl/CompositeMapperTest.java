@@ -0,0 +1,60 @@
+package net.lenni0451.classtransform.mappings.impl;
+
+import net.lenni0451.classtransform.mappings.MapperConfig;
+import net.lenni0451.classtransform.utils.mappings.MapRemapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompositeMapperTest {
+
+    @Test
+    @DisplayName("Chain mappings")
+    public void chainMappings() {
+        MapRemapper first = new MapRemapper();
+        first.addClassMapping("a", "b/First");
+        first.addClassMapping("c", "b/Second");
+        first.addMethodMapping("a", "a", "(Lc;)V", "method");
+        first.addFieldMapping("a", "b", "Lc;", "field");
+        MapRemapper second = new MapRemapper();
+        second.addClassMapping("b/First", "c/First");
+        second.addMethodMapping("b/First", "method", "(Lb/Second;)V", "namedMethod");
+        second.addFieldMapping("b/First", "field", "Lb/Second;", "namedField");
+        second.addMethodMapping("b/First", "other", "()Lb/Second;", "namedOther");
+
+        CompositeMapper mapper = new CompositeMapper(MapperConfig.create(), new RawMapper(MapperConfig.create(), first), new RawMapper(MapperConfig.create(), second));
+        mapper.load();
+        MapRemapper composed = mapper.getRemapper();
+
+        assertEquals("c/First", composed.map("a"));
+        assertEquals("b/Second", composed.map("c"));
+        assertEquals("namedMethod", composed.mapMethodName("a", "a", "(Lc;)V"));
+        assertEquals("namedField", composed.mapFieldName("a", "b", "Lc;"));
+        assertEquals("namedOther", composed.mapMethodName("a", "other", "()Lc;"));
+        assertEquals(5, composed.getMappings().size());
+    }
+
+    @Test
+    @DisplayName("Merge layer")
+    public void mergeLayer() {
+        MapRemapper base = new MapRemapper();
+        base.addClassMapping("a", "First");
+        base.addClassMapping("b", "Second");
+        MapRemapper patch = new MapRemapper();
+        patch.addClassMapping("b", "Patched");
+
+        CompositeMapper mapper = new CompositeMapper(MapperConfig.create(), Collections.singletonList(Arrays.asList(
+                new RawMapper(MapperConfig.create(), base),
+                new RawMapper(MapperConfig.create(), patch)
+        )));
+        mapper.load();
+
+        assertEquals("First", mapper.getRemapper().map("a"));
+        assertEquals("Patched", mapper.getRemapper().map("b"));
+    }
+
+}
@@ -0,0 +1,53 @@
+package net.lenni0451.classtransform.targets;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MethodInstructionIndexTest extends ATargetTest {
+
+    @Test
+    @DisplayName("Index instructions")
+    public void indexInstructions() {
+        MethodInstructionIndex index = MethodInstructionIndex.of(this.method);
+
+        assertEquals(this.method.instructions.size(), index.size());
+        assertArrayEquals(new int[]{4, 13}, index.getOpcodePositions(Opcodes.IRETURN, Opcodes.RETURN));
+        assertArrayEquals(new int[]{6}, index.getMethodPositions("Test", "invokeVirtual", "(Ljava/lang/String;)Z"));
+        assertArrayEquals(new int[]{0, 1}, index.getFieldPositions("Test", "static", "I"));
+        assertArrayEquals(new int[]{15}, index.getConstantPositions(0));
+        assertArrayEquals(new int[]{21}, index.getConstantPositions("6th string"));
+    }
+
+    @Test
+    @DisplayName("Reuse index in scope")
+    public void reuseIndexInScope() {
+        MethodInstructionIndex index = MethodInstructionIndex.scope(() -> {
+            MethodInstructionIndex scoped = MethodInstructionIndex.of(this.method);
+            assertSame(scoped, MethodInstructionIndex.of(this.method));
+            assertSame(scoped, MethodInstructionIndex.scope(() -> MethodInstructionIndex.of(this.method)));
+            return scoped;
+        });
+        assertNotSame(index, MethodInstructionIndex.of(this.method));
+    }
+
+    @Test
+    @DisplayName("Rebuild index after modification")
+    public void rebuildModifiedIndex() {
+        MethodInstructionIndex index = MethodInstructionIndex.of(this.method);
+
+        this.method.instructions.set(this.method.instructions.get(6), new MethodInsnNode(Opcodes.INVOKEVIRTUAL, "Test", "other", "()V"));
+        MethodInstructionIndex rebuilt = MethodInstructionIndex.of(this.method);
+        assertNotSame(index, rebuilt);
+        assertEquals(0, rebuilt.getMethodPositions("Test", "invokeVirtual", "(Ljava/lang/String;)Z").length);
+        assertArrayEquals(new int[]{6}, rebuilt.getMethodPositions("Test", "other", "()V"));
+
+        this.method.instructions.insert(new InsnNode(Opcodes.NOP));
+        assertArrayEquals(new int[]{7}, MethodInstructionIndex.of(this.method).getMethodPositions("Test", "other", "()V"));
+    }
+
+}
@@ -0,0 +1,49 @@
+package net.lenni0451.classtransform.targets;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.IntInsnNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TargetMatcherTest extends ATargetTest {
+
+    @Test
+    @DisplayName("Match instructions")
+    public void matchInstructions() {
+        assertTrue(TargetMatcher.field("Test", "static", "I", Opcodes.GETSTATIC).matches(new FieldInsnNode(Opcodes.GETSTATIC, "Test", "static", "I")));
+        assertFalse(TargetMatcher.field("Test", "static", "I", Opcodes.GETSTATIC).matches(new FieldInsnNode(Opcodes.PUTSTATIC, "Test", "static", "I")));
+        assertTrue(TargetMatcher.constants(1).matches(new IntInsnNode(Opcodes.SIPUSH, 1)));
+        assertFalse(TargetMatcher.constants(1).matches(new LdcInsnNode(1L)));
+    }
+
+    @Test
+    @DisplayName("Get targets in range")
+    public void getTargetsInRange() {
+        MethodInstructionIndex index = MethodInstructionIndex.of(this.method);
+        TargetMatcher matcher = TargetMatcher.opcodes(Opcodes.IRETURN, Opcodes.DRETURN);
+
+        assertEquals(2, matcher.getTargets(index, new MethodInstructionIndex.Range(0, index.size()), -1).size());
+        assertEquals(1, matcher.getTargets(index, new MethodInstructionIndex.Range(5, index.size()), -1).size());
+        assertSame(this.method.instructions.get(13), matcher.getTargets(index, new MethodInstructionIndex.Range(0, index.size()), 1).get(0));
+    }
+
+    @Test
+    @DisplayName("Cache invalid targets")
+    public void cacheInvalidTargets() {
+        int[] compilations = new int[1];
+        TargetMatcher.Cache cache = new TargetMatcher.Cache(target -> {
+            compilations[0]++;
+            return target.isEmpty() ? null : TargetMatcher.opcodes(Opcodes.NOP);
+        });
+
+        assertNull(cache.get(""));
+        assertNull(cache.get(""));
+        assertSame(cache.get("NOP"), cache.get("NOP"));
+        assertEquals(2, compilations[0]);
+    }
+
+}
@@ -8,10 +8,9 @@ import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.MethodInsnNode;
 
-import java.lang.reflect.Method;
 import java.util.List;
 
-import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 class NewTargetTest extends ATargetTest {
 
@@ -29,16 +28,17 @@ class NewTargetTest extends ATargetTest {
     @Test
     @DisplayName("Check if owner is target")
     public void checkOwnerIsTarget() {
-        Method isTarget = assertDoesNotThrow(() -> NewTarget.class.getDeclaredMethod("isTarget", String.class, String.class, String.class, String.class));
-        isTarget.setAccessible(true);
-
         NewTarget newTarget = new NewTarget();
-        assertTrue(assertDoesNotThrow(() -> (boolean) isTarget.invoke(newTarget, "java/lang/String", "<init>", "", "java/lang/String")));
-        assertTrue(assertDoesNotThrow(() -> (boolean) isTarget.invoke(newTarget, "java/lang/String", "<init>", "", "java.lang.String")));
-        assertTrue(assertDoesNotThrow(() -> (boolean) isTarget.invoke(newTarget, "java/lang/String", "<init>", "", "Ljava.lang.String;")));
-        assertTrue(assertDoesNotThrow(() -> (boolean) isTarget.invoke(newTarget, "java/lang/String", "<init>", "", "Ljava/lang/String;")));
-        assertFalse(assertDoesNotThrow(() -> (boolean) isTarget.invoke(newTarget, "java/lang/String", "<init>", "", "Ljava.lang.String")));
-        assertFalse(assertDoesNotThrow(() -> (boolean) isTarget.invoke(newTarget, "java/lang/String", "<init>", "", "Ljava/lang/String")));
+        assertEquals(1, this.getTargets(newTarget, "java/lang/String").size());
+        assertEquals(1, this.getTargets(newTarget, "java.lang.String").size());
+        assertEquals(1, this.getTargets(newTarget, "Ljava.lang.String;").size());
+        assertEquals(1, this.getTargets(newTarget, "Ljava/lang/String;").size());
+        assertEquals(0, this.getTargets(newTarget, "Ljava.lang.String").size());
+        assertEquals(0, this.getTargets(newTarget, "Ljava/lang/String").size());
+    }
+
+    private List<AbstractInsnNode> getTargets(final NewTarget newTarget, final String target) {
+        return newTarget.getTargets(this.injectionTargets, this.method, this.getTarget(target, CTarget.Shift.BEFORE, -1), this.emptySlice);
     }
 
 }
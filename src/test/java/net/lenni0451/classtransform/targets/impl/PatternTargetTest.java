@@ -0,0 +1,52 @@
+package net.lenni0451.classtransform.targets.impl;
+
+import net.lenni0451.classtransform.annotations.CTarget;
+import net.lenni0451.classtransform.targets.ATargetTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.LabelNode;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PatternTargetTest extends ATargetTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "GETFIELD; PUTFIELD, -1, 2, 1",
+            "GETSTATIC; ...; @INVOKEVIRTUAL Test.invoke*, -1, 6, 1",
+            "NEW java/lang/String; @INVOKESPECIAL *.<init>*, -1, 10, 1",
+            "PUTSTATIC|PUTFIELD, -1, 1, 2",
+            "PUTSTATIC|PUTFIELD, 1, 3, 1",
+            "*; ATHROW, -1, 11, 1",
+            "@GETSTATIC; @PUTSTATIC, -1, 0, 2",
+            "BIPUSH 0; SIPUSH 1, -1, 15, 1",
+            "GETFIELD; INVOKEVIRTUAL, -1, -1, 0",
+            "INVOKEINTERFACE; @INVOKEVIRTUAL Test.invokeVirtual(Ljava/lang/String;)Z; INVOKESPECIAL Test.invokeSpecial()Ljava/io/FileInputStream;, -1, 6, 1",
+            "INVOKEVIRTUAL *(Ljava/lang/String;)*; @INVOKESPECIAL *()Ljava/io/FileInputStream;; INVOKESTATIC, -1, 7, 1",
+            "LDC 6th string; @LDC Ljava/lang/Object;, -1, 22, 1",
+            "INVOKEVIRTUAL *(*; INVOKESPECIAL, -1, 6, 1"
+    })
+    @DisplayName("Get pattern targets")
+    public void getPatternTargets(final String pattern, final int ordinal, final int first, final int count) {
+        this.method.instructions.insert(this.method.instructions.get(2), new LabelNode()); //Labels are skipped, instructions after the GETFIELD are shifted by one
+        PatternTarget patternTarget = new PatternTarget();
+        List<AbstractInsnNode> insns = patternTarget.getTargets(this.injectionTargets, this.method, this.getTarget(pattern, CTarget.Shift.BEFORE, ordinal), this.emptySlice);
+        assertEquals(count, insns.size());
+        if (count > 0) assertEquals(first, this.method.instructions.indexOf(insns.get(0)) - (first > 2 ? 1 : 0));
+    }
+
+    @Test
+    @DisplayName("Get invalid pattern")
+    public void getInvalidPattern() {
+        PatternTarget patternTarget = new PatternTarget();
+        assertNull(patternTarget.getTargets(this.injectionTargets, this.method, this.getTarget("INVALID", CTarget.Shift.BEFORE, -1), this.emptySlice));
+        assertNull(patternTarget.getTargets(this.injectionTargets, this.method, this.getTarget("...", CTarget.Shift.BEFORE, -1), this.emptySlice));
+    }
+
+}
@@ -0,0 +1,78 @@
+package net.lenni0451.classtransform.transformer.coprocessor.impl;
+
+import net.lenni0451.classtransform.annotations.CLocalVariable;
+import net.lenni0451.classtransform.annotations.CTarget;
+import net.lenni0451.classtransform.annotations.CTransformer;
+import net.lenni0451.classtransform.annotations.injection.CInject;
+import net.lenni0451.classtransform.test.SCalculator;
+import net.lenni0451.classtransform.test.TestClassLoader;
+import net.lenni0451.classtransform.transformer.AnnotationHandlerTest;
+import net.lenni0451.classtransform.transformer.impl.CInjectAnnotationHandler;
+import net.lenni0451.classtransform.utils.ASMUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CLocalVariableCoprocessorTest extends AnnotationHandlerTest {
+
+    private final CInjectAnnotationHandler transformer = new CInjectAnnotationHandler();
+
+    @Test
+    @DisplayName("Pass local variables directly")
+    public void passLocalVariables() {
+        ClassNode transformer = this.getTransformerClass("net.lenni0451.classtransform.transformer.coprocessor.impl.CLocalVariableCoprocessorTest$ReadTransformer");
+        this.transformer.transform(this.transformerManager, this.staticCalculatorClass, transformer);
+        MethodNode rbint = ASMUtils.getMethod(this.staticCalculatorClass, "rbint", "(I)I");
+        for (AbstractInsnNode instruction : rbint.instructions) {
+            assertNotEquals(Opcodes.NEWARRAY, instruction.getOpcode());
+            assertNotEquals(Opcodes.ANEWARRAY, instruction.getOpcode());
+        }
+
+        Class<?> clazz = TestClassLoader.load(this.staticCalculatorClass);
+        assertDoesNotThrow(() -> clazz.getDeclaredMethod("rbint", int.class).invoke(null, 10));
+        Throwable t = assertThrows(Throwable.class, () -> clazz.getDeclaredMethod("rbint", int.class).invoke(null, -10));
+        assertEquals(IllegalStateException.class, t.getCause().getClass());
+    }
+
+    @Test
+    @DisplayName("Modify local variables")
+    public void modifyLocalVariables() {
+        ClassNode transformer = this.getTransformerClass("net.lenni0451.classtransform.transformer.coprocessor.impl.CLocalVariableCoprocessorTest$ModifyTransformer");
+        this.transformer.transform(this.transformerManager, this.staticCalculatorClass, transformer);
+        MethodNode rbint = ASMUtils.getMethod(this.staticCalculatorClass, "rbint", "(I)I");
+        for (AbstractInsnNode instruction : rbint.instructions) assertNotEquals(Opcodes.ANEWARRAY, instruction.getOpcode());
+
+        Class<?> clazz = TestClassLoader.load(this.staticCalculatorClass);
+        for (int i = 0; i < 10; i++) {
+            int result = assertDoesNotThrow(() -> (int) clazz.getDeclaredMethod("rbint", int.class).invoke(null, 100));
+            assertEquals(0, result);
+        }
+    }
+
+
+    @CTransformer(SCalculator.class)
+    private static class ReadTransformer {
+
+        @CInject(method = "rbint", target = @CTarget("HEAD"))
+        public static void checkBound(@CLocalVariable(index = 0) final int bound) {
+            if (bound < 0) throw new IllegalStateException("Negative bound");
+        }
+
+    }
+
+    @CTransformer(SCalculator.class)
+    private static class ModifyTransformer {
+
+        @CInject(method = "rbint", target = @CTarget("HEAD"))
+        public static void limitBound(@CLocalVariable(index = 0, modifiable = true) int bound) {
+            bound = 1;
+        }
+
+    }
+
+}
@@ -0,0 +1,61 @@
+package net.lenni0451.classtransform.transformer.coprocessor.impl;
+
+import net.lenni0451.classtransform.InjectionCallback;
+import net.lenni0451.classtransform.annotations.CShared;
+import net.lenni0451.classtransform.annotations.CTarget;
+import net.lenni0451.classtransform.annotations.CTransformer;
+import net.lenni0451.classtransform.annotations.injection.CInject;
+import net.lenni0451.classtransform.test.SCalculator;
+import net.lenni0451.classtransform.test.TestClassLoader;
+import net.lenni0451.classtransform.transformer.AnnotationHandlerTest;
+import net.lenni0451.classtransform.transformer.impl.CInjectAnnotationHandler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.tree.ClassNode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CSharedCoprocessorTest extends AnnotationHandlerTest {
+
+    private final CInjectAnnotationHandler transformer = new CInjectAnnotationHandler();
+
+    @Test
+    @DisplayName("Share variables between injections")
+    public void shareVariables() {
+        ClassNode transformer = this.getTransformerClass("net.lenni0451.classtransform.transformer.coprocessor.impl.CSharedCoprocessorTest$SharedTransformer");
+        this.transformer.transform(this.transformerManager, this.staticCalculatorClass, transformer);
+        Class<?> clazz = TestClassLoader.load(this.staticCalculatorClass);
+
+        int result = assertDoesNotThrow(() -> (int) clazz.getDeclaredMethod("add", int.class, int.class).invoke(null, 5, 7));
+        assertEquals(5, result);
+        double quotient = assertDoesNotThrow(() -> (double) clazz.getDeclaredMethod("divide", double.class, double.class).invoke(null, 6D, 3D));
+        assertEquals(6D, quotient);
+    }
+
+
+    @CTransformer(SCalculator.class)
+    private static class SharedTransformer {
+
+        @CInject(method = "add", target = @CTarget("HEAD"))
+        public static void storeFirst(final int i1, final int i2, @CShared("first") int first) {
+            first = i1;
+        }
+
+        @CInject(method = "add", target = @CTarget("RETURN"), cancellable = true)
+        public static void returnFirst(@CShared("first") final int first, final InjectionCallback callback) {
+            callback.setReturnValue(first);
+        }
+
+        @CInject(method = "divide", target = @CTarget("HEAD"))
+        public static void storeDividend(final double d1, final double d2, @CShared("dividend") Double dividend) {
+            dividend = d1;
+        }
+
+        @CInject(method = "divide", target = @CTarget("RETURN"), cancellable = true)
+        public static void returnDividend(@CShared("dividend") final Double dividend, final InjectionCallback callback) {
+            if (dividend != null) callback.setReturnValue(dividend);
+        }
+
+    }
+
+}
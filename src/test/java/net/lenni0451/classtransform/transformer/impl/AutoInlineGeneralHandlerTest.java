@@ -0,0 +1,127 @@
+package net.lenni0451.classtransform.transformer.impl;
+
+import net.lenni0451.classtransform.InjectionCallback;
+import net.lenni0451.classtransform.annotations.CTarget;
+import net.lenni0451.classtransform.annotations.CTransformer;
+import net.lenni0451.classtransform.annotations.injection.CInject;
+import net.lenni0451.classtransform.debugger.inlining.InliningReport;
+import net.lenni0451.classtransform.test.SCalculator;
+import net.lenni0451.classtransform.test.TestClassLoader;
+import net.lenni0451.classtransform.transformer.AnnotationHandlerTest;
+import net.lenni0451.classtransform.transformer.impl.general.AutoInlineGeneralHandler;
+import net.lenni0451.classtransform.utils.InlinePolicy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.lang.instrument.Instrumentation;
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AutoInlineGeneralHandlerTest extends AnnotationHandlerTest {
+
+    private final CInjectAnnotationHandler injectTransformer = new CInjectAnnotationHandler();
+    private final AutoInlineGeneralHandler transformer = new AutoInlineGeneralHandler();
+
+    @Test
+    @DisplayName("Inline small handlers")
+    public void inlineSmallHandlers() {
+        this.transformerManager.setInlinePolicy(InlinePolicy.DEFAULT);
+        ClassNode transformer = this.getTransformerClass("net.lenni0451.classtransform.transformer.impl.AutoInlineGeneralHandlerTest$Transformer");
+        int methodCount = this.staticCalculatorClass.methods.size();
+        this.injectTransformer.transform(this.transformerManager, this.staticCalculatorClass, transformer);
+        assertEquals(methodCount + 2, this.staticCalculatorClass.methods.size());
+        this.transformer.transform(this.transformerManager, this.staticCalculatorClass, transformer);
+        assertEquals(methodCount, this.staticCalculatorClass.methods.size());
+
+        List<InliningReport> reports = this.transformerManager.getDebugger().getInliningReports().get(this.staticCalculatorClass.name);
+        assertNotNull(reports);
+        assertEquals(2, reports.size());
+        for (InliningReport report : reports) {
+            assertEquals(1, report.getInlinedHandlers().size());
+            assertTrue(report.getSizeAfter() > report.getSizeBefore());
+        }
+
+        Class<?> clazz = TestClassLoader.load(this.staticCalculatorClass);
+        int sum = assertDoesNotThrow(() -> (int) clazz.getDeclaredMethod("add", int.class, int.class).invoke(null, 1, 2));
+        assertEquals(6, sum);
+        double quotient = assertDoesNotThrow(() -> (double) clazz.getDeclaredMethod("divide", double.class, double.class).invoke(null, 1D, 0D));
+        assertEquals(0D, quotient);
+    }
+
+    @Test
+    @DisplayName("Keep handlers exceeding the policy")
+    public void keepLargeHandlers() {
+        this.transformerManager.setInlinePolicy(new InlinePolicy(1, 3, 325, 8000));
+        ClassNode transformer = this.getTransformerClass("net.lenni0451.classtransform.transformer.impl.AutoInlineGeneralHandlerTest$Transformer");
+        this.injectTransformer.transform(this.transformerManager, this.staticCalculatorClass, transformer);
+        List<MethodNode> methods = this.staticCalculatorClass.methods;
+        int methodCount = methods.size();
+        this.transformer.transform(this.transformerManager, this.staticCalculatorClass, transformer);
+        assertEquals(methodCount, methods.size());
+        assertFalse(this.transformerManager.getDebugger().getInliningReports().containsKey(this.staticCalculatorClass.name));
+    }
+
+    @Test
+    @DisplayName("Keep handlers modifying their parameters")
+    public void keepParameterModifyingHandlers() {
+        this.transformerManager.setInlinePolicy(InlinePolicy.DEFAULT);
+        ClassNode transformer = this.getTransformerClass("net.lenni0451.classtransform.transformer.impl.AutoInlineGeneralHandlerTest$ParameterTransformer");
+        this.injectTransformer.transform(this.transformerManager, this.staticCalculatorClass, transformer);
+        int methodCount = this.staticCalculatorClass.methods.size();
+        this.transformer.transform(this.transformerManager, this.staticCalculatorClass, transformer);
+        assertEquals(methodCount, this.staticCalculatorClass.methods.size());
+        assertFalse(this.transformerManager.getDebugger().getInliningReports().containsKey(this.staticCalculatorClass.name));
+    }
+
+    @Test
+    @DisplayName("Keep inlined handlers when hotswapping")
+    public void keepHandlersWhenHotswapping() {
+        Instrumentation instrumentation = (Instrumentation) Proxy.newProxyInstance(Instrumentation.class.getClassLoader(), new Class[]{Instrumentation.class}, (proxy, method, args) -> {
+            if (method.getName().equals("isRetransformClassesSupported")) return false;
+            return null;
+        });
+        this.transformerManager.hookInstrumentation(instrumentation, true);
+        this.transformerManager.setInlinePolicy(InlinePolicy.DEFAULT);
+        ClassNode transformer = this.getTransformerClass("net.lenni0451.classtransform.transformer.impl.AutoInlineGeneralHandlerTest$Transformer");
+        this.injectTransformer.transform(this.transformerManager, this.staticCalculatorClass, transformer);
+        int methodCount = this.staticCalculatorClass.methods.size();
+        this.transformer.transform(this.transformerManager, this.staticCalculatorClass, transformer);
+        assertEquals(methodCount, this.staticCalculatorClass.methods.size());
+
+        List<InliningReport> reports = this.transformerManager.getDebugger().getInliningReports().get(this.staticCalculatorClass.name);
+        assertNotNull(reports);
+        assertEquals(2, reports.size());
+    }
+
+
+    @CTransformer(SCalculator.class)
+    private static class Transformer {
+
+        @CInject(method = "add", target = @CTarget("RETURN"), cancellable = true)
+        public static void injectAdd(final InjectionCallback callback) {
+            callback.setReturnValue((Integer) callback.getReturnValue() * 2);
+        }
+
+        @CInject(method = "divide", target = @CTarget("HEAD"), cancellable = true)
+        public static void injectDivide(final double d1, final double d2, final InjectionCallback callback) {
+            if (d2 == 0) callback.setReturnValue(0D);
+        }
+
+    }
+
+    @CTransformer(SCalculator.class)
+    private static class ParameterTransformer {
+
+        @CInject(method = "subtract", target = @CTarget("HEAD"))
+        public static void injectSubtract(int i1, final int i2, final InjectionCallback callback) {
+            i1++;
+            if (i1 == i2) callback.setCancelled(false);
+        }
+
+    }
+
+}
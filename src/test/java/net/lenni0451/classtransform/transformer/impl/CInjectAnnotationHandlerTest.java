@@ -0,0 +1,116 @@
+package net.lenni0451.classtransform.transformer.impl;
+
+import net.lenni0451.classtransform.InjectionCallback;
+import net.lenni0451.classtransform.annotations.CTarget;
+import net.lenni0451.classtransform.annotations.CTransformer;
+import net.lenni0451.classtransform.annotations.injection.CInject;
+import net.lenni0451.classtransform.test.SCalculator;
+import net.lenni0451.classtransform.test.TestClassLoader;
+import net.lenni0451.classtransform.transformer.AnnotationHandlerTest;
+import net.lenni0451.classtransform.utils.ASMUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CInjectAnnotationHandlerTest extends AnnotationHandlerTest {
+
+    private final CInjectAnnotationHandler transformer = new CInjectAnnotationHandler();
+
+    @Test
+    @DisplayName("Inject without accessing the callback")
+    public void injectUnusedCallback() {
+        ClassNode transformer = this.getTransformerClass("net.lenni0451.classtransform.transformer.impl.CInjectAnnotationHandlerTest$UnusedCallbackTransformer");
+        this.transformer.transform(this.transformerManager, this.staticCalculatorClass, transformer);
+        MethodNode add = ASMUtils.getMethod(this.staticCalculatorClass, "add", "(II)I");
+        for (AbstractInsnNode instruction : add.instructions) assertNotEquals(Opcodes.NEW, instruction.getOpcode());
+
+        Class<?> clazz = TestClassLoader.load(this.staticCalculatorClass);
+        int result = assertDoesNotThrow(() -> (int) clazz.getDeclaredMethod("add", int.class, int.class).invoke(null, 1, 2));
+        assertEquals(3, result);
+    }
+
+    @Test
+    @DisplayName("Inject with primitive return values")
+    public void injectPrimitiveReturnValues() {
+        ClassNode transformer = this.getTransformerClass("net.lenni0451.classtransform.transformer.impl.CInjectAnnotationHandlerTest$PrimitiveReturnTransformer");
+        this.transformer.transform(this.transformerManager, this.staticCalculatorClass, transformer);
+        Class<?> clazz = TestClassLoader.load(this.staticCalculatorClass);
+
+        int sum = assertDoesNotThrow(() -> (int) clazz.getDeclaredMethod("add", int.class, int.class).invoke(null, 1, 2));
+        assertEquals(6, sum);
+        double quotient = assertDoesNotThrow(() -> (double) clazz.getDeclaredMethod("divide", double.class, double.class).invoke(null, 1D, 0D));
+        assertEquals(0D, quotient);
+        double pow = assertDoesNotThrow(() -> (double) clazz.getDeclaredMethod("pow2", int.class).invoke(null, 3));
+        assertEquals(9D, pow);
+    }
+
+    @Test
+    @DisplayName("Inject with a shared cancel exit")
+    public void injectSharedCancelExit() {
+        ClassNode transformer = this.getTransformerClass("net.lenni0451.classtransform.transformer.impl.CInjectAnnotationHandlerTest$SharedCancelExitTransformer");
+        this.transformer.transform(this.transformerManager, this.staticCalculatorClass, transformer);
+        MethodNode rbint = ASMUtils.getMethod(this.staticCalculatorClass, "rbint", "(I)I");
+        int returnValueCalls = 0;
+        for (AbstractInsnNode instruction : rbint.instructions) {
+            if (instruction instanceof MethodInsnNode && ((MethodInsnNode) instruction).name.equals("getPrimitiveReturnValue")) returnValueCalls++;
+        }
+        assertEquals(2, returnValueCalls); //HEAD and TAIL share the cancel exit, the stack is not empty before the INVOKE
+
+        Class<?> clazz = TestClassLoader.load(this.staticCalculatorClass);
+        int cancelled = assertDoesNotThrow(() -> (int) clazz.getDeclaredMethod("rbint", int.class).invoke(null, -4));
+        assertEquals(-5, cancelled);
+        int result = assertDoesNotThrow(() -> (int) clazz.getDeclaredMethod("rbint", int.class).invoke(null, 1));
+        assertEquals(0, result);
+    }
+
+
+    @CTransformer(SCalculator.class)
+    private static class UnusedCallbackTransformer {
+
+        @CInject(method = "add", target = @CTarget("RETURN"), cancellable = true)
+        public static void injectAdd(final InjectionCallback callback) {
+        }
+
+    }
+
+    @CTransformer(SCalculator.class)
+    private static class PrimitiveReturnTransformer {
+
+        @CInject(method = "add", target = @CTarget("RETURN"), cancellable = true)
+        public static void injectAdd(final InjectionCallback callback) {
+            callback.setReturnValue((Integer) callback.getReturnValue() * 2);
+        }
+
+        @CInject(method = "divide", target = @CTarget("HEAD"), cancellable = true)
+        public static void injectDivide(final double d1, final double d2, final InjectionCallback callback) {
+            if (d2 == 0) callback.setReturnValue(0D);
+        }
+
+        @CInject(method = "pow2", target = @CTarget("RETURN"), cancellable = true)
+        public static void injectPow2(final InjectionCallback callback) {
+            callback.setCancelled(true);
+        }
+
+    }
+
+    @CTransformer(SCalculator.class)
+    private static class SharedCancelExitTransformer {
+
+        @CInject(method = "rbint", target = {
+                @CTarget("HEAD"),
+                @CTarget(value = "INVOKE", target = "Ljava/util/Random;nextInt(I)I", shift = CTarget.Shift.BEFORE),
+                @CTarget("TAIL")
+        }, cancellable = true)
+        public static void injectRbint(final int bound, final InjectionCallback callback) {
+            if (bound <= 0) callback.setReturnValue(bound - 1);
+        }
+
+    }
+
+}
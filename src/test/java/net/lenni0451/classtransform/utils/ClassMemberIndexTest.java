@@ -0,0 +1,82 @@
+package net.lenni0451.classtransform.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClassMemberIndexTest {
+
+    @Test
+    @DisplayName("Track added and removed members")
+    public void trackMembers() {
+        ClassNode classNode = new ClassNode();
+        MethodNode method = new MethodNode(Opcodes.ACC_PUBLIC, "test", "()V", null, null);
+        classNode.methods.add(method);
+        ClassMemberIndex index = ClassMemberIndex.of(classNode);
+        assertSame(method, index.getMethod("test", "()V"));
+        assertNull(index.getMethod("test", "()I"));
+
+        MethodNode overload = new MethodNode(Opcodes.ACC_PUBLIC, "test", "()I", null, null);
+        index.addMethod(overload);
+        assertSame(index, ClassMemberIndex.of(classNode));
+        assertSame(overload, ASMUtils.getMethod(classNode, "test", "()I"));
+
+        assertTrue(index.removeMethod(method));
+        assertFalse(classNode.methods.contains(method));
+        assertNull(ASMUtils.getMethod(classNode, "test", "()V"));
+
+        FieldNode field = new FieldNode(Opcodes.ACC_PUBLIC, "field", "I", null, null);
+        classNode.fields.add(field);
+        assertNotSame(index, ClassMemberIndex.of(classNode));
+        assertSame(field, ASMUtils.getField(classNode, "field", "J"));
+    }
+
+    @Test
+    @DisplayName("Rename members and invalidate modified indices")
+    public void renameMembers() {
+        ClassNode classNode = new ClassNode();
+        MethodNode method = new MethodNode(Opcodes.ACC_PUBLIC, "test", "()V", null, null);
+        MethodNode other = new MethodNode(Opcodes.ACC_PUBLIC, "other", "()I", null, null);
+        classNode.methods.add(method);
+        classNode.methods.add(other);
+        ClassMemberIndex index = ClassMemberIndex.of(classNode);
+        index.renameMethod(other, "test");
+        assertSame(index, ClassMemberIndex.of(classNode));
+        assertEquals(2, index.getMethods("test").size());
+        assertSame(method, index.getMethods("test").get(0));
+        assertFalse(index.hasMethod("other"));
+
+        MethodNode notAdded = new MethodNode(Opcodes.ACC_PUBLIC, "notAdded", "()V", null, null);
+        index.renameMethod(notAdded, "renamed");
+        assertEquals("renamed", notAdded.name);
+        assertFalse(index.hasMethod("renamed"));
+
+        //Replacing a member is not detected until the index is invalidated
+        MethodNode replacement = new MethodNode(Opcodes.ACC_PUBLIC, "replacement", "()V", null, null);
+        classNode.methods.set(0, replacement);
+        assertSame(index, ClassMemberIndex.of(classNode));
+        ClassMemberIndex.invalidate(classNode);
+        assertSame(replacement, ASMUtils.getMethod(classNode, "replacement", "()V"));
+        assertNull(ASMUtils.getMethod(classNode, "test", "()V"));
+    }
+
+    @Test
+    @DisplayName("Generate unique method names")
+    public void uniqueMethodNames() {
+        ClassNode classNode = new ClassNode();
+        classNode.methods.add(new MethodNode(Opcodes.ACC_PUBLIC, "inject0", "()V", null, null));
+        classNode.methods.add(new MethodNode(Opcodes.ACC_PUBLIC, "inject1", "()I", null, null));
+        ClassMemberIndex index = ClassMemberIndex.of(classNode);
+
+        assertEquals("inject2", index.getUniqueMethodName("inject", null));
+        assertEquals("inject1", index.getUniqueMethodName("inject", "()V"));
+        index.addMethod(new MethodNode(Opcodes.ACC_PUBLIC, "inject2", "()V", null, null));
+        assertEquals("inject3", index.getUniqueMethodName("inject", null));
+    }
+
+}
@@ -0,0 +1,42 @@
+package net.lenni0451.classtransform.utils;
+
+import net.lenni0451.classtransform.test.SCalculator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DefinedClassRegistryTest {
+
+    @Test
+    @DisplayName("Keep the bytecode per class loader")
+    public void separateClassLoaders() throws Exception {
+        DefinedClassRegistry registry = new DefinedClassRegistry();
+        String name = SCalculator.class.getName();
+        ClassLoader loader = SCalculator.class.getClassLoader();
+        registry.record(loader, name, new byte[]{1}, new byte[]{2});
+        registry.record(loader, name, new byte[]{3}, new byte[]{4});
+        assertArrayEquals(new byte[]{1}, registry.getUntransformedBytecode(loader, name));
+        assertArrayEquals(new byte[]{4}, registry.getDefinedBytecode(loader, name));
+
+        try (URLClassLoader otherLoader = new URLClassLoader(new URL[0], loader)) {
+            assertNull(registry.getDefinedBytecode(otherLoader, name));
+            registry.update(otherLoader, name, new byte[]{5});
+            assertNull(registry.getDefinedBytecode(otherLoader, name));
+            registry.record(otherLoader, name, new byte[]{6}, new byte[]{7});
+            assertArrayEquals(new byte[]{7}, registry.getDefinedBytecode(otherLoader, name));
+            assertArrayEquals(new byte[]{4}, registry.getDefinedBytecode(loader, name));
+        }
+
+        registry.record(null, name, null, new byte[]{8});
+        assertNull(registry.getUntransformedBytecode(null, name));
+        assertArrayEquals(new byte[]{8}, registry.getDefinedBytecode(null, name));
+        registry.clear();
+        assertNull(registry.getDefinedBytecode(loader, name));
+        assertNull(registry.getDefinedBytecode(null, name));
+    }
+
+}
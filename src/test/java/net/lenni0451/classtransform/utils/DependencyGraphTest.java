@@ -0,0 +1,34 @@
+package net.lenni0451.classtransform.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DependencyGraphTest {
+
+    @Test
+    @DisplayName("Get affected classes")
+    public void affectedClasses() {
+        DependencyGraph graph = new DependencyGraph();
+        graph.setDependencies("A", Collections.singleton("TransformerA"), Collections.emptySet(), Collections.singleton("a/B"));
+        graph.setDependencies("B", Collections.singleton("TransformerB"), Collections.singleton("A"), Collections.emptySet());
+        graph.setDependencies("C", Collections.singleton("TransformerB"), Collections.singleton("B"), Collections.emptySet());
+        graph.setDependencies("D", Collections.singleton("TransformerD"), Collections.emptySet(), Collections.emptySet());
+
+        assertEquals(new HashSet<>(Arrays.asList("A", "B", "C")), graph.getAffectedClasses(DependencyGraph.DependencyType.TRANSFORMER, "TransformerA"));
+        assertEquals(new HashSet<>(Arrays.asList("B", "C")), graph.getAffectedClasses(DependencyGraph.DependencyType.TRANSFORMER, "TransformerB"));
+        assertEquals(new HashSet<>(Arrays.asList("A", "B", "C")), graph.getAffectedClasses(DependencyGraph.DependencyType.MAPPING, "a/B"));
+        assertEquals(Collections.singleton("C"), graph.getAffectedClasses(DependencyGraph.DependencyType.SUPER_TYPE, "B"));
+        assertTrue(graph.getAffectedClasses(DependencyGraph.DependencyType.TRANSFORMER, "Unknown").isEmpty());
+
+        graph.remove("B");
+        assertEquals(Collections.singleton("A"), graph.getAffectedClasses(DependencyGraph.DependencyType.TRANSFORMER, "TransformerA"));
+    }
+
+}
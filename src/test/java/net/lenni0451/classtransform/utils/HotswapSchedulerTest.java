@@ -0,0 +1,51 @@
+package net.lenni0451.classtransform.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotswapSchedulerTest {
+
+    @Test
+    @DisplayName("Coalesce transformer updates")
+    public void coalesceUpdates() throws InterruptedException {
+        List<Set<String>> redefinitions = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch latch = new CountDownLatch(1);
+        HotswapScheduler scheduler = new HotswapScheduler(classNames -> {
+            redefinitions.add(classNames);
+            latch.countDown();
+        }, 50);
+        scheduler.schedule("TransformerA", new HashSet<>(Arrays.asList("a", "shared")));
+        scheduler.schedule("TransformerB", new HashSet<>(Arrays.asList("b", "shared")));
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(1, redefinitions.size());
+        assertEquals(new HashSet<>(Arrays.asList("a", "b", "shared")), redefinitions.get(0));
+    }
+
+    @Test
+    @DisplayName("Redefine separately after failure")
+    public void redefineSeparately() throws InterruptedException {
+        List<Set<String>> redefinitions = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch latch = new CountDownLatch(3);
+        HotswapScheduler scheduler = new HotswapScheduler(classNames -> {
+            redefinitions.add(classNames);
+            latch.countDown();
+            if (classNames.contains("b")) throw new IllegalStateException("Invalid class");
+        }, 50);
+        scheduler.schedule("TransformerA", Collections.singleton("a"));
+        scheduler.schedule("TransformerB", Collections.singleton("b"));
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(3, redefinitions.size());
+        assertEquals(Collections.singleton("a"), redefinitions.get(1));
+        assertEquals(Collections.singleton("b"), redefinitions.get(2));
+    }
+
+}
@@ -0,0 +1,47 @@
+package net.lenni0451.classtransform.utils;
+
+import net.lenni0451.classtransform.test.SCalculator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadedClassRegistryTest {
+
+    @Test
+    @DisplayName("Resolve defined classes")
+    public void resolveDefinedClasses() {
+        LoadedClassRegistry registry = new LoadedClassRegistry();
+        String name = SCalculator.class.getName();
+        assertNull(registry.getClasses(name));
+
+        registry.track(name, Collections.emptyList());
+        registry.record(SCalculator.class.getClassLoader(), name, null);
+        List<Class<?>> classes = registry.getClasses(name);
+        assertNotNull(classes);
+        assertEquals(Collections.singletonList(SCalculator.class), classes);
+    }
+
+    @Test
+    @DisplayName("Stop tracking delegated lookups")
+    public void stopTrackingDelegatedLookups() throws Exception {
+        LoadedClassRegistry registry = new LoadedClassRegistry();
+        String name = SCalculator.class.getName();
+        registry.track(name, Collections.emptyList());
+        try (URLClassLoader loader = new URLClassLoader(new URL[0], SCalculator.class.getClassLoader())) {
+            //The loader delegates to its parent, so the class it defined can not be found
+            registry.record(loader, name, null);
+            assertNull(registry.getClasses(name));
+            assertFalse(registry.isTracked(name));
+        }
+
+        registry.track(name, Collections.singletonList(SCalculator.class));
+        assertEquals(Collections.singletonList(SCalculator.class), registry.getClasses(name));
+    }
+
+}
@@ -0,0 +1,53 @@
+package net.lenni0451.classtransform.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemberSelectorTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "get*, getName, true",
+            "get*, setName, false",
+            "*Name, getName, true",
+            "*et*am*, getName, true",
+            "g*t*e, getName, true",
+            "g*t*e, gtx, false",
+            "a*a, a, false",
+            "***, anything, true",
+            "getName, getName, true",
+            "getName, getNames, false"
+    })
+    @DisplayName("Match names")
+    public void matchNames(final String combi, final String name, final boolean matches) {
+        assertEquals(matches, MemberSelector.method(combi).matchesName(name));
+    }
+
+    @Test
+    @DisplayName("Select methods")
+    public void selectMethods() {
+        ClassNode classNode = new ClassNode();
+        classNode.name = "Test";
+        classNode.methods.add(new MethodNode(Opcodes.ACC_PUBLIC, "getName", "()Ljava/lang/String;", null, null));
+        classNode.methods.add(new MethodNode(Opcodes.ACC_PUBLIC | Opcodes.ACC_SYNTHETIC, "getName", "()Ljava/lang/Object;", null, null));
+        classNode.methods.add(new MethodNode(Opcodes.ACC_PUBLIC, "getId", "()I", null, null));
+
+        List<MethodNode> methods = MemberSelector.method("get*").getMethods(classNode);
+        assertEquals(2, methods.size());
+        assertEquals("getName", methods.get(0).name);
+        assertEquals("getId", methods.get(1).name);
+        assertEquals(1, MemberSelector.method("getName()Ljava/lang/Object;").getMethods(classNode).size());
+        assertEquals(1, MemberSelector.methodDeclaration("LTest;getId()I").getMethods(classNode).size());
+        assertTrue(MemberSelector.methodDeclaration("LOther;getId()I").getMethods(classNode).isEmpty());
+    }
+
+}
@@ -0,0 +1,58 @@
+package net.lenni0451.classtransform.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransformerDiffTest {
+
+    @Test
+    @DisplayName("Ignore debug information")
+    public void ignoreDebugInfo() {
+        ClassNode oldTransformer = this.createTransformer(10, Opcodes.ICONST_1);
+        ClassNode newTransformer = this.createTransformer(20, Opcodes.ICONST_1);
+        newTransformer.sourceFile = "Other.java";
+
+        TransformerDiff diff = TransformerDiff.compare(oldTransformer, newTransformer);
+        assertTrue(diff.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Detect changed methods")
+    public void changedMethods() {
+        ClassNode oldTransformer = this.createTransformer(10, Opcodes.ICONST_1);
+        ClassNode newTransformer = this.createTransformer(10, Opcodes.ICONST_2);
+        newTransformer.methods.add(new MethodNode(Opcodes.ACC_PUBLIC | Opcodes.ACC_ABSTRACT, "added", "()V", null, null));
+
+        TransformerDiff diff = TransformerDiff.compare(oldTransformer, newTransformer);
+        assertFalse(diff.isEmpty());
+        assertFalse(diff.isClassChanged());
+        assertEquals(2, diff.getChangedMethods().size());
+        assertTrue(diff.getChangedMethods().contains("test()I"));
+        assertTrue(diff.getChangedMethods().contains("added()V"));
+
+        newTransformer.interfaces.add("java/lang/Runnable");
+        assertTrue(TransformerDiff.compare(oldTransformer, newTransformer).isClassChanged());
+    }
+
+    private ClassNode createTransformer(final int line, final int constant) {
+        ClassNode classNode = new ClassNode();
+        classNode.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, "Transformer", null, "java/lang/Object", null);
+        classNode.sourceFile = "Transformer.java";
+
+        MethodNode method = new MethodNode(Opcodes.ACC_PUBLIC, "test", "()I", null, null);
+        LabelNode label = new LabelNode();
+        method.instructions.add(label);
+        method.instructions.add(new LineNumberNode(line, label));
+        method.instructions.add(new InsnNode(constant));
+        method.instructions.add(new InsnNode(Opcodes.IRETURN));
+        method.maxStack = 1;
+        method.maxLocals = 1;
+        classNode.methods.add(method);
+        return classNode;
+    }
+
+}
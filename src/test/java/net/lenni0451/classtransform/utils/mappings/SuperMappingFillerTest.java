@@ -0,0 +1,101 @@
+package net.lenni0451.classtransform.utils.mappings;
+
+import net.lenni0451.classtransform.utils.tree.BasicClassProvider;
+import net.lenni0451.classtransform.utils.tree.ClassTree;
+import net.lenni0451.classtransform.utils.tree.IClassProvider;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuperMappingFillerTest {
+
+    private static final String BASE = Base.class.getName().replace('.', '/');
+    private static final String CHILD = Child.class.getName().replace('.', '/');
+    private static final String GRAND_CHILD = GrandChild.class.getName().replace('.', '/');
+
+    @Test
+    @DisplayName("Fill all super members in parallel")
+    public void fillParallel() {
+        MapRemapper serial = createMappings();
+        MapRemapper parallel = createMappings();
+        SuperMappingFiller.fillAllSuperMembers(serial, new ClassTree(), new BasicClassProvider());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            SuperMappingFiller.fillAllSuperMembers(parallel, new ClassTree(), new BasicClassProvider(), pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals("method", parallel.map("named/Child.namedMethod()V"));
+        assertEquals("field", parallel.map("named/GrandChild.namedField:I"));
+        assertEquals(serial.getMappings(), parallel.getMappings());
+    }
+
+    @Test
+    @DisplayName("Skip already filled classes")
+    public void skipFilledClasses() throws ClassNotFoundException {
+        MapRemapper remapper = createMappings();
+        CountingClassProvider classProvider = new CountingClassProvider();
+        Set<String> filledClasses = new HashSet<>();
+        SuperMappingFiller.fillSuperMembers("named/Child", remapper, new ClassTree(), classProvider, filledClasses);
+        int reads = classProvider.reads.get();
+        assertTrue(reads > 0);
+        assertTrue(filledClasses.contains("named/Child"));
+        assertEquals("method", remapper.map("named/Child.namedMethod()V"));
+
+        Map<String, String> mappings = new HashMap<>(remapper.getMappings());
+        SuperMappingFiller.fillSuperMembers("named/Child", remapper, new ClassTree(), classProvider, filledClasses);
+        assertEquals(reads, classProvider.reads.get());
+        assertEquals(mappings, remapper.getMappings());
+    }
+
+    private static MapRemapper createMappings() {
+        MapRemapper remapper = new MapRemapper();
+        remapper.addClassMapping("named/Base", BASE);
+        remapper.addClassMapping("named/Child", CHILD);
+        remapper.addClassMapping("named/GrandChild", GRAND_CHILD);
+        remapper.addMethodMapping("named/Base", "namedMethod", "()V", "method");
+        remapper.addFieldMapping("named/Base", "namedField", "I", "field");
+        return remapper;
+    }
+
+
+    public static class Base {
+        public int field;
+
+        public void method() {
+        }
+    }
+
+    public static class Child extends Base {
+    }
+
+    public static class GrandChild extends Child {
+    }
+
+    private static class CountingClassProvider implements IClassProvider {
+        private final IClassProvider classProvider = new BasicClassProvider();
+        private final AtomicInteger reads = new AtomicInteger();
+
+        @Override
+        public byte[] getClass(String name) throws ClassNotFoundException {
+            this.reads.incrementAndGet();
+            return this.classProvider.getClass(name);
+        }
+
+        @Override
+        public Map<String, Supplier<byte[]>> getAllClasses() {
+            return this.classProvider.getAllClasses();
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+package net.lenni0451.classtransform.debugger.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.lenni0451.classtransform.InjectionCallback;
+import net.lenni0451.classtransform.TransformerManager;
+import net.lenni0451.classtransform.annotations.CTarget;
+import net.lenni0451.classtransform.annotations.CTransformer;
+import net.lenni0451.classtransform.annotations.injection.CInject;
+import net.lenni0451.classtransform.test.SCalculator;
+import net.lenni0451.classtransform.transformer.impl.CInjectAnnotationHandler;
+import net.lenni0451.classtransform.utils.tree.BasicClassProvider;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransformerEventsTest {
+
+    private static final String TRANSFORM_CLASS = "net.lenni0451.classtransform.TransformClass";
+    private static final String ANNOTATION_HANDLER_PHASE = "net.lenni0451.classtransform.AnnotationHandlerPhase";
+    private static final String CLASS_PROVIDER_READ = "net.lenni0451.classtransform.ClassProviderRead";
+
+    @Test
+    @DisplayName("Emit events while transforming a class")
+    public void emitEvents() throws Throwable {
+        TransformerManager transformerManager = new TransformerManager(new BasicClassProvider());
+        transformerManager.addTransformer(Transformer.class.getName());
+
+        Path file = Files.createTempFile("classtransform", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(TRANSFORM_CLASS).withThreshold(Duration.ZERO);
+            recording.enable(ANNOTATION_HANDLER_PHASE).withThreshold(Duration.ZERO);
+            recording.enable(CLASS_PROVIDER_READ).withThreshold(Duration.ZERO);
+            recording.start();
+            assertTrue(TransformerEvents.isEnabled());
+
+            byte[] bytecode = transformerManager.readClass(SCalculator.class.getName());
+            byte[] transformedBytecode = transformerManager.transform(SCalculator.class.getName(), bytecode);
+            assertNotNull(transformedBytecode);
+
+            recording.stop();
+            recording.dump(file);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+            RecordedEvent transformClass = getEvent(events, TRANSFORM_CLASS);
+            assertEquals(SCalculator.class.getName(), transformClass.getString("className"));
+            assertEquals(bytecode.length, transformClass.getInt("bytesIn"));
+            assertEquals(transformedBytecode.length, transformClass.getInt("bytesOut"));
+
+            //Every annotation handler emits a phase event, even if it does not handle any annotation of the transformer
+            assertTrue(events.stream()
+                    .filter(event -> event.getEventType().getName().equals(ANNOTATION_HANDLER_PHASE))
+                    .filter(event -> SCalculator.class.getName().equals(event.getString("className")))
+                    .anyMatch(event -> CInjectAnnotationHandler.class.getName().equals(event.getString("handler"))));
+
+            RecordedEvent classProviderRead = getEvent(events, CLASS_PROVIDER_READ);
+            assertEquals(BasicClassProvider.class.getName(), classProviderRead.getString("provider"));
+            assertEquals(bytecode.length, classProviderRead.getInt("bytes"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static RecordedEvent getEvent(final List<RecordedEvent> events, final String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .filter(event -> SCalculator.class.getName().equals(event.getString("className")))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No " + name + " event for " + SCalculator.class.getName()));
+    }
+
+
+    @CTransformer(SCalculator.class)
+    private static class Transformer {
+        @CInject(method = "add", target = @CTarget("HEAD"))
+        public static void inject(final InjectionCallback callback) {
+        }
+    }
+
+}